@@ -65,7 +65,7 @@ public class CELOEWrapper extends AbstractAxiomLearningAlgorithm<OWLClassAxiom,
 	private int maxNrOfPosExamples = 10;
 	private int maxNrOfNegExamples = 20;
 	
-	private static final ParameterizedSparqlString SAMPLE_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString sampleQuery = new ParameterizedSparqlString(
 			"CONSTRUCT {?s a ?entity . ?s a ?cls . ?cls a <http://www.w3.org/2002/07/owl#Class> .} "
 			+ "WHERE {?s a ?entity . OPTIONAL {?s a ?cls . ?cls a <http://www.w3.org/2002/07/owl#Class> . FILTER(!sameTerm(?cls, ?entity))}}");
 	
@@ -191,7 +191,7 @@ public class CELOEWrapper extends AbstractAxiomLearningAlgorithm<OWLClassAxiom,
 	 */
 	@Override
 	protected ParameterizedSparqlString getSampleQuery() {
-		return SAMPLE_QUERY;
+		return sampleQuery;
 	}
 	
 	public static void main(String[] args) throws Exception{
@@ -48,16 +48,16 @@ import java.util.stream.Collectors;
 public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDisjointClassesAxiom, OWLIndividual, OWLClass>
 		implements ClassExpressionLearningAlgorithm {
 	
-	protected static final ParameterizedSparqlString CLASS_OVERLAP_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString classOverlapQuery = new ParameterizedSparqlString(
 			"SELECT ?cls_other (COUNT(?s) AS ?overlap) WHERE {"
 			+ "?s a ?cls, ?cls_other . "
 			+ "?cls_other a <http://www.w3.org/2002/07/owl#Class> . FILTER(?cls != ?cls_other)}"
 			+ " GROUP BY ?cls_other");
 
-	protected static final ParameterizedSparqlString GIVEN_CLASS_OVERLAP_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString givenClassOverlapQuery = new ParameterizedSparqlString(
 					"SELECT (COUNT(?s) AS ?overlap) WHERE {?s a ?cls, ?cls_other . }");
 	
-	private static final ParameterizedSparqlString SAMPLE_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString sampleQuery = new ParameterizedSparqlString(
 			"CONSTRUCT{?s a ?entity . ?s a ?cls1 .} WHERE {?s a ?entity . OPTIONAL {?s a ?cls1 .} }");
 
 	private List<EvaluatedDescription<? extends Score>> currentlyBestEvaluatedDescriptions;
@@ -95,8 +95,8 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 		negExamplesQueryTemplate.setIri("cls", entityToDescribe.toStringID());
 		existingAxiomsTemplate.setIri("cls", entityToDescribe.toStringID());
 		
-		CLASS_OVERLAP_QUERY.setIri("cls", entityToDescribe.toStringID());
-		GIVEN_CLASS_OVERLAP_QUERY.setIri("cls", entityToDescribe.toStringID());
+		classOverlapQuery.setIri("cls", entityToDescribe.toStringID());
+		givenClassOverlapQuery.setIri("cls", entityToDescribe.toStringID());
 	}
 	
 	/*
@@ -129,8 +129,8 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 			}
 			
 			// get the number of overlapping instances, i.e. instances asserted to both classes
-			GIVEN_CLASS_OVERLAP_QUERY.setIri("cls_other", cls.toStringID());
-			ResultSet rs = executeSelectQuery(GIVEN_CLASS_OVERLAP_QUERY.toString());
+			givenClassOverlapQuery.setIri("cls_other", cls.toStringID());
+			ResultSet rs = executeSelectQuery(givenClassOverlapQuery.toString());
 			int overlap = rs.next().getLiteral("overlap").getInt();
 			
 			// compute the score
@@ -153,7 +153,7 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 	 */
 	protected void runBatched() {
 		
-		ResultSet rs = executeSelectQuery(CLASS_OVERLAP_QUERY.toString());
+		ResultSet rs = executeSelectQuery(classOverlapQuery.toString());
 		ResultSetRewindable rsrw = ResultSetFactory.copyResults(rs);
 	    int size = rsrw.size();
 	    rs = rsrw;
@@ -246,7 +246,7 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 	 */
 	@Override
 	protected ParameterizedSparqlString getSampleQuery() {
-		return SAMPLE_QUERY;
+		return sampleQuery;
 	}
 
 	/*
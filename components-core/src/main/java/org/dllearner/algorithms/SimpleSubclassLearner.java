@@ -50,17 +50,17 @@ import java.util.stream.Collectors;
 public class SimpleSubclassLearner extends AbstractAxiomLearningAlgorithm<OWLSubClassOfAxiom, OWLClassAssertionAxiom, OWLClass>
 		implements ClassExpressionLearningAlgorithm {
 
-	private static final ParameterizedSparqlString SAMPLE_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString sampleQuery = new ParameterizedSparqlString(
 			"CONSTRUCT{?s a ?entity . ?s a ?cls1 .} WHERE {?s a ?entity . OPTIONAL {?s a ?cls1 . }}");
 
-	private static final ParameterizedSparqlString CLASS_OVERLAP_BATCH_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString classOverlapBatchQuery = new ParameterizedSparqlString(
 			"SELECT ?cls_other (COUNT(DISTINCT ?s) AS ?cnt) WHERE {" +
 					"?s a ?cls . ?s a ?cls_other . " +
 					"FILTER(?cls_other != ?cls) " +
 					"FILTER(?cls_other != <http://www.w3.org/2002/07/owl#NamedIndividual>) " +
 					"} GROUP BY ?cls_other");
 
-	private static final ParameterizedSparqlString CLASS_OVERLAP_BATCH_QUERY_STRICT_OWL = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString classOverlapBatchQueryStrictOWL = new ParameterizedSparqlString(
 			"SELECT ?cls_other (COUNT(DISTINCT ?s) AS ?cnt) WHERE {" +
 					"?s a ?cls . ?s a ?cls_other . " +
 					"?cls_other a <http://www.w3.org/2002/07/owl#Class> . " +
@@ -68,7 +68,7 @@ public class SimpleSubclassLearner extends AbstractAxiomLearningAlgorithm<OWLSub
 					"FILTER(?cls_other != <http://www.w3.org/2002/07/owl#NamedIndividual>) " +
 					"} GROUP BY ?cls_other");
 
-	private static final ParameterizedSparqlString CLASS_OVERLAP_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString classOverlapQuery = new ParameterizedSparqlString(
 			"SELECT (COUNT(DISTINCT ?s) AS ?cnt) WHERE {" +
 					"?s a ?cls . ?s a ?cls_other . }");
 
@@ -140,7 +140,7 @@ public class SimpleSubclassLearner extends AbstractAxiomLearningAlgorithm<OWLSub
 	 */
 	@Override
 	protected ParameterizedSparqlString getSampleQuery() {
-		return SAMPLE_QUERY;
+		return sampleQuery;
 	}
 
 	/*
@@ -181,7 +181,7 @@ public class SimpleSubclassLearner extends AbstractAxiomLearningAlgorithm<OWLSub
 	}
 
 	private void runIterative() {
-		CLASS_OVERLAP_QUERY.setIri("cls", entityToDescribe.toStringID());
+		classOverlapQuery.setIri("cls", entityToDescribe.toStringID());
 
 		// get the candidates
 		SortedSet<OWLClass> candidates = getCandidates();
@@ -200,9 +200,9 @@ public class SimpleSubclassLearner extends AbstractAxiomLearningAlgorithm<OWLSub
 			}
 
 			// get the number of instances that belong to both classes
-			CLASS_OVERLAP_QUERY.setIri("cls_other", cls.toStringID());
+			classOverlapQuery.setIri("cls_other", cls.toStringID());
 
-			ResultSet rs = executeSelectQuery(CLASS_OVERLAP_QUERY.toString());
+			ResultSet rs = executeSelectQuery(classOverlapQuery.toString());
 			int overlap = rs.next().getLiteral("cnt").getInt();
 
 			// compute the score
@@ -227,7 +227,7 @@ public class SimpleSubclassLearner extends AbstractAxiomLearningAlgorithm<OWLSub
 	}
 
 	private void runBatched() {
-		ParameterizedSparqlString template = strictOWLMode ? CLASS_OVERLAP_BATCH_QUERY_STRICT_OWL : CLASS_OVERLAP_BATCH_QUERY;
+		ParameterizedSparqlString template = strictOWLMode ? classOverlapBatchQueryStrictOWL : classOverlapBatchQuery;
 
 		template.setIri("cls", entityToDescribe.toStringID());
 
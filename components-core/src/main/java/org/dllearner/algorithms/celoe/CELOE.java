@@ -29,7 +29,9 @@ import org.dllearner.core.owl.ObjectPropertyHierarchy;
 import org.dllearner.kb.OWLAPIOntology;
 import org.dllearner.learningproblems.ClassAsInstanceLearningProblem;
 import org.dllearner.learningproblems.ClassLearningProblem;
+import org.dllearner.learningproblems.ExampleCoverage;
 import org.dllearner.learningproblems.PosNegLP;
+import org.dllearner.learningproblems.PosNegLPStandard;
 import org.dllearner.learningproblems.PosOnlyLP;
 import org.dllearner.reasoning.ClosedWorldReasoner;
 import org.dllearner.reasoning.OWLAPIReasoner;
@@ -51,6 +53,10 @@ import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -181,8 +187,26 @@ public class CELOE extends AbstractCELA implements Cloneable{
 
 	// option to keep track of best score during algorithm run
 	private boolean keepTrackOfBestScore = false;
+
+	@ConfigOption(defaultValue = "1", description = "number of threads used to evaluate the refinements of a node " +
+			"concurrently; the search itself stays sequential, thus, the result is the same as for a single thread")
+	private int nrOfEvaluationThreads = 1;
+	private ExecutorService evaluationPool;
+	// stats of the concurrent evaluation
+	private long evaluationTimeNs = 0;
+	private int evaluatedInParallel = 0;
 	private SortedMap<Long, Double> runtimeVsBestScore = new TreeMap<>();
 
+	@ConfigOption(defaultValue = "false", description = "whether to store the covered examples in each node, such that a " +
+			"refinement is only checked against the examples covered by its parent (requires a PosNegLPStandard learning " +
+			"problem and a downward refinement operator; needs two bits per example and node)")
+	private boolean useIncrementalCoverage = false;
+
+	@ConfigOption(defaultValue = "1", description = "max. number of refinements of a node which are evaluated at once by " +
+			"the learning problem, e.g. with a single query when using a SPARQL reasoner with value lists; " +
+			"it is ignored if the refinements are evaluated concurrently")
+	private int evaluationBatchSize = 1;
+
 	
 	public CELOE() {}
 	
@@ -228,6 +252,10 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		
 		setWriteSearchTree(celoe.writeSearchTree);
 		setReplaceSearchTree(celoe.replaceSearchTree);
+
+		setNrOfEvaluationThreads(celoe.nrOfEvaluationThreads);
+		setUseIncrementalCoverage(celoe.useIncrementalCoverage);
+		setEvaluationBatchSize(celoe.evaluationBatchSize);
 	}
 	
 	public CELOE(AbstractClassExpressionLearningProblem problem, AbstractReasonerComponent reasoner) {
@@ -313,6 +341,21 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		
 		if (!((AbstractRefinementOperator) operator).isInitialized())
 			operator.init();
+
+		// the learning problem is evaluated concurrently
+		if (nrOfEvaluationThreads > 1) {
+			reasoner.setSynchronized();
+		}
+
+		if (useIncrementalCoverage && !(learningProblem instanceof PosNegLPStandard)) {
+			logger.warn("Incremental coverage is only supported for " + PosNegLPStandard.class.getSimpleName() + ", it will be disabled.");
+			useIncrementalCoverage = false;
+		}
+		// the covered examples of a node are only an upper bound for its refinements if the operator specialises
+		if (useIncrementalCoverage && !(operator instanceof RhoDRDown)) {
+			logger.warn("Incremental coverage is only supported for downward refinement operators like " + RhoDRDown.class.getSimpleName() + ", it will be disabled.");
+			useIncrementalCoverage = false;
+		}
 		
 		initialized = true;
 	}
@@ -327,6 +370,11 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		currentHighestAccuracy = 0.0;
 		OENode nextNode;
 
+		if(nrOfEvaluationThreads > 1) {
+			logger.info("evaluating refinements with " + nrOfEvaluationThreads + " threads");
+			evaluationPool = Executors.newFixedThreadPool(nrOfEvaluationThreads);
+		}
+
 		logger.info("start class:" + startClass);
 		addNode(startClass, null);
 		
@@ -339,7 +387,11 @@ public class CELOE extends AbstractCELA implements Cloneable{
 			
 			// apply refinement operator
 			TreeSet<OWLClassExpression> refinements = refineNode(nextNode);
-				
+
+			if(evaluationPool != null || evaluationBatchSize > 1) {
+				addNodesInBatches(refinements, nextNode, horizExp);
+			}
+
 			while(!refinements.isEmpty() && !terminationCriteriaSatisfied()) {
 				// pick element from set
 				OWLClassExpression refinement = refinements.pollFirst();
@@ -370,6 +422,11 @@ public class CELOE extends AbstractCELA implements Cloneable{
 			bestEvaluatedDescriptions.add(bestDescription, bestAccuracy, learningProblem);
 		}
 		
+		if(evaluationPool != null) {
+			evaluationPool.shutdownNow();
+			evaluationPool = null;
+		}
+
 		// print some stats
 		printAlgorithmRunStats();
 		
@@ -507,15 +564,124 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		return refinements;
 	}
 	
+	/**
+	 * Add the refinements of a node to the search tree, but evaluate them
+	 * in batches, either concurrently or, if the learning problem supports it,
+	 * all candidates of a batch at once. The redundancy and sanity checks are
+	 * done sequentially in the order of the refinements, then all candidates
+	 * of the batch are evaluated, and finally the nodes are added to the search
+	 * tree again in the order of the refinements, until a termination criterion
+	 * is satisfied. Thus, the result is the same as for the sequential run.
+	 */
+	private void addNodesInBatches(TreeSet<OWLClassExpression> refinements, OENode parentNode, int horizExp) {
+		while(!refinements.isEmpty() && !terminationCriteriaSatisfied()) {
+			// the batch must not contain more candidates than we are allowed to test
+			int maxBatchSize = getRemainingClassExpressionTests();
+			if(evaluationPool == null) {
+				maxBatchSize = Math.min(maxBatchSize, evaluationBatchSize);
+			}
+
+			List<OWLClassExpression> batch = new ArrayList<>();
+			while(!refinements.isEmpty() && batch.size() < maxBatchSize) {
+				OWLClassExpression refinement = refinements.pollFirst();
+
+				// we ignore all refinements with lower length and too high depth
+				// (this also avoids duplicate node children)
+				if(OWLClassExpressionUtils.getLength(refinement) >= horizExp
+						&& OWLClassExpressionUtils.getDepth(refinement) <= maxDepth
+						&& isNewAndAllowed(refinement, parentNode)) {
+					batch.add(refinement);
+				}
+			}
+
+			if(evaluationPool != null) {
+				evaluateConcurrently(batch, parentNode);
+			} else {
+				evaluateAtOnce(batch, parentNode);
+			}
+		}
+	}
+
+	private void evaluateConcurrently(List<OWLClassExpression> batch, OENode parentNode) {
+		long startTime = System.nanoTime();
+		List<Future<ExampleCoverage>> futures = new ArrayList<>(batch.size());
+		for (OWLClassExpression description : batch) {
+			futures.add(evaluationPool.submit(() -> evaluate(description, parentNode)));
+		}
+		try {
+			// as in the sequential run, no node is added once a termination criterion is satisfied,
+			// the evaluation of the remaining candidates is cancelled
+			for (int i = 0; i < batch.size() && !terminationCriteriaSatisfied(); i++) {
+				addEvaluatedNode(batch.get(i), parentNode, futures.get(i).get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stop = true;
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Evaluation of class expression failed.", e.getCause());
+		} finally {
+			futures.forEach(f -> f.cancel(true));
+		}
+		evaluationTimeNs += System.nanoTime() - startTime;
+		evaluatedInParallel += batch.size();
+	}
+
+	private void evaluateAtOnce(List<OWLClassExpression> batch, OENode parentNode) {
+		// the covered examples are only computed for a single class expression
+		if(useIncrementalCoverage) {
+			evaluateOneByOne(batch, parentNode);
+			return;
+		}
+		Monitor mon = MonitorFactory.start("lp");
+		double[] accuracies = learningProblem.getAccuraciesOrTooWeak(batch, noise);
+		mon.stop();
+		// the coverage could not be computed at once
+		if(accuracies == null) {
+			evaluateOneByOne(batch, parentNode);
+			return;
+		}
+		for (int i = 0; i < batch.size() && !terminationCriteriaSatisfied(); i++) {
+			addEvaluatedNode(batch.get(i), parentNode, new ExampleCoverage(accuracies[i]));
+		}
+	}
+
+	private void evaluateOneByOne(List<OWLClassExpression> batch, OENode parentNode) {
+		for (int i = 0; i < batch.size() && !terminationCriteriaSatisfied(); i++) {
+			addEvaluatedNode(batch.get(i), parentNode, evaluate(batch.get(i), parentNode));
+		}
+	}
+
+	// the number of class expression tests left until a termination criterion is satisfied
+	private int getRemainingClassExpressionTests() {
+		int remaining = Integer.MAX_VALUE;
+		if(maxClassExpressionTests != 0) {
+			remaining = Math.min(remaining, maxClassExpressionTests - expressionTests);
+		}
+		if(maxClassExpressionTestsAfterImprovement != 0) {
+			remaining = Math.min(remaining, expressionTestCountLastImprovement + maxClassExpressionTestsAfterImprovement - expressionTests);
+		}
+		return Math.max(remaining, 1);
+	}
+
 	/**
 	 * Add node to search tree if it is not too weak.
 	 * @return TRUE if node was added and FALSE otherwise
 	 */
 	private boolean addNode(OWLClassExpression description, OENode parentNode) {
+		if(!isNewAndAllowed(description, parentNode)) {
+			return false;
+		}
+		return addEvaluatedNode(description, parentNode, evaluate(description, parentNode));
+	}
+
+	/**
+	 * Redundancy and sanity checks of a class expression before its evaluation.
+	 * @return TRUE if the class expression was not seen before and is allowed
+	 */
+	private boolean isNewAndAllowed(OWLClassExpression description, OENode parentNode) {
 		String sparql_debug_out = "";
 		if (logger.isTraceEnabled()) sparql_debug_out = "DESC: " + description;
-		MonitorFactory.getTimeMonitor("addNode").start();
-		
+
 		// redundancy check (return if redundant)
 		boolean nonRedundant = descriptions.add(description);
 		if(!nonRedundant) {
@@ -528,14 +694,38 @@ public class CELOE extends AbstractCELA implements Cloneable{
 			logger.trace(sparql_debug, sparql_debug_out + "NOT ALLOWED");
 			return false;
 		}
-		
-		// quality of class expression (return if too weak)
+		return true;
+	}
+
+	/**
+	 * Quality of the class expression. This method can be called concurrently.
+	 * @return the accuracy (or -1 if the class expression is too weak) and, if
+	 * incremental coverage is used, the covered examples
+	 */
+	private ExampleCoverage evaluate(OWLClassExpression description, OENode parentNode) {
 		Monitor mon = MonitorFactory.start("lp");
-		logger.trace(sparql_debug, sparql_debug_out);
-		double accuracy = learningProblem.getAccuracyOrTooWeak(description, noise);
-		logger.trace(sparql_debug, "`acc:"+accuracy);
+		logger.trace(sparql_debug, "DESC: " + description);
+		ExampleCoverage coverage;
+		if (useIncrementalCoverage) {
+			// a downward refinement can't cover any example not covered by its parent
+			ExampleCoverage parentCoverage = parentNode == null ? null : parentNode.getCoverage();
+			coverage = ((PosNegLPStandard) learningProblem).getCoverageOrTooWeak(description, parentCoverage, noise);
+		} else {
+			coverage = new ExampleCoverage(learningProblem.getAccuracyOrTooWeak(description, noise));
+		}
+		logger.trace(sparql_debug, "`acc:"+coverage.getAccuracy());
 		mon.stop();
-		
+		return coverage;
+	}
+
+	/**
+	 * Add an already evaluated class expression to the search tree if it is not too weak.
+	 * @return TRUE if node was added and FALSE otherwise
+	 */
+	private boolean addEvaluatedNode(OWLClassExpression description, OENode parentNode, ExampleCoverage coverage) {
+		MonitorFactory.getTimeMonitor("addNode").start();
+		double accuracy = coverage.getAccuracy();
+
 		// issue a warning if accuracy is not between 0 and 1 or -1 (too weak)
 		if(accuracy > 1.0 || (accuracy < 0.0 && accuracy != -1)) {
 			throw new RuntimeException("Invalid accuracy value " + accuracy + " for class expression " + description +
@@ -550,6 +740,9 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		}
 		
 		OENode node = new OENode(description, accuracy);
+		if (coverage.hasCoveredExamples()) {
+			node.setCoverage(coverage);
+		}
 		searchTree.addNode(parentNode, node);
 		
 		// in some cases (e.g. mutation) fully evaluating even a single class expression is too expensive
@@ -760,6 +953,9 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		descriptions = new TreeSet<>();
 		bestEvaluatedDescriptions.getSet().clear();
 		expressionTests = 0;
+		evaluatedInParallel = 0;
+		evaluationTimeNs = 0;
+		totalRuntimeNs = 0;
 		runtimeVsBestScore.clear();
 	}
 	
@@ -771,6 +967,13 @@ public class CELOE extends AbstractCELA implements Cloneable{
 			logger.info("Algorithm terminated successfully (time: " + Helper.prettyPrintNanoSeconds(totalRuntimeNs) + ", "+expressionTests+" descriptions tested, "  + searchTree.size() + " nodes in the search tree).\n");
             logger.info(reasoner.toString());
 		}
+		if(totalRuntimeNs > 0) {
+			logger.info(String.format("expression tests per second: %.1f", expressionTests / (totalRuntimeNs / 1e9)));
+		}
+		if(evaluationTimeNs > 0) {
+			logger.info(String.format("expression tests per second during concurrent evaluation (%d threads): %.1f",
+					nrOfEvaluationThreads, evaluatedInParallel / (evaluationTimeNs / 1e9)));
+		}
 	}
 	
 	private void showIfBetterSolutionsFound() {
@@ -890,6 +1093,21 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		return expressionTests;
 	}
 
+	/**
+	 * @return the number of nodes in the search tree, or 0 if the algorithm has not been started yet
+	 */
+	public int getSearchTreeSize() {
+		SearchTree<OENode> tree = searchTree;
+		return tree == null ? 0 : tree.size();
+	}
+
+	/**
+	 * @return the search tree of the last run, or <code>null</code> if the algorithm has not been started yet
+	 */
+	public SearchTree<OENode> getSearchTree() {
+		return searchTree;
+	}
+
 	public LengthLimitedRefinementOperator getOperator() {
 		return operator;
 	}
@@ -1030,6 +1248,34 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		this.stopOnFirstDefinition = stopOnFirstDefinition;
 	}
 
+	public int getNrOfEvaluationThreads() {
+		return nrOfEvaluationThreads;
+	}
+
+	public void setNrOfEvaluationThreads(int nrOfEvaluationThreads) {
+		this.nrOfEvaluationThreads = nrOfEvaluationThreads;
+	}
+
+	public boolean isUseIncrementalCoverage() {
+		return useIncrementalCoverage;
+	}
+
+	/**
+	 * @param useIncrementalCoverage whether to store the covered examples in each node, such that a
+	 * refinement is only checked against the examples covered by its parent
+	 */
+	public void setUseIncrementalCoverage(boolean useIncrementalCoverage) {
+		this.useIncrementalCoverage = useIncrementalCoverage;
+	}
+
+	public int getEvaluationBatchSize() {
+		return evaluationBatchSize;
+	}
+
+	public void setEvaluationBatchSize(int evaluationBatchSize) {
+		this.evaluationBatchSize = evaluationBatchSize;
+	}
+
 	public long getTotalRuntimeNs() {
 		return totalRuntimeNs;
 	}
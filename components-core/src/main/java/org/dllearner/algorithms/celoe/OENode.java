@@ -19,6 +19,7 @@
 package org.dllearner.algorithms.celoe;
 
 import org.dllearner.core.AbstractSearchTreeNode;
+import org.dllearner.learningproblems.ExampleCoverage;
 import org.dllearner.utilities.datastructures.SearchTreeNode;
 import org.dllearner.utilities.owl.OWLAPIRenderers;
 import org.dllearner.utilities.owl.OWLClassExpressionUtils;
@@ -31,8 +32,8 @@ import java.util.Map;
  * A node in the search tree of the ontology engineering algorithm.
  * 
  * Differences to the node structures in other algorithms (this may change):
- * - covered examples are not stored in node (i.e. coverage needs to be recomputed
- * for child nodes, which costs time but saves memory)
+ * - covered examples are only stored in node if incremental coverage is enabled
+ * (otherwise coverage needs to be recomputed for child nodes, which costs time but saves memory)
  * - only evaluated nodes are stored
  * - too weak nodes are not stored
  * - redundant nodes are not stored (?)
@@ -54,6 +55,9 @@ public class OENode extends AbstractSearchTreeNode<OENode> implements SearchTree
 	// OWLClassExpression in this node - it is a better heuristic indicator than child count
 	// (and avoids the problem that adding children changes the heuristic value)
 	private int refinementCount = 0;
+
+	// the examples covered by the OWLClassExpression, null if not stored
+	private ExampleCoverage coverage;
 	
 	private static DecimalFormat dfPercent = new DecimalFormat("0.00%");
 	
@@ -135,4 +139,18 @@ public class OENode extends AbstractSearchTreeNode<OENode> implements SearchTree
 	public void setRefinementCount(int refinementCount) {
 		this.refinementCount = refinementCount;
 	}
+
+	/**
+	 * @return the examples covered by the OWLClassExpression or <code>null</code> if not stored
+	 */
+	public ExampleCoverage getCoverage() {
+		return coverage;
+	}
+
+	/**
+	 * @param coverage the examples covered by the OWLClassExpression
+	 */
+	public void setCoverage(ExampleCoverage coverage) {
+		this.coverage = coverage;
+	}
 }
\ No newline at end of file
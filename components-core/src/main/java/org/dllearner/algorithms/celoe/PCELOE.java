@@ -50,14 +50,23 @@ import uk.ac.manchester.cs.owl.owlapi.OWLClassImpl;
 
 import java.io.File;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 /**
  * The PCELOE is an experimental, parallel implementation of the CELOE algorithm.
  *
+ * By default, all workers share a synchronized search tree and a synchronized
+ * refinement operator. If {@link #setUseWorkStealing(boolean) work stealing} is
+ * enabled, the nodes to expand are taken from a concurrent skip list ordered by
+ * the heuristic, the redundancy check is done on a concurrent hash set and each
+ * worker gets its own copy of the refinement operator. The refinements of a node
+ * are evaluated by fork/join tasks, such that idle workers can steal evaluations
+ * from the other workers.
+ *
  * @author Lorenz Buehmann
  *
  */
@@ -81,7 +90,25 @@ public class PCELOE extends AbstractCELA {
 
 	// all descriptions in the search tree plus those which were too weak (for fast redundancy check)
 //	private TreeSet<OWLClassExpression> descriptions;
-	private SortedSet<OWLClassExpression> descriptions;
+	private Set<OWLClassExpression> descriptions;
+
+	// the nodes which can be expanded, only used if work stealing is enabled
+	// (a node is removed while it is processed by a worker, thus its score can't change while it is contained)
+	private NavigableSet<OENode> openNodes;
+	private final AtomicInteger nrOfNodes = new AtomicInteger();
+	// the refinement operator of each worker, only used if work stealing is enabled
+	private List<LengthLimitedRefinementOperator> workerOperators;
+
+	// the max. number of refinements evaluated in a single fork/join task
+	private static final int EVALUATION_SPLIT_THRESHOLD = 16;
+
+	// idle workers wait on this condition until a node can be expanded, only used if work stealing is enabled
+	private final ReentrantLock openNodesLock = new ReentrantLock();
+	private final Condition openNodesAvailable = openNodesLock.newCondition();
+	// modified only while holding the lock
+	private volatile int idleWorkers;
+	// all workers are idle and there is no node left to expand
+	private volatile boolean searchSpaceExhausted;
 
 	// if true, then each solution is evaluated exactly instead of approximately
 	// private boolean exactBestDescriptionEvaluation = false;
@@ -113,7 +140,7 @@ public class PCELOE extends AbstractCELA {
 	private boolean forceMutualDifference = false;
 
 	// statistical variables
-		private int expressionTests = 0;
+		private final AtomicInteger expressionTests = new AtomicInteger();
 		private int minHorizExp = 0;
 		private int maxHorizExp = 0;
 		private long totalRuntimeNs = 0;
@@ -178,6 +205,9 @@ public class PCELOE extends AbstractCELA {
 	@ConfigOption(defaultValue="2", description="number of threads running in parallel")
 	private int nrOfThreads = 2;
 
+	@ConfigOption(defaultValue="false", description="whether to use a lock-free search tree, a refinement operator per thread and a work-stealing pool for the evaluation of the refinements")
+	private boolean useWorkStealing = false;
+
 	private int expressionTestCountLastImprovement;
 	private long timeLastImprovement = 0;
 
@@ -320,8 +350,20 @@ public class PCELOE extends AbstractCELA {
 		}
 
 		reasoner.setSynchronized();
-		operator = new SynchronizedRefinementOperator(operator);
-		
+
+		if (useWorkStealing && operator instanceof RhoDRDown) {
+			// each worker refines with its own operator, thus no synchronization is needed
+			workerOperators = new ArrayList<>();
+			for (int i = 0; i < getNrOfWorkers(); i++) {
+				RhoDRDown op = new RhoDRDown((RhoDRDown) operator);
+				op.init();
+				workerOperators.add(op);
+			}
+		} else {
+			operator = new SynchronizedRefinementOperator(operator);
+			workerOperators = Collections.nCopies(getNrOfWorkers(), operator);
+		}
+
 		initialized = true;
 	}
 
@@ -337,10 +379,38 @@ public class PCELOE extends AbstractCELA {
 
 		addNode(startClass, null);
 
-		int nrOfWorkers = nrOfThreads;
-		if(nrOfWorkers == 0){
-			nrOfWorkers = Runtime.getRuntime().availableProcessors();
+		if (useWorkStealing) {
+			runWorkStealingSearch();
+		} else {
+			runSearch();
+		}
+
+		if (stop) {
+			logger.info("Algorithm stopped ("+expressionTests+" descriptions tested). " + getSearchTreeSize() + " nodes in the search tree.\n");
+		} else {
+			logger.info("Algorithm terminated successfully (time: " + Helper.prettyPrintNanoSeconds(System.nanoTime()-nanoStartTime) + ", "+expressionTests+" descriptions tested, "  + getSearchTreeSize() + " nodes in the search tree).\n");
+            logger.info(reasoner.toString());
+		}
+
+		if(singleSuggestionMode) {
+			bestEvaluatedDescriptions.add(bestDescription, bestAccuracy, learningProblem);
 		}
+
+		// print solution(s)
+		logger.info("solutions:\n" + getSolutionString());
+
+//		System.out.println(startNode.toTreeString(baseURI));
+
+		isRunning = false;
+//		System.out.println("isRunning: " + isRunning);
+	}
+
+	private int getNrOfWorkers() {
+		return nrOfThreads == 0 ? Runtime.getRuntime().availableProcessors() : nrOfThreads;
+	}
+
+	private void runSearch() {
+		int nrOfWorkers = getNrOfWorkers();
 		ExecutorService service = Executors.newFixedThreadPool(nrOfWorkers);
 
 		List<Runnable> tasks = new ArrayList<>();
@@ -391,26 +461,27 @@ public class PCELOE extends AbstractCELA {
 				e.printStackTrace();
 			}
 		}
+		service.shutdown();
+	}
 
-		if (stop) {
-			logger.info("Algorithm stopped ("+expressionTests+" descriptions tested). " + searchTree.size() + " nodes in the search tree.\n");
-		} else {
-			logger.info("Algorithm terminated successfully (time: " + Helper.prettyPrintNanoSeconds(System.nanoTime()-nanoStartTime) + ", "+expressionTests+" descriptions tested, "  + searchTree.size() + " nodes in the search tree).\n");
-            logger.info(reasoner.toString());
-		}
-
-		if(singleSuggestionMode) {
-			bestEvaluatedDescriptions.add(bestDescription, bestAccuracy, learningProblem);
-		}
+	private void runWorkStealingSearch() {
+		ForkJoinPool pool = new ForkJoinPool(workerOperators.size());
 
-		// print solution(s)
-		logger.info("solutions:\n" + getSolutionString());
+		nanoStartTime = System.nanoTime();
 
-//		System.out.println(startNode.toTreeString(baseURI));
+		List<ForkJoinTask<?>> searchers = new ArrayList<>();
+		for (LengthLimitedRefinementOperator op : workerOperators) {
+			searchers.add(pool.submit(new PCELOESearcher(op)));
+		}
+		for (ForkJoinTask<?> searcher : searchers) {
+			try {
+				searcher.get();
+			} catch (InterruptedException | ExecutionException e) {
+				logger.error("Worker failed.", e);
+			}
+		}
 
-		isRunning = false;
-		service.shutdown();
-//		System.out.println("isRunning: " + isRunning);
+		pool.shutdown();
 	}
 
 	/*
@@ -522,6 +593,71 @@ public class PCELOE extends AbstractCELA {
 		return null;//nodes.last();
 	}
 
+	private void addOpenNode(OENode node) {
+		openNodes.add(node);
+		// the volatile read avoids taking the lock as long as all workers are busy
+		if (idleWorkers > 0) {
+			openNodesLock.lock();
+			try {
+				openNodesAvailable.signal();
+			} finally {
+				openNodesLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Blocks the calling worker until a node can be expanded. The worker is parked
+	 * by the fork/join pool, which can meanwhile use another thread to run the
+	 * evaluation tasks of the other workers.
+	 *
+	 * @return FALSE if there is no node left to expand, i.e. all workers are idle
+	 */
+	private boolean awaitOpenNodes() {
+		openNodesLock.lock();
+		try {
+			idleWorkers++;
+			if (idleWorkers == workerOperators.size() && openNodes.isEmpty()) {
+				searchSpaceExhausted = true;
+				openNodesAvailable.signalAll();
+				return false;
+			}
+			ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+				@Override
+				public boolean block() throws InterruptedException {
+					// time-based termination criteria are checked at least every 100ms
+					openNodesAvailable.await(100, TimeUnit.MILLISECONDS);
+					return isReleasable();
+				}
+
+				@Override
+				public boolean isReleasable() {
+					return !openNodes.isEmpty() || searchSpaceExhausted || terminationCriteriaSatisfied();
+				}
+			});
+			return !searchSpaceExhausted;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stop = true;
+			return false;
+		} finally {
+			idleWorkers--;
+			openNodesLock.unlock();
+		}
+	}
+
+	private OENode pollNextNodeToExpand() {
+		// same criteria as in getNextNodeToExpand(), but nodes which can't be expanded
+		// anymore are dropped, as they would never be returned again
+		OENode node;
+		while ((node = openNodes.pollLast()) != null) {
+			if (node.getAccuracy() < 1.0 || node.getHorizontalExpansion() < OWLClassExpressionUtils.getLength(node.getDescription())) {
+				return node;
+			}
+		}
+		return null;
+	}
+
 	// expand node horizontically
 	private TreeSet<OWLClassExpression> refineNode(LengthLimitedRefinementOperator operator, OENode node) {
 		MonitorFactory.getTimeMonitor("refineNode").start();
@@ -569,7 +705,7 @@ public class PCELOE extends AbstractCELA {
 					". This could be caused by a bug in the heuristic measure and should be reported to the DL-Learner bug tracker.");
 		}
 
-		expressionTests++;
+		expressionTests.incrementAndGet();
 
 		// return FALSE if 'too weak'
 		if(accuracy == -1) {
@@ -579,7 +715,17 @@ public class PCELOE extends AbstractCELA {
 		OENode node = new OENode(description, accuracy);
 
 		// link to parent (unless start node)
-		searchTree.addNode(parentNode, node);
+		if (useWorkStealing) {
+			if (parentNode != null) {
+				synchronized (parentNode) {
+					parentNode.addChild(node);
+				}
+			}
+			nrOfNodes.incrementAndGet();
+			addOpenNode(node);
+		} else {
+			searchTree.addNode(parentNode, node);
+		}
 
 		// in some cases (e.g. mutation) fully evaluating even a single class expression is too expensive
 		// due to the high number of examples -- so we just stick to the approximate accuracy
@@ -595,55 +741,57 @@ public class PCELOE extends AbstractCELA {
 		// maybe add to best descriptions (method keeps set size fixed);
 		// we need to make sure that this does not get called more often than
 		// necessary since rewriting is expensive
-		boolean isCandidate = !bestEvaluatedDescriptions.isFull();
-		if(!isCandidate) {
-			EvaluatedDescription worst = bestEvaluatedDescriptions.getWorst();
-			double accThreshold = worst.getAccuracy();
-			isCandidate =
-				(accuracy > accThreshold ||
-				(accuracy >= accThreshold && OWLClassExpressionUtils.getLength(description) < worst.getDescriptionLength()));
-		}
+		synchronized (bestEvaluatedDescriptions) {
+			boolean isCandidate = !bestEvaluatedDescriptions.isFull();
+			if(!isCandidate) {
+				EvaluatedDescription worst = bestEvaluatedDescriptions.getWorst();
+				double accThreshold = worst.getAccuracy();
+				isCandidate =
+					(accuracy > accThreshold ||
+					(accuracy >= accThreshold && OWLClassExpressionUtils.getLength(description) < worst.getDescriptionLength()));
+			}
 
-		if(isCandidate) {
-			OWLClassExpression niceDescription = node.getExpression();//rewrite(node.getExpression());
+			if(isCandidate) {
+				OWLClassExpression niceDescription = node.getExpression();//rewrite(node.getExpression());
 
-			if(niceDescription.equals(classToDescribe)) {
-				return false;
-			}
+				if(niceDescription.equals(classToDescribe)) {
+					return false;
+				}
 
-			if(!isDescriptionAllowed(niceDescription, node)) {
-				return false;
-			}
+				if(!isDescriptionAllowed(niceDescription, node)) {
+					return false;
+				}
 
-			// another test: none of the other suggested descriptions should be
-			// a subdescription of this one unless accuracy is different
-			// => comment: on the one hand, this appears to be too strict, because once A is a solution then everything containing
-			// A is not a candidate; on the other hand this suppresses many meaningless extensions of A
-			boolean shorterDescriptionExists = false;
-			if(forceMutualDifference) {
-				for(EvaluatedDescription<? extends Score> ed : bestEvaluatedDescriptions.getSet()) {
-					if(Math.abs(ed.getAccuracy()-accuracy) <= 0.00001 && ConceptTransformation.isSubdescription(niceDescription, ed.getDescription())) {
-//						System.out.println("shorter: " + ed.getDescription());
-						shorterDescriptionExists = true;
-						break;
+				// another test: none of the other suggested descriptions should be
+				// a subdescription of this one unless accuracy is different
+				// => comment: on the one hand, this appears to be too strict, because once A is a solution then everything containing
+				// A is not a candidate; on the other hand this suppresses many meaningless extensions of A
+				boolean shorterDescriptionExists = false;
+				if(forceMutualDifference) {
+					for(EvaluatedDescription<? extends Score> ed : bestEvaluatedDescriptions.getSet()) {
+						if(Math.abs(ed.getAccuracy()-accuracy) <= 0.00001 && ConceptTransformation.isSubdescription(niceDescription, ed.getDescription())) {
+	//						System.out.println("shorter: " + ed.getDescription());
+							shorterDescriptionExists = true;
+							break;
+						}
 					}
 				}
-			}
 
-//			System.out.println("shorter description? " + shorterDescriptionExists + " nice: " + niceDescription);
+	//			System.out.println("shorter description? " + shorterDescriptionExists + " nice: " + niceDescription);
 
-			if(!shorterDescriptionExists) {
-				if(!filterFollowsFromKB || !((ClassLearningProblem)learningProblem).followsFromKB(niceDescription)) {
-//					System.out.println(node + "->" + niceDescription);
-					bestEvaluatedDescriptions.add(niceDescription, accuracy, learningProblem);
-//					System.out.println("acc: " + accuracy);
-//					System.out.println(bestEvaluatedDescriptions);
+				if(!shorterDescriptionExists) {
+					if(!filterFollowsFromKB || !((ClassLearningProblem)learningProblem).followsFromKB(niceDescription)) {
+	//					System.out.println(node + "->" + niceDescription);
+						bestEvaluatedDescriptions.add(niceDescription, accuracy, learningProblem);
+	//					System.out.println("acc: " + accuracy);
+	//					System.out.println(bestEvaluatedDescriptions);
+					}
 				}
-			}
 
-//			bestEvaluatedDescriptions.add(node.getDescription(), accuracy, learningProblem);
+	//			bestEvaluatedDescriptions.add(node.getDescription(), accuracy, learningProblem);
 
-//			System.out.println(bestEvaluatedDescriptions.getSet().size());
+	//			System.out.println(bestEvaluatedDescriptions.getSet().size());
+			}
 		}
 
 		return true;
@@ -778,8 +926,8 @@ public class PCELOE extends AbstractCELA {
 	private boolean terminationCriteriaSatisfied() {
 		return
 		stop ||
-		(maxClassExpressionTestsAfterImprovement != 0 && (expressionTests - expressionTestCountLastImprovement >= maxClassExpressionTestsAfterImprovement)) ||
-		(maxClassExpressionTests != 0 && (expressionTests >= maxClassExpressionTests)) ||
+		(maxClassExpressionTestsAfterImprovement != 0 && (expressionTests.get() - expressionTestCountLastImprovement >= maxClassExpressionTestsAfterImprovement)) ||
+		(maxClassExpressionTests != 0 && (expressionTests.get() >= maxClassExpressionTests)) ||
 		(maxExecutionTimeInSecondsAfterImprovement != 0 && ((System.nanoTime() - nanoStartTime) >= (maxExecutionTimeInSecondsAfterImprovement* 1000000000L))) ||
 		(maxExecutionTimeInSeconds != 0 && ((System.nanoTime() - nanoStartTime) >= (maxExecutionTimeInSeconds* 1000000000L))) ||
 		(terminateOnNoiseReached && (100*getCurrentlyBestAccuracy()>=100-noisePercentage)) ||
@@ -790,20 +938,30 @@ public class PCELOE extends AbstractCELA {
 		// set all values back to their default values (used for running
 		// the algorithm more than once)
 //		nodes = new TreeSet<OENode>(heuristic);
-		searchTree = new SynchronizedSearchTree(heuristic);
 		//Sets.synchronizedNavigableSet(new TreeSet<OENode>(Collections.reverseOrder(heuristic)));
-		descriptions = Collections.synchronizedSortedSet(new TreeSet<>());
+		if (useWorkStealing) {
+			// the open nodes replace the search tree
+			searchTree = null;
+			descriptions = ConcurrentHashMap.newKeySet();
+			openNodes = new ConcurrentSkipListSet<>(heuristic);
+			idleWorkers = 0;
+			searchSpaceExhausted = false;
+		} else {
+			searchTree = new SynchronizedSearchTree(heuristic);
+			descriptions = Collections.synchronizedSortedSet(new TreeSet<>());
+		}
+		nrOfNodes.set(0);
 		bestEvaluatedDescriptions.getSet().clear();
-		expressionTests = 0;
+		expressionTests.set(0);
 		highestAccuracy = 0.0;
 	}
 
 	private void printAlgorithmRunStats() {
 		if (stop) {
-			logger.info("Algorithm stopped ("+expressionTests+" descriptions tested). " + searchTree.size() + " nodes in the search tree.\n");
+			logger.info("Algorithm stopped ("+expressionTests+" descriptions tested). " + getSearchTreeSize() + " nodes in the search tree.\n");
 		} else {
 			totalRuntimeNs = System.nanoTime()-nanoStartTime;
-			logger.info("Algorithm terminated successfully (time: " + Helper.prettyPrintNanoSeconds(totalRuntimeNs) + ", "+expressionTests+" descriptions tested, "  + searchTree.size() + " nodes in the search tree).\n");
+			logger.info("Algorithm terminated successfully (time: " + Helper.prettyPrintNanoSeconds(totalRuntimeNs) + ", "+expressionTests+" descriptions tested, "  + getSearchTreeSize() + " nodes in the search tree).\n");
             logger.info(reasoner.toString());
 		}
 	}
@@ -811,7 +969,7 @@ public class PCELOE extends AbstractCELA {
 	private void showIfBetterSolutionsFound() {
 		if(!singleSuggestionMode && bestEvaluatedDescriptions.getBestAccuracy() > currentHighestAccuracy) {
 			currentHighestAccuracy = bestEvaluatedDescriptions.getBestAccuracy();
-			expressionTestCountLastImprovement = expressionTests;
+			expressionTestCountLastImprovement = expressionTests.get();
 			timeLastImprovement = System.nanoTime();
 			long durationInMillis = getCurrentRuntimeInMilliSeconds();
 			String durationStr = getDurationAsString(durationInMillis);
@@ -892,7 +1050,9 @@ public class PCELOE extends AbstractCELA {
 	}
 
 	public double getCurrentlyBestAccuracy() {
-		return bestEvaluatedDescriptions.getBest().getAccuracy();
+		synchronized (bestEvaluatedDescriptions) {
+			return bestEvaluatedDescriptions.getBest().getAccuracy();
+		}
 	}
 
 	@Override
@@ -917,7 +1077,11 @@ public class PCELOE extends AbstractCELA {
 	 * @return the expressionTests
 	 */
 	public int getClassExpressionTests() {
-		return expressionTests;
+		return expressionTests.get();
+	}
+
+	private int getSearchTreeSize() {
+		return useWorkStealing ? nrOfNodes.get() : searchTree.size();
 	}
 
 	public LengthLimitedRefinementOperator getOperator() {
@@ -1115,6 +1279,18 @@ public class PCELOE extends AbstractCELA {
 		this.nrOfThreads = nrOfThreads;
 	}
 
+	public boolean isUseWorkStealing() {
+		return useWorkStealing;
+	}
+
+	/**
+	 * @param useWorkStealing whether to use a lock-free search tree, a refinement
+	 * operator per thread and a work-stealing pool for the evaluation of the refinements
+	 */
+	public void setUseWorkStealing(boolean useWorkStealing) {
+		this.useWorkStealing = useWorkStealing;
+	}
+
 	private synchronized double getHighestAccuracy(){
 		return highestAccuracy;
 	}
@@ -1172,6 +1348,84 @@ public class PCELOE extends AbstractCELA {
 		}
 	}
 
+	/**
+	 * Expands the best open node with its own refinement operator until the
+	 * termination criteria are satisfied. The refinements are evaluated by
+	 * {@link RefinementEvaluationTask}s, which can be stolen by other workers.
+	 */
+	class PCELOESearcher extends RecursiveAction {
+
+		private final LengthLimitedRefinementOperator operator;
+
+		PCELOESearcher(LengthLimitedRefinementOperator operator) {
+			this.operator = operator;
+		}
+
+		@Override
+		protected void compute() {
+			while (!terminationCriteriaSatisfied()) {
+				OENode nextNode = pollNextNodeToExpand();
+
+				if (nextNode == null) {
+					// the other workers are still expanding their nodes
+					if (!awaitOpenNodes()) {
+						break;
+					}
+					continue;
+				}
+
+				int horizExp = nextNode.getHorizontalExpansion();
+
+				// apply refinement operator, the node isn't contained in the open nodes
+				// while it's processed, thus we can change its score
+				TreeSet<OWLClassExpression> refinements = (TreeSet<OWLClassExpression>) operator.refine(nextNode.getDescription(), horizExp + 1);
+				nextNode.incHorizontalExpansion();
+				nextNode.setRefinementCount(refinements.size());
+
+				// we ignore all refinements with lower length and too high depth
+				// (this also avoids duplicate node children)
+				List<OWLClassExpression> candidates = refinements.stream()
+						.filter(ref -> OWLClassExpressionUtils.getLength(ref) > horizExp && OWLClassExpressionUtils.getDepth(ref) <= maxDepth)
+						.collect(Collectors.toList());
+				new RefinementEvaluationTask(candidates, 0, candidates.size(), nextNode).invoke();
+
+				addOpenNode(nextNode);
+			}
+		}
+	}
+
+	/**
+	 * Adds the refinements in the given range to the search tree, large ranges
+	 * are split in halves.
+	 */
+	class RefinementEvaluationTask extends RecursiveAction {
+
+		private final List<OWLClassExpression> refinements;
+		private final int from;
+		private final int to;
+		private final OENode parentNode;
+
+		RefinementEvaluationTask(List<OWLClassExpression> refinements, int from, int to, OENode parentNode) {
+			this.refinements = refinements;
+			this.from = from;
+			this.to = to;
+			this.parentNode = parentNode;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= EVALUATION_SPLIT_THRESHOLD) {
+				for (int i = from; i < to && !terminationCriteriaSatisfied(); i++) {
+					addNode(refinements.get(i), parentNode);
+				}
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new RefinementEvaluationTask(refinements, from, mid, parentNode),
+						  new RefinementEvaluationTask(refinements, mid, to, parentNode));
+			}
+		}
+	}
+
 	public static void main(String[] args) throws Exception{
 //		StringRenderer.setRenderer(Rendering.DL_SYNTAX);
 		Logger.getRootLogger().setLevel(Level.INFO);
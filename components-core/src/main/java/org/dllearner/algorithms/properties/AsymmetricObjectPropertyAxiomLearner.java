@@ -45,7 +45,7 @@ public class AsymmetricObjectPropertyAxiomLearner extends ObjectPropertyCharacte
 		super.negExamplesQueryTemplate = new ParameterizedSparqlString(
 				"SELECT ?s ?o WHERE {?s ?p ?o. ?o ?p ?s}");
 		
-		super.POS_FREQUENCY_QUERY = new ParameterizedSparqlString(
+		super.posFrequencyQuery = new ParameterizedSparqlString(
 					"SELECT (COUNT(*) AS ?cnt) WHERE {?s ?p ?o. FILTER NOT EXISTS{?o ?p ?s}}");
 		
 		axiomType = AxiomType.ASYMMETRIC_OBJECT_PROPERTY;
@@ -36,22 +36,22 @@ import java.util.TreeSet;
  */
 public abstract class DataPropertyHierarchyAxiomLearner<T extends OWLDataPropertyAxiom> extends DataPropertyAxiomLearner<T> {
 	
-	protected static final ParameterizedSparqlString PROPERTY_OVERLAP_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString propertyOverlapQuery = new ParameterizedSparqlString(
 			"SELECT ?p_other (COUNT(*) AS ?overlap) WHERE {"
 			+ "?s ?p ?o; ?p_other ?o . "
 			+ "?p_other a <http://www.w3.org/2002/07/owl#DatatypeProperty> . FILTER(?p != ?p_other)}"
 			+ " GROUP BY ?p_other");
 
-	protected static final ParameterizedSparqlString PROPERTY_OVERLAP_WITH_RANGE_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString propertyOverlapWithRangeQuery = new ParameterizedSparqlString(
 			"SELECT ?p_other (COUNT(*) AS ?overlap) WHERE {"
 			+ "?s ?p ?o; ?p_other ?o . "
 			+ "?p_other a <http://www.w3.org/2002/07/owl#DatatypeProperty> ; rdfs:range ?range . FILTER(?p != ?p_other)}"
 			+ " GROUP BY ?p_other");
 	
-	protected static final ParameterizedSparqlString GIVEN_PROPERTY_OVERLAP_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString givenPropertyOverlapQuery = new ParameterizedSparqlString(
 					"SELECT (COUNT(*) AS ?overlap) WHERE {?s ?p ?o; ?p_other ?o . FILTER(?p != ?p_other)}");
 	
-	private static final ParameterizedSparqlString SAMPLE_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString sampleQuery = new ParameterizedSparqlString(
 			"CONSTRUCT {?s ?p ?o . ?s ?p1 ?o . ?p1 a <http://www.w3.org/2002/07/owl#DatatypeProperty> .} WHERE {?s ?p ?o . OPTIONAL{?s ?p1 ?o . FILTER(?p != ?p1)} }");
 
 	// set strict mode, i.e. if for the property explicit domain and range is given
@@ -81,9 +81,9 @@ public abstract class DataPropertyHierarchyAxiomLearner<T extends OWLDataPropert
 	public void setEntityToDescribe(OWLDataProperty entityToDescribe) {
 		super.setEntityToDescribe(entityToDescribe);
 		
-		GIVEN_PROPERTY_OVERLAP_QUERY.setIri("p", entityToDescribe.toStringID());
-		PROPERTY_OVERLAP_QUERY.setIri("p", entityToDescribe.toStringID());
-		PROPERTY_OVERLAP_WITH_RANGE_QUERY.setIri("p", entityToDescribe.toStringID());
+		givenPropertyOverlapQuery.setIri("p", entityToDescribe.toStringID());
+		propertyOverlapQuery.setIri("p", entityToDescribe.toStringID());
+		propertyOverlapWithRangeQuery.setIri("p", entityToDescribe.toStringID());
 	}
 	
 	/* (non-Javadoc)
@@ -91,7 +91,7 @@ public abstract class DataPropertyHierarchyAxiomLearner<T extends OWLDataPropert
 	 */
 	@Override
 	protected ParameterizedSparqlString getSampleQuery() {
-		return SAMPLE_QUERY;
+		return sampleQuery;
 	}
 	
 	@Override
@@ -121,8 +121,8 @@ public abstract class DataPropertyHierarchyAxiomLearner<T extends OWLDataPropert
 			}
 
 			// get the number of overlapping triples, i.e. triples with the same subject and object
-			GIVEN_PROPERTY_OVERLAP_QUERY.setIri("p_other", p.toStringID());
-			ResultSet rs = executeSelectQuery(GIVEN_PROPERTY_OVERLAP_QUERY.toString());
+			givenPropertyOverlapQuery.setIri("p_other", p.toStringID());
+			ResultSet rs = executeSelectQuery(givenPropertyOverlapQuery.toString());
 			int overlap = rs.next().getLiteral("overlap").getInt();
 
 			// compute the score
@@ -144,13 +144,13 @@ public abstract class DataPropertyHierarchyAxiomLearner<T extends OWLDataPropert
 			OWLDataRange range = reasoner.getRange(entityToDescribe);
 			
 			if(range != null && range.isDatatype() && !range.isTopDatatype()){
-				PROPERTY_OVERLAP_WITH_RANGE_QUERY.setIri("range", range.asOWLDatatype().toStringID());
-				query = PROPERTY_OVERLAP_WITH_RANGE_QUERY.toString();
+				propertyOverlapWithRangeQuery.setIri("range", range.asOWLDatatype().toStringID());
+				query = propertyOverlapWithRangeQuery.toString();
 			} else {
-				query = PROPERTY_OVERLAP_QUERY.toString();
+				query = propertyOverlapQuery.toString();
 			}
 		} else {
-			query = PROPERTY_OVERLAP_QUERY.toString();
+			query = propertyOverlapQuery.toString();
 		}
 		
 		ResultSet rs = executeSelectQuery(query);
@@ -39,7 +39,7 @@ import org.apache.jena.query.ResultSet;
 @ComponentAnn(name="data property range learner", shortName="dblrange", version=0.1, description="A learning algorithm for reflexive data property range axioms.")
 public class DataPropertyRangeAxiomLearner extends DataPropertyAxiomLearner<OWLDataPropertyRangeAxiom> {
 	
-	private static final ParameterizedSparqlString DATATYPE_FREQUENCY_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString datatypeFrequencyQuery = new ParameterizedSparqlString(
 			"SELECT  ?dt (count(distinct ?o) AS ?cnt)\n" + 
 			"WHERE\n" + 
 			"  { ?s ?p ?o }\n" + 
@@ -50,7 +50,7 @@ public class DataPropertyRangeAxiomLearner extends DataPropertyAxiomLearner<OWLD
 		super.posExamplesQueryTemplate = new ParameterizedSparqlString("SELECT ?s WHERE {?o ?p ?s. FILTER (DATATYPE(?s) = ?dt)}");
 		super.negExamplesQueryTemplate = new ParameterizedSparqlString("SELECT ?s WHERE {?o ?p ?s. FILTER (DATATYPE(?s) != ?dt)}");
 		
-		COUNT_QUERY = DISTINCT_OBJECTS_COUNT_QUERY;
+		countQuery = distinctObjectsCountQuery;
 		
 		axiomType = AxiomType.DATA_PROPERTY_RANGE;
 	}
@@ -73,7 +73,7 @@ public class DataPropertyRangeAxiomLearner extends DataPropertyAxiomLearner<OWLD
 	public void setEntityToDescribe(OWLDataProperty entityToDescribe) {
 		super.setEntityToDescribe(entityToDescribe);
 		
-		DATATYPE_FREQUENCY_QUERY.setIri("p", entityToDescribe.toStringID());
+		datatypeFrequencyQuery.setIri("p", entityToDescribe.toStringID());
 	}
 	
 	/* (non-Javadoc)
@@ -82,7 +82,7 @@ public class DataPropertyRangeAxiomLearner extends DataPropertyAxiomLearner<OWLD
 	@Override
 	protected void run() {
 		// get the frequency for each datatype
-		ResultSet rs = executeSelectQuery(DATATYPE_FREQUENCY_QUERY.toString());
+		ResultSet rs = executeSelectQuery(datatypeFrequencyQuery.toString());
 		while (rs.hasNext()) {
 			QuerySolution qs = rs.next();
 
@@ -30,10 +30,10 @@ import org.apache.jena.query.ParameterizedSparqlString;
 @ComponentAnn(name="functional data property axiom learner", shortName="dplfunc", version=0.1, description="A learning algorithm for functional data property axioms.")
 public class FunctionalDataPropertyAxiomLearner extends DataPropertyAxiomLearner<OWLFunctionalDataPropertyAxiom> {
 	
-	private final ParameterizedSparqlString GET_SAMPLE_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString sampleQuery = new ParameterizedSparqlString(
 			"CONSTRUCT {?s ?p ?o.} WHERE {?s ?p ?o}");
 	
-	private final ParameterizedSparqlString POS_FREQUENCY_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString posFrequencyQuery = new ParameterizedSparqlString(
 			"SELECT (COUNT(DISTINCT(?s)) AS ?cnt) WHERE {?s ?p ?o1. FILTER NOT EXISTS {?s ?p ?o2. FILTER(?o1 != ?o2)} }");
 	
 	private boolean declaredAsFunctional;
@@ -44,7 +44,7 @@ public class FunctionalDataPropertyAxiomLearner extends DataPropertyAxiomLearner
 		posExamplesQueryTemplate = new ParameterizedSparqlString("SELECT ?s WHERE {?s ?p ?o1. FILTER NOT EXISTS {?s ?p ?o2. FILTER(?o1 != ?o2)} }");
 		negExamplesQueryTemplate = new ParameterizedSparqlString("SELECT ?s WHERE {?s ?p ?o1. ?s ?p ?o2. FILTER(?o1 != ?o2)}");
 		
-		COUNT_QUERY = DISTINCT_SUBJECTS_COUNT_QUERY;
+		countQuery = distinctSubjectsCountQuery;
 		
 		axiomType = AxiomType.FUNCTIONAL_DATA_PROPERTY;
 	}
@@ -68,8 +68,8 @@ public class FunctionalDataPropertyAxiomLearner extends DataPropertyAxiomLearner
 	public void setEntityToDescribe(OWLDataProperty entityToDescribe) {
 		super.setEntityToDescribe(entityToDescribe);
 		
-		POS_FREQUENCY_QUERY.setIri("p", entityToDescribe.toStringID());
-		GET_SAMPLE_QUERY.setIri("p", entityToDescribe.toStringID());
+		posFrequencyQuery.setIri("p", entityToDescribe.toStringID());
+		sampleQuery.setIri("p", entityToDescribe.toStringID());
 	}
 	
 	/* (non-Javadoc)
@@ -79,7 +79,9 @@ public class FunctionalDataPropertyAxiomLearner extends DataPropertyAxiomLearner
 	protected void run() {
 		boolean declared = !existingAxioms.isEmpty();
 		
-		int frequency = getCountValue(POS_FREQUENCY_QUERY.toString());
+		int frequency = statistics != null
+				? statistics.getPositiveExamplesFrequency(axiomType)
+				: getCountValue(posFrequencyQuery.toString());
 
 		currentlyBestAxioms.add(new EvaluatedAxiom<>(
 				df.getOWLFunctionalDataPropertyAxiom(entityToDescribe),
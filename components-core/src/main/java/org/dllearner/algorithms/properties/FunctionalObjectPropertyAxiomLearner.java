@@ -51,10 +51,10 @@ public class FunctionalObjectPropertyAxiomLearner extends
 		super.negExamplesQueryTemplate = new ParameterizedSparqlString(
 				"SELECT ?s ?o1 ?o2 WHERE {?s ?p ?o1. ?s ?p ?o2. FILTER(?o1 != ?o2)}");
 		
-		super.POS_FREQUENCY_QUERY = new ParameterizedSparqlString(
+		super.posFrequencyQuery = new ParameterizedSparqlString(
 					"SELECT (COUNT(DISTINCT(?s)) AS ?cnt) WHERE {?s ?p ?o1. FILTER NOT EXISTS {?s ?p ?o2. FILTER(?o1 != ?o2)}}");
 		
-		COUNT_QUERY = DISTINCT_SUBJECTS_COUNT_QUERY;
+		countQuery = distinctSubjectsCountQuery;
 		
 		axiomType = AxiomType.FUNCTIONAL_OBJECT_PROPERTY;
 		
@@ -51,12 +51,12 @@ public class InverseFunctionalObjectPropertyAxiomLearner extends
 		super.negExamplesQueryTemplate = new ParameterizedSparqlString(
 				"SELECT ?s ?s2 ?o WHERE {?s ?p ?o. ?s2 ?p ?o. FILTER(?s != ?s2)}");
 		
-		super.POS_FREQUENCY_QUERY = new ParameterizedSparqlString(
+		super.posFrequencyQuery = new ParameterizedSparqlString(
 					"SELECT (COUNT(DISTINCT(?o)) AS ?cnt) WHERE {?s ?p ?o. FILTER NOT EXISTS {?s2 ?p ?o. FILTER(?s != ?s2)}}");
 //				"SELECT (COUNT(DISTINCT(?s)) AS ?cnt) WHERE {?o1 ?p ?s. ?o2 ?p ?s. FILTER(?o1 != ?o2)}");
 		
 		axiomType = AxiomType.INVERSE_FUNCTIONAL_OBJECT_PROPERTY;
-		COUNT_QUERY = DISTINCT_OBJECTS_COUNT_QUERY;
+		countQuery = distinctObjectsCountQuery;
 	}
 
 	/* (non-Javadoc)
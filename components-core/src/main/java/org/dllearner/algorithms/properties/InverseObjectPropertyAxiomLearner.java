@@ -40,23 +40,23 @@ import org.apache.jena.query.ResultSet;
 public class InverseObjectPropertyAxiomLearner extends
 		ObjectPropertyAxiomLearner<OWLInverseObjectPropertiesAxiom> {
 	
-	private static final ParameterizedSparqlString POS_EXAMPLES_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString posExamplesQuery = new ParameterizedSparqlString(
 			"SELECT ?p_inv ?s ?o WHERE { ?s ?p ?o . ?o ?p_inv ?s . FILTER(!sameTerm(?p, ?p_inv))}");
 	
-	private static final ParameterizedSparqlString NEG_EXAMPLES_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString negExamplesQuery = new ParameterizedSparqlString(
 			"SELECT ?p_inv ?s ?o WHERE { ?s ?p ?o . FILTER NOT EXISTS {?o ?p_inv ?s . FILTER(!sameTerm(?p, ?p_inv))}}");
 	
-	private static final ParameterizedSparqlString QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString inversePropertiesCountQuery = new ParameterizedSparqlString(
 			"SELECT ?p_inv (COUNT(*) AS ?cnt) WHERE { ?s ?p ?o . ?o ?p_inv ?s . FILTER(!sameTerm(?p, ?p_inv))} GROUP BY ?p_inv");
 	
-	private static final ParameterizedSparqlString SAMPLE_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString sampleQuery = new ParameterizedSparqlString(
 			"CONSTRUCT {?s ?p ?o . ?o ?p_inv ?s . } WHERE {?s ?p ?o . OPTIONAL{ ?o ?p_inv ?s . FILTER(!sameTerm(?p, ?p_inv))}}");
 
 	public InverseObjectPropertyAxiomLearner(SparqlEndpointKS ks) {
 		super.ks = ks;
 		
-		super.posExamplesQueryTemplate = POS_EXAMPLES_QUERY;
-		super.negExamplesQueryTemplate = NEG_EXAMPLES_QUERY;
+		super.posExamplesQueryTemplate = posExamplesQuery;
+		super.negExamplesQueryTemplate = negExamplesQuery;
 		
 		axiomType = AxiomType.INVERSE_OBJECT_PROPERTIES;
 	}
@@ -68,7 +68,7 @@ public class InverseObjectPropertyAxiomLearner extends
 	public void setEntityToDescribe(OWLObjectProperty entityToDescribe) {
 		super.setEntityToDescribe(entityToDescribe);
 		
-		QUERY.setIri("p", entityToDescribe.toStringID());
+		inversePropertiesCountQuery.setIri("p", entityToDescribe.toStringID());
 	}
 	
 	/* (non-Javadoc)
@@ -76,7 +76,7 @@ public class InverseObjectPropertyAxiomLearner extends
 	 */
 	@Override
 	protected ParameterizedSparqlString getSampleQuery() {
-		return SAMPLE_QUERY;
+		return sampleQuery;
 	}
 
 	/* (non-Javadoc)
@@ -96,7 +96,7 @@ public class InverseObjectPropertyAxiomLearner extends
 	 */
 	@Override
 	protected void run() {
-		ResultSet rs = executeSelectQuery(QUERY.toString());
+		ResultSet rs = executeSelectQuery(inversePropertiesCountQuery.toString());
 		QuerySolution qs;
 		while (rs.hasNext()) {
 			qs = rs.next();
@@ -37,10 +37,10 @@ public class IrreflexiveObjectPropertyAxiomLearner extends ObjectPropertyCharact
 		super.negExamplesQueryTemplate = new ParameterizedSparqlString(
 				"SELECT DISTINCT ?s WHERE {?s ?p ?s .}");
 		
-		super.POS_FREQUENCY_QUERY = new ParameterizedSparqlString(
+		super.posFrequencyQuery = new ParameterizedSparqlString(
 					"SELECT (COUNT(DISTINCT(?s)) AS ?cnt) WHERE {?s ?p ?o . FILTER NOT EXISTS {?s ?p ?s .} }");
 		
-		COUNT_QUERY = DISTINCT_SUBJECTS_COUNT_QUERY;
+		countQuery = distinctSubjectsCountQuery;
 		
 		axiomType = AxiomType.IRREFLEXIVE_OBJECT_PROPERTY;
 	}
@@ -22,16 +22,16 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Sets.SetView;
 import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.aksw.jena_sparql_api.model.QueryExecutionFactoryModel;
 import org.apache.jena.query.ParameterizedSparqlString;
 import org.apache.jena.query.Query;
-import org.apache.jena.query.QueryExecution;
 import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.riot.system.ErrorHandlerFactory;
 import org.dllearner.algorithms.properties.AxiomAlgorithms.AxiomTypeCluster;
 import org.dllearner.core.*;
 import org.dllearner.kb.LocalModelBasedSparqlEndpointKS;
 import org.dllearner.kb.SparqlEndpointKS;
+import org.dllearner.kb.sparql.PartitionedSampleLoader;
 import org.dllearner.kb.sparql.SparqlEndpoint;
 import org.dllearner.reasoning.SPARQLReasoner;
 import org.dllearner.utilities.OWLAPIUtils;
@@ -53,6 +53,11 @@ import java.util.concurrent.TimeUnit;
  * Note that this only works for subsets of axiom types that have the same sample structure.
  * </br>
  * Additionally, this class is able to configure and run the algorithms in a parallel way.
+ * </br>
+ * For properties, the triples of the property are scanned only once (resp. once per sample) and
+ * the statistics needed by the algorithms, e.g. the frequencies of the property characteristics
+ * and the type histograms for domain and range, are computed in that single pass and shared by
+ * all algorithms (@see PropertyStatistics).
  * @author Lorenz Buehmann
  *
  */
@@ -73,6 +78,13 @@ public class MultiPropertyAxiomLearner {
 	
 	private long maxExecutionTimeMilliseconds = -1;
 
+	private boolean useSharedScan = true;
+	private long maxSharedScanTriples = 1_000_000;
+
+	private PartitionedSampleLoader sampleLoader;
+	// whether the sample loader was created by this learner and not shared
+	private boolean ownSampleLoader = false;
+
 	private long startTime;
 
 	private AxiomLearningProgressMonitor progressMonitor = new SilentAxiomLearningProgressMonitor();
@@ -108,6 +120,12 @@ public class MultiPropertyAxiomLearner {
 		}
 		
 		results = Maps.newConcurrentMap();
+
+		if(sampleLoader == null){
+			sampleLoader = new PartitionedSampleLoader(qef);
+			sampleLoader.setPageSize(pageSize);
+			ownSampleLoader = true;
+		}
 		
 		EntityType<?> entityType = entity.getEntityType();
 		
@@ -123,6 +141,10 @@ public class MultiPropertyAxiomLearner {
 		// compute samples for axiom types
 		Set<AxiomTypeCluster> sampleClusters = AxiomAlgorithms.getSameSampleClusters(entityType);
 		
+		// scan the property extension once for all algorithms, if sampling is enabled
+		// this is done per sample instead
+		final PropertyStatistics statistics = useSampling ? null : computeStatistics(qef, null);
+
 		ExecutorService tp = Executors.newFixedThreadPool(maxNrOfThreads);
 		
 		for (final AxiomTypeCluster cluster : sampleClusters) {
@@ -132,6 +154,7 @@ public class MultiPropertyAxiomLearner {
 				tp.submit(() -> {
 					try {
 						SparqlEndpointKS ks1 = MultiPropertyAxiomLearner.this.ks;
+						PropertyStatistics statistics1 = statistics;
 
 						// get sample if enabled
 						if(useSampling){
@@ -149,12 +172,13 @@ public class MultiPropertyAxiomLearner {
 							}
 
 							ks1 = new LocalModelBasedSparqlEndpointKS(sample);
+							statistics1 = computeStatistics(new QueryExecutionFactoryModel(sample), sample);
 						}
 
 						// process each axiom type
 						for (AxiomType<? extends OWLAxiom> axiomType : sampleAxiomTypes) {
 							try {
-								List<EvaluatedAxiom<OWLAxiom>> result = applyAlgorithm(axiomType, ks1);
+								List<EvaluatedAxiom<OWLAxiom>> result = applyAlgorithm(axiomType, ks1, statistics1);
 								results.put(axiomType, result);
 							} catch (Exception e) {
 								logger.error("An error occurred while generating " + axiomType.getName() +
@@ -174,6 +198,13 @@ public class MultiPropertyAxiomLearner {
 			tp.awaitTermination(1, TimeUnit.HOURS);
 		} catch (InterruptedException e) {
 			e.printStackTrace();
+		} finally {
+			// a shared loader is closed by its owner
+			if(ownSampleLoader) {
+				sampleLoader.close();
+				sampleLoader = null;
+				ownSampleLoader = false;
+			}
 		}
 //		
 //		for (AxiomType<? extends OWLAxiom> axiomType : todo) {
@@ -285,7 +316,67 @@ public class MultiPropertyAxiomLearner {
 		this.maxSampleGenerationTimeMilliseconds = sampleGenerationTimeUnit.toMillis(sampleGenerationTimeDuration);
 	}
 
-	private List<EvaluatedAxiom<OWLAxiom>> applyAlgorithm(AxiomType<? extends OWLAxiom> axiomType, SparqlEndpointKS ks) throws ComponentInitException{
+	/**
+	 * @param useSharedScan whether to compute the statistics of a property in a single scan over
+	 *                      its triples which is shared by all algorithms, otherwise each algorithm
+	 *                      sends its own count queries. Note, the triples of the property are kept
+	 *                      in memory during the scan.
+	 * @see #setMaxSharedScanTriples(long)
+	 */
+	public void setUseSharedScan(boolean useSharedScan) {
+		this.useSharedScan = useSharedScan;
+	}
+
+	/**
+	 * @param maxSharedScanTriples the max. number of triples of a property loaded for the shared scan
+	 *                             if sampling is disabled. For properties with more triples, each
+	 *                             algorithm sends its own count queries instead.
+	 */
+	public void setMaxSharedScanTriples(long maxSharedScanTriples) {
+		this.maxSharedScanTriples = maxSharedScanTriples;
+	}
+
+	/**
+	 * Computes the statistics of the property to describe in a single scan over its triples.
+	 *
+	 * @param qef the query execution factory
+	 * @param data the data containing the triples of the property, or <code>null</code> if the
+	 *             triples have to be loaded from the query execution factory
+	 * @return the statistics, or <code>null</code> if disabled or the computation failed
+	 */
+	private PropertyStatistics computeStatistics(QueryExecutionFactory qef, Model data) {
+		if(!useSharedScan || !(entity instanceof OWLProperty)) {
+			return null;
+		}
+		logger.info("Computing statistics for " + OWLAPIUtils.getPrintName(entity.getEntityType()) + " " + entity.toStringID() + "...");
+		long startTime = System.currentTimeMillis();
+		try {
+			if(data == null) {
+				// the whole property extension would be loaded into memory
+				int nrOfTriples = reasoner.getPopularity(entity);
+				if(nrOfTriples > maxSharedScanTriples) {
+					logger.info("Skipped shared scan, " + entity.toStringID() + " has " + nrOfTriples +
+										" triples (max. " + maxSharedScanTriples + "). Using separate queries per axiom type.");
+					return null;
+				}
+				ParameterizedSparqlString triplesQuery = new ParameterizedSparqlString(
+						"CONSTRUCT {?s ?p ?o .} WHERE {?s ?p ?o .}");
+				triplesQuery.setIri("p", entity.toStringID());
+				// the statistics must be exact, thus, we load the triples without time limit
+				data = sampleLoader.load(triplesQuery.asQuery(), 0);
+			}
+			PropertyStatistics statistics = new PropertyStatistics((OWLProperty) entity, data, qef);
+			logger.info("...done in {}ms. {}", (System.currentTimeMillis() - startTime), statistics);
+			return statistics;
+		} catch (Exception e) {
+			logger.error("Failed to compute statistics for " + entity.toStringID() +
+								 ". Falling back to separate queries per axiom type.", e);
+			return null;
+		}
+	}
+
+	private List<EvaluatedAxiom<OWLAxiom>> applyAlgorithm(AxiomType<? extends OWLAxiom> axiomType, SparqlEndpointKS ks,
+														  PropertyStatistics statistics) throws ComponentInitException{
 		Class<? extends AbstractAxiomLearningAlgorithm<? extends OWLAxiom, ? extends OWLObject, ? extends OWLEntity>> algorithmClass = AxiomAlgorithms.getAlgorithmClass(axiomType);
 		AbstractAxiomLearningAlgorithm learner = null;
 		try {
@@ -294,6 +385,9 @@ public class MultiPropertyAxiomLearner {
 			learner.setEntityToDescribe(entity);
 			learner.setUseSampling(false);
 			learner.setProgressMonitor(progressMonitor);
+			if(statistics != null && learner instanceof PropertyAxiomLearner) {
+				((PropertyAxiomLearner) learner).setStatistics(statistics);
+			}
 			learner.init();
 			learner.start();
 
@@ -311,59 +405,52 @@ public class MultiPropertyAxiomLearner {
 		logger.info("Generating sample (" + cluster + ") for " + OWLAPIUtils.getPrintName(entity.getEntityType()) + " " + entity.toStringID() + "...");
 		long startTime = System.currentTimeMillis();
 
-		Model sample = ModelFactory.createDefaultModel();
-		
 		ParameterizedSparqlString sampleQueryTemplate = cluster.getSampleQuery();
 		sampleQueryTemplate.clearParam("entity");
 		sampleQueryTemplate.setIri("entity", entity.toStringID());
 		
 		Query query = sampleQueryTemplate.asQuery();
-		query.setLimit(pageSize);
-		
-		boolean isEmpty = false;
-		boolean samplingTimeout = false;
-		int i = 0;
-		while(!isEmpty && !samplingTimeout && !isTimeout()){
-			// get next sample
-			logger.debug("Extending sample...");
-			query.setOffset(i++ * pageSize);
-			logger.debug("sending query\n" + query);
-			try (QueryExecution qe=qef.createQueryExecution(query)) {
-				// set the remaining runtime
-				qe.setTimeout(maxSampleGenerationTimeMilliseconds - (System.currentTimeMillis() - startTime));
-
-				// execute query
-				Model tmp = qe.execConstruct();
-				sample.add(tmp);
-
-				// if last call returned empty model, we can leave loop
-				isEmpty = tmp.isEmpty();
-			} catch (Exception e) {
-				boolean syntaxError = e instanceof RuntimeException &&
-						e.getCause() != null &&
-						e.getCause() instanceof org.apache.jena.riot.RiotException;
-				logger.error("Sample generation for " + cluster + " failed. Reason:\n");
-				if(syntaxError) {
-					logger.error("Endpoint returned illegal data with error\n" + e.getCause().getMessage()
-										 + "\nfor query\n" + query + "\n");
-				} else {
-					logger.error("Query execution failed for query\n" + query, e);
-				}
 
+		// the sample generation is limited by the remaining runtime, too
+		long maxTime = maxSampleGenerationTimeMilliseconds;
+		if(maxExecutionTimeMilliseconds > 0) {
+			maxTime = Math.min(maxTime, getRemainingRuntimeMilliSeconds());
+			if(maxTime <= 0) {
+				logger.info("Skipped sample generation, the max. execution time is exceeded.");
 				return null;
 			}
-			// checker for sampling timeout
-			samplingTimeout = (System.currentTimeMillis() - startTime) >= maxSampleGenerationTimeMilliseconds;
-			if(samplingTimeout) {
-				logger.info("Sampling timeout.");
-			}
 		}
-		logger.info("Finished generating sample. Sample size: " + sample.size() + " triples");
-		if(isEmpty) {
-			logger.info("Sample contains the whole relevant data.");
+
+		Model sample;
+		try {
+			sample = sampleLoader.load(query, maxTime);
+		} catch (Exception e) {
+			Throwable cause = e.getCause() != null ? e.getCause() : e;
+			logger.error("Sample generation for " + cluster + " failed. Reason:\n");
+			if(cause.getCause() instanceof org.apache.jena.riot.RiotException) {
+				logger.error("Endpoint returned illegal data with error\n" + cause.getCause().getMessage()
+									 + "\nfor query\n" + query + "\n");
+			} else {
+				logger.error("Query execution failed for query\n" + query, cause);
+			}
+
+			return null;
 		}
+		logger.info("...done in {}ms. Sample size: {} triples", (System.currentTimeMillis() - startTime), sample.size());
 		return sample;
 	}
+
+	/**
+	 * Set the loader used to generate the samples and to load the triples of the shared scan,
+	 * e.g. to share the samples with other learners working on the same knowledge base. A
+	 * shared loader isn't closed by this learner.
+	 *
+	 * @param sampleLoader the sample loader
+	 */
+	public void setSampleLoader(PartitionedSampleLoader sampleLoader) {
+		this.sampleLoader = sampleLoader;
+		this.ownSampleLoader = false;
+	}
 	
 	private boolean isTimeout(){
 		return maxExecutionTimeMilliseconds > 0 && getRemainingRuntimeMilliSeconds() <= 0;
@@ -44,9 +44,9 @@ import org.apache.jena.rdf.model.Model;
  */
 public abstract class ObjectPropertyCharacteristicsAxiomLearner<T extends OWLObjectPropertyCharacteristicAxiom> extends ObjectPropertyAxiomLearner<T>{
 
-	protected final ParameterizedSparqlString ALREADY_DECLARED_QUERY = new ParameterizedSparqlString("ASK {?p a ?type .}");
+	protected final ParameterizedSparqlString alreadyDeclaredQuery = new ParameterizedSparqlString("ASK {?p a ?type .}");
 	
-	protected ParameterizedSparqlString POS_FREQUENCY_QUERY = null;
+	protected ParameterizedSparqlString posFrequencyQuery = null;
 	
 	protected boolean declared;
 	
@@ -61,8 +61,8 @@ public abstract class ObjectPropertyCharacteristicsAxiomLearner<T extends OWLObj
 	public void setEntityToDescribe(OWLObjectProperty entityToDescribe) {
 		super.setEntityToDescribe(entityToDescribe);
 		
-		POS_FREQUENCY_QUERY.setIri("p", entityToDescribe.toStringID());
-		ALREADY_DECLARED_QUERY.setIri("p", entityToDescribe.toStringID());
+		posFrequencyQuery.setIri("p", entityToDescribe.toStringID());
+		alreadyDeclaredQuery.setIri("p", entityToDescribe.toStringID());
 		
 		IRI type;
 		if(axiomType.equals(AxiomType.SYMMETRIC_OBJECT_PROPERTY)){
@@ -82,7 +82,7 @@ public abstract class ObjectPropertyCharacteristicsAxiomLearner<T extends OWLObj
 		}else {
 			throw new IllegalArgumentException("Axiom type cannot be " + axiomType);
 		}
-		ALREADY_DECLARED_QUERY.setIri("type", type.toString()); 
+		alreadyDeclaredQuery.setIri("type", type.toString()); 
 	}
 	
 	/*
@@ -94,7 +94,7 @@ public abstract class ObjectPropertyCharacteristicsAxiomLearner<T extends OWLObj
 	@Override
 	protected void getExistingAxioms() {
 		// check if property is already declared as asymmetric in knowledge base
-		declared = executeAskQuery(ALREADY_DECLARED_QUERY.toString());
+		declared = executeAskQuery(alreadyDeclaredQuery.toString());
 		if (declared) {
 			existingAxioms.add(getAxiom(entityToDescribe));
 			logger.info("Property is already declared as asymmetric in knowledge base.");
@@ -119,11 +119,14 @@ public abstract class ObjectPropertyCharacteristicsAxiomLearner<T extends OWLObj
 	protected abstract T getAxiom(OWLObjectProperty property);
 	
 	protected int getPositiveExamplesFrequency(){
-		return getCountValue(POS_FREQUENCY_QUERY.toString());
+		if(statistics != null) {
+			return statistics.getPositiveExamplesFrequency(axiomType);
+		}
+		return getCountValue(posFrequencyQuery.toString());
 	}
 	
 	protected int getPositiveExamplesFrequency(Model model){
-		return getCountValue(POS_FREQUENCY_QUERY.toString(), model);
+		return getCountValue(posFrequencyQuery.toString(), model);
 	}
 	
 	@Override
@@ -41,21 +41,21 @@ import java.util.TreeSet;
 @ComponentAnn(name="object property domain axiom learner", shortName="opldomain", version=0.1, description="A learning algorithm for object property domain axioms.")
 public class ObjectPropertyDomainAxiomLearner extends ObjectPropertyAxiomLearner<OWLObjectPropertyDomainAxiom> {
 
-	private static final ParameterizedSparqlString POPULARITY_COUNT_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString popularityCountQuery = new ParameterizedSparqlString(
 			"SELECT (COUNT(DISTINCT(?s)) AS ?cnt) WHERE {?s ?p ?o .}");
 
-	private static final ParameterizedSparqlString SUBJECTS_OF_TYPE_COUNT_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString subjectsOfTypeCountQuery = new ParameterizedSparqlString(
 			"SELECT (COUNT(DISTINCT(?s)) AS ?cnt) WHERE {?s ?p ?o; a ?type .}");
 
-	private static final ParameterizedSparqlString SUBJECTS_OF_TYPE_WITH_INFERENCE_COUNT_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString subjectsOfTypeWithInferenceCountQuery = new ParameterizedSparqlString(
 			"SELECT (COUNT(DISTINCT(?s)) AS ?cnt) WHERE {?s ?p ?o; rdf:type/rdfs:subClassOf* ?type .}");
 
-	private static final ParameterizedSparqlString SUBJECTS_OF_TYPE_COUNT_BATCHED_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString subjectsOfTypeCountBatchedQuery = new ParameterizedSparqlString(
 			"PREFIX owl:<http://www.w3.org/2002/07/owl#> " +
 					"SELECT ?type (COUNT(DISTINCT(?s)) AS ?cnt) WHERE {" +
 					"?s ?p ?o; a ?type . ?type a owl:Class .} GROUP BY ?type");
 
-	private static final ParameterizedSparqlString SUBJECTS_OF_TYPE_WITH_INFERENCE_COUNT_BATCHED_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString subjectsOfTypeWithInferenceCountBatchedQuery = new ParameterizedSparqlString(
 			"PREFIX owl:<http://www.w3.org/2002/07/owl#> " +
 					"SELECT ?type (COUNT(DISTINCT(?s)) AS ?cnt) WHERE {" +
 					"?s ?p ?o; rdf:type/rdfs:subClassOf* ?type . ?type a owl:Class .} GROUP BY ?type");
@@ -67,7 +67,7 @@ public class ObjectPropertyDomainAxiomLearner extends ObjectPropertyAxiomLearner
 		super.posExamplesQueryTemplate = new ParameterizedSparqlString("SELECT ?s ?o WHERE {?s ?p ?o. ?s a ?type}");
 		super.negExamplesQueryTemplate = new ParameterizedSparqlString("SELECT ?s ?o WHERE {?s ?p ?o. FILTER NOT EXISTS{?s a ?type}}");
 	
-		COUNT_QUERY = DISTINCT_SUBJECTS_COUNT_QUERY;
+		countQuery = distinctSubjectsCountQuery;
 		
 		axiomType = AxiomType.OBJECT_PROPERTY_DOMAIN;
 	}
@@ -82,11 +82,11 @@ public class ObjectPropertyDomainAxiomLearner extends ObjectPropertyAxiomLearner
 	public void setEntityToDescribe(OWLObjectProperty entityToDescribe) {
 		super.setEntityToDescribe(entityToDescribe);
 		
-		DISTINCT_SUBJECTS_COUNT_QUERY.setIri("p", entityToDescribe.toStringID());
-		SUBJECTS_OF_TYPE_COUNT_QUERY.setIri("p", entityToDescribe.toStringID());
-		SUBJECTS_OF_TYPE_WITH_INFERENCE_COUNT_QUERY.setIri("p", entityToDescribe.toStringID());
-		SUBJECTS_OF_TYPE_COUNT_BATCHED_QUERY.setIri("p", entityToDescribe.toStringID());
-		SUBJECTS_OF_TYPE_WITH_INFERENCE_COUNT_BATCHED_QUERY.setIri("p", entityToDescribe.toStringID());
+		distinctSubjectsCountQuery.setIri("p", entityToDescribe.toStringID());
+		subjectsOfTypeCountQuery.setIri("p", entityToDescribe.toStringID());
+		subjectsOfTypeWithInferenceCountQuery.setIri("p", entityToDescribe.toStringID());
+		subjectsOfTypeCountBatchedQuery.setIri("p", entityToDescribe.toStringID());
+		subjectsOfTypeWithInferenceCountBatchedQuery.setIri("p", entityToDescribe.toStringID());
 	}
 
 	/* (non-Javadoc)
@@ -127,8 +127,11 @@ public class ObjectPropertyDomainAxiomLearner extends ObjectPropertyAxiomLearner
 	}
 
 	protected int getPopularity() {
-		POPULARITY_COUNT_QUERY.setIri("p", entityToDescribe.toStringID());
-		String query = POPULARITY_COUNT_QUERY.toString();
+		if(statistics != null) {
+			return statistics.getNrOfDistinctSubjects();
+		}
+		popularityCountQuery.setIri("p", entityToDescribe.toStringID());
+		String query = popularityCountQuery.toString();
 		ResultSet rs = executeSelectQuery(query);
 		int popularity = rs.next().getLiteral("cnt").getInt();
 		return popularity;
@@ -170,8 +173,13 @@ public class ObjectPropertyDomainAxiomLearner extends ObjectPropertyAxiomLearner
 			}
 
 			// get number of instances of (A AND B)
-			SUBJECTS_OF_TYPE_COUNT_QUERY.setIri("type", candidate.toStringID());
-			int cntAB = executeSelectQuery(SUBJECTS_OF_TYPE_COUNT_QUERY.toString()).next().getLiteral("cnt").getInt();
+			int cntAB;
+			if(statistics != null) {
+				cntAB = statistics.getSubjectTypeHistogram().getOrDefault(candidate, 0);
+			} else {
+				subjectsOfTypeCountQuery.setIri("type", candidate.toStringID());
+				cntAB = executeSelectQuery(subjectsOfTypeCountQuery.toString()).next().getLiteral("cnt").getInt();
+			}
 			logger.debug("Candidate:" + candidate + "\npopularity:" + cntB + "\noverlap:" + cntAB);
 
 			// compute score
@@ -195,7 +203,7 @@ public class ObjectPropertyDomainAxiomLearner extends ObjectPropertyAxiomLearner
 		reasoner.precomputeClassPopularity();
 		
 		// get for each subject type the frequency
-		ResultSet rs = executeSelectQuery(SUBJECTS_OF_TYPE_COUNT_BATCHED_QUERY.toString());
+		ResultSet rs = executeSelectQuery(subjectsOfTypeCountBatchedQuery.toString());
 		ResultSetRewindable rsrw = ResultSetFactory.copyResults(rs);
 		int size = rsrw.size();
 		rsrw.reset();
@@ -36,26 +36,26 @@ import java.util.TreeSet;
  */
 public abstract class ObjectPropertyHierarchyAxiomLearner<T extends OWLObjectPropertyAxiom> extends ObjectPropertyAxiomLearner<T> {
 	
-	protected static final ParameterizedSparqlString PROPERTY_OVERLAP_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString propertyOverlapQuery = new ParameterizedSparqlString(
 			"SELECT ?p_other (COUNT(*) AS ?overlap) WHERE {"
 			+ "?s ?p ?o; ?p_other ?o . "
 			+ "?p_other a <http://www.w3.org/2002/07/owl#ObjectProperty> . FILTER(?p != ?p_other)}"
 			+ " GROUP BY ?p_other");
 
-	protected static final ParameterizedSparqlString PROPERTY_OVERLAP_WITH_RANGE_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString propertyOverlapWithRangeQuery = new ParameterizedSparqlString(
 			"SELECT ?p_other (COUNT(*) AS ?overlap) WHERE {"
 			+ "?s ?p ?o; ?p_other ?o . "
 			+ "?p_other a <http://www.w3.org/2002/07/owl#ObjectProperty> ; rdfs:range ?range . FILTER(?p != ?p_other)}"
 			+ " GROUP BY ?p_other");
 	
-	protected static final ParameterizedSparqlString GIVEN_PROPERTY_OVERLAP_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString givenPropertyOverlapQuery = new ParameterizedSparqlString(
 					"SELECT (COUNT(*) AS ?overlap) WHERE {?s ?p ?o; ?p_other ?o . }");
 	
-	private static final ParameterizedSparqlString SAMPLE_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString sampleQuery = new ParameterizedSparqlString(
 			"CONSTRUCT {?s ?p ?o . ?s ?p1 ?o . ?p1 a <http://www.w3.org/2002/07/owl#ObjectProperty> .} "
 			+ "WHERE {?s ?p ?o . OPTIONAL{?s ?p1 ?o . FILTER(?p != ?p1)} }");
 
-	protected static final ParameterizedSparqlString PROPERTY_OVERLAP_WITH_POPULARITY_BATCH_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString propertyOverlapWithPopularityBatchQuery = new ParameterizedSparqlString(
 			"SELECT ?p_other (COUNT(*) AS ?overlap) WHERE {"
 					+ "?s ?p ?o; ?p_other ?o . "
 					+ "?p_other a <http://www.w3.org/2002/07/owl#ObjectProperty> ; rdfs:range ?range . FILTER(?p != ?p_other)}"
@@ -87,9 +87,9 @@ public abstract class ObjectPropertyHierarchyAxiomLearner<T extends OWLObjectPro
 	public void setEntityToDescribe(OWLObjectProperty entityToDescribe) {
 		super.setEntityToDescribe(entityToDescribe);
 		
-		GIVEN_PROPERTY_OVERLAP_QUERY.setIri("p", entityToDescribe.toStringID());
-		PROPERTY_OVERLAP_QUERY.setIri("p", entityToDescribe.toStringID());
-		PROPERTY_OVERLAP_WITH_RANGE_QUERY.setIri("p", entityToDescribe.toStringID());
+		givenPropertyOverlapQuery.setIri("p", entityToDescribe.toStringID());
+		propertyOverlapQuery.setIri("p", entityToDescribe.toStringID());
+		propertyOverlapWithRangeQuery.setIri("p", entityToDescribe.toStringID());
 	}
 	
 	/* (non-Javadoc)
@@ -97,7 +97,7 @@ public abstract class ObjectPropertyHierarchyAxiomLearner<T extends OWLObjectPro
 	 */
 	@Override
 	protected ParameterizedSparqlString getSampleQuery() {
-		return SAMPLE_QUERY;
+		return sampleQuery;
 	}
 	
 	@Override
@@ -128,8 +128,8 @@ public abstract class ObjectPropertyHierarchyAxiomLearner<T extends OWLObjectPro
 			}
 
 			// get the number of overlapping triples, i.e. triples with the same subject and object
-			GIVEN_PROPERTY_OVERLAP_QUERY.setIri("p_other", p.toStringID());
-			ResultSet rs = executeSelectQuery(GIVEN_PROPERTY_OVERLAP_QUERY.toString());
+			givenPropertyOverlapQuery.setIri("p_other", p.toStringID());
+			ResultSet rs = executeSelectQuery(givenPropertyOverlapQuery.toString());
 			int overlap = rs.next().getLiteral("overlap").getInt();
 
 			// compute the score
@@ -155,13 +155,13 @@ public abstract class ObjectPropertyHierarchyAxiomLearner<T extends OWLObjectPro
 			OWLClassExpression range = reasoner.getRange(entityToDescribe);
 			
 			if(range != null && !range.isAnonymous() && !range.isOWLThing()){
-				PROPERTY_OVERLAP_WITH_RANGE_QUERY.setIri("range", range.asOWLClass().toStringID());
-				query = PROPERTY_OVERLAP_WITH_RANGE_QUERY.toString();
+				propertyOverlapWithRangeQuery.setIri("range", range.asOWLClass().toStringID());
+				query = propertyOverlapWithRangeQuery.toString();
 			} else {
-				query = PROPERTY_OVERLAP_QUERY.toString();
+				query = propertyOverlapQuery.toString();
 			}
 		} else {
-			query = PROPERTY_OVERLAP_QUERY.toString();
+			query = propertyOverlapQuery.toString();
 		}
 
 		// compute the property candidates p_i that have at least one (s,o) in common with the target property p
@@ -38,17 +38,17 @@ import java.util.TreeSet;
 @ComponentAnn(name="object property range learner", shortName="oplrange", version=0.1, description="A learning algorithm for object property range axioms.")
 public class ObjectPropertyRangeAxiomLearner extends ObjectPropertyAxiomLearner<OWLObjectPropertyRangeAxiom> {
 	
-	private static final ParameterizedSparqlString DISTINCT_OBJECTS_COUNT_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString distinctObjectsCountQuery = new ParameterizedSparqlString(
 			"SELECT (COUNT(DISTINCT(?o)) as ?cnt) WHERE {?s ?p ?o .}");
 	
-	private static final ParameterizedSparqlString OBJECTS_OF_TYPE_COUNT_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString objectsOfTypeCountQuery = new ParameterizedSparqlString(
 			"SELECT (COUNT(DISTINCT(?o)) AS ?cnt) WHERE {?s ?p ?o . ?o a ?type .}");
-	private static final ParameterizedSparqlString OBJECTS_OF_TYPE_WITH_INFERENCE_COUNT_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString objectsOfTypeWithInferenceCountQuery = new ParameterizedSparqlString(
 			"SELECT (COUNT(DISTINCT(?o)) AS ?cnt) WHERE {?s ?p ?o . ?o rdf:type/rdfs:subClassOf* ?type .}");
 	
-	private static final ParameterizedSparqlString OBJECTS_OF_TYPE_COUNT_BATCHED_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString objectsOfTypeCountBatchedQuery = new ParameterizedSparqlString(
 			"PREFIX owl:<http://www.w3.org/2002/07/owl#> SELECT ?type (COUNT(DISTINCT(?o)) AS ?cnt) WHERE {?s ?p ?o . ?o a ?type . ?type a owl:Class .} GROUP BY ?type");
-	private static final ParameterizedSparqlString OBJECTS_OF_TYPE_WITH_INFERENCE_COUNT_BATCHED_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString objectsOfTypeWithInferenceCountBatchedQuery = new ParameterizedSparqlString(
 			"PREFIX owl:<http://www.w3.org/2002/07/owl#> SELECT ?type (COUNT(DISTINCT(?o)) AS ?cnt) WHERE {?s ?p ?o . ?o rdf:type/rdfs:subClassOf* ?type . ?type a owl:Class .} GROUP BY ?type");
 
 	@ConfigOption(defaultValue = "false", description = "compute everything in a single SPARQL query")
@@ -58,7 +58,7 @@ public class ObjectPropertyRangeAxiomLearner extends ObjectPropertyAxiomLearner<
 		super.posExamplesQueryTemplate = new ParameterizedSparqlString("SELECT ?s ?o WHERE {?o ?p ?s. ?s a ?type .}");
 		super.negExamplesQueryTemplate = new ParameterizedSparqlString("SELECT ?s ?o WHERE {?o ?p ?s. FILTER NOT EXISTS {?s a ?type}}");
 
-		COUNT_QUERY = DISTINCT_OBJECTS_COUNT_QUERY;
+		countQuery = distinctObjectsCountQuery;
 
 		axiomType = AxiomType.OBJECT_PROPERTY_RANGE;
 	}
@@ -75,11 +75,11 @@ public class ObjectPropertyRangeAxiomLearner extends ObjectPropertyAxiomLearner<
 	public void setEntityToDescribe(OWLObjectProperty entityToDescribe) {
 		super.setEntityToDescribe(entityToDescribe);
 		
-		DISTINCT_OBJECTS_COUNT_QUERY.setIri("p", entityToDescribe.toStringID());
-		OBJECTS_OF_TYPE_COUNT_QUERY.setIri("p", entityToDescribe.toStringID());
-		OBJECTS_OF_TYPE_WITH_INFERENCE_COUNT_QUERY.setIri("p", entityToDescribe.toStringID());
-		OBJECTS_OF_TYPE_COUNT_BATCHED_QUERY.setIri("p", entityToDescribe.toStringID());
-		OBJECTS_OF_TYPE_WITH_INFERENCE_COUNT_BATCHED_QUERY.setIri("p", entityToDescribe.toStringID());
+		distinctObjectsCountQuery.setIri("p", entityToDescribe.toStringID());
+		objectsOfTypeCountQuery.setIri("p", entityToDescribe.toStringID());
+		objectsOfTypeWithInferenceCountQuery.setIri("p", entityToDescribe.toStringID());
+		objectsOfTypeCountBatchedQuery.setIri("p", entityToDescribe.toStringID());
+		objectsOfTypeWithInferenceCountBatchedQuery.setIri("p", entityToDescribe.toStringID());
 	}
 	
 	/* (non-Javadoc)
@@ -148,8 +148,13 @@ public class ObjectPropertyRangeAxiomLearner extends ObjectPropertyAxiomLearner<
 			}
 			
 			// get number of instances of (A AND B)
-			OBJECTS_OF_TYPE_COUNT_QUERY.setIri("type", candidate.toStringID());
-			int cntAB = executeSelectQuery(OBJECTS_OF_TYPE_COUNT_QUERY.toString()).next().getLiteral("cnt").getInt();
+			int cntAB;
+			if(statistics != null) {
+				cntAB = statistics.getObjectTypeHistogram().getOrDefault(candidate, 0);
+			} else {
+				objectsOfTypeCountQuery.setIri("type", candidate.toStringID());
+				cntAB = executeSelectQuery(objectsOfTypeCountQuery.toString()).next().getLiteral("cnt").getInt();
+			}
 			logger.debug("Candidate:" + candidate + "\npopularity:" + cntB + "\noverlap:" + cntAB);
 			
 			// compute score
@@ -170,7 +175,7 @@ public class ObjectPropertyRangeAxiomLearner extends ObjectPropertyAxiomLearner<
 		reasoner.precomputeClassPopularity();
 		
 		// get for each object type the frequency
-		ResultSet rs = executeSelectQuery(OBJECTS_OF_TYPE_COUNT_BATCHED_QUERY.toString());
+		ResultSet rs = executeSelectQuery(objectsOfTypeCountBatchedQuery.toString());
 		ResultSetRewindable rsrw = ResultSetFactory.copyResults(rs);
 		int size = rsrw.size();
 		rsrw.reset();
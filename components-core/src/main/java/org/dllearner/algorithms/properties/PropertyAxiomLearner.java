@@ -20,6 +20,7 @@ package org.dllearner.algorithms.properties;
 
 import org.dllearner.core.AbstractAxiomLearningAlgorithm;
 import org.dllearner.core.config.ConfigOption;
+import org.dllearner.core.config.NoConfigOption;
 import org.dllearner.learningproblems.AxiomScore;
 import org.dllearner.learningproblems.Heuristics;
 import org.semanticweb.owlapi.model.OWLLogicalAxiom;
@@ -37,19 +38,19 @@ import org.apache.jena.rdf.model.Model;
  */
 public abstract class PropertyAxiomLearner<S extends OWLProperty, T extends OWLLogicalAxiom, V extends OWLObject> extends AbstractAxiomLearningAlgorithm<T, V, S>{
 	
-	protected static final ParameterizedSparqlString TRIPLES_COUNT_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString triplesCountQuery = new ParameterizedSparqlString(
 			"SELECT (COUNT(*) as ?cnt) WHERE {?s ?p ?o .}");
 	
-	protected static final ParameterizedSparqlString DISTINCT_SUBJECTS_COUNT_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString distinctSubjectsCountQuery = new ParameterizedSparqlString(
 			"SELECT (COUNT(DISTINCT(?s)) as ?cnt) WHERE {?s ?p ?o .}");
 	
-	protected static final ParameterizedSparqlString DISTINCT_OBJECTS_COUNT_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString distinctObjectsCountQuery = new ParameterizedSparqlString(
 			"SELECT (COUNT(DISTINCT(?o)) as ?cnt) WHERE {?s ?p ?o .}");
 	
-	protected static final ParameterizedSparqlString GET_SAMPLE_QUERY = new ParameterizedSparqlString(
+	protected final ParameterizedSparqlString sampleQuery = new ParameterizedSparqlString(
 			"CONSTRUCT {?s ?p ?o.} WHERE {?s ?p ?o}");
 	
-	protected ParameterizedSparqlString COUNT_QUERY = TRIPLES_COUNT_QUERY;
+	protected ParameterizedSparqlString countQuery = triplesCountQuery;
 
 	@ConfigOption(defaultValue = "true", description = "make SPARQL OWL queries a bit more strict (currently: also test " +
 			"if a class is an owl:Class in some cases)")
@@ -60,6 +61,9 @@ public abstract class PropertyAxiomLearner<S extends OWLProperty, T extends OWLL
 	double beta = 3.0;
 
 	private boolean useSimpleScore = true;
+
+	// statistics computed by a shared scan over the property extension, if available
+	protected PropertyStatistics statistics;
 	
 	
 	/* (non-Javadoc)
@@ -72,9 +76,9 @@ public abstract class PropertyAxiomLearner<S extends OWLProperty, T extends OWLL
 		posExamplesQueryTemplate.setIri("p", entityToDescribe.toStringID());
 		negExamplesQueryTemplate.setIri("p", entityToDescribe.toStringID());
 		
-		COUNT_QUERY.setIri("p", entityToDescribe.toStringID());
-		DISTINCT_SUBJECTS_COUNT_QUERY.setIri("p", entityToDescribe.toStringID());
-		DISTINCT_OBJECTS_COUNT_QUERY.setIri("p", entityToDescribe.toStringID());
+		countQuery.setIri("p", entityToDescribe.toStringID());
+		distinctSubjectsCountQuery.setIri("p", entityToDescribe.toStringID());
+		distinctObjectsCountQuery.setIri("p", entityToDescribe.toStringID());
 	}
 
 	/**
@@ -93,9 +97,35 @@ public abstract class PropertyAxiomLearner<S extends OWLProperty, T extends OWLL
 		this.strictOWLMode = strictOWLMode;
 	}
 	
+	/**
+	 * Set the statistics of the property to describe which have been computed in
+	 * a single scan over the property extension, e.g. shared by multiple algorithms.
+	 * If set, the algorithm uses the precomputed counts instead of sending its own
+	 * count queries. Note, the statistics have to be computed on the same data the
+	 * algorithm is working on, i.e. either on the whole knowledge base or on the
+	 * same sample.
+	 *
+	 * @param statistics the property statistics
+	 */
+	@NoConfigOption
+	public void setStatistics(PropertyStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dllearner.core.AbstractAxiomLearningAlgorithm#getPopularity()
+	 */
+	@Override
+	protected int getPopularity() {
+		if(statistics != null) {
+			return statistics.getNrOfTriples();
+		}
+		return super.getPopularity();
+	}
+	
 	@Override
 	protected ParameterizedSparqlString getSampleQuery(){
-		return GET_SAMPLE_QUERY;
+		return sampleQuery;
 	}
 	
 	/* (non-Javadoc)
@@ -107,19 +137,19 @@ public abstract class PropertyAxiomLearner<S extends OWLProperty, T extends OWLL
 	}
 	
 	protected int getPropertyPopularity(){
-		return getCountValue(COUNT_QUERY.toString());
+		return getCountValue(countQuery.toString());
 	}
 	
 	protected int getPropertyPopularity(Model model){
-		return getCountValue(COUNT_QUERY.toString(), model);
+		return getCountValue(countQuery.toString(), model);
 	}
 	
 	protected int getDistinctSubjectsFrequency(){
-		return getCountValue(DISTINCT_SUBJECTS_COUNT_QUERY.toString());
+		return getCountValue(distinctSubjectsCountQuery.toString());
 	}
 	
 	protected int getDistinctObjectsFrequency(){
-		return getCountValue(DISTINCT_OBJECTS_COUNT_QUERY.toString());
+		return getCountValue(distinctObjectsCountQuery.toString());
 	}
 	
 	protected int getCountValue(String query){
@@ -0,0 +1,287 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.properties;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.ParameterizedSparqlString;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLProperty;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import java.util.*;
+
+/**
+ * Statistics about the extension of a single property which are needed by the
+ * property axiom learners, computed in a single pass over the triples of the
+ * property, i.e. instead of sending one or more count queries per axiom type,
+ * the triples are loaded once and all learners are fed from this object.
+ *
+ * The computed values correspond to the count queries of the learners, in
+ * particular
+ * <ul>
+ * <li>the number of triples and of distinct subjects and objects</li>
+ * <li>the number of subjects (objects) with a single object (subject), i.e.
+ * the positive examples of (inverse) functionality</li>
+ * <li>the number of triples with and without the inverse triple, i.e. the
+ * positive examples of symmetry resp. asymmetry</li>
+ * <li>the number of reflexive triples and of subjects without a reflexive
+ * triple</li>
+ * <li>the number of paths of length 2 and of those closed by a triple, i.e.
+ * the positive examples of transitivity</li>
+ * </ul>
+ * Note, that nodes are compared by RDF term equality and not by SPARQL value
+ * equality, which only makes a difference for literals of data properties.
+ *
+ * The type histograms of the subjects and objects can't be computed from the
+ * triples of the property, thus, they are computed lazily by a single grouped
+ * query on first access.
+ *
+ * @author Lorenz Buehmann
+ */
+public class PropertyStatistics {
+
+	private static final ParameterizedSparqlString SUBJECT_TYPES_QUERY = new ParameterizedSparqlString(
+			"SELECT ?type (COUNT(DISTINCT(?s)) AS ?cnt) WHERE {?s ?p ?o; a ?type .} GROUP BY ?type");
+
+	private static final ParameterizedSparqlString OBJECT_TYPES_QUERY = new ParameterizedSparqlString(
+			"SELECT ?type (COUNT(DISTINCT(?o)) AS ?cnt) WHERE {?s ?p ?o . ?o a ?type .} GROUP BY ?type");
+
+	private static final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	private final OWLProperty property;
+	private final QueryExecutionFactory qef;
+
+	private int nrOfTriples;
+	private int nrOfDistinctSubjects;
+	private int nrOfDistinctObjects;
+
+	private int nrOfFunctionalSubjects;
+	private int nrOfInverseFunctionalObjects;
+	private int nrOfSymmetricTriples;
+	private int nrOfReflexiveTriples;
+	private int nrOfIrreflexiveSubjects;
+	private int nrOfPaths;
+	private int nrOfTransitivePaths;
+
+	private Map<OWLClass, Integer> subjectTypes;
+	private Map<OWLClass, Integer> objectTypes;
+
+	/**
+	 * Computes the statistics of the property from the triples contained in the given
+	 * model.
+	 *
+	 * @param property the property
+	 * @param data the model containing the triples of the property, e.g. a sample
+	 * @param qef the query execution factory used to compute the type histograms, it
+	 *            has to work on the same data as the model
+	 */
+	public PropertyStatistics(OWLProperty property, Model data, QueryExecutionFactory qef) {
+		this.property = property;
+		this.qef = qef;
+
+		scan(data.getGraph());
+	}
+
+	private void scan(Graph graph) {
+		Node p = NodeFactory.createURI(property.toStringID());
+
+		// the forward and inverse adjacency of the property
+		Map<Node, Set<Node>> objects = new HashMap<>();
+		Map<Node, Set<Node>> subjects = new HashMap<>();
+
+		ExtendedIterator<Triple> it = graph.find(Node.ANY, p, Node.ANY);
+		try {
+			while (it.hasNext()) {
+				Triple t = it.next();
+				objects.computeIfAbsent(t.getSubject(), k -> new HashSet<>()).add(t.getObject());
+				subjects.computeIfAbsent(t.getObject(), k -> new HashSet<>()).add(t.getSubject());
+				nrOfTriples++;
+			}
+		} finally {
+			it.close();
+		}
+
+		nrOfDistinctSubjects = objects.size();
+		nrOfDistinctObjects = subjects.size();
+
+		for (Set<Node> s : subjects.values()) {
+			if (s.size() == 1) {
+				nrOfInverseFunctionalObjects++;
+			}
+		}
+
+		for (Map.Entry<Node, Set<Node>> entry : objects.entrySet()) {
+			Node s = entry.getKey();
+			Set<Node> successors = entry.getValue();
+
+			if (successors.size() == 1) {
+				nrOfFunctionalSubjects++;
+			}
+
+			if (successors.contains(s)) {
+				nrOfReflexiveTriples++;
+			} else {
+				nrOfIrreflexiveSubjects++;
+			}
+
+			for (Node o : successors) {
+				// (s, o) with (o, s)
+				Set<Node> successors2 = objects.get(o);
+				if (successors2 == null) {
+					continue;
+				}
+				if (successors2.contains(s)) {
+					nrOfSymmetricTriples++;
+				}
+
+				// paths (s, o, o2) and whether they are closed by (s, o2)
+				nrOfPaths += successors2.size();
+				for (Node o2 : successors2) {
+					if (successors.contains(o2)) {
+						nrOfTransitivePaths++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the property
+	 */
+	public OWLProperty getProperty() {
+		return property;
+	}
+
+	/**
+	 * @return the number of triples
+	 */
+	public int getNrOfTriples() {
+		return nrOfTriples;
+	}
+
+	/**
+	 * @return the number of distinct subjects
+	 */
+	public int getNrOfDistinctSubjects() {
+		return nrOfDistinctSubjects;
+	}
+
+	/**
+	 * @return the number of distinct objects
+	 */
+	public int getNrOfDistinctObjects() {
+		return nrOfDistinctObjects;
+	}
+
+	/**
+	 * @return the number of paths of length 2, i.e. the matches of
+	 * <code>?s ?p ?o1 . ?o1 ?p ?o2</code>
+	 */
+	public int getNrOfPaths() {
+		return nrOfPaths;
+	}
+
+	/**
+	 * Returns the number of positive examples for a property characteristic, i.e.
+	 * the value of the frequency query of the corresponding axiom learner.
+	 *
+	 * @param axiomType the axiom type
+	 * @return the number of positive examples
+	 */
+	public int getPositiveExamplesFrequency(AxiomType<?> axiomType) {
+		if (axiomType.equals(AxiomType.FUNCTIONAL_OBJECT_PROPERTY)
+				|| axiomType.equals(AxiomType.FUNCTIONAL_DATA_PROPERTY)) {
+			return nrOfFunctionalSubjects;
+		} else if (axiomType.equals(AxiomType.INVERSE_FUNCTIONAL_OBJECT_PROPERTY)) {
+			return nrOfInverseFunctionalObjects;
+		} else if (axiomType.equals(AxiomType.SYMMETRIC_OBJECT_PROPERTY)) {
+			return nrOfSymmetricTriples;
+		} else if (axiomType.equals(AxiomType.ASYMMETRIC_OBJECT_PROPERTY)) {
+			return nrOfTriples - nrOfSymmetricTriples;
+		} else if (axiomType.equals(AxiomType.REFLEXIVE_OBJECT_PROPERTY)) {
+			return nrOfReflexiveTriples;
+		} else if (axiomType.equals(AxiomType.IRREFLEXIVE_OBJECT_PROPERTY)) {
+			return nrOfIrreflexiveSubjects;
+		} else if (axiomType.equals(AxiomType.TRANSITIVE_OBJECT_PROPERTY)) {
+			return nrOfTransitivePaths;
+		}
+		throw new IllegalArgumentException("Axiom type cannot be " + axiomType);
+	}
+
+	/**
+	 * @return for each class the number of distinct subjects which are asserted to
+	 * be instances of the class
+	 */
+	public synchronized Map<OWLClass, Integer> getSubjectTypeHistogram() {
+		if (subjectTypes == null) {
+			subjectTypes = computeTypeHistogram(SUBJECT_TYPES_QUERY);
+		}
+		return subjectTypes;
+	}
+
+	/**
+	 * @return for each class the number of distinct objects which are asserted to
+	 * be instances of the class
+	 */
+	public synchronized Map<OWLClass, Integer> getObjectTypeHistogram() {
+		if (objectTypes == null) {
+			objectTypes = computeTypeHistogram(OBJECT_TYPES_QUERY);
+		}
+		return objectTypes;
+	}
+
+	private Map<OWLClass, Integer> computeTypeHistogram(ParameterizedSparqlString queryTemplate) {
+		ParameterizedSparqlString query = queryTemplate.copy();
+		query.setIri("p", property.toStringID());
+
+		Map<OWLClass, Integer> histogram = new HashMap<>();
+		try (QueryExecution qe = qef.createQueryExecution(query.toString())) {
+			ResultSet rs = qe.execSelect();
+			while (rs.hasNext()) {
+				QuerySolution qs = rs.next();
+				if (qs.get("type").isURIResource()) {
+					histogram.put(
+							df.getOWLClass(IRI.create(qs.getResource("type").getURI())),
+							qs.getLiteral("cnt").getInt());
+				}
+			}
+		}
+		return Collections.unmodifiableMap(histogram);
+	}
+
+	@Override
+	public String toString() {
+		return "PropertyStatistics[" + property.toStringID()
+				+ ", triples=" + nrOfTriples
+				+ ", subjects=" + nrOfDistinctSubjects
+				+ ", objects=" + nrOfDistinctObjects + "]";
+	}
+}
@@ -37,10 +37,10 @@ public class ReflexiveObjectPropertyAxiomLearner extends ObjectPropertyCharacter
 		super.negExamplesQueryTemplate = new ParameterizedSparqlString(
 				"SELECT ?s WHERE {?s ?p ?o . FILTER NOT EXISTS{?s ?p ?s .}");
 		
-		super.POS_FREQUENCY_QUERY = new ParameterizedSparqlString(
+		super.posFrequencyQuery = new ParameterizedSparqlString(
 					"SELECT (COUNT(?s) AS ?cnt) WHERE {?s ?p ?s .}");
 		
-		COUNT_QUERY = DISTINCT_SUBJECTS_COUNT_QUERY;
+		countQuery = distinctSubjectsCountQuery;
 		
 		axiomType = AxiomType.REFLEXIVE_OBJECT_PROPERTY;
 
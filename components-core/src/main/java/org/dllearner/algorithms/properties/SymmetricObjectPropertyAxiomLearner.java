@@ -37,7 +37,7 @@ public class SymmetricObjectPropertyAxiomLearner extends ObjectPropertyCharacter
 		super.negExamplesQueryTemplate = new ParameterizedSparqlString(
 				"SELECT ?s ?o WHERE {?s ?p ?o . FILTER NOT EXISTS{?o ?p ?s .}");
 		
-		super.POS_FREQUENCY_QUERY = new ParameterizedSparqlString(
+		super.posFrequencyQuery = new ParameterizedSparqlString(
 					"SELECT (COUNT(*) AS ?cnt) WHERE {?s ?p ?o . ?o ?p ?s .}");
 		
 		axiomType = AxiomType.SYMMETRIC_OBJECT_PROPERTY;
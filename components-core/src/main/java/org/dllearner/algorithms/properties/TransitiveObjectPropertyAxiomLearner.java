@@ -42,7 +42,7 @@ import org.apache.jena.query.ResultSet;
 @ComponentAnn(name = "transitive object property axiom learner", shortName = "opltrans", version = 0.1, description="A learning algorithm for transitive object property axioms.")
 public class TransitiveObjectPropertyAxiomLearner extends ObjectPropertyCharacteristicsAxiomLearner<OWLTransitiveObjectPropertyAxiom> {
 	
-	private static final ParameterizedSparqlString SAMPLE_QUERY = new ParameterizedSparqlString(
+	private final ParameterizedSparqlString sampleQuery = new ParameterizedSparqlString(
 			"CONSTRUCT {?s ?p ?o . ?o ?p ?o1 . ?s ?p ?o1 .} WHERE {?s ?p ?o . ?o ?p ?o1 . OPTIONAL {?s ?p ?o1 .}}");
 
 	public TransitiveObjectPropertyAxiomLearner(SparqlEndpointKS ks) {
@@ -55,10 +55,10 @@ public class TransitiveObjectPropertyAxiomLearner extends ObjectPropertyCharacte
 		
 		axiomType = AxiomType.TRANSITIVE_OBJECT_PROPERTY;
 		
-		COUNT_QUERY = new ParameterizedSparqlString(
+		countQuery = new ParameterizedSparqlString(
 				"SELECT (COUNT(*) AS ?cnt) WHERE {?s ?p ?o1. ?o1 ?p ?o2. }");
 		
-		POS_FREQUENCY_QUERY = new ParameterizedSparqlString(
+		posFrequencyQuery = new ParameterizedSparqlString(
 				"SELECT (COUNT(*) AS ?cnt) WHERE {?s ?p ?o1. ?o1 ?p ?o2. ?s ?p ?o2}");
 		
 	}
@@ -76,7 +76,7 @@ public class TransitiveObjectPropertyAxiomLearner extends ObjectPropertyCharacte
 	 */
 	@Override
 	protected ParameterizedSparqlString getSampleQuery() {
-		return SAMPLE_QUERY;
+		return sampleQuery;
 	}
 	
 	/* (non-Javadoc)
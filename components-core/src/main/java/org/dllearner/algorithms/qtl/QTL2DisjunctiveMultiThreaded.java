@@ -18,8 +18,11 @@
  */
 package org.dllearner.algorithms.qtl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.jamonapi.MonitorFactory;
 import gnu.trove.map.TObjectIntMap;
@@ -27,10 +30,15 @@ import gnu.trove.map.hash.TObjectIntHashMap;
 import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
 import org.dllearner.algorithms.qtl.datastructures.impl.EvaluatedRDFResourceTree;
 import org.dllearner.algorithms.qtl.datastructures.impl.QueryTreeImpl.LiteralNodeConversionStrategy;
 import org.dllearner.algorithms.qtl.datastructures.impl.QueryTreeImpl.LiteralNodeSubsumptionStrategy;
 import org.dllearner.algorithms.qtl.datastructures.impl.RDFResourceTree;
+import org.dllearner.algorithms.qtl.datastructures.impl.TreeSignature;
 import org.dllearner.algorithms.qtl.heuristics.QueryTreeHeuristic;
 import org.dllearner.algorithms.qtl.heuristics.QueryTreeHeuristicSimple;
 import org.dllearner.algorithms.qtl.impl.QueryTreeFactory;
@@ -84,6 +92,14 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 	private Queue<EvaluatedRDFResourceTree> todoList;
 	private SortedSet<EvaluatedRDFResourceTree> currentPartialSolutions = new ConcurrentSkipListSet<>();
 
+	// the trees of the todo list resp. the partial solutions by the equivalence hash of their signature,
+	// such that only trees with the same hash have to be checked for redundancy
+	private final Map<Integer, Set<EvaluatedRDFResourceTree>> todoIndex = new ConcurrentHashMap<>();
+	private final Map<Integer, Set<EvaluatedRDFResourceTree>> partialSolutionsIndex = new ConcurrentHashMap<>();
+
+	// the signatures of the trees, which allow for rejecting most non-subsumptions in constant time
+	private final Cache<RDFResourceTree, TreeSignature> treeSignatures = CacheBuilder.newBuilder().weakKeys().build();
+
 	private double bestCurrentScore = 0d;
 	private EvaluatedRDFResourceTree bestPartialSolutionTree;
 
@@ -160,6 +176,10 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 
 	private int nrOfThreads = Runtime.getRuntime().availableProcessors();
 
+	@ConfigOption(defaultValue = "50", description = "the number of examples whose CBDs are retrieved with a single query " +
+			"during the generation of the query trees")
+	private int cbdBatchSize = 50;
+
 	public QTL2DisjunctiveMultiThreaded() {}
 
 	public QTL2DisjunctiveMultiThreaded(PosNegLP learningProblem, AbstractReasonerComponent reasoner) {
@@ -216,7 +236,10 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 		if(treeFactory == null) {
 			treeFactory = new QueryTreeFactoryBase();
 		}
-		cbdGen = new ConciseBoundedDescriptionGeneratorImpl(qef);
+		// the CBDs of multiple examples are retrieved with a single query
+		ConciseBoundedDescriptionGeneratorImpl cbdGenImpl = new ConciseBoundedDescriptionGeneratorImpl(qef);
+		cbdGenImpl.setUseSingleQuery(true);
+		cbdGen = cbdGenImpl;
 
 		// set the used heuristic
 		if(heuristic == null){
@@ -265,47 +288,153 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 		this.nrOfThreads = nrOfThreads;
 	}
 
+	/**
+	 * @param cbdBatchSize the number of examples whose CBDs are retrieved with a single query
+	 */
+	public void setCbdBatchSize(int cbdBatchSize) {
+		this.cbdBatchSize = cbdBatchSize;
+	}
+
 	private void generateQueryTrees(){
 		logger.info("Generating trees...");
-		RDFResourceTree queryTree;
 
 		// positive examples
 		if(currentPosExampleTrees.isEmpty()){
-			for (OWLIndividual ind : lp.getPositiveExamples()) {
-				try {
-					Model cbd = cbdGen.getConciseBoundedDescription(ind.toStringID(), maxTreeDepth);
-//					cbd.write(new FileOutputStream("/tmp/dbpedia-" + ind.toStringID().substring(ind.toStringID().lastIndexOf('/') + 1) + ".ttl"), "TURTLE", null);
-					queryTree = treeFactory.getQueryTree(ind.toStringID(), cbd, maxTreeDepth);
-					tree2Individual.put(queryTree, ind);
-					currentPosExampleTrees.add(queryTree);
-					currentPosExamples.add(ind);
-					logger.debug(ind.toStringID());
-					logger.debug(queryTree.getStringRepresentation());
-				} catch (Exception e) {
-					logger.error("Failed to generate tree for resource " + ind, e);
-					throw new RuntimeException();
-				}
-			}
+			Map<OWLIndividual, RDFResourceTree> trees = generateQueryTrees(lp.getPositiveExamples());
+			trees.forEach((ind, queryTree) -> {
+				tree2Individual.put(queryTree, ind);
+				currentPosExampleTrees.add(queryTree);
+				currentPosExamples.add(ind);
+			});
 		}
 
 		// negative examples
 		if(currentNegExampleTrees.isEmpty()){
-			for (OWLIndividual ind : lp.getNegativeExamples()) {
-				try {
-					Model cbd = cbdGen.getConciseBoundedDescription(ind.toStringID(), maxTreeDepth);
+			Map<OWLIndividual, RDFResourceTree> trees = generateQueryTrees(lp.getNegativeExamples());
+			trees.forEach((ind, queryTree) -> {
+				tree2Individual.put(queryTree, ind);
+				currentNegExampleTrees.add(queryTree);
+				currentNegExamples.add(ind);
+			});
+		}
+		logger.info("...done.");
+	}
+
+	/**
+	 * Generates the query trees of the given examples in a pipeline: the CBDs of
+	 * batches of examples are retrieved with a single query per batch, the result
+	 * is split into the CBDs of the single examples, and the trees are built,
+	 * where all batches are processed concurrently by {@link #nrOfThreads}
+	 * threads. If the work queue is full, the batches are processed by the calling
+	 * thread, thus, not more batches than the threads can handle are in memory.
+	 * Examples for which the tree can't be generated are omitted.
+	 *
+	 * @param examples the examples
+	 * @return the query trees of the examples, in the order of the examples
+	 */
+	private Map<OWLIndividual, RDFResourceTree> generateQueryTrees(Collection<OWLIndividual> examples) {
+		Map<OWLIndividual, RDFResourceTree> trees = new ConcurrentHashMap<>();
+		Map<OWLIndividual, Exception> failures = new ConcurrentHashMap<>();
+
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(nrOfThreads, nrOfThreads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(nrOfThreads), new ThreadPoolExecutor.CallerRunsPolicy());
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (List<OWLIndividual> batch : Iterables.partition(examples, cbdBatchSize)) {
+				futures.add(pool.submit(() -> generateQueryTrees(batch, trees, failures)));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted during generation of query trees.", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Failed to generate query trees.", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		if(!failures.isEmpty()) {
+			logger.warn("Failed to generate trees for " + failures.size() + " of " + examples.size()
+					+ " examples, they will be ignored: " + failures.keySet());
+		}
+
+		// keep the order of the examples
+		Map<OWLIndividual, RDFResourceTree> orderedTrees = new LinkedHashMap<>();
+		for (OWLIndividual ind : examples) {
+			if(trees.containsKey(ind)) {
+				orderedTrees.put(ind, trees.get(ind));
+			}
+		}
+		return orderedTrees;
+	}
+
+	private void generateQueryTrees(List<OWLIndividual> batch,
+									Map<OWLIndividual, RDFResourceTree> trees,
+									Map<OWLIndividual, Exception> failures) {
+		Model batchCBD = null;
+		if(batch.size() > 1) {
+			try {
+				batchCBD = cbdGen.getConciseBoundedDescription(
+						batch.stream().map(OWLIndividual::toStringID).collect(Collectors.toSet()), maxTreeDepth);
+			} catch (Exception e) {
+				logger.warn("Failed to get the CBDs for a batch of " + batch.size() + " examples, " +
+						"trying each example separately.", e);
+			}
+		}
+
+		for (OWLIndividual ind : batch) {
+			try {
+				Model cbd = batchCBD != null
+						? extractCBD(batchCBD, batchCBD.getResource(ind.toStringID()), maxTreeDepth)
+						: cbdGen.getConciseBoundedDescription(ind.toStringID(), maxTreeDepth);
+				RDFResourceTree queryTree;
+				if(treeFactory instanceof QueryTreeFactoryBase) {
 					queryTree = treeFactory.getQueryTree(ind.toStringID(), cbd, maxTreeDepth);
-					tree2Individual.put(queryTree, ind);
-					currentNegExampleTrees.add(queryTree);
-					currentNegExamples.add(ind);
-					logger.debug(ind.toStringID());
-					logger.debug(queryTree.getStringRepresentation());
-				} catch (Exception e) {
-					logger.error("Failed to generate tree for resource " + ind, e);
-					throw new RuntimeException();
+				} else {
+					// other factories are not necessarily thread-safe
+					synchronized (treeFactory) {
+						queryTree = treeFactory.getQueryTree(ind.toStringID(), cbd, maxTreeDepth);
+					}
 				}
+				trees.put(ind, queryTree);
+				logger.debug(ind.toStringID());
+				logger.debug(queryTree.getStringRepresentation());
+			} catch (Exception e) {
+				logger.error("Failed to generate tree for resource " + ind, e);
+				failures.put(ind, e);
 			}
 		}
-		logger.info("...done.");
+	}
+
+	/**
+	 * Extracts the CBD of the given resource from a model which contains the CBDs
+	 * of multiple resources, i.e. all triples on paths of length at most
+	 * <code>depth</code> starting from the resource.
+	 */
+	private Model extractCBD(Model model, Resource resource, int depth) {
+		Model cbd = ModelFactory.createDefaultModel();
+		Set<Resource> visited = new HashSet<>();
+		Set<Resource> frontier = Collections.singleton(resource);
+		for (int i = 0; i < depth && !frontier.isEmpty(); i++) {
+			Set<Resource> next = new HashSet<>();
+			for (Resource s : frontier) {
+				if(!visited.add(s)) {
+					continue;
+				}
+				StmtIterator it = model.listStatements(s, null, (RDFNode) null);
+				while (it.hasNext()) {
+					Statement st = it.next();
+					cbd.add(st);
+					if(st.getObject().isResource()) {
+						next.add(st.getObject().asResource());
+					}
+				}
+			}
+			frontier = next;
+		}
+		return cbd;
 	}
 
 	/* (non-Javadoc)
@@ -449,6 +578,7 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 			logger.trace("ToDo list size: " + todoList.size());
 			// pick best element from todo list
 			EvaluatedRDFResourceTree currentElement = todoList.poll();
+			removeFromIndex(todoIndex, currentElement);
 			final RDFResourceTree currentTree = currentElement.getTree();
 
 			logger.trace("Next tree: {} ({})", currentElement.getBaseQueryTrees(), currentElement.getTreeScore());
@@ -573,12 +703,71 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 	}
 
 	private boolean addToSolutions(EvaluatedRDFResourceTree solution) {
-		for (EvaluatedRDFResourceTree partialSolution : currentPartialSolutions) {
-			if(QueryTreeUtils.sameTrees(partialSolution.getTree(), solution.getTree())) {
-				return false;
+		if(containsSameTree(partialSolutionsIndex, solution.getTree())) {
+			return false;
+		}
+		if(currentPartialSolutions.add(solution)) {
+			addToIndex(partialSolutionsIndex, solution);
+			return true;
+		}
+		return false;
+	}
+
+	private TreeSignature signature(RDFResourceTree tree) {
+		TreeSignature signature = treeSignatures.getIfPresent(tree);
+		if(signature == null) {
+			signature = TreeSignature.of(tree);
+			treeSignatures.put(tree, signature);
+		}
+		return signature;
+	}
+
+	/**
+	 * Same as {@link QueryTreeUtils#isSubsumedBy(RDFResourceTree, RDFResourceTree)}, but most
+	 * non-subsumptions are rejected by the signatures of the trees.
+	 */
+	private boolean isSubsumedBy(RDFResourceTree tree1, RDFResourceTree tree2) {
+		return signature(tree1).mayBeSubsumedBy(signature(tree2)) && QueryTreeUtils.isSubsumedBy(tree1, tree2);
+	}
+
+	/**
+	 * Same as {@link QueryTreeUtils#sameTrees(RDFResourceTree, RDFResourceTree)}, but most
+	 * non-equivalences are rejected by the signatures of the trees.
+	 */
+	private boolean sameTrees(RDFResourceTree tree1, RDFResourceTree tree2) {
+		return signature(tree1).mayBeEquivalentTo(signature(tree2)) && QueryTreeUtils.sameTrees(tree1, tree2);
+	}
+
+	private boolean isSubsumedBy(RDFResourceTree tree1, RDFResourceTree tree2, Entailment entailment) {
+		// the signatures are only valid for simple entailment
+		if(entailment == Entailment.SIMPLE) {
+			return isSubsumedBy(tree1, tree2);
+		}
+		return QueryTreeUtils.isSubsumedBy(tree1, tree2, entailment, reasoner);
+	}
+
+	private boolean containsSameTree(Map<Integer, Set<EvaluatedRDFResourceTree>> index, RDFResourceTree tree) {
+		Set<EvaluatedRDFResourceTree> candidates = index.get(signature(tree).getEquivalenceHash());
+		if(candidates != null) {
+			for (EvaluatedRDFResourceTree evTree : candidates) {
+				if(sameTrees(tree, evTree.getTree())) {
+					return true;
+				}
 			}
 		}
-		return currentPartialSolutions.add(solution);
+		return false;
+	}
+
+	private void addToIndex(Map<Integer, Set<EvaluatedRDFResourceTree>> index, EvaluatedRDFResourceTree evTree) {
+		index.computeIfAbsent(signature(evTree.getTree()).getEquivalenceHash(), k -> ConcurrentHashMap.newKeySet())
+				.add(evTree);
+	}
+
+	private void removeFromIndex(Map<Integer, Set<EvaluatedRDFResourceTree>> index, EvaluatedRDFResourceTree evTree) {
+		Set<EvaluatedRDFResourceTree> candidates = index.get(signature(evTree.getTree()).getEquivalenceHash());
+		if(candidates != null) {
+			candidates.remove(evTree);
+		}
 	}
 
 	/**
@@ -591,16 +780,20 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 	 */
 	private void initTodoList(List<RDFResourceTree> posExamples, List<RDFResourceTree> negExamples){
 		todoList = new PriorityBlockingQueue<>();
+		todoIndex.clear();
 //		EvaluatedRDFResourceTree dummy = new EvaluatedRDFResourceTree(new QueryTreeImpl<String>((N)"TOP"), trees, 0d);
 //		todoList.add(dummy);
 
 		// compute distinct trees, i.e. check if some of the trees already cover others
 		Collection<RDFResourceTree> distinctTrees = new ArrayList<>();
+		Map<Integer, List<RDFResourceTree>> distinctTreesIndex = new HashMap<>();
 		for (RDFResourceTree queryTree : posExamples) {
 			boolean distinct = true;
-			for (RDFResourceTree otherTree : distinctTrees) {
+			List<RDFResourceTree> candidates = distinctTreesIndex.computeIfAbsent(
+					signature(queryTree).getEquivalenceHash(), k -> new ArrayList<>());
+			for (RDFResourceTree otherTree : candidates) {
 				if(!queryTree.equals(otherTree)){
-					if(QueryTreeUtils.sameTrees(queryTree, otherTree)){
+					if(sameTrees(queryTree, otherTree)){
 						distinct = false;
 						break;
 					}
@@ -608,6 +801,7 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 			}
 			if(distinct){
 				distinctTrees.add(queryTree);
+				candidates.add(queryTree);
 			}
 		}
 
@@ -615,7 +809,7 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 		for (RDFResourceTree queryTree : distinctTrees) {
 			EvaluatedRDFResourceTree evaluatedQueryTree = evaluateSimple(queryTree, false);
 			evaluatedQueryTree.setBaseQueryTrees(Collections.singleton(queryTree));
-			todoList.add(evaluatedQueryTree);
+			todo(evaluatedQueryTree);
 		}
 	}
 
@@ -625,20 +819,15 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 	 */
 	private boolean isRedundant(RDFResourceTree tree) {
 		//check if not already contained in todo list
-		for (EvaluatedRDFResourceTree evTree : todoList) {
-			if(QueryTreeUtils.sameTrees(tree, evTree.getTree())){
-				logger.trace("Not added to TODO list: Already contained in.");
-//				logger.trace(evTree.getBaseQueryTrees().toString());
-				return true;
-			}
+		if(containsSameTree(todoIndex, tree)){
+			logger.trace("Not added to TODO list: Already contained in.");
+			return true;
 		}
 
 		//check if not already contained in solutions
-		for (EvaluatedRDFResourceTree evTree : currentPartialSolutions) {
-			if(QueryTreeUtils.sameTrees(tree, evTree.getTree())){
-				logger.trace("Not added to partial solutions list: Already contained in.");
-				return true;
-			}
+		if(containsSameTree(partialSolutionsIndex, tree)){
+			logger.trace("Not added to partial solutions list: Already contained in.");
+			return true;
 		}
 		return false;
 	}
@@ -650,6 +839,7 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 	private void todo(EvaluatedRDFResourceTree solution){
 		logger.trace("Added to TODO list.");
 		todoList.add(solution);
+		addToIndex(todoIndex, solution);
 	}
 
 	private EvaluatedRDFResourceTree evaluateSimple(RDFResourceTree tree, boolean useSpecifity){
@@ -736,7 +926,7 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 			// compute positive examples which are not covered by LGG
 			for (RDFResourceTree posTree : currentPosExampleTrees) {
 //				System.out.print(currentPosExampleTrees.indexOf(posTree) + ":");
-				if(!QueryTreeUtils.isSubsumedBy(posTree, tree, entailment, reasoner)){
+				if(!isSubsumedBy(posTree, tree, entailment)){
 //					System.err.println(posTree.getStringRepresentation(true));System.err.println(tree.getStringRepresentation(true));
 //					System.out.println("FALSE");
 					uncoveredPositiveExampleTrees.add(posTree);
@@ -747,7 +937,7 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 
 			// compute negative examples which are covered by LGG
 			for (RDFResourceTree negTree : currentNegExampleTrees) {
-				if(QueryTreeUtils.isSubsumedBy(negTree, tree, entailment, reasoner)){
+				if(isSubsumedBy(negTree, tree, entailment)){
 					coveredNegativeExampleTrees.add(negTree);
 				}
 			}
@@ -1025,7 +1215,7 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 	private List<RDFResourceTree> getCoveredTrees(RDFResourceTree tree, List<RDFResourceTree> trees){
 		List<RDFResourceTree> coveredTrees = new ArrayList<>();
 		for (RDFResourceTree queryTree : trees) {
-			if(QueryTreeUtils.isSubsumedBy(queryTree, tree)){
+			if(isSubsumedBy(queryTree, tree)){
 				coveredTrees.add(queryTree);
 			}
 		}
@@ -1041,7 +1231,7 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 	private List<RDFResourceTree> getUncoveredTrees(RDFResourceTree tree, List<RDFResourceTree> trees){
 		List<RDFResourceTree> uncoveredTrees = new ArrayList<>();
 		for (RDFResourceTree queryTree : trees) {
-			if(!QueryTreeUtils.isSubsumedBy(queryTree, tree)){
+			if(!isSubsumedBy(queryTree, tree)){
 				uncoveredTrees.add(queryTree);
 			}
 		}
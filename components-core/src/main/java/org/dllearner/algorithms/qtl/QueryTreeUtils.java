@@ -48,6 +48,8 @@ import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
 import org.dllearner.algorithms.qtl.datastructures.NodeInv;
 import org.dllearner.algorithms.qtl.datastructures.QueryTree;
+import org.dllearner.algorithms.qtl.datastructures.impl.CompactRDFResourceTree;
+import org.dllearner.algorithms.qtl.datastructures.impl.CompactTreeFactory;
 import org.dllearner.algorithms.qtl.datastructures.impl.GenericTree;
 import org.dllearner.algorithms.qtl.datastructures.impl.QueryTreeImpl.LiteralNodeConversionStrategy;
 import org.dllearner.algorithms.qtl.datastructures.impl.QueryTreeImpl.LiteralNodeSubsumptionStrategy;
@@ -398,6 +400,72 @@ public class QueryTreeUtils {
     	return true;
     }
     
+    /**
+	 * Determines if tree1 is subsumed by tree2, i.e. whether tree2 is more general than
+	 * tree1. Both trees must have been created by the same factory.
+	 * @param tree1 the first query tree
+	 * @param tree2 the second query tree
+	 * @return whether <code>tree1</code> is subsumed by <code>tree2</code>
+	 * @see #isSubsumedBy(RDFResourceTree, RDFResourceTree)
+	 */
+    public static boolean isSubsumedBy(CompactRDFResourceTree tree1, CompactRDFResourceTree tree2) {
+		// the trees are interned, i.e. identical trees are the same object
+		if(tree1 == tree2) {
+			return true;
+		}
+    	// 1.compare the root nodes
+    	if(tree1.isResourceNode() && tree2.isResourceNode()) {
+    		return tree1.getLabel() == tree2.getLabel();
+    	} else if(tree1.isLiteralNode() && tree2.isLiteralNode()) {
+    		if(tree1.isLiteralValueNode()) {
+    			if(tree2.isLiteralValueNode()) {
+    				return tree1.getLabel() == tree2.getLabel();
+    			} else {
+    				// T_2 wraps literal -> check whether the datatypes match
+					return tree1.getDatatype() == tree2.getDatatype();
+    			}
+    		} else {
+    			return !tree2.isLiteralValueNode() && tree1.getDatatype() == tree2.getDatatype();
+    		}
+    	}
+
+    	if(tree2.isBlankNode() && !tree2.hasChildren()) {
+    		return false;
+		}
+
+    	// (T_1 = ?) and (T_2 != ?) --> FALSE
+    	if(tree1.isVarNode() && !tree2.isVarNode()) {
+    		return false;
+    	}
+
+    	// 2. compare the children, both are sorted by edge
+    	int n2 = tree2.getNumberOfChildren();
+    	int i2 = 0;
+    	while(i2 < n2) {
+    		int edge = tree2.getEdge(i2);
+    		int end2 = tree2.endOfChildren(edge, i2);
+    		int start1 = tree1.firstChild(edge);
+    		int end1 = tree1.endOfChildren(edge, start1);
+    		if(start1 == end1) {
+    			return false;
+    		}
+    		for(; i2 < end2; i2++) {
+    			CompactRDFResourceTree child2 = tree2.getChild(i2);
+    			boolean isSubsumed = false;
+    			for(int i1 = start1; i1 < end1; i1++) {
+    				if(isSubsumedBy(tree1.getChild(i1), child2)) {
+    					isSubsumed = true;
+    					break;
+    				}
+    			}
+    			if(!isSubsumed) {
+    				return false;
+    			}
+    		}
+    	}
+    	return true;
+    }
+
     public static boolean isSubsumedBy(RDFResourceTree tree1, RDFResourceTree tree2, LiteralNodeSubsumptionStrategy strategy) {
 		return isSubsumedBy(tree1, tree2);
 	}
@@ -611,6 +679,61 @@ public class QueryTreeUtils {
     	return buildOWLClassExpression(tree, literalConversion);
 	}
 	
+	/**
+	 * @param tree the compact query tree
+	 * @return the class expression represented by the tree
+	 * @see #toOWLClassExpression(RDFResourceTree)
+	 */
+	public static OWLClassExpression toOWLClassExpression(CompactRDFResourceTree tree) {
+		CompactTreeFactory factory = tree.getFactory();
+		Set<OWLClassExpression> classExpressions = new HashSet<>();
+		for (int i = 0; i < tree.getNumberOfChildren(); i++) {
+			Node edge = factory.getNode(tree.getEdge(i));
+			CompactRDFResourceTree child = tree.getChild(i);
+			if(edge.equals(RDF.type.asNode()) || edge.equals(RDFS.subClassOf.asNode()) || edge.equals(OWL.equivalentClass.asNode())) {
+				if(child.isVarNode()) {
+					classExpressions.add(toOWLClassExpression(child));
+				} else {
+					classExpressions.add(df.getOWLClass(IRI.create(child.getData().getURI())));
+				}
+			} else if(child.isLiteralNode()) {
+				OWLDataProperty dp = df.getOWLDataProperty(IRI.create(edge.getURI()));
+				if(!child.isLiteralValueNode()) {
+					OWLDataRange dr;
+					if(child.getDatatype() == CompactRDFResourceTree.NO_DATATYPE) {
+						dr = df.getTopDatatype();
+					} else {
+						dr = df.getOWLDatatype(IRI.create(factory.getNode(child.getDatatype()).getURI()));
+					}
+					classExpressions.add(df.getOWLDataSomeValuesFrom(dp, dr));
+				} else {
+					OWLLiteral value = OwlApiJenaUtils.getOWLLiteral(child.getData().getLiteral());
+					classExpressions.add(df.getOWLDataHasValue(dp, value));
+				}
+			} else {
+				OWLObjectPropertyExpression pe = df.getOWLObjectProperty(IRI.create(edge.getURI()));
+				if(edge instanceof NodeInv) {
+					pe = pe.getInverseProperty();
+				}
+				if(child.isVarNode()) {
+					classExpressions.add(df.getOWLObjectSomeValuesFrom(pe, toOWLClassExpression(child)));
+				} else if (child.isResourceNode()) {
+					classExpressions.add(df.getOWLObjectHasValue(
+							pe,
+							df.getOWLNamedIndividual(IRI.create(child.getData().getURI()))));
+				}
+			}
+		}
+		classExpressions.remove(df.getOWLThing());
+		if(classExpressions.isEmpty()) {
+			return df.getOWLThing();
+		} else if(classExpressions.size() == 1){
+			return classExpressions.iterator().next();
+		} else {
+			return df.getOWLObjectIntersectionOf(classExpressions);
+		}
+	}
+
 	private static OWLClassExpression buildOWLClassExpression(RDFResourceTree tree, LiteralNodeConversionStrategy literalConversion) {
 		Set<OWLClassExpression> classExpressions = new HashSet<>();
 		for(Node edge : tree.getEdges()) {
@@ -0,0 +1,257 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.qtl.datastructures.impl;
+
+import org.apache.jena.graph.Node;
+
+import java.util.Arrays;
+
+/**
+ * An immutable and compact representation of an {@link RDFResourceTree}, which
+ * is used to keep large numbers of query trees in memory.
+ *
+ * The node labels, edges and literal datatypes are represented by int IDs
+ * of a {@link CompactTreeFactory}. The children of a node are stored in two
+ * parallel arrays sorted by the ID of the edge and the ID of the child. All
+ * trees are interned by the factory, i.e. structurally identical subtrees are
+ * represented by the same object. Thus, two trees created by the same factory
+ * are structurally identical if and only if they are the same object.
+ *
+ * Note, there is no reference to the parent node, as a subtree can be part of
+ * multiple trees, and anchor variables are not supported.
+ *
+ * @author Lorenz Buehmann
+ */
+public final class CompactRDFResourceTree {
+
+	public static final int NO_DATATYPE = -1;
+
+	static final byte VAR = 0;
+	static final byte RESOURCE = 1;
+	static final byte LITERAL = 2;
+	static final byte LITERAL_VALUE = 3;
+	static final byte BLANK = 4;
+
+	private final CompactTreeFactory factory;
+
+	// unique among all trees of the factory
+	private final int id;
+
+	private final int label;
+	private final int datatype;
+	private final byte kind;
+
+	private final int[] edges;
+	private final CompactRDFResourceTree[] children;
+
+	private final int hash;
+
+	CompactRDFResourceTree(CompactTreeFactory factory, int id, int label, int datatype, byte kind,
+						   int[] edges, CompactRDFResourceTree[] children) {
+		this.factory = factory;
+		this.id = id;
+		this.label = label;
+		this.datatype = datatype;
+		this.kind = kind;
+		this.edges = edges;
+		this.children = children;
+
+		// the children are interned, thus their IDs can be used
+		int h = 31 * label + datatype;
+		for (int i = 0; i < edges.length; i++) {
+			h = 31 * (31 * h + edges[i]) + children[i].id;
+		}
+		this.hash = h;
+	}
+
+	/**
+	 * @return the factory which created the tree
+	 */
+	public CompactTreeFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * @return the ID of the tree, which is unique among all trees of the factory
+	 */
+	public int getID() {
+		return id;
+	}
+
+	/**
+	 * @return the ID of the root label
+	 */
+	public int getLabel() {
+		return label;
+	}
+
+	/**
+	 * @return the root label
+	 */
+	public Node getData() {
+		return factory.getNode(label);
+	}
+
+	/**
+	 * @return the ID of the datatype if the root is a literal node without value
+	 * and with a datatype, otherwise -1
+	 */
+	public int getDatatype() {
+		return datatype;
+	}
+
+	public boolean isVarNode() {
+		return kind == VAR;
+	}
+
+	public boolean isResourceNode() {
+		return kind == RESOURCE;
+	}
+
+	public boolean isLiteralNode() {
+		return kind == LITERAL || kind == LITERAL_VALUE;
+	}
+
+	public boolean isLiteralValueNode() {
+		return kind == LITERAL_VALUE;
+	}
+
+	public boolean isBlankNode() {
+		return kind == BLANK;
+	}
+
+	public boolean hasChildren() {
+		return children.length > 0;
+	}
+
+	public int getNumberOfChildren() {
+		return children.length;
+	}
+
+	/**
+	 * @param i the position of the child
+	 * @return the ID of the edge to the i-th child
+	 */
+	public int getEdge(int i) {
+		return edges[i];
+	}
+
+	/**
+	 * @param i the position of the child
+	 * @return the i-th child
+	 */
+	public CompactRDFResourceTree getChild(int i) {
+		return children[i];
+	}
+
+	/**
+	 * Returns the position of the first child connected by the given edge, i.e.
+	 * the children of the edge are at positions <code>[firstChild(edge), endOfChildren(edge))</code>.
+	 *
+	 * @param edge the ID of the edge
+	 * @return the position of the first child, or the position where the edge would be
+	 * inserted if there is no child for the edge
+	 */
+	public int firstChild(int edge) {
+		int low = 0;
+		int high = edges.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (edges[mid] < edge) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param edge the ID of the edge
+	 * @param from the position of the first child of the edge
+	 * @return the position after the last child connected by the given edge
+	 */
+	public int endOfChildren(int edge, int from) {
+		int end = from;
+		while (end < edges.length && edges[end] == edge) {
+			end++;
+		}
+		return end;
+	}
+
+	/**
+	 * @param edge the ID of the edge
+	 * @return whether there is at least one child connected by the given edge
+	 */
+	public boolean hasChildren(int edge) {
+		int i = firstChild(edge);
+		return i < edges.length && edges[i] == edge;
+	}
+
+	/**
+	 * @return the number of nodes of the tree, where shared subtrees are
+	 * counted once per occurrence
+	 */
+	public int getNumberOfNodes() {
+		int nr = 1;
+		for (CompactRDFResourceTree child : children) {
+			nr += child.getNumberOfNodes();
+		}
+		return nr;
+	}
+
+	/**
+	 * @return the tree in the default representation
+	 */
+	public RDFResourceTree toRDFResourceTree() {
+		return factory.toRDFResourceTree(this);
+	}
+
+	/**
+	 * Structural equality, which, because of the interning, is only used by
+	 * the factory.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof CompactRDFResourceTree)) return false;
+
+		CompactRDFResourceTree other = (CompactRDFResourceTree) o;
+		if (hash != other.hash || label != other.label || datatype != other.datatype
+				|| factory != other.factory || !Arrays.equals(edges, other.edges)) {
+			return false;
+		}
+		for (int i = 0; i < children.length; i++) {
+			if (children[i] != other.children[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return toRDFResourceTree().getStringRepresentation();
+	}
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.qtl.datastructures.impl;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates {@link CompactRDFResourceTree}s, i.e. it interns
+ * <ul>
+ *     <li>the node labels, edges and datatype IRIs as int IDs, and</li>
+ *     <li>the trees themselves, such that structurally identical subtrees are shared.</li>
+ * </ul>
+ * The interned trees are only weakly referenced, i.e. the factory does not
+ * prevent unused trees from being garbage collected, whereas the dictionary of
+ * nodes only grows. All methods are thread-safe.
+ *
+ * @author Lorenz Buehmann
+ */
+public class CompactTreeFactory {
+
+	private static final int[] NO_EDGES = new int[0];
+	private static final CompactRDFResourceTree[] NO_CHILDREN = new CompactRDFResourceTree[0];
+
+	private static final Comparator<Entry> ENTRY_ORDER =
+			Comparator.<Entry>comparingInt(e -> e.edge).thenComparingInt(e -> e.child.getID());
+
+	// the node dictionary
+	private final Map<Node, Integer> nodeIds = new ConcurrentHashMap<>();
+	private volatile Node[] nodes = new Node[1024];
+	private int nrOfNodes = 0;
+
+	private final Interner<CompactRDFResourceTree> trees = Interners.newWeakInterner();
+	private final AtomicInteger treeIds = new AtomicInteger();
+
+	private final int varLabel;
+	private final int literalLabel;
+
+	public CompactTreeFactory() {
+		varLabel = getID(RDFResourceTree.DEFAULT_VAR_NODE);
+		literalLabel = getID(RDFResourceTree.DEFAULT_LITERAL_NODE);
+	}
+
+	/**
+	 * Returns the ID of the given node and adds the node to the dictionary if
+	 * necessary.
+	 *
+	 * @param node the node, i.e. a label or an edge
+	 * @return the ID
+	 */
+	public int getID(Node node) {
+		Integer id = nodeIds.get(node);
+		if (id != null) {
+			return id;
+		}
+		synchronized (this) {
+			id = nodeIds.get(node);
+			if (id == null) {
+				if (nrOfNodes == nodes.length) {
+					nodes = Arrays.copyOf(nodes, nodes.length * 2);
+				}
+				id = nrOfNodes;
+				nodes[nrOfNodes++] = node;
+				// publish the ID only after the node was stored
+				nodeIds.put(node, id);
+			}
+			return id;
+		}
+	}
+
+	/**
+	 * @param id the ID
+	 * @return the node with the given ID
+	 */
+	public Node getNode(int id) {
+		return nodes[id];
+	}
+
+	/**
+	 * @param datatype the datatype
+	 * @return the ID of the datatype IRI
+	 */
+	public int getDatatypeID(RDFDatatype datatype) {
+		return getID(NodeFactory.createURI(datatype.getURI()));
+	}
+
+	/**
+	 * @param id the ID of a datatype IRI
+	 * @return the datatype
+	 */
+	public RDFDatatype getDatatype(int id) {
+		return TypeMapper.getInstance().getSafeTypeByName(getNode(id).getURI());
+	}
+
+	/**
+	 * @return a variable node without children
+	 */
+	public CompactRDFResourceTree newVarNode() {
+		return create(varLabel, CompactRDFResourceTree.NO_DATATYPE, NO_EDGES, NO_CHILDREN);
+	}
+
+	/**
+	 * @param datatype the ID of the datatype, or -1
+	 * @return a literal node without value and children
+	 */
+	public CompactRDFResourceTree newLiteralNode(int datatype) {
+		return create(literalLabel, datatype, NO_EDGES, NO_CHILDREN);
+	}
+
+	/**
+	 * @param label the ID of the label
+	 * @return a node without children
+	 */
+	public CompactRDFResourceTree newNode(int label) {
+		return create(label, CompactRDFResourceTree.NO_DATATYPE, NO_EDGES, NO_CHILDREN);
+	}
+
+	/**
+	 * Returns the interned tree with the given root and children. Duplicate
+	 * children, i.e. the same subtree connected by the same edge, are
+	 * contained only once.
+	 *
+	 * @param label the ID of the root label
+	 * @param edges the IDs of the edges to the children
+	 * @param children the children, which must have been created by this factory
+	 * @return the tree
+	 */
+	public CompactRDFResourceTree newNode(int label, List<Integer> edges, List<CompactRDFResourceTree> children) {
+		int n = children.size();
+		Entry[] entries = new Entry[n];
+		for (int i = 0; i < n; i++) {
+			entries[i] = new Entry(edges.get(i), children.get(i));
+		}
+		Arrays.sort(entries, ENTRY_ORDER);
+
+		int[] sortedEdges = new int[n];
+		CompactRDFResourceTree[] sortedChildren = new CompactRDFResourceTree[n];
+		int size = 0;
+		for (Entry e : entries) {
+			if (size > 0 && sortedEdges[size - 1] == e.edge && sortedChildren[size - 1] == e.child) {
+				continue;
+			}
+			sortedEdges[size] = e.edge;
+			sortedChildren[size] = e.child;
+			size++;
+		}
+		if (size == 0) {
+			return newNode(label);
+		}
+		return create(label, CompactRDFResourceTree.NO_DATATYPE,
+					  Arrays.copyOf(sortedEdges, size), Arrays.copyOf(sortedChildren, size));
+	}
+
+	private CompactRDFResourceTree create(int label, int datatype, int[] edges, CompactRDFResourceTree[] children) {
+		CompactRDFResourceTree tree = new CompactRDFResourceTree(this, treeIds.getAndIncrement(),
+																 label, datatype, kind(label), edges, children);
+		return trees.intern(tree);
+	}
+
+	private byte kind(int label) {
+		if (label == literalLabel) {
+			return CompactRDFResourceTree.LITERAL;
+		}
+		Node node = getNode(label);
+		if (node.isVariable()) {
+			return CompactRDFResourceTree.VAR;
+		} else if (node.isURI()) {
+			return CompactRDFResourceTree.RESOURCE;
+		} else if (node.isLiteral()) {
+			return CompactRDFResourceTree.LITERAL_VALUE;
+		}
+		return CompactRDFResourceTree.BLANK;
+	}
+
+	/**
+	 * Converts the given tree into the compact representation. The anchor
+	 * variables of the tree are not kept.
+	 *
+	 * @param tree the tree
+	 * @return the compact tree
+	 */
+	public CompactRDFResourceTree fromRDFResourceTree(RDFResourceTree tree) {
+		if (tree.isLiteralNode() && !tree.isLiteralValueNode()) {
+			RDFDatatype datatype = tree.getDatatype();
+			return newLiteralNode(datatype == null ? CompactRDFResourceTree.NO_DATATYPE : getDatatypeID(datatype));
+		}
+		int label = getID(tree.getData());
+		if (!tree.hasChildren()) {
+			return newNode(label);
+		}
+		int n = tree.getNumberOfChildren();
+		Integer[] edges = new Integer[n];
+		CompactRDFResourceTree[] children = new CompactRDFResourceTree[n];
+		int i = 0;
+		for (Node edge : tree.getEdges()) {
+			int edgeID = getID(edge);
+			for (RDFResourceTree child : tree.getChildren(edge)) {
+				edges[i] = edgeID;
+				children[i] = fromRDFResourceTree(child);
+				i++;
+			}
+		}
+		return newNode(label, Arrays.asList(edges), Arrays.asList(children));
+	}
+
+	/**
+	 * Converts the given compact tree into the default representation.
+	 *
+	 * @param tree the compact tree
+	 * @return the tree
+	 */
+	public RDFResourceTree toRDFResourceTree(CompactRDFResourceTree tree) {
+		RDFResourceTree ret;
+		if (tree.isLiteralNode() && !tree.isLiteralValueNode()) {
+			ret = tree.getDatatype() == CompactRDFResourceTree.NO_DATATYPE
+					? RDFResourceTree.newLiteralNode()
+					: new RDFResourceTree(getDatatype(tree.getDatatype()));
+		} else {
+			ret = new RDFResourceTree(getNode(tree.getLabel()));
+		}
+		for (int i = 0; i < tree.getNumberOfChildren(); i++) {
+			ret.addChild(toRDFResourceTree(tree.getChild(i)), getNode(tree.getEdge(i)));
+		}
+		return ret;
+	}
+
+	private static class Entry {
+		final int edge;
+		final CompactRDFResourceTree child;
+
+		Entry(int edge, CompactRDFResourceTree child) {
+			this.edge = edge;
+			this.child = child;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.qtl.datastructures.impl;
+
+import org.apache.jena.graph.Node;
+
+import java.util.List;
+
+/**
+ * A signature of an {@link RDFResourceTree} which allows for rejecting most
+ * non-subsumptions and non-equivalences in constant time, i.e. before the
+ * recursive check of {@link org.dllearner.algorithms.qtl.QueryTreeUtils#isSubsumedBy(RDFResourceTree, RDFResourceTree)}
+ * (simple entailment) is done.
+ *
+ * The signature consists of bloom-style fingerprints with 64 bits per depth level:
+ * <ul>
+ *     <li>the edges of all nodes and the labels of all IRI nodes (together with the
+ *     incoming edge), i.e. what the tree provides as the more specific tree, and</li>
+ *     <li>the edges and IRI labels which any more specific tree must provide, i.e. those
+ *     reachable from the root via variable nodes only, as the children of all other
+ *     nodes are not necessarily compared by the subsumption check.</li>
+ * </ul>
+ * If a tree is subsumed by another tree, the required fingerprints of the latter
+ * are contained in the provided fingerprints of the former. Literal and blank node
+ * children are not rejected by the label check, as they can't be ruled out to be
+ * subsumed by an IRI node.
+ *
+ * In addition, an equivalence hash is computed from the root and, for a variable
+ * root, the edges of the root, which is the same for all trees which subsume each
+ * other. In particular, it does not depend on the number of children, which
+ * differs for equivalent trees with redundant children.
+ *
+ * Note, the signature is not updated if the tree is modified.
+ *
+ * @author Lorenz Buehmann
+ */
+public final class TreeSignature {
+
+	// deeper levels share the last fingerprint
+	private static final int NR_OF_LEVELS = 8;
+
+	private final long[] edges = new long[NR_OF_LEVELS];
+	private final long[] labels = new long[NR_OF_LEVELS];
+	// edges with literal or blank node children
+	private final long[] unlabeledEdges = new long[NR_OF_LEVELS];
+
+	private final long[] requiredEdges = new long[NR_OF_LEVELS];
+	private final long[] requiredLabels = new long[NR_OF_LEVELS];
+	private final long[] requiredLabelEdges = new long[NR_OF_LEVELS];
+
+	private final int equivalenceHash;
+
+	private TreeSignature(RDFResourceTree tree) {
+		addProvided(tree, 0);
+		if (tree.isVarNode()) {
+			addRequired(tree, 0);
+		}
+
+		int hash = tree.getData().hashCode();
+		if (tree.isVarNode()) {
+			hash = 31 * hash + tree.getEdges().hashCode();
+		}
+		equivalenceHash = hash;
+	}
+
+	/**
+	 * @param tree the tree
+	 * @return the signature of the tree
+	 */
+	public static TreeSignature of(RDFResourceTree tree) {
+		return new TreeSignature(tree);
+	}
+
+	private void addProvided(RDFResourceTree node, int depth) {
+		int level = Math.min(depth, NR_OF_LEVELS - 1);
+		for (Node edge : node.getEdges()) {
+			edges[level] |= bit(edge.hashCode());
+			for (RDFResourceTree child : node.getChildren(edge)) {
+				if (child.isResourceNode()) {
+					labels[level] |= bit(labelHash(edge, child.getData()));
+				} else if (!child.isVarNode()) {
+					unlabeledEdges[level] |= bit(edge.hashCode());
+				}
+				addProvided(child, depth + 1);
+			}
+		}
+	}
+
+	// only called for variable nodes, for which the subsumption check always compares the children
+	private void addRequired(RDFResourceTree node, int depth) {
+		int level = Math.min(depth, NR_OF_LEVELS - 1);
+		for (Node edge : node.getEdges()) {
+			requiredEdges[level] |= bit(edge.hashCode());
+			List<RDFResourceTree> children = node.getChildren(edge);
+			for (RDFResourceTree child : children) {
+				if (child.isVarNode()) {
+					addRequired(child, depth + 1);
+				} else if (child.isResourceNode()) {
+					requiredLabels[level] |= bit(labelHash(edge, child.getData()));
+					requiredLabelEdges[level] |= bit(edge.hashCode());
+				}
+			}
+		}
+	}
+
+	private static int labelHash(Node edge, Node label) {
+		return 31 * edge.hashCode() + label.hashCode();
+	}
+
+	private static long bit(int hash) {
+		// spread the bits of the hash before taking the upper 6 bits
+		return 1L << ((hash * 0x9E3779B9) >>> 26);
+	}
+
+	/**
+	 * Checks whether the tree of this signature might be subsumed by the tree of the other
+	 * signature. If the method returns <code>false</code>, it is not subsumed; otherwise
+	 * the full subsumption check is necessary.
+	 *
+	 * @param other the signature of the more general tree
+	 * @return <code>false</code> if the tree is definitely not subsumed by the other tree
+	 */
+	public boolean mayBeSubsumedBy(TreeSignature other) {
+		for (int i = 0; i < NR_OF_LEVELS; i++) {
+			if ((other.requiredEdges[i] & ~edges[i]) != 0) {
+				return false;
+			}
+			if ((other.requiredLabelEdges[i] & unlabeledEdges[i]) == 0
+					&& (other.requiredLabels[i] & ~labels[i]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the trees of both signatures might be equivalent, i.e. subsume each other. If the method returns
+	 * <code>false</code>, they are not equivalent; otherwise the full check is necessary.
+	 *
+	 * @param other the other signature
+	 * @return <code>false</code> if the trees are definitely not equivalent
+	 */
+	public boolean mayBeEquivalentTo(TreeSignature other) {
+		return equivalenceHash == other.equivalenceHash && mayBeSubsumedBy(other) && other.mayBeSubsumedBy(this);
+	}
+
+	/**
+	 * @return a hash which is the same for all trees which subsume each other
+	 */
+	public int getEquivalenceHash() {
+		return equivalenceHash;
+	}
+}
@@ -41,6 +41,7 @@ import org.dllearner.kb.sparql.ConciseBoundedDescriptionGeneratorImpl;
 import org.dllearner.kb.sparql.SparqlEndpoint;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
 /**
@@ -51,7 +52,6 @@ import java.util.function.Predicate;
  */
 public class QueryTreeFactoryBase implements QueryTreeFactory {
 
-	private int nodeId;
 	private final Comparator<Statement> comparator = new StatementComparator();
 
 	private int maxDepth = 3;
@@ -92,13 +92,14 @@ public class QueryTreeFactoryBase implements QueryTreeFactory {
 	}
 
 	private RDFResourceTree createTree(Resource resource, Model model, int maxDepth) {
-		nodeId = 0;
+		// the node IDs are local to each tree, such that trees can be created concurrently
+		AtomicInteger nodeId = new AtomicInteger();
 		Map<Resource, SortedSet<Statement>> resource2Statements = new HashMap<>();
 
 		fillMap(resource, model, resource2Statements);
 
 		RDFResourceTree tree = new RDFResourceTree(resource.asNode());
-		fillTree(resource, tree, resource2Statements, 0, maxDepth);
+		fillTree(resource, tree, resource2Statements, 0, maxDepth, nodeId);
 
 		return tree;
 	}
@@ -131,7 +132,7 @@ public class QueryTreeFactoryBase implements QueryTreeFactory {
 	}
 
 	private void fillTree(Resource root, RDFResourceTree tree, Map<Resource, SortedSet<Statement>> resource2Statements,
-			int currentDepth, int maxDepth) {
+			int currentDepth, int maxDepth, AtomicInteger nodeId) {
 		currentDepth++;
 		if (resource2Statements.containsKey(root)) {
 			RDFResourceTree subTree;
@@ -141,20 +142,20 @@ public class QueryTreeFactoryBase implements QueryTreeFactory {
 				RDFNode object = st.getObject();
 
 				if (object.isLiteral()) {
-					subTree = new RDFResourceTree(nodeId++, object.asNode());
+					subTree = new RDFResourceTree(nodeId.getAndIncrement(), object.asNode());
 					tree.addChild(subTree, predicate);
 				} else if (object.isURIResource()) {
-					subTree = new RDFResourceTree(nodeId++, object.asNode());
+					subTree = new RDFResourceTree(nodeId.getAndIncrement(), object.asNode());
 					tree.addChild(subTree, predicate);
 //					System.out.println(root + "::" + object + "::" + (currentDepth < maxDepth));
 					if (currentDepth < maxDepth) {
-						fillTree(object.asResource(), subTree, resource2Statements, currentDepth, maxDepth);
+						fillTree(object.asResource(), subTree, resource2Statements, currentDepth, maxDepth, nodeId);
 					}
 				} else if (object.isAnon()) {
-					subTree = new RDFResourceTree(nodeId++);
+					subTree = new RDFResourceTree(nodeId.getAndIncrement());
 					tree.addChild(subTree, predicate);
 					if (currentDepth < maxDepth) {
-						fillTree(object.asResource(), subTree, resource2Statements, currentDepth, maxDepth);
+						fillTree(object.asResource(), subTree, resource2Statements, currentDepth, maxDepth, nodeId);
 					}
 				}
 			}
@@ -30,10 +30,19 @@ import org.dllearner.algorithms.qtl.operations.TimeoutableOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
  * An LGG generator that can be stopped and given a timeout.
@@ -51,21 +60,44 @@ public abstract class AbstractLGGGenerator implements LGGGenerator, StoppableOpe
 	
 	private Monitor mon = MonitorFactory.getTimeMonitor("lgg");
 	
-	protected int subCalls;
+	// incremented concurrently if the edges are processed in parallel
+	protected final LongAdder subCalls = new LongAdder();
 	
 	private long timeoutMillis = -1;
 	private long startTime;
 
 	protected volatile boolean stop = false;
 
-	private boolean complete = true;
+	protected volatile boolean complete = true;
 
 	private BlankNodeScope blankNodeScope = BlankNodeScope.TREE;
+
+	// the LGGs of pairs of structurally identical subtrees of the current input trees
+	private boolean useMemoization = true;
+	private Map<SubtreePair, RDFResourceTree> memo;
+	private Map<RDFResourceTree, Integer> structuralHashes = new IdentityHashMap<>();
+	private final LongAdder memoHits = new LongAdder();
+
+	// the pool used to process the edges of a node in parallel, or null if disabled
+	private ForkJoinPool pool;
+	private int forkDepth = 2;
 	
 
 	private void reset() {
 		stop = false;
-		subCalls = 0;
+		complete = true;
+		subCalls.reset();
+		memoHits.reset();
+	}
+
+	/**
+	 * Has to be called before the computation of an LGG starts, i.e. it resets
+	 * the state and starts the timeout.
+	 */
+	protected void start() {
+		startTime = System.currentTimeMillis();
+
+		reset();
 	}
 
 	/* (non-Javadoc)
@@ -73,9 +105,7 @@ public abstract class AbstractLGGGenerator implements LGGGenerator, StoppableOpe
 	 */
 	@Override
 	public RDFResourceTree getLGG(RDFResourceTree tree1, RDFResourceTree tree2, boolean learnFilters) {
-		startTime = System.currentTimeMillis();
-
-		reset();
+		start();
 
 		// apply some pre-processing
 		tree1 = preProcess(tree1);
@@ -83,7 +113,7 @@ public abstract class AbstractLGGGenerator implements LGGGenerator, StoppableOpe
 		
 		// compute the LGG
 		mon.start();
-		RDFResourceTree lgg = computeLGG(tree1, tree2, learnFilters);
+		RDFResourceTree lgg = computeRootLGG(tree1, tree2, learnFilters);
 		mon.stop();
 
 		// apply some post-processing
@@ -94,8 +124,53 @@ public abstract class AbstractLGGGenerator implements LGGGenerator, StoppableOpe
 		return lgg;
 	}
 
+	private RDFResourceTree computeRootLGG(RDFResourceTree tree1, RDFResourceTree tree2, boolean learnFilters) {
+		if(useMemoization) {
+			memo = new ConcurrentHashMap<>();
+			structuralHashes = new IdentityHashMap<>();
+			computeStructuralHash(tree1);
+			computeStructuralHash(tree2);
+		}
+		try {
+			RDFResourceTree lgg = pool != null
+					? pool.invoke(ForkJoinTask.adapt(() -> computeLGG(tree1, tree2, learnFilters)))
+					: computeLGG(tree1, tree2, learnFilters);
+			logger.debug("LGG computation: {} sub-calls, {} memo hits", subCalls.sum(), memoHits.sum());
+			return lgg;
+		} finally {
+			memo = null;
+			structuralHashes = new IdentityHashMap<>();
+		}
+	}
+
 	protected RDFResourceTree computeLGG(RDFResourceTree tree1, RDFResourceTree tree2, boolean learnFilters){
-		subCalls++;
+		return computeLGG(tree1, tree2, learnFilters, 0);
+	}
+
+	private RDFResourceTree computeLGG(RDFResourceTree tree1, RDFResourceTree tree2, boolean learnFilters, int depth){
+		// lookup the LGG of structurally identical subtrees computed before
+		SubtreePair key = null;
+		if(memo != null && structuralHashes.containsKey(tree1) && structuralHashes.containsKey(tree2)) {
+			key = new SubtreePair(tree1, tree2, learnFilters);
+			RDFResourceTree lgg = memo.get(key);
+			if(lgg != null) {
+				memoHits.increment();
+				return new RDFResourceTree(lgg);
+			}
+		}
+
+		RDFResourceTree lgg = doComputeLGG(tree1, tree2, learnFilters, depth);
+
+		// the trees returned by the early termination are part of the input, they are not memoized
+		// as they have to be used as they are
+		if(key != null && lgg != tree1 && complete) {
+			memo.putIfAbsent(key, lgg);
+		}
+		return lgg;
+	}
+
+	private RDFResourceTree doComputeLGG(RDFResourceTree tree1, RDFResourceTree tree2, boolean learnFilters, int depth){
+		subCalls.increment();
 
 		// 1. compare the root nodes
 		// a) if both root nodes have same URI or literal value, just return one of the two trees as LGG
@@ -134,138 +209,119 @@ public abstract class AbstractLGGGenerator implements LGGGenerator, StoppableOpe
 		// b) related via subsumption, i.e. p1 ⊑ p2
 
 		// get edges of tree 2 connected via subsumption
-		Set<Triple<Node, Node, Node>> relatedEdges = getRelatedEdges(tree1, tree2);
-		for (Triple<Node, Node, Node> entry : relatedEdges){
+		List<Triple<Node, Node, Node>> relatedEdges = new ArrayList<>(getRelatedEdges(tree1, tree2));
+
+		List<RDFResourceTree> childrenPerEdge;
+		if(pool != null && depth < forkDepth && relatedEdges.size() > 1 && ForkJoinTask.inForkJoinPool()) {
+			// the edges are independent of each other, thus they can be processed in parallel
+			List<ForkJoinTask<RDFResourceTree>> tasks = relatedEdges.stream()
+					.map(entry -> ForkJoinTask.adapt(() -> computeChildLGGs(tree1, tree2, entry, learnFilters, true, depth)))
+					.collect(Collectors.toList());
+			childrenPerEdge = ForkJoinTask.invokeAll(tasks).stream()
+					.map(ForkJoinTask::join)
+					.collect(Collectors.toList());
+		} else {
+			childrenPerEdge = new ArrayList<>();
+			for (Triple<Node, Node, Node> entry : relatedEdges){
+				if(stop || isTimeout()) {
+					complete = false;
+					break;
+				}
+				childrenPerEdge.add(computeChildLGGs(tree1, tree2, entry, learnFilters, true, depth));
+			}
+		}
+		addChildren(lgg, relatedEdges, childrenPerEdge);
+
+		return lgg;
+	}
+
+	/*
+	 * Computes the LGGs of all pairs of children connected by the given related edges and keeps only
+	 * the most specific ones. The children are attached to a temporary node via the LCS of the edges,
+	 * as the subsumption check might depend on the edge to the parent.
+	 */
+	private RDFResourceTree computeChildLGGs(RDFResourceTree tree1, RDFResourceTree tree2,
+											 Triple<Node, Node, Node> relatedEdge, boolean learnFilters,
+											 boolean keepAnchors, int depth) {
+		Node edge1 = relatedEdge.getLeft();
+		Node edge2 = relatedEdge.getMiddle();
+		Node lcs = relatedEdge.getRight();
+
+		RDFResourceTree parent = new RDFResourceTree();
+		List<RDFResourceTree> addedChildren = new ArrayList<>();
+
+		// loop over children of first tree
+		for(RDFResourceTree child1 : tree1.getChildren(edge1)){
 			if(stop || isTimeout()) {
 				complete = false;
 				break;
 			}
-
-			Node edge1 = entry.getLeft();
-			Node edge2 = entry.getMiddle();
-			Node lcs = entry.getRight();
-
-			Set<RDFResourceTree> addedChildren = new HashSet<>();
-
-			// loop over children of first tree
-			for(RDFResourceTree child1 : tree1.getChildren(edge1)){//System.out.println("c1:" + child1);
+			// loop over children of second tree
+			for(RDFResourceTree child2 : tree2.getChildren(edge2)){
 				if(stop || isTimeout()) {
 					complete = false;
 					break;
 				}
-				// loop over children of second tree
-				for(RDFResourceTree child2 : tree2.getChildren(edge2)){//System.out.println("c2:" + child2);
-					if(stop || isTimeout()) {
-						complete = false;
-						break;
-					}
 
-					RDFResourceTree lggChild = computeLGG(child1, child2, learnFilters);
-
-					// check if there was already a more specific child computed before
-					// and if so don't add the current one
-					boolean add = true;
-					for(Iterator<RDFResourceTree> it = addedChildren.iterator(); it.hasNext();){
-						RDFResourceTree addedChild = it.next();
-
-						if(isSubTreeOf(addedChild, lggChild)){
-//								logger.trace("Skipped adding: Previously added child {} is subsumed by {}.",
-//										addedChild.getStringRepresentation(),
-//										lggChild.getStringRepresentation());
-							add = false;
-							if(lggChild.hasAnchor()) {
-								add = true;
-								if(isSubTreeOf(lggChild, addedChild) && !addedChild.hasAnchor()) {
-									lgg.removeChild(addedChild, lgg.getEdgeToChild(addedChild));
-									it.remove();
-								}
-//								System.err.println("not add anchor " + lggChild.getAnchorVar());
-//								System.err.println(lggChild.getStringRepresentation());
-//								System.err.println("subsumes");
-//								System.err.println(addedChild.getStringRepresentation());
-							}
-							break;
-						} else if(isSubTreeOf(lggChild, addedChild)){
-//								logger.trace("Removing child node: {} is subsumed by previously added child {}.",
-//										lggChild.getStringRepresentation(),
-//										addedChild.getStringRepresentation());
-							lgg.removeChild(addedChild, lgg.getEdgeToChild(addedChild));
-							it.remove();
-							if(addedChild.hasAnchor()) {
-								System.err.println("removed anchor " + addedChild.getAnchorVar());
+				RDFResourceTree lggChild = computeLGG(child1, child2, learnFilters, depth + 1);
+
+				// check if there was already a more specific child computed before
+				// and if so don't add the current one
+				boolean add = true;
+				for(Iterator<RDFResourceTree> it = addedChildren.iterator(); it.hasNext();){
+					RDFResourceTree addedChild = it.next();
+
+					if(isSubTreeOf(addedChild, lggChild)){
+						add = false;
+						if(keepAnchors && lggChild.hasAnchor()) {
+							add = true;
+							if(isSubTreeOf(lggChild, addedChild) && !addedChild.hasAnchor()) {
+								parent.removeChild(addedChild, lcs);
+								it.remove();
 							}
 						}
-					}
-					if(add){
-						lgg.addChild(lggChild, lcs);
-						addedChildren.add(lggChild);
-//							logger.trace("Adding child {}", lggChild.getStringRepresentation());
+						break;
+					} else if(isSubTreeOf(lggChild, addedChild)){
+						parent.removeChild(addedChild, lcs);
+						it.remove();
+						if(keepAnchors && addedChild.hasAnchor()) {
+							System.err.println("removed anchor " + addedChild.getAnchorVar());
+						}
 					}
 				}
+				if(add){
+					parent.addChild(lggChild, lcs);
+					addedChildren.add(lggChild);
+				}
 			}
 		}
+		return parent;
+	}
 
-		return lgg;
+	private void addChildren(RDFResourceTree lgg, List<Triple<Node, Node, Node>> relatedEdges,
+							 List<RDFResourceTree> childrenPerEdge) {
+		for (int i = 0; i < childrenPerEdge.size(); i++) {
+			Node lcs = relatedEdges.get(i).getRight();
+			for (RDFResourceTree child : new ArrayList<>(childrenPerEdge.get(i).getChildren())) {
+				lgg.addChild(child, lcs);
+			}
+		}
 	}
 
 	protected RDFResourceTree processClassNodes(RDFResourceTree tree1, RDFResourceTree tree2) {
 		RDFResourceTree lgg = new RDFResourceTree();
 
-		Set<Triple<Node, Node, Node>> relatedEdges = getRelatedEdges(tree1, tree2);
+		List<Triple<Node, Node, Node>> relatedEdges = new ArrayList<>(getRelatedEdges(tree1, tree2));
+		List<RDFResourceTree> childrenPerEdge = new ArrayList<>();
 		for (Triple<Node, Node, Node> entry : relatedEdges) {
 			if (stop || isTimeout()) {
 				complete = false;
 				break;
 			}
-			Node edge1 = entry.getLeft();
-			Node edge2 = entry.getMiddle();
-			Node lcs = entry.getRight();
-
-			Set<RDFResourceTree> addedChildren = new HashSet<>();
-
-			// loop over children of first tree
-			for(RDFResourceTree child1 : tree1.getChildren(edge1)){//System.out.println("c1:" + child1);
-				if(stop || isTimeout()) {
-					complete = false;
-					break;
-				}
-				// loop over children of second tree
-				for(RDFResourceTree child2 : tree2.getChildren(edge2)){//System.out.println("c2:" + child2);
-					if(stop || isTimeout()) {
-						complete = false;
-						break;
-					}
-
-					RDFResourceTree lggChild = computeLGG(child1, child2, false);
-
-					// check if there was already a more specific child computed before
-					// and if so don't add the current one
-					boolean add = true;
-					for(Iterator<RDFResourceTree> it = addedChildren.iterator(); it.hasNext();){
-						RDFResourceTree addedChild = it.next();
-
-						if(isSubTreeOf(addedChild, lggChild)){
-//								logger.trace("Skipped adding: Previously added child {} is subsumed by {}.",
-//										addedChild.getStringRepresentation(),
-//										lggChild.getStringRepresentation());
-							add = false;
-							break;
-						} else if(isSubTreeOf(lggChild, addedChild)){
-//								logger.trace("Removing child node: {} is subsumed by previously added child {}.",
-//										lggChild.getStringRepresentation(),
-//										addedChild.getStringRepresentation());
-							lgg.removeChild(addedChild, lgg.getEdgeToChild(addedChild));
-							it.remove();
-						}
-					}
-					if(add){
-						lgg.addChild(lggChild, lcs);
-						addedChildren.add(lggChild);
-//							logger.trace("Adding child {}", lggChild.getStringRepresentation());
-					}
-				}
-			}
+			childrenPerEdge.add(computeChildLGGs(tree1, tree2, entry, false, false, forkDepth));
 		}
+		addChildren(lgg, relatedEdges, childrenPerEdge);
+
 		return lgg;
 	}
 
@@ -286,6 +342,119 @@ public abstract class AbstractLGGGenerator implements LGGGenerator, StoppableOpe
 		return newTree;
 	}
 
+	private int computeStructuralHash(RDFResourceTree tree) {
+		int hash = Objects.hash(tree.getData(), tree.getDatatype(), tree.getAnchorVar());
+		for (Node edge : tree.getEdges()) {
+			hash = 31 * hash + edge.hashCode();
+			for (RDFResourceTree child : tree.getChildren(edge)) {
+				hash = 31 * hash + computeStructuralHash(child);
+			}
+		}
+		structuralHashes.put(tree, hash);
+		return hash;
+	}
+
+	/*
+	 * Whether both trees have the same structure, i.e. the same labels, datatypes, anchors and the same
+	 * children in the same order.
+	 */
+	private boolean isStructurallyEqual(RDFResourceTree tree1, RDFResourceTree tree2) {
+		if(tree1 == tree2) {
+			return true;
+		}
+		if(!structuralHashes.get(tree1).equals(structuralHashes.get(tree2))
+				|| !tree1.getData().equals(tree2.getData())
+				|| !Objects.equals(tree1.getDatatype(), tree2.getDatatype())
+				|| !Objects.equals(tree1.getAnchorVar(), tree2.getAnchorVar())
+				|| !tree1.getEdges().equals(tree2.getEdges())) {
+			return false;
+		}
+		for (Node edge : tree1.getEdges()) {
+			List<RDFResourceTree> children1 = tree1.getChildren(edge);
+			List<RDFResourceTree> children2 = tree2.getChildren(edge);
+			if(children1.size() != children2.size()) {
+				return false;
+			}
+			for (int i = 0; i < children1.size(); i++) {
+				if(!isStructurallyEqual(children1.get(i), children2.get(i))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Enables or disables the memoization of the LGGs of structurally identical pairs of subtrees
+	 * during a single LGG computation, e.g. of the subtrees of hub resources contained in multiple CBDs.
+	 * It is enabled by default.
+	 *
+	 * @param useMemoization whether to use memoization
+	 */
+	public void setUseMemoization(boolean useMemoization) {
+		this.useMemoization = useMemoization;
+	}
+
+	/**
+	 * Sets the number of threads used to compute the LGGs of the children connected by different
+	 * edges in parallel. By default, i.e. with 1 thread, the LGG is computed sequentially. Note,
+	 * the subsumption checks and the retrieval of the related edges are then called concurrently,
+	 * i.e. they have to be thread-safe, for instance the reasoner used for RDFS entailment.
+	 * The threads of a pool created before are stopped, i.e. setting 1 thread releases them.
+	 *
+	 * @param nrOfThreads the number of threads
+	 */
+	public void setNrOfThreads(int nrOfThreads) {
+		if(pool != null) {
+			pool.shutdown();
+		}
+		pool = nrOfThreads > 1 ? new ForkJoinPool(nrOfThreads) : null;
+	}
+
+	/**
+	 * @param forkDepth the max. depth of the nodes whose edges are processed in parallel
+	 */
+	public void setForkDepth(int forkDepth) {
+		this.forkDepth = forkDepth;
+	}
+
+	/**
+	 * A pair of subtrees that is equal to another pair if both subtrees are structurally identical and the
+	 * LGG would be computed the same way, i.e. the first trees are class nodes or not in both pairs.
+	 */
+	private class SubtreePair {
+		private final RDFResourceTree tree1;
+		private final RDFResourceTree tree2;
+		private final boolean learnFilters;
+		private final boolean classNode;
+		private final int hash;
+
+		SubtreePair(RDFResourceTree tree1, RDFResourceTree tree2, boolean learnFilters) {
+			this.tree1 = tree1;
+			this.tree2 = tree2;
+			this.learnFilters = learnFilters;
+			this.classNode = tree1.isClassNode();
+			this.hash = Objects.hash(structuralHashes.get(tree1), structuralHashes.get(tree2), learnFilters, classNode);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof SubtreePair)) return false;
+			SubtreePair other = (SubtreePair) o;
+			return hash == other.hash
+					&& learnFilters == other.learnFilters
+					&& classNode == other.classNode
+					&& isStructurallyEqual(tree1, other.tree1)
+					&& isStructurallyEqual(tree2, other.tree2);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
 	@Override
 	public void setTimeout(long timeout, TimeUnit timeoutUnits) {
 		this.timeoutMillis = timeoutUnits.toMillis(timeout);
@@ -20,6 +20,7 @@ package org.dllearner.algorithms.qtl.operations.lgg;
 
 import com.google.common.collect.Sets;
 import org.apache.commons.lang3.tuple.Triple;
+import org.apache.jena.datatypes.RDFDatatype;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.query.QueryExecutionFactory;
@@ -30,11 +31,14 @@ import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFDataMgr;
 import org.dllearner.algorithms.qtl.QueryTreeUtils;
 import org.dllearner.algorithms.qtl.datastructures.NodeInv;
+import org.dllearner.algorithms.qtl.datastructures.impl.CompactRDFResourceTree;
+import org.dllearner.algorithms.qtl.datastructures.impl.CompactTreeFactory;
 import org.dllearner.algorithms.qtl.datastructures.impl.RDFResourceTree;
 
 import java.io.ByteArrayInputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -61,6 +65,108 @@ public class LGGGeneratorSimple extends AbstractLGGGenerator {
 		return QueryTreeUtils.isSubsumedBy(tree1, tree2);
 	}
 
+	/**
+	 * Computes the LGG of two compact trees, which must have been created by the
+	 * same factory. The LGG is equivalent to the LGG of the corresponding
+	 * {@link RDFResourceTree}s, but is computed without converting the trees.
+	 *
+	 * @param tree1 the first tree
+	 * @param tree2 the second tree
+	 * @return the LGG
+	 */
+	public CompactRDFResourceTree getLGG(CompactRDFResourceTree tree1, CompactRDFResourceTree tree2) {
+		start();
+
+		return computeLGG(tree1, tree2);
+	}
+
+	private CompactRDFResourceTree computeLGG(CompactRDFResourceTree tree1, CompactRDFResourceTree tree2) {
+		subCalls.increment();
+
+		CompactTreeFactory factory = tree1.getFactory();
+
+		// 1. compare the root nodes
+		// a) same URI or literal value, or the same subtree as the trees are interned
+		if(tree1 == tree2
+				|| ((tree1.isResourceNode() || tree1.isLiteralValueNode()) && tree1.getLabel() == tree2.getLabel())) {
+			return tree1;
+		}
+
+		// b) handle literal nodes
+		if(tree1.isLiteralNode() && tree2.isLiteralNode()) {
+			int d1 = getDatatype(tree1);
+			return factory.newLiteralNode(d1 == getDatatype(tree2) ? d1 : CompactRDFResourceTree.NO_DATATYPE);
+		}
+
+		// c) else create new tree with variable root, keep the name if both are the same blank node
+		int label = tree1.isBlankNode() && tree1.getLabel() == tree2.getLabel()
+				? tree1.getLabel()
+				: factory.getID(RDFResourceTree.DEFAULT_VAR_NODE);
+
+		// 2. compare the children of all edges contained in both trees, the edges are sorted
+		List<Integer> lggEdges = new ArrayList<>();
+		List<CompactRDFResourceTree> lggChildren = new ArrayList<>();
+		int n1 = tree1.getNumberOfChildren();
+		int n2 = tree2.getNumberOfChildren();
+		int i1 = 0;
+		int i2 = 0;
+		while(i1 < n1 && i2 < n2) {
+			if(stop || isTimeout()) {
+				complete = false;
+				break;
+			}
+			int edge1 = tree1.getEdge(i1);
+			int edge2 = tree2.getEdge(i2);
+			int end1 = tree1.endOfChildren(edge1, i1);
+			int end2 = tree2.endOfChildren(edge2, i2);
+			if(edge1 < edge2) {
+				i1 = end1;
+			} else if(edge1 > edge2) {
+				i2 = end2;
+			} else {
+				List<CompactRDFResourceTree> addedChildren = new ArrayList<>();
+				for(int c1 = i1; c1 < end1 && !(stop || isTimeout()); c1++) {
+					for(int c2 = i2; c2 < end2 && !(stop || isTimeout()); c2++) {
+						CompactRDFResourceTree lggChild = computeLGG(tree1.getChild(c1), tree2.getChild(c2));
+
+						// check if there was already a more specific child computed before
+						// and if so don't add the current one
+						boolean add = true;
+						for(Iterator<CompactRDFResourceTree> it = addedChildren.iterator(); it.hasNext();) {
+							CompactRDFResourceTree addedChild = it.next();
+							if(QueryTreeUtils.isSubsumedBy(addedChild, lggChild)) {
+								add = false;
+								break;
+							} else if(QueryTreeUtils.isSubsumedBy(lggChild, addedChild)) {
+								it.remove();
+							}
+						}
+						if(add) {
+							addedChildren.add(lggChild);
+						}
+					}
+				}
+				for(CompactRDFResourceTree child : addedChildren) {
+					lggEdges.add(edge1);
+					lggChildren.add(child);
+				}
+				i1 = end1;
+				i2 = end2;
+			}
+		}
+		if(stop || isTimeout()) {
+			complete = false;
+		}
+
+		return factory.newNode(label, lggEdges, lggChildren);
+	}
+
+	// the datatype of the root label, as used for the LGG of RDFResourceTrees
+	private int getDatatype(CompactRDFResourceTree tree) {
+		RDFDatatype datatype = tree.getData().getLiteralDatatype();
+		return datatype == null ? CompactRDFResourceTree.NO_DATATYPE : tree.getFactory().getDatatypeID(datatype);
+	}
+
 	public static void main(String[] args) throws Exception {
 
 		String data = "@base <http://foo.bar/> ." +
@@ -41,6 +41,7 @@ import org.dllearner.core.config.ConfigOption;
 import org.dllearner.core.owl.ClassHierarchy;
 import org.dllearner.kb.LocalModelBasedSparqlEndpointKS;
 import org.dllearner.kb.SparqlEndpointKS;
+import org.dllearner.kb.sparql.PartitionedSampleLoader;
 import org.dllearner.kb.sparql.SPARQLTasks;
 import org.dllearner.learningproblems.AxiomScore;
 import org.dllearner.learningproblems.Heuristics;
@@ -117,6 +118,9 @@ public abstract class AbstractAxiomLearningAlgorithm<T extends OWLAxiom, S exten
 	protected ParameterizedSparqlString iterativeQueryTemplate;
 	
 	protected Model sample;
+	private PartitionedSampleLoader sampleLoader;
+	// whether the sample loader was created by this algorithm and not shared
+	private boolean ownSampleLoader = false;
 	
 	protected ParameterizedSparqlString posExamplesQueryTemplate;
 	protected ParameterizedSparqlString negExamplesQueryTemplate;
@@ -318,36 +322,42 @@ public abstract class AbstractAxiomLearningAlgorithm<T extends OWLAxiom, S exten
 	
 	private void generateSample(){
 		logger.info("Generating sample...");
-		sample = ModelFactory.createDefaultModel();
-		
-		// we have to set up a new query execution factory working on our local model
-		qef = new QueryExecutionFactoryModel(sample);
-		reasoner = new SPARQLReasoner(qef);
-		
-		// get the page size
-		//TODO put to base class
-		long pageSize = 10000;//PaginationUtils.adjustPageSize(globalQef, 10000);
-		
+
 		ParameterizedSparqlString sampleQueryTemplate = getSampleQuery();
 		sampleQueryTemplate.setIri("p", entityToDescribe.toStringID());
 		Query query = sampleQueryTemplate.asQuery();
-		query.setLimit(pageSize);
-		
-		boolean isEmpty = false;
-		int i = 0;
-		while(!isTimeout() && !isEmpty){
-			// get next sample
-			logger.debug("Extending sample...");
-			query.setOffset(i++ * pageSize);
-			QueryExecution qe = ksQef.createQueryExecution(query);
-			Model tmp = qe.execConstruct();
-			sample.add(tmp);
-			
-			// if last call returned empty model, we can leave loop
-			isEmpty = tmp.isEmpty();
+
+		// the partitions of the sample are loaded concurrently, and the loader might
+		// return the same sample loaded by another algorithm before
+		long maxTime = maxExecutionTimeInSeconds == 0 ? 0 : Math.max(1, getRemainingRuntimeInMilliSeconds());
+		try {
+			sample = sampleLoader.load(query, maxTime);
+		} finally {
+			// a shared loader is closed by its owner
+			if(ownSampleLoader) {
+				sampleLoader.close();
+			}
 		}
+
+		// we have to set up a new query execution factory working on our local model
+		qef = new QueryExecutionFactoryModel(sample);
+		reasoner = new SPARQLReasoner(qef);
+
 		logger.info("...done. Sample size: " + sample.size() + " triples");
 	}
+
+	/**
+	 * Set the loader used to generate the sample, e.g. to share the samples
+	 * among multiple algorithms learning axioms about the same entity. The
+	 * loader is not closed by the algorithm.
+	 *
+	 * @param sampleLoader the sample loader
+	 */
+	@NoConfigOption
+	public void setSampleLoader(PartitionedSampleLoader sampleLoader) {
+		this.sampleLoader = sampleLoader;
+		this.ownSampleLoader = false;
+	}
 	
 	/**
 	 * @param progressMonitor the progressMonitor to set
@@ -366,6 +376,10 @@ public abstract class AbstractAxiomLearningAlgorithm<T extends OWLAxiom, S exten
 		if(ksReasoner == null){
 			ksReasoner = new SPARQLReasoner(ksQef);
 		}
+		if(sampleLoader == null){
+			sampleLoader = new PartitionedSampleLoader(ksQef);
+			ownSampleLoader = true;
+		}
 //		ksReasoner.supportsSPARQL1_1();
 		reasoner = ksReasoner;
 		
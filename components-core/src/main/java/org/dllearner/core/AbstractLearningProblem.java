@@ -22,6 +22,8 @@ import org.dllearner.core.config.ConfigOption;
 import org.semanticweb.owlapi.model.OWLObject;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.List;
+
 /**
  * Base class for all learning problems.
  * See also the wiki page for
@@ -147,6 +149,23 @@ public abstract class AbstractLearningProblem<T extends Score, V extends OWLObje
 	 */
 	public abstract double getAccuracyOrTooWeak(V hypothesis, double noise);
 
+	/**
+	 * Computes the accuracy of each of the given hypotheses, see
+	 * {@link #getAccuracyOrTooWeak(Object, double)}. Learning problems which can
+	 * evaluate multiple hypotheses at once more efficiently than one after another,
+	 * e.g. with fewer requests to a remote reasoner, should override this method.
+	 *
+	 * @return the accuracy (or -1) of each hypothesis in the order of the given list, or
+	 * <code>null</code> if the accuracies could not be computed at once
+	 */
+	public double[] getAccuraciesOrTooWeak(List<V> hypotheses, double noise) {
+		double[] accuracies = new double[hypotheses.size()];
+		for (int i = 0; i < hypotheses.size(); i++) {
+			accuracies[i] = getAccuracyOrTooWeak(hypotheses.get(i), noise);
+		}
+		return accuracies;
+	}
+
     /**
      * Implementations of learning problems can use this class
      * variable to perform reasoner operations.
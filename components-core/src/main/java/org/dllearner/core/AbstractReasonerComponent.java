@@ -18,6 +18,8 @@
  */
 package org.dllearner.core;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
@@ -27,6 +29,7 @@ import org.dllearner.core.config.ConfigOption;
 import org.dllearner.core.owl.ClassHierarchy;
 import org.dllearner.core.owl.DatatypePropertyHierarchy;
 import org.dllearner.core.owl.ObjectPropertyHierarchy;
+import org.dllearner.core.ReasoningStatistics.Operation;
 import org.dllearner.core.owl.fuzzydll.FuzzyIndividual;
 import org.dllearner.reasoning.ReasonerType;
 import org.dllearner.utilities.Helper;
@@ -82,27 +85,21 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	@ConfigOption(description = "whether to use single instance checks", defaultValue = "false")
 	protected boolean useInstanceChecks = false;
 
-	// statistical data for particular reasoning operations
-	private long instanceCheckReasoningTimeNs = 0;
-	private int nrOfInstanceChecks = 0;
-	private int nrOfMultiInstanceChecks = 0;
-	private long retrievalReasoningTimeNs = 0;
-	private int nrOfRetrievals = 0;
-	private long subsumptionReasoningTimeNs = 0;
-	private int nrOfSubsumptionChecks = 0;
-	private int nrOfMultiSubsumptionChecks = 0;
-	private int nrOfSubsumptionHierarchyQueries = 0;
+	@ConfigOption(description = "whether to collect statistics about the reasoning operations", defaultValue = "true")
+	protected boolean collectStatistics = true;
 
-	// rest of reasoning time
-	private long otherReasoningTimeNs = 0;
+	// statistical data for particular reasoning operations (thread-safe)
+	protected final ReasoningStatistics statistics = new ReasoningStatistics();
 
-	// time for all reasoning requests (usually longer than the sum of all
-	// above)
-	private long overallReasoningTimeNs = 0;
+	@ConfigOption(description = "whether to cache the results of retrieval operations", defaultValue = "false")
+	protected boolean useRetrievalCache = false;
 
-	// temporary variables (moved here for performance reasons)
-	private long reasoningStartTimeTmp;
-	private long reasoningDurationTmp;
+	@ConfigOption(description = "the max. number of individuals in all cached retrieval results, " +
+			"the least recently used results are evicted once this limit is exceeded", defaultValue = "1000000")
+	protected long retrievalCacheMaxSize = 1000000;
+
+	// normalized class expression -> instances (created on first use)
+	private volatile Cache<OWLClassExpression, SortedSet<OWLIndividual>> retrievalCache;
 
 	// list view
 	private List<OWLClass> atomicConceptsList;
@@ -205,16 +202,28 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	 * algorithm, you can use this method to reset all statistical values.
 	 */
 	public void resetStatistics() {
-		instanceCheckReasoningTimeNs = 0;
-		nrOfInstanceChecks = 0;
-		retrievalReasoningTimeNs = 0;
-		nrOfRetrievals = 0;
-		subsumptionReasoningTimeNs = 0;
-		nrOfSubsumptionChecks = 0;
-		// subsumptionHierarchyTimeNs = 0;
-		nrOfSubsumptionHierarchyQueries = 0;
-		otherReasoningTimeNs = 0;
-		overallReasoningTimeNs = 0;
+		statistics.reset();
+	}
+
+	/**
+	 * @return the statistics about the reasoning operations, which can also be
+	 * read while the reasoner is in use
+	 */
+	public ReasoningStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @param collectStatistics whether to collect statistics about the reasoning
+	 * operations, if disabled the reasoning methods do not request the system time
+	 */
+	public void setCollectStatistics(boolean collectStatistics) {
+		this.collectStatistics = collectStatistics;
+		statistics.setEnabled(collectStatistics);
+	}
+
+	public boolean isCollectStatistics() {
+		return collectStatistics;
 	}
 
 	/**
@@ -226,6 +235,9 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	@NoConfigOption
 	public void setUpdated() {
 		// TODO currently, nothing is done to behave correctly after updates
+		if (retrievalCache != null) {
+			retrievalCache.invalidateAll();
+		}
 	}
 
 	/**
@@ -264,7 +276,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final boolean isSuperClassOf(OWLClassExpression superClass, OWLClassExpression subClass) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		boolean result = false;
 		if(precomputeClassHierarchy) {
 			if(superClass.isAnonymous() || subClass.isAnonymous()) {
@@ -283,10 +295,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 				e.printStackTrace();
 			}
 		}
-		nrOfSubsumptionChecks++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		subsumptionReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(Operation.SUBSUMPTION, startTime);
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query isSuperClassOf: " + superClass + " " + subClass + " " + result);
 		}
@@ -300,17 +309,14 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final boolean isEquivalentClass(OWLClassExpression class1, OWLClassExpression class2) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		boolean result = false;
 		try {
 			result = isEquivalentClassImpl(class1, class2);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfSubsumptionChecks+=2;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		subsumptionReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(Operation.SUBSUMPTION, startTime, 2);
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query isEquivalentClass: " + class1 + " " + class2 + " " + result);
 		}
@@ -323,17 +329,14 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	
 	@Override
 	public final boolean isDisjoint(OWLClass class1, OWLClass class2) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		boolean result = false;
 		try {
 			result = isDisjointImpl(class1, class2);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfSubsumptionChecks++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		subsumptionReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(Operation.SUBSUMPTION, startTime);
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query isDisjoint: " + class1 + " " + class2 + " " + result);
 		}
@@ -363,18 +366,14 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	@Override
 	public final Set<OWLClassExpression> isSuperClassOf(Set<OWLClassExpression> superConcepts,
 			OWLClassExpression subConcept) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		Set<OWLClassExpression> result = null;
 		try {
 			result = isSuperClassOfImpl(superConcepts, subConcept);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfSubsumptionChecks += superConcepts.size();
-		nrOfMultiSubsumptionChecks++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		subsumptionReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stopMulti(Operation.SUBSUMPTION, startTime, superConcepts.size());
 		return result;
 	}
 
@@ -388,7 +387,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final SortedSetTuple<OWLIndividual> doubleRetrieval(OWLClassExpression concept) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		SortedSetTuple<OWLIndividual> result;
 		try {
 			result = doubleRetrievalImpl(concept);
@@ -396,9 +395,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			handleExceptions(e);
 			return null;
 		}
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		otherReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(Operation.OTHER, startTime);
 		return result;
 	}
 
@@ -409,18 +406,15 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final SortedSet<OWLIndividual> getIndividuals(OWLClassExpression concept) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		SortedSet<OWLIndividual> result;
 		try {
-			result = getIndividualsImpl(concept);
+			result = useRetrievalCache ? getIndividualsCached(concept) : getIndividualsImpl(concept);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 			return null;
 		}
-		nrOfRetrievals++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		retrievalReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(Operation.RETRIEVAL, startTime);
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query getIndividuals: " + concept + " " + result);
 		}
@@ -431,10 +425,142 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			throws ReasoningMethodUnsupportedException {
 		throw new ReasoningMethodUnsupportedException();
 	}
+
+	private Cache<OWLClassExpression, SortedSet<OWLIndividual>> getRetrievalCache() {
+		if (retrievalCache == null) {
+			synchronized (this) {
+				if (retrievalCache == null) {
+					retrievalCache = CacheBuilder.newBuilder()
+							.maximumWeight(retrievalCacheMaxSize)
+							.weigher((OWLClassExpression ce, SortedSet<OWLIndividual> individuals) -> individuals.size() + 1)
+							.build();
+				}
+			}
+		}
+		return retrievalCache;
+	}
+
+	private SortedSet<OWLIndividual> getIndividualsCached(OWLClassExpression concept)
+			throws ReasoningMethodUnsupportedException {
+		Cache<OWLClassExpression, SortedSet<OWLIndividual>> cache = getRetrievalCache();
+
+		OWLClassExpression key = normalizeForRetrievalCache(concept);
+		SortedSet<OWLIndividual> individuals = cache.getIfPresent(key);
+		if (individuals != null) {
+			statistics.cacheHit(Operation.RETRIEVAL);
+		} else {
+			statistics.cacheMiss(Operation.RETRIEVAL);
+			individuals = getIndividualsFromCachedOperands(key);
+			if (individuals == null) {
+				individuals = getIndividualsImpl(concept);
+			}
+			cache.put(key, individuals);
+		}
+		// the cached set must not be modified by the caller
+		return new TreeSet<>(individuals);
+	}
+
+	/**
+	 * Computes the instances of a conjunction from the cached instances of its
+	 * operands, if at least one of them is cached. The missing operands are
+	 * retrieved (and cached) separately. Under closed world semantics, the
+	 * instances of a disjunction are computed from its operands, if all of them
+	 * are cached.
+	 *
+	 * @param ce the normalized class expression
+	 * @return the instances or <code>null</code> if they can't be computed from the cache
+	 */
+	private SortedSet<OWLIndividual> getIndividualsFromCachedOperands(OWLClassExpression ce)
+			throws ReasoningMethodUnsupportedException {
+		boolean isIntersection = ce instanceof OWLObjectIntersectionOf;
+		// under open world semantics, an individual can be an instance of C or D without
+		// being an instance of any of them
+		boolean isUnion = ce instanceof OWLObjectUnionOf && getReasonerType() == ReasonerType.CLOSED_WORLD_REASONER;
+		if (!isIntersection && !isUnion) {
+			return null;
+		}
+
+		Set<OWLClassExpression> operands = ((OWLNaryBooleanClassExpression) ce).getOperands();
+		List<SortedSet<OWLIndividual>> operandInstances = new ArrayList<>(operands.size());
+		List<OWLClassExpression> missingOperands = new ArrayList<>();
+		for (OWLClassExpression op : operands) {
+			SortedSet<OWLIndividual> individuals = retrievalCache.getIfPresent(normalizeForRetrievalCache(op));
+			if (individuals != null) {
+				operandInstances.add(individuals);
+			} else {
+				missingOperands.add(op);
+			}
+		}
+
+		if (isUnion) {
+			if (!missingOperands.isEmpty()) {
+				return null;
+			}
+			SortedSet<OWLIndividual> result = new TreeSet<>();
+			operandInstances.forEach(result::addAll);
+			return result;
+		}
+
+		if (operandInstances.isEmpty()) {
+			return null;
+		}
+		for (OWLClassExpression op : missingOperands) {
+			operandInstances.add(getIndividualsCached(op));
+		}
+		// start with the smallest set
+		operandInstances.sort(Comparator.comparingInt(Set::size));
+		SortedSet<OWLIndividual> result = new TreeSet<>(operandInstances.get(0));
+		for (int i = 1; i < operandInstances.size() && !result.isEmpty(); i++) {
+			result.retainAll(operandInstances.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the key of a class expression in the retrieval cache. By default,
+	 * this is the negation normal form, such that equivalent class expressions
+	 * share the same entry. Reasoners whose semantics is not invariant under
+	 * this transformation have to override this method.
+	 *
+	 * @param ce the class expression
+	 * @return the normalized class expression
+	 */
+	protected OWLClassExpression normalizeForRetrievalCache(OWLClassExpression ce) {
+		return ce.getNNF();
+	}
+
+	/**
+	 * @return the statistics of the retrieval cache, i.e. the hit ratio
+	 */
+	public ReasoningStatistics.OperationStatistics getRetrievalCacheStatistics() {
+		return statistics.get(Operation.RETRIEVAL);
+	}
+
+	public boolean isUseRetrievalCache() {
+		return useRetrievalCache;
+	}
+
+	/**
+	 * @param useRetrievalCache whether to cache the results of retrieval operations
+	 */
+	public void setUseRetrievalCache(boolean useRetrievalCache) {
+		this.useRetrievalCache = useRetrievalCache;
+	}
+
+	public long getRetrievalCacheMaxSize() {
+		return retrievalCacheMaxSize;
+	}
+
+	/**
+	 * @param retrievalCacheMaxSize the max. number of individuals in all cached retrieval results
+	 */
+	public void setRetrievalCacheMaxSize(long retrievalCacheMaxSize) {
+		this.retrievalCacheMaxSize = retrievalCacheMaxSize;
+	}
 	
 	@Override
 	public final SortedSet<FuzzyIndividual> getFuzzyIndividuals(OWLClassExpression concept) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		SortedSet<FuzzyIndividual> result;
 		try {
 			result = getFuzzyIndividualsImpl(concept);
@@ -442,10 +568,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			handleExceptions(e);
 			return null;
 		}
-		nrOfRetrievals++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		retrievalReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(Operation.RETRIEVAL, startTime);
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query getIndividuals: " + concept + " " + result);
 		}
@@ -459,17 +582,14 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final boolean hasType(OWLClassExpression concept, OWLIndividual s) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		boolean result = false;
 		try {
 			result = hasTypeImpl(concept, s);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfInstanceChecks++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		instanceCheckReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(Operation.INSTANCE_CHECK, startTime);
 		return result;
 	}
 
@@ -481,18 +601,14 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	@Override
 	public final SortedSet<OWLIndividual> hasType(OWLClassExpression concept, Set<OWLIndividual> s) {
 		// logger.debug("instanceCheck "+concept.toKBSyntaxString());
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		SortedSet<OWLIndividual> result = null;
 		try {
 			result = hasTypeImpl(concept, s);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfInstanceChecks += s.size();
-		nrOfMultiInstanceChecks++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		instanceCheckReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stopMulti(Operation.INSTANCE_CHECK, startTime, s.size());
 		// logger.debug("instanceCheck done");
 		return result;
 	}
@@ -521,7 +637,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final boolean isSatisfiable() {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		boolean result;
 		try {
 			result = isSatisfiableImpl();
@@ -529,9 +645,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			handleExceptions(e);
 			return false;
 		}
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		otherReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(Operation.OTHER, startTime);
 		return result;
 	}
 
@@ -541,7 +655,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final boolean remainsSatisfiable(OWLAxiom axiom) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		boolean result;
 		try {
 			result = remainsSatisfiableImpl(axiom);
@@ -549,9 +663,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			handleExceptions(e);
 			return false;
 		}
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		otherReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(Operation.OTHER, startTime);
 		return result;
 	}
 
@@ -637,7 +749,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 
 	@Override
 	public final Map<OWLIndividual, SortedSet<OWLIndividual>> getPropertyMembers(OWLObjectProperty atomicRole) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		Map<OWLIndividual, SortedSet<OWLIndividual>> result;
 		try {
 			result = getPropertyMembersImpl(atomicRole);
@@ -645,9 +757,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			handleExceptions(e);
 			return null;
 		}
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		otherReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(Operation.OTHER, startTime);
 		return result;
 	}
 
@@ -1452,55 +1562,55 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	}
 
 	public long getInstanceCheckReasoningTimeNs() {
-		return instanceCheckReasoningTimeNs;
+		return statistics.get(Operation.INSTANCE_CHECK).getTimeNs();
 	}
 
 	public long getRetrievalReasoningTimeNs() {
-		return retrievalReasoningTimeNs;
+		return statistics.get(Operation.RETRIEVAL).getTimeNs();
 	}
 
 	public int getNrOfInstanceChecks() {
-		return nrOfInstanceChecks;
+		return (int) statistics.get(Operation.INSTANCE_CHECK).getNrOfCalls();
 	}
 
 	public int getNrOfRetrievals() {
-		return nrOfRetrievals;
+		return (int) statistics.get(Operation.RETRIEVAL).getNrOfCalls();
 	}
 
 	public int getNrOfSubsumptionChecks() {
-		return nrOfSubsumptionChecks;
+		return (int) statistics.get(Operation.SUBSUMPTION).getNrOfCalls();
 	}
 
 	public long getSubsumptionReasoningTimeNs() {
-		return subsumptionReasoningTimeNs;
+		return statistics.get(Operation.SUBSUMPTION).getTimeNs();
 	}
 
 	public int getNrOfSubsumptionHierarchyQueries() {
-		return nrOfSubsumptionHierarchyQueries;
+		return (int) statistics.get(Operation.SUBSUMPTION_HIERARCHY).getNrOfCalls();
 	}
 
 	public long getOverallReasoningTimeNs() {
-		return overallReasoningTimeNs;
+		return statistics.getOverallTimeNs();
 	}
 
 	public long getTimePerRetrievalNs() {
-		return retrievalReasoningTimeNs / nrOfRetrievals;
+		return statistics.get(Operation.RETRIEVAL).getAverageTimeNs();
 	}
 
 	public long getTimePerInstanceCheckNs() {
-		return instanceCheckReasoningTimeNs / nrOfInstanceChecks;
+		return statistics.get(Operation.INSTANCE_CHECK).getAverageTimeNs();
 	}
 
 	public long getTimePerSubsumptionCheckNs() {
-		return subsumptionReasoningTimeNs / nrOfSubsumptionChecks;
+		return statistics.get(Operation.SUBSUMPTION).getAverageTimeNs();
 	}
 
 	public int getNrOfMultiSubsumptionChecks() {
-		return nrOfMultiSubsumptionChecks;
+		return (int) statistics.get(Operation.SUBSUMPTION).getNrOfMultiCalls();
 	}
 
 	public int getNrOfMultiInstanceChecks() {
-		return nrOfMultiInstanceChecks;
+		return (int) statistics.get(Operation.INSTANCE_CHECK).getNrOfMultiCalls();
 	}
 	
 	/**
@@ -1569,37 +1679,51 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	@Override
 	public String toString() {
 		String str = "";
+		int nrOfRetrievals = getNrOfRetrievals();
 		if (nrOfRetrievals > 0) {
 			str += "number of retrievals: " + nrOfRetrievals + "\n";
 			str += "retrieval reasoning time: "
-							+ Helper.prettyPrintNanoSeconds(retrievalReasoningTimeNs)
+							+ Helper.prettyPrintNanoSeconds(getRetrievalReasoningTimeNs())
 							+ " ( " + Helper.prettyPrintNanoSeconds(getTimePerRetrievalNs())
 							+ " per retrieval)" + "\n";
+			str += cacheStatisticsToString(Operation.RETRIEVAL);
 		}
+		int nrOfInstanceChecks = getNrOfInstanceChecks();
 		if (nrOfInstanceChecks > 0) {
 			str += "number of instance checks: " + nrOfInstanceChecks + " ("
-					+ nrOfMultiInstanceChecks + " multiple)\n";
+					+ getNrOfMultiInstanceChecks() + " multiple)\n";
 			str += "instance check reasoning time: "
-					+ Helper.prettyPrintNanoSeconds(instanceCheckReasoningTimeNs) + " ( "
+					+ Helper.prettyPrintNanoSeconds(getInstanceCheckReasoningTimeNs()) + " ( "
 					+ Helper.prettyPrintNanoSeconds(getTimePerInstanceCheckNs())
 					+ " per instance check)\n";
+			str += cacheStatisticsToString(Operation.INSTANCE_CHECK);
 		}
+		int nrOfSubsumptionHierarchyQueries = getNrOfSubsumptionHierarchyQueries();
 		if (nrOfSubsumptionHierarchyQueries > 0) {
 			str += "subsumption hierarchy queries: "
 					+ nrOfSubsumptionHierarchyQueries + "\n";
 		}
+		int nrOfSubsumptionChecks = getNrOfSubsumptionChecks();
 		if (nrOfSubsumptionChecks > 0) {
 			str += "(complex) subsumption checks: " + nrOfSubsumptionChecks
-					+ " (" + nrOfMultiSubsumptionChecks + " multiple)\n";
+					+ " (" + getNrOfMultiSubsumptionChecks() + " multiple)\n";
 			str += "subsumption reasoning time: "
-					+ Helper.prettyPrintNanoSeconds(subsumptionReasoningTimeNs) + " ( "
+					+ Helper.prettyPrintNanoSeconds(getSubsumptionReasoningTimeNs()) + " ( "
 					+ Helper.prettyPrintNanoSeconds(getTimePerSubsumptionCheckNs())
 					+ " per subsumption check)\n";
 		}
 		str += "overall reasoning time: "
-				+ Helper.prettyPrintNanoSeconds(overallReasoningTimeNs) + "\n";	
+				+ Helper.prettyPrintNanoSeconds(getOverallReasoningTimeNs()) + "\n";	
 		return str;
 	}
+
+	private String cacheStatisticsToString(Operation op) {
+		ReasoningStatistics.OperationStatistics stats = statistics.get(op);
+		if (stats.getCacheHits() + stats.getCacheMisses() == 0) {
+			return "";
+		}
+		return "cache hit ratio: " + numberFormat.format(100 * stats.getCacheHitRatio()) + "%\n";
+	}
 	
 	/**************************************************************
 	 * FUZZY EXTENSIONS
@@ -1607,17 +1731,14 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	
 	@Override
 	public double hasTypeFuzzyMembership(OWLClassExpression description, FuzzyIndividual individual) {
-		reasoningStartTimeTmp = System.nanoTime();
+		long startTime = statistics.start();
 		double result = -1;
 		try {
 			result = hasTypeFuzzyMembershipImpl(description, individual);
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
-		nrOfInstanceChecks++;
-		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
-		instanceCheckReasoningTimeNs += reasoningDurationTmp;
-		overallReasoningTimeNs += reasoningDurationTmp;
+		statistics.stop(Operation.INSTANCE_CHECK, startTime);
 		return result;		
 	}
 
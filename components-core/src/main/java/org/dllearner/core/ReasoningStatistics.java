@@ -0,0 +1,317 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about the reasoning operations of a reasoner component, i.e. the
+ * number of calls, the time spent, a latency histogram and the cache hit ratio
+ * per type of operation.
+ *
+ * All counters are {@link LongAdder}s, thus the statistics can be updated by
+ * multiple threads without locking and without contention on a single memory
+ * location, and they can be read at any time. If the statistics are disabled,
+ * neither the system time is requested nor any counter is updated.
+ *
+ * Usage:
+ * <pre>
+ * long startTime = statistics.start();
+ * ... // the reasoning operation
+ * statistics.stop(Operation.RETRIEVAL, startTime);
+ * </pre>
+ *
+ * @author Lorenz Buehmann
+ */
+public class ReasoningStatistics {
+
+	/**
+	 * The types of reasoning operations for which statistics are collected.
+	 */
+	public enum Operation {
+		INSTANCE_CHECK, RETRIEVAL, SUBSUMPTION, SUBSUMPTION_HIERARCHY, OTHER
+	}
+
+	// bucket i of the latency histogram contains all calls with a duration in [2^i, 2^(i+1)) ns,
+	// the last bucket also contains all longer calls (2^31 ns are roughly 2s)
+	private static final int NR_OF_BUCKETS = 32;
+
+	private final Map<Operation, OperationStatistics> statistics = new EnumMap<>(Operation.class);
+
+	private volatile boolean enabled = true;
+
+	public ReasoningStatistics() {
+		for (Operation op : Operation.values()) {
+			statistics.put(op, new OperationStatistics());
+		}
+	}
+
+	/**
+	 * @return the start time of a reasoning operation, or 0 if the statistics are disabled
+	 */
+	public long start() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records a single call of the given operation.
+	 *
+	 * @param op the operation
+	 * @param startTime the start time returned by {@link #start()}
+	 */
+	public void stop(Operation op, long startTime) {
+		stop(op, startTime, 1, false);
+	}
+
+	/**
+	 * Records a call of the given operation which counts as <code>nrOfCalls</code> calls,
+	 * e.g. an equivalence check counts as two subsumption checks.
+	 *
+	 * @param op the operation
+	 * @param startTime the start time returned by {@link #start()}
+	 * @param nrOfCalls the number of calls
+	 */
+	public void stop(Operation op, long startTime, int nrOfCalls) {
+		stop(op, startTime, nrOfCalls, false);
+	}
+
+	/**
+	 * Records a call of the given operation for multiple arguments at once,
+	 * e.g. an instance check for a set of individuals.
+	 *
+	 * @param op the operation
+	 * @param startTime the start time returned by {@link #start()}
+	 * @param nrOfCalls the number of arguments
+	 */
+	public void stopMulti(Operation op, long startTime, int nrOfCalls) {
+		stop(op, startTime, nrOfCalls, true);
+	}
+
+	private void stop(Operation op, long startTime, int nrOfCalls, boolean multi) {
+		// the start time is 0 if the statistics were disabled when the operation started
+		if (!enabled || startTime == 0) {
+			return;
+		}
+		long duration = System.nanoTime() - startTime;
+
+		OperationStatistics stats = statistics.get(op);
+		stats.calls.add(nrOfCalls);
+		if (multi) {
+			stats.multiCalls.increment();
+		}
+		stats.timeNs.add(duration);
+		stats.histogram[bucket(duration)].increment();
+	}
+
+	private static int bucket(long durationNs) {
+		int bucket = 63 - Long.numberOfLeadingZeros(Math.max(durationNs, 1));
+		return Math.min(bucket, NR_OF_BUCKETS - 1);
+	}
+
+	/**
+	 * Records a cache hit of the given operation, e.g. for reasoners which cache
+	 * the results of retrieval operations.
+	 *
+	 * @param op the operation
+	 */
+	public void cacheHit(Operation op) {
+		if (enabled) {
+			statistics.get(op).cacheHits.increment();
+		}
+	}
+
+	/**
+	 * Records a cache miss of the given operation.
+	 *
+	 * @param op the operation
+	 */
+	public void cacheMiss(Operation op) {
+		if (enabled) {
+			statistics.get(op).cacheMisses.increment();
+		}
+	}
+
+	/**
+	 * @param op the operation
+	 * @return the statistics of the given operation
+	 */
+	public OperationStatistics get(Operation op) {
+		return statistics.get(op);
+	}
+
+	/**
+	 * @return the time of all reasoning operations in ns
+	 */
+	public long getOverallTimeNs() {
+		return statistics.values().stream().mapToLong(OperationStatistics::getTimeNs).sum();
+	}
+
+	/**
+	 * Reset all statistics. Note, that calls which are running concurrently
+	 * might be recorded partially.
+	 */
+	public void reset() {
+		statistics.values().forEach(OperationStatistics::reset);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param enabled whether to collect statistics
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Exports the current values of all statistics, e.g. for writing them to a
+	 * file. The keys are of the form <code>operation.metric</code>, e.g.
+	 * <code>retrieval.calls</code> or <code>retrieval.p99Ns</code>.
+	 *
+	 * @return the current values
+	 */
+	public Map<String, Number> export() {
+		Map<String, Number> values = new LinkedHashMap<>();
+		statistics.forEach((op, stats) -> {
+			String prefix = op.name().toLowerCase(Locale.ROOT) + ".";
+			values.put(prefix + "calls", stats.getNrOfCalls());
+			values.put(prefix + "multiCalls", stats.getNrOfMultiCalls());
+			values.put(prefix + "timeNs", stats.getTimeNs());
+			values.put(prefix + "p50Ns", stats.getPercentileNs(0.5));
+			values.put(prefix + "p99Ns", stats.getPercentileNs(0.99));
+			values.put(prefix + "cacheHits", stats.getCacheHits());
+			values.put(prefix + "cacheMisses", stats.getCacheMisses());
+		});
+		values.put("overall.timeNs", getOverallTimeNs());
+		return values;
+	}
+
+	/**
+	 * The statistics of a single type of reasoning operation.
+	 */
+	public static class OperationStatistics {
+
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder multiCalls = new LongAdder();
+		private final LongAdder timeNs = new LongAdder();
+		private final LongAdder cacheHits = new LongAdder();
+		private final LongAdder cacheMisses = new LongAdder();
+		private final LongAdder[] histogram = new LongAdder[NR_OF_BUCKETS];
+
+		OperationStatistics() {
+			for (int i = 0; i < histogram.length; i++) {
+				histogram[i] = new LongAdder();
+			}
+		}
+
+		public long getNrOfCalls() {
+			return calls.sum();
+		}
+
+		public long getNrOfMultiCalls() {
+			return multiCalls.sum();
+		}
+
+		public long getTimeNs() {
+			return timeNs.sum();
+		}
+
+		/**
+		 * @return the average time per call in ns, or 0 if there was no call
+		 */
+		public long getAverageTimeNs() {
+			long nrOfCalls = getNrOfCalls();
+			return nrOfCalls == 0 ? 0 : getTimeNs() / nrOfCalls;
+		}
+
+		public long getCacheHits() {
+			return cacheHits.sum();
+		}
+
+		public long getCacheMisses() {
+			return cacheMisses.sum();
+		}
+
+		/**
+		 * @return the ratio of cache hits to all cache lookups, or 0 if there was no lookup
+		 */
+		public double getCacheHitRatio() {
+			long hits = getCacheHits();
+			long lookups = hits + getCacheMisses();
+			return lookups == 0 ? 0 : (double) hits / lookups;
+		}
+
+		/**
+		 * @return the number of recorded durations per bucket, where bucket i
+		 * contains the durations in [2^i, 2^(i+1)) ns
+		 */
+		public long[] getHistogram() {
+			long[] counts = new long[histogram.length];
+			for (int i = 0; i < histogram.length; i++) {
+				counts[i] = histogram[i].sum();
+			}
+			return counts;
+		}
+
+		/**
+		 * Returns an upper bound of the given percentile of the recorded durations,
+		 * which is at most twice the exact value.
+		 *
+		 * @param percentile the percentile in [0, 1]
+		 * @return the upper bound of the histogram bucket containing the percentile in ns,
+		 * or 0 if nothing was recorded
+		 */
+		public long getPercentileNs(double percentile) {
+			long[] counts = getHistogram();
+			long total = 0;
+			for (long count : counts) {
+				total += count;
+			}
+			if (total == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(percentile * total);
+			long cnt = 0;
+			for (int i = 0; i < counts.length; i++) {
+				cnt += counts[i];
+				if (cnt >= rank && counts[i] > 0) {
+					return 1L << (i + 1);
+				}
+			}
+			return 1L << NR_OF_BUCKETS;
+		}
+
+		void reset() {
+			calls.reset();
+			multiCalls.reset();
+			timeNs.reset();
+			cacheHits.reset();
+			cacheMisses.reset();
+			for (LongAdder bucket : histogram) {
+				bucket.reset();
+			}
+		}
+	}
+}
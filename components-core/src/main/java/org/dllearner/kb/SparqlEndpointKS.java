@@ -33,12 +33,17 @@ import org.dllearner.core.ComponentInitException;
 import org.dllearner.core.KnowledgeSource;
 import org.dllearner.core.annotations.NoConfigOption;
 import org.dllearner.core.config.ConfigOption;
+import org.dllearner.kb.sparql.QueryExecutionFactoryResultStore;
 import org.dllearner.kb.sparql.SPARQLTasks;
 import org.dllearner.kb.sparql.SparqlEndpoint;
+import org.dllearner.kb.sparql.SparqlResultStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -52,7 +57,7 @@ import java.util.concurrent.TimeUnit;
  *
  */
 @ComponentAnn(name = "SPARQL endpoint", shortName = "sparql", version = 0.2)
-public class SparqlEndpointKS extends AbstractKnowledgeSource {
+public class SparqlEndpointKS extends AbstractKnowledgeSource implements AutoCloseable {
 
 	private static final Logger logger = LoggerFactory.getLogger(SparqlEndpointKS.class);
 
@@ -86,11 +91,22 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 	@ConfigOption(defaultValue = "86400", description = "The time to live in milliseconds for cached SPARQL queries, if enabled. The default value is 86400s(=1 day).", required = false)
 	protected long cacheTTL = TimeUnit.DAYS.toMillis(1);
 
+	@ConfigOption(defaultValue = "false", description = "Use a single log-structured file with a compact binary encoding of " +
+			"the results as SPARQL query cache instead of the H2 database, if caching is enabled.", required = false)
+	protected boolean useResultStore = false;
+
+	@ConfigOption(defaultValue = "1073741824", description = "The max. size in bytes of the SPARQL result store (1GB by default); " +
+			"if it is exceeded, the oldest entries are removed.", required = false)
+	protected long cacheMaxSize = 1L << 30;
+
 	@ConfigOption(defaultValue = "3", description = "The maximum number of retries for the execution of a particular SPARQL query.", required = false)
 	protected int retryCount = 3;
 
 	protected QueryExecutionFactory qef;
 
+	// the shared result store used by the query execution factory, if any
+	private SparqlResultStore resultStore;
+
 	@ConfigOption(defaultValue = "10 000", description = "page size", exampleValue = "10000")
 	private long pageSize = 10000;
 	
@@ -167,7 +183,17 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 				.end()
 				.create();
 
-		if(useCache) {
+		if(useCache && useResultStore) {
+			// the cache directory might contain H2 specific settings
+			Path file = Paths.get(cacheDir.split(";")[0] + ".results");
+			try {
+				resultStore = SparqlResultStore.open(file, cacheTTL, cacheMaxSize);
+				qef = new QueryExecutionFactoryResultStore(qef, resultStore);
+			} catch (IOException e) {
+				logger.error("Failed to open the SPARQL result store " + file + ", using the H2 cache instead.", e);
+				qef = CacheUtilsH2.createQueryExecutionFactory(qef, cacheDir, false, cacheTTL);
+			}
+		} else if(useCache) {
 			qef = CacheUtilsH2.createQueryExecutionFactory(qef, cacheDir, false, cacheTTL );
 		} else {
 			// use in-memory cache
@@ -272,6 +298,22 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 		this.cacheTTL = cacheTTL;
 	}
 	
+	/**
+	 * @param useResultStore whether to use the log-structured result store
+	 * instead of the H2 database as SPARQL query cache
+	 */
+	public void setUseResultStore(boolean useResultStore) {
+		this.useResultStore = useResultStore;
+	}
+
+	/**
+	 * Set the max. size of the SPARQL result store.
+	 * @param cacheMaxSize the max. size in bytes
+	 */
+	public void setCacheMaxSize(long cacheMaxSize) {
+		this.cacheMaxSize = cacheMaxSize;
+	}
+
 	/**
 	 * @return if exists, a knowledge source which contains the schema
 	 */
@@ -287,6 +329,18 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 		this.retryCount = retryCount;
 	}
 
+	/**
+	 * Releases the SPARQL result store, if used, i.e. the query execution factory
+	 * must not be used afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (resultStore != null) {
+			resultStore.close();
+			resultStore = null;
+		}
+	}
+
 	@Override
 	public String toString() {
 		String out = String.format("%-15s %-25s%n", "Endpoint:", "Remote");
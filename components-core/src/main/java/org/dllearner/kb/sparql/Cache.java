@@ -50,6 +50,8 @@ import java.util.LinkedList;
  * @author Sebastian Hellmann
  * @author Sebastian Knappe
  * @author Jens Lehmann
+ * @see QueryExecutionFactoryResultStore for a cache which keeps all results in a
+ * single file and can be used with any {@link org.aksw.jena_sparql_api.core.QueryExecutionFactory}
  */
 public class Cache implements Serializable {
 
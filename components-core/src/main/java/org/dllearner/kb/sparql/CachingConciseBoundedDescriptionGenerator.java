@@ -63,18 +63,36 @@ public class CachingConciseBoundedDescriptionGenerator implements ConciseBounded
         }
     }
 
-    private LoadingCache<CacheKey, Model> cache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .expireAfterWrite(1, TimeUnit.HOURS)
-            .build(
-                    new CacheLoader<CacheKey, Model>() {
-                        public Model load(CacheKey key) {
-                            return delegatee.getConciseBoundedDescription(key.resource, key.depth, key.withTypesForLeafs);
-                        }
-                    });
+    /**
+     * The default max. number of triples of all cached CBDs.
+     */
+    public static final long DEFAULT_MAX_NR_OF_TRIPLES = 1_000_000;
+
+    private final LoadingCache<CacheKey, Model> cache;
 
     public CachingConciseBoundedDescriptionGenerator(ConciseBoundedDescriptionGenerator cbdGen) {
+        this(cbdGen, DEFAULT_MAX_NR_OF_TRIPLES);
+    }
+
+    /**
+     * The cache is bounded by the overall number of triples of the cached CBDs instead of the number
+     * of CBDs, as the size of CBDs varies by orders of magnitude, e.g. for hub resources.
+     *
+     * @param cbdGen the CBD generator whose CBDs are cached
+     * @param maxNrOfTriples the max. number of triples of all cached CBDs
+     */
+    public CachingConciseBoundedDescriptionGenerator(ConciseBoundedDescriptionGenerator cbdGen, long maxNrOfTriples) {
         this.delegatee = cbdGen;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxNrOfTriples)
+                .weigher((CacheKey key, Model model) -> (int) Math.min(Integer.MAX_VALUE, Math.max(1, model.size())))
+                .expireAfterWrite(1, TimeUnit.HOURS)
+                .build(
+                        new CacheLoader<CacheKey, Model>() {
+                            public Model load(CacheKey key) {
+                                return delegatee.getConciseBoundedDescription(key.resource, key.depth, key.withTypesForLeafs);
+                            }
+                        });
     }
 
     /* (non-Javadoc)
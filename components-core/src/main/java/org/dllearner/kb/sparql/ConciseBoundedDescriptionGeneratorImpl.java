@@ -86,6 +86,14 @@ public class ConciseBoundedDescriptionGeneratorImpl extends AbstractConciseBound
 		this(new QueryExecutionFactoryModel(model));
 	}
 
+	/**
+	 * @param useSingleQuery whether to compute the CBDs of multiple resources with a single
+	 * query, i.e. the resources are bound via a VALUES clause
+	 */
+	public void setUseSingleQuery(boolean useSingleQuery) {
+		this.useSingleQuery = useSingleQuery;
+	}
+
 	@Override
 	public Model getConciseBoundedDescription(Set<String> resources, int depth, boolean withTypesForLeafs) {
 		if (useSingleQuery) {
@@ -97,7 +105,6 @@ public class ConciseBoundedDescriptionGeneratorImpl extends AbstractConciseBound
 			// set the VALUES clause
 			String query = template.toString().replace("%VALUES%", resources.stream().map(r -> "<" + r + ">").collect(Collectors.joining(" ")));
 			log.trace(query);
-			System.out.println(query);
 
 			try (QueryExecution qe = qef.createQueryExecution(query)) {
 				Model model = qe.execConstruct();
@@ -0,0 +1,379 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.util.FmtUtils;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDF;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * A CBD generator which expands the CBDs level by level, i.e. instead of a
+ * single CONSTRUCT query with nested OPTIONALs whose result grows
+ * exponentially with the depth, for each level there is one SELECT query for
+ * all resources of the current frontier (in batches of a max. size).
+ *
+ * The triples are streamed into a graph shared by all CBDs computed by the
+ * generator, i.e. the outgoing triples of each resource are retrieved and
+ * stored only once, no matter how many CBDs contain them, and the CBD of a
+ * resource is extracted from the shared graph.
+ *
+ * The generator can be used concurrently, the queries are executed without
+ * holding a lock, only the merge into the shared graph and the extraction of
+ * the CBDs are synchronized. The shared graph is bounded by a max. number of
+ * triples, it is cleared if exceeded before a new CBD is computed. A
+ * computation whose triples have been cleared concurrently is repeated.
+ *
+ * Note, blank nodes can't be used across queries, thus blank nodes in object
+ * position are not expanded.
+ *
+ * @author Lorenz Buehmann
+ */
+public class LevelWiseConciseBoundedDescriptionGenerator extends AbstractConciseBoundedDescriptionGenerator {
+
+	private static final Var S = Var.alloc("s");
+	private static final Var P = Var.alloc("p");
+	private static final Var O = Var.alloc("o");
+
+	// the max. number of attempts before a computation blocks the concurrent ones
+	private static final int MAX_ATTEMPTS = 3;
+
+	// the triples of all expanded resources
+	private final Graph graph = GraphFactory.createDefaultGraph();
+	// the type triples of the leafs, which are not filtered
+	private final Graph leafTypes = GraphFactory.createDefaultGraph();
+
+	// the resources whose outgoing triples are contained in the graph
+	private final Set<Node> fetched = new HashSet<>();
+	// the resources whose types are contained in the leaf types graph
+	private final Set<Node> typesFetched = new HashSet<>();
+	// the max. remaining depth a resource has been expanded with
+	private final Map<Node, Integer> expandedDepth = new HashMap<>();
+
+	// incremented whenever the shared graph is cleared
+	private long generation = 0;
+
+	private int batchSize = 100;
+	private int maxNrOfTriples = 1_000_000;
+
+	public LevelWiseConciseBoundedDescriptionGenerator(QueryExecutionFactory qef) {
+		super(qef);
+	}
+
+	/**
+	 * @param batchSize the max. number of resources of a frontier bound in a single query
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @param maxNrOfTriples the max. number of triples kept in the shared graph, the graph is
+	 *                       cleared if it contains more triples before a CBD is computed
+	 */
+	public void setMaxNrOfTriples(int maxNrOfTriples) {
+		this.maxNrOfTriples = maxNrOfTriples;
+	}
+
+	@Override
+	public Model getConciseBoundedDescription(String resource, int depth, boolean withTypesForLeafs) {
+		return getConciseBoundedDescription(Collections.singleton(resource), depth, withTypesForLeafs);
+	}
+
+	@Override
+	public Model getConciseBoundedDescription(Set<String> resources, int depth, boolean withTypesForLeafs) {
+		log.trace("Computing CBDs for {} ...", resources);
+		long start = System.currentTimeMillis();
+
+		List<Node> roots = resources.stream().map(NodeFactory::createURI).collect(Collectors.toList());
+		Graph cbd = null;
+		for (int attempt = 1; cbd == null && attempt < MAX_ATTEMPTS; attempt++) {
+			cbd = computeCBD(roots, depth, withTypesForLeafs);
+		}
+		if (cbd == null) {
+			// the shared graph has been cleared by concurrent computations each time
+			synchronized (this) {
+				cbd = computeCBD(roots, depth, withTypesForLeafs);
+			}
+		}
+		Model model = ModelFactory.createModelForGraph(cbd);
+		log.trace("Got {} triples in {} ms.", model.size(), (System.currentTimeMillis() - start));
+		return model;
+	}
+
+	/*
+	 * Returns the CBD, or null if the shared graph has been cleared concurrently.
+	 */
+	private Graph computeCBD(List<Node> roots, int depth, boolean withTypesForLeafs) {
+		long startGeneration;
+		synchronized (this) {
+			if (graph.size() + leafTypes.size() > maxNrOfTriples) {
+				log.debug("Clearing {} triples.", graph.size() + leafTypes.size());
+				clear();
+			}
+			startGeneration = generation;
+		}
+
+		if (!expand(roots, depth, startGeneration)) {
+			return null;
+		}
+
+		if (withTypesForLeafs) {
+			Set<Node> leafs = new LinkedHashSet<>();
+			synchronized (this) {
+				if (generation != startGeneration) {
+					return null;
+				}
+				for (Node root : roots) {
+					traverse(root, depth, triple -> {}, leafs::add);
+				}
+				leafs.removeAll(typesFetched);
+			}
+			fetchTypes(new ArrayList<>(leafs), startGeneration);
+		}
+
+		synchronized (this) {
+			if (generation != startGeneration) {
+				return null;
+			}
+			Graph cbd = GraphFactory.createDefaultGraph();
+			for (Node root : roots) {
+				traverse(root, depth, cbd::add, leaf -> {
+					if (withTypesForLeafs) {
+						leafTypes.find(leaf, RDF.type.asNode(), Node.ANY).forEachRemaining(cbd::add);
+					}
+				});
+			}
+			return cbd;
+		}
+	}
+
+	/*
+	 * Returns false if the shared graph has been cleared concurrently, the state is only modified
+	 * as long as it hasn't.
+	 */
+	private boolean expand(List<Node> roots, int depth, long startGeneration) {
+		// the resources of the current level together with their remaining depth
+		Map<Node, Integer> level = new LinkedHashMap<>();
+		// the depths are published once all levels have been fetched, otherwise a concurrent
+		// computation might skip resources whose successors haven't been fetched yet
+		Map<Node, Integer> expanded = new HashMap<>();
+		synchronized (this) {
+			for (Node root : roots) {
+				if (expandedDepth.getOrDefault(root, 0) < depth) {
+					level.put(root, depth);
+				}
+			}
+		}
+		while (!level.isEmpty()) {
+			// one query per batch of resources which haven't been fetched before
+			List<Node> frontier;
+			synchronized (this) {
+				if (generation != startGeneration) {
+					return false;
+				}
+				frontier = level.keySet().stream()
+						.filter(node -> !fetched.contains(node))
+						.collect(Collectors.toList());
+			}
+			fetch(frontier, startGeneration);
+
+			Map<Node, Integer> nextLevel = new LinkedHashMap<>();
+			synchronized (this) {
+				if (generation != startGeneration) {
+					return false;
+				}
+				level.forEach((node, remainingDepth) -> {
+					expanded.merge(node, remainingDepth, Math::max);
+
+					ExtendedIterator<Triple> it = graph.find(node, Node.ANY, Node.ANY);
+					try {
+						while (it.hasNext()) {
+							Node object = it.next().getObject();
+							int objectDepth = Math.max(expandedDepth.getOrDefault(object, 0), expanded.getOrDefault(object, 0));
+							if (object.isURI() && remainingDepth > 1 && objectDepth < remainingDepth - 1) {
+								nextLevel.merge(object, remainingDepth - 1, Math::max);
+							}
+						}
+					} finally {
+						it.close();
+					}
+				});
+			}
+			level = nextLevel;
+		}
+		synchronized (this) {
+			if (generation != startGeneration) {
+				return false;
+			}
+			expanded.forEach((node, remainingDepth) -> expandedDepth.merge(node, remainingDepth, Math::max));
+		}
+		return true;
+	}
+
+	private void fetch(List<Node> resources, long startGeneration) {
+		for (int i = 0; i < resources.size(); i += batchSize) {
+			List<Node> batch = resources.subList(i, Math.min(i + batchSize, resources.size()));
+			String query = "SELECT ?s ?p ?o WHERE {\n" +
+					"VALUES ?s {" + toValues(batch) + "}\n" +
+					triplePattern("?s", "?p", "?o") +
+					createPredicateFilter(P) +
+					createObjectFilter(P, O) +
+					"}";
+			List<Triple> triples = execute(query, batch);
+			synchronized (this) {
+				if (generation != startGeneration) {
+					return;
+				}
+				triples.forEach(graph::add);
+				fetched.addAll(batch);
+			}
+		}
+	}
+
+	private void fetchTypes(List<Node> resources, long startGeneration) {
+		for (int i = 0; i < resources.size(); i += batchSize) {
+			List<Node> batch = resources.subList(i, Math.min(i + batchSize, resources.size()));
+			String query = "SELECT ?s ?p ?o WHERE {\n" +
+					"VALUES ?s {" + toValues(batch) + "}\n" +
+					"BIND(" + FmtUtils.stringForNode(RDF.type.asNode()) + " AS ?p)\n" +
+					triplePattern("?s", "?p", "?o") +
+					"}";
+			List<Triple> triples = execute(query, batch);
+			synchronized (this) {
+				if (generation != startGeneration) {
+					return;
+				}
+				triples.forEach(leafTypes::add);
+				typesFetched.addAll(batch);
+			}
+		}
+	}
+
+	private List<Triple> execute(String query, List<Node> resources) {
+		log.debug(query);
+		// the rows of a single batch are collected without holding the lock and merged
+		// into the shared graph afterwards
+		List<Triple> triples = new ArrayList<>();
+		try (QueryExecution qe = qef.createQueryExecution(query)) {
+			ResultSet rs = qe.execSelect();
+			while (rs.hasNext()) {
+				QuerySolution qs = rs.next();
+				triples.add(Triple.create(qs.get(S.getName()).asNode(),
+										  qs.get(P.getName()).asNode(),
+										  qs.get(O.getName()).asNode()));
+			}
+			return triples;
+		} catch (Exception e) {
+			log.error("Failed to computed CBD for resources {}", resources);
+			throw new RuntimeException("Failed to computed CBD for resources " + resources, e);
+		}
+	}
+
+	private static String toValues(List<Node> resources) {
+		return resources.stream().map(FmtUtils::stringForNode).collect(Collectors.joining(" "));
+	}
+
+	/*
+	 * Traverses the CBD of the given resource contained in the shared graph, i.e. all triples and the
+	 * leafs, which are the resources in object position of the triples on the last level.
+	 */
+	private void traverse(Node root, int depth, Consumer<Triple> tripleConsumer, Consumer<Node> leafConsumer) {
+		Map<Node, Integer> visited = new HashMap<>();
+		Deque<Node> queue = new ArrayDeque<>();
+		visited.put(root, depth);
+		queue.add(root);
+		while (!queue.isEmpty()) {
+			Node node = queue.poll();
+			int remainingDepth = visited.get(node);
+
+			ExtendedIterator<Triple> it = graph.find(node, Node.ANY, Node.ANY);
+			try {
+				while (it.hasNext()) {
+					Triple triple = it.next();
+					tripleConsumer.accept(triple);
+
+					Node object = triple.getObject();
+					if (!object.isURI()) {
+						continue;
+					}
+					if (remainingDepth > 1) {
+						// BFS, i.e. the first visit is via the shortest path
+						if (!visited.containsKey(object)) {
+							visited.put(object, remainingDepth - 1);
+							queue.add(object);
+						}
+					} else {
+						leafConsumer.accept(object);
+					}
+				}
+			} finally {
+				it.close();
+			}
+		}
+	}
+
+	/**
+	 * Removes all triples retrieved so far.
+	 */
+	public synchronized void clear() {
+		generation++;
+		graph.clear();
+		leafTypes.clear();
+		fetched.clear();
+		typesFetched.clear();
+		expandedDepth.clear();
+	}
+
+	/**
+	 * @return the number of triples retrieved so far
+	 */
+	public synchronized int getNrOfTriples() {
+		return graph.size() + leafTypes.size();
+	}
+
+	/**
+	 * Returns the query which retrieves the first level of the CBD, the CBD
+	 * itself is computed by multiple queries.
+	 */
+	@Override
+	protected String generateQuery(String resource, int depth, boolean withTypesForLeafs) {
+		return "SELECT ?s ?p ?o WHERE {\n" +
+				"VALUES ?s {" + FmtUtils.stringForURI(resource) + "}\n" +
+				triplePattern("?s", "?p", "?o") +
+				createPredicateFilter(P) +
+				createObjectFilter(P, O) +
+				"}";
+	}
+}
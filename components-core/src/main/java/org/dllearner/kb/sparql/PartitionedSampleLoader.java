@@ -0,0 +1,299 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.syntax.ElementFilter;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.PatternVars;
+import org.apache.jena.sparql.util.ExprUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads the result of a SPARQL CONSTRUCT query, e.g. the sample used by an axiom
+ * learning algorithm, into a local model.
+ *
+ * Instead of paging the whole query with a growing OFFSET, which gets slower
+ * with every page on large endpoints, the query is split into partitions by
+ * the MD5 hash prefix of the subject variable, i.e. each partition is a query
+ * with an additional <code>FILTER(STRSTARTS(MD5(STR(?s)), "..."))</code>. The
+ * partitions are fetched concurrently and only paged if a partition exceeds
+ * the page size. A page with fewer triples than the page size is considered to
+ * be the last one, i.e. the queries should not produce the same triple for
+ * different solutions. If the query doesn't contain the subject variable, or
+ * if the endpoint doesn't support the MD5 function of SPARQL 1.1, which is
+ * checked once per loader, the query is paged as a whole.
+ *
+ * The result is loaded into an in-memory graph, which is indexed by subject,
+ * predicate and object and thus suited for the count queries of the axiom
+ * learners. The samples are cached by their query, i.e. all axiom learners
+ * using the same loader and the same sample query for an entity share the
+ * same sample. The returned models must not be modified. The size of the
+ * cache, i.e. the total number of cached triples, is bounded.
+ *
+ * The threads of the loader are stopped by {@link #close()}, they are
+ * recreated if the loader is used again afterwards.
+ *
+ * @author Lorenz Buehmann
+ */
+public class PartitionedSampleLoader implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(PartitionedSampleLoader.class);
+
+	private static final String HEX = "0123456789abcdef";
+
+	/**
+	 * The default max. number of triples of all cached samples.
+	 */
+	public static final long DEFAULT_MAX_CACHED_TRIPLES = 10_000_000;
+
+	private final QueryExecutionFactory qef;
+
+	private Var subjectVar = Var.alloc("s");
+	private int partitionPrefixLength = 1;
+	private long pageSize = 10000;
+	private int nrOfThreads = 4;
+
+	private ExecutorService executor;
+
+	// whether the endpoint supports the MD5 function, null if not checked yet
+	private volatile Boolean md5Supported;
+
+	private final Cache<String, Model> samples;
+
+	/**
+	 * @param qef the query execution factory of the knowledge base
+	 * @param maxCachedTriples the max. number of triples of all cached samples,
+	 *                         0 disables the cache
+	 */
+	public PartitionedSampleLoader(QueryExecutionFactory qef, long maxCachedTriples) {
+		this.qef = qef;
+		this.samples = CacheBuilder.newBuilder()
+				.maximumWeight(maxCachedTriples)
+				.weigher((String query, Model model) -> (int) Math.min(Integer.MAX_VALUE, Math.max(1, model.size())))
+				.build();
+	}
+
+	public PartitionedSampleLoader(QueryExecutionFactory qef) {
+		this(qef, DEFAULT_MAX_CACHED_TRIPLES);
+	}
+
+	/**
+	 * Loads the result of the given CONSTRUCT query, or returns the cached result if the
+	 * same query has been loaded before completely.
+	 *
+	 * @param query the CONSTRUCT query
+	 * @param maxTimeMillis the max. time to load the sample, or 0 for no limit. If the limit is
+	 *                      exceeded, the result is incomplete and isn't cached.
+	 * @return the result
+	 */
+	public Model load(Query query, long maxTimeMillis) {
+		String key = query.toString();
+		Model sample = samples.getIfPresent(key);
+		if (sample != null) {
+			logger.debug("Reusing sample of size {}", sample.size());
+			return sample;
+		}
+
+		long deadline = maxTimeMillis > 0 ? System.currentTimeMillis() + maxTimeMillis : Long.MAX_VALUE;
+		Model result = ModelFactory.createDefaultModel();
+
+		boolean complete = true;
+		List<Future<Boolean>> futures = new ArrayList<>();
+		for (Query partition : partition(query)) {
+			futures.add(getExecutor().submit(() -> loadPaged(partition, result, deadline)));
+		}
+		try {
+			for (Future<Boolean> future : futures) {
+				complete &= future.get();
+			}
+		} catch (InterruptedException e) {
+			futures.forEach(f -> f.cancel(true));
+			Thread.currentThread().interrupt();
+			complete = false;
+		} catch (ExecutionException e) {
+			futures.forEach(f -> f.cancel(true));
+			throw new RuntimeException("Sample generation failed.", e.getCause());
+		}
+
+		if (complete) {
+			samples.put(key, result);
+		}
+		return result;
+	}
+
+	/*
+	 * Loads all pages of the query into the result, returns whether it was complete.
+	 */
+	private boolean loadPaged(Query query, Model result, long deadline) {
+		Query page = query.cloneQuery();
+		page.setLimit(pageSize);
+		long offset = 0;
+		while (true) {
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				return false;
+			}
+			page.setOffset(offset);
+			Model tmp;
+			try (QueryExecution qe = qef.createQueryExecution(page)) {
+				if (deadline != Long.MAX_VALUE) {
+					qe.setTimeout(remaining);
+				}
+				tmp = qe.execConstruct();
+			} catch (QueryCancelledException e) {
+				return false;
+			}
+			// the graph is not thread-safe for writes
+			synchronized (result) {
+				result.add(tmp);
+			}
+			// a page which is not full, i.e. there are no further results
+			if (tmp.size() < pageSize) {
+				return true;
+			}
+			offset += pageSize;
+		}
+	}
+
+	private List<Query> partition(Query query) {
+		List<Query> partitions = new ArrayList<>();
+		if (partitionPrefixLength <= 0 || !PatternVars.vars(query.getQueryPattern()).contains(subjectVar)
+				|| !isMD5Supported()) {
+			partitions.add(query);
+			return partitions;
+		}
+		for (String prefix : hashPrefixes(partitionPrefixLength)) {
+			ElementGroup group = new ElementGroup();
+			group.addElement(query.getQueryPattern());
+			group.addElementFilter(new ElementFilter(ExprUtils.parse(
+					"STRSTARTS(MD5(STR(" + subjectVar + ")), \"" + prefix + "\")")));
+
+			Query partition = query.cloneQuery();
+			partition.setQueryPattern(group);
+			partitions.add(partition);
+		}
+		return partitions;
+	}
+
+	private boolean isMD5Supported() {
+		if (md5Supported == null) {
+			String value = "dl-learner";
+			boolean supported;
+			try (QueryExecution qe = qef.createQueryExecution(
+					"ASK {FILTER(MD5(\"" + value + "\") = \"" + DigestUtils.md5Hex(value) + "\")}")) {
+				supported = qe.execAsk();
+			} catch (Exception e) {
+				logger.debug("MD5 check failed", e);
+				supported = false;
+			}
+			if (!supported) {
+				logger.warn("The endpoint doesn't support the MD5 function of SPARQL 1.1, the samples are loaded without partitioning.");
+			}
+			md5Supported = supported;
+		}
+		return md5Supported;
+	}
+
+	private static List<String> hashPrefixes(int length) {
+		List<String> prefixes = new ArrayList<>();
+		prefixes.add("");
+		for (int i = 0; i < length; i++) {
+			List<String> longer = new ArrayList<>();
+			for (String prefix : prefixes) {
+				for (char c : HEX.toCharArray()) {
+					longer.add(prefix + c);
+				}
+			}
+			prefixes = longer;
+		}
+		return prefixes;
+	}
+
+	private synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(nrOfThreads,
+					new ThreadFactoryBuilder().setNameFormat("sample-loader-%d").setDaemon(true).build());
+		}
+		return executor;
+	}
+
+	/**
+	 * @param subjectVar the variable used to partition the queries, default is <code>?s</code>
+	 */
+	public void setSubjectVar(Var subjectVar) {
+		this.subjectVar = subjectVar;
+	}
+
+	/**
+	 * @param partitionPrefixLength the length of the hash prefix, i.e. there are 16^length
+	 *                              partitions, 0 disables the partitioning
+	 */
+	public void setPartitionPrefixLength(int partitionPrefixLength) {
+		this.partitionPrefixLength = partitionPrefixLength;
+	}
+
+	/**
+	 * @param pageSize the max. number of results of a single query
+	 */
+	public void setPageSize(long pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * @param nrOfThreads the number of partitions loaded concurrently
+	 */
+	public synchronized void setNrOfThreads(int nrOfThreads) {
+		this.nrOfThreads = nrOfThreads;
+		close();
+	}
+
+	/**
+	 * Removes all cached samples.
+	 */
+	public void clear() {
+		samples.invalidateAll();
+	}
+
+	@Override
+	public synchronized void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionDecorator;
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.aksw.jena_sparql_api.core.QueryExecutionFactoryDecorator;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.query.ResultSetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.engine.ResultSetStream;
+import org.apache.jena.sparql.engine.binding.Binding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * A query execution factory which limits the number of queries executed
+ * concurrently on the decorated query execution factory, e.g. to avoid
+ * overloading a remote endpoint when multiple learning algorithms are running
+ * in parallel. A query execution waits until a permit is available.
+ *
+ * The results of SELECT queries are copied into memory before the permit is
+ * released, such that the permit covers the whole transfer of the result.
+ * Thus, the memory used by a query is bounded by a max. number of result rows,
+ * a query with more rows fails. This is meant for the count and paged queries
+ * of the learning algorithms, large results should be fetched with LIMIT and
+ * OFFSET.
+ *
+ * @author Lorenz Buehmann
+ */
+public class QueryExecutionFactoryConcurrencyLimit extends QueryExecutionFactoryDecorator {
+
+	/**
+	 * The default max. number of rows of a SELECT query result.
+	 */
+	public static final int DEFAULT_MAX_RESULT_ROWS = 1_000_000;
+
+	private final Semaphore permits;
+	private final int maxResultRows;
+
+	/**
+	 * @param decoratee the decorated query execution factory
+	 * @param maxConcurrentQueries the max. number of concurrently executed queries
+	 * @param maxResultRows the max. number of rows of a SELECT query result copied into memory
+	 */
+	public QueryExecutionFactoryConcurrencyLimit(QueryExecutionFactory decoratee, int maxConcurrentQueries, int maxResultRows) {
+		super(decoratee);
+		if (maxConcurrentQueries <= 0) {
+			throw new IllegalArgumentException("The max. number of concurrent queries must be positive.");
+		}
+		this.permits = new Semaphore(maxConcurrentQueries, true);
+		this.maxResultRows = maxResultRows;
+	}
+
+	/**
+	 * @param decoratee the decorated query execution factory
+	 * @param maxConcurrentQueries the max. number of concurrently executed queries
+	 */
+	public QueryExecutionFactoryConcurrencyLimit(QueryExecutionFactory decoratee, int maxConcurrentQueries) {
+		this(decoratee, maxConcurrentQueries, DEFAULT_MAX_RESULT_ROWS);
+	}
+
+	@Override
+	public QueryExecution createQueryExecution(Query query) {
+		return new LimitedQueryExecution(super.createQueryExecution(query));
+	}
+
+	@Override
+	public QueryExecution createQueryExecution(String queryString) {
+		return new LimitedQueryExecution(super.createQueryExecution(queryString));
+	}
+
+	/**
+	 * @return the number of queries which could be executed right now without waiting
+	 */
+	public int getAvailablePermits() {
+		return permits.availablePermits();
+	}
+
+	private <T> T limited(Supplier<T> execution) {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new QueryCancelledException();
+		}
+		try {
+			return execution.get();
+		} finally {
+			permits.release();
+		}
+	}
+
+	private ResultSet copy(ResultSet rs, Query query) {
+		List<Binding> rows = new ArrayList<>();
+		while (rs.hasNext()) {
+			if (rows.size() == maxResultRows) {
+				throw new IllegalStateException("The result of the query exceeds the max. number of "
+						+ maxResultRows + " rows, use LIMIT and OFFSET:\n" + query);
+			}
+			rows.add(rs.nextBinding());
+		}
+		return ResultSetFactory.copyResults(new ResultSetStream(rs.getResultVars(), null, rows.iterator()));
+	}
+
+	private class LimitedQueryExecution extends QueryExecutionDecorator {
+
+		LimitedQueryExecution(QueryExecution decoratee) {
+			super(decoratee);
+		}
+
+		@Override
+		public ResultSet execSelect() {
+			return limited(() -> copy(super.execSelect(), getQuery()));
+		}
+
+		@Override
+		public boolean execAsk() {
+			return limited(super::execAsk);
+		}
+
+		@Override
+		public Model execConstruct() {
+			return limited(() -> super.execConstruct());
+		}
+
+		@Override
+		public Model execConstruct(Model model) {
+			return limited(() -> super.execConstruct(model));
+		}
+
+		@Override
+		public Model execDescribe() {
+			return limited(() -> super.execDescribe());
+		}
+
+		@Override
+		public Model execDescribe(Model model) {
+			return limited(() -> super.execDescribe(model));
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionDecorator;
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.aksw.jena_sparql_api.core.QueryExecutionFactoryDecorator;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.query.ResultSetFactory;
+import org.apache.jena.query.ResultSetRewindable;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A query execution factory which caches the results of SELECT, ASK, CONSTRUCT
+ * and DESCRIBE queries of the decorated query execution factory in a
+ * {@link SparqlResultStore}, using the {@link SparqlResultCodec binary encoding}
+ * of the results. The cache key is made of the ID of the decorated factory and
+ * the query string. The store can be shared by multiple threads and factories.
+ *
+ * The factory can be used everywhere a {@link QueryExecutionFactory} is
+ * expected, e.g. by the SPARQL reasoner, the CBD generators and the axiom
+ * learning algorithms, and it replaces the file-per-query {@link Cache}.
+ *
+ * @author Lorenz Buehmann
+ */
+public class QueryExecutionFactoryResultStore extends QueryExecutionFactoryDecorator {
+
+	private static final char SELECT = 'S';
+	private static final char ASK = 'A';
+	private static final char CONSTRUCT = 'C';
+	private static final char DESCRIBE = 'D';
+
+	private final SparqlResultStore store;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	public QueryExecutionFactoryResultStore(QueryExecutionFactory decoratee, SparqlResultStore store) {
+		super(decoratee);
+		this.store = store;
+	}
+
+	@Override
+	public QueryExecution createQueryExecution(Query query) {
+		return new CachingQueryExecution(super.createQueryExecution(query), query.toString());
+	}
+
+	@Override
+	public QueryExecution createQueryExecution(String queryString) {
+		return new CachingQueryExecution(super.createQueryExecution(queryString), queryString);
+	}
+
+	public SparqlResultStore getStore() {
+		return store;
+	}
+
+	/**
+	 * @return the number of query executions answered from the cache
+	 */
+	public long getCacheHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of query executions sent to the decorated factory
+	 */
+	public long getCacheMisses() {
+		return misses.sum();
+	}
+
+	private class CachingQueryExecution extends QueryExecutionDecorator {
+
+		private final String queryString;
+
+		CachingQueryExecution(QueryExecution decoratee, String queryString) {
+			super(decoratee);
+			this.queryString = queryString;
+		}
+
+		// the type of the query is part of the key, such that e.g. a SELECT and an
+		// ASK execution of the same query string do not share their results
+		private String key(char type) {
+			return type + getId() + "\n" + queryString;
+		}
+
+		private byte[] lookup(String key) {
+			byte[] data = store.get(key);
+			if (data != null) {
+				hits.increment();
+			} else {
+				misses.increment();
+			}
+			return data;
+		}
+
+		@Override
+		public ResultSet execSelect() {
+			String key = key(SELECT);
+			byte[] data = lookup(key);
+			if (data != null) {
+				return SparqlResultCodec.decodeResultSet(data);
+			}
+			ResultSetRewindable rs = ResultSetFactory.copyResults(super.execSelect());
+			store.put(key, SparqlResultCodec.encode(rs));
+			rs.reset();
+			return rs;
+		}
+
+		@Override
+		public boolean execAsk() {
+			String key = key(ASK);
+			byte[] data = lookup(key);
+			if (data != null) {
+				return SparqlResultCodec.decodeBoolean(data);
+			}
+			boolean result = super.execAsk();
+			store.put(key, SparqlResultCodec.encode(result));
+			return result;
+		}
+
+		@Override
+		public Model execConstruct() {
+			return execConstruct(ModelFactory.createDefaultModel());
+		}
+
+		@Override
+		public Model execConstruct(Model model) {
+			return execGraphQuery(CONSTRUCT, model);
+		}
+
+		@Override
+		public Model execDescribe() {
+			return execDescribe(ModelFactory.createDefaultModel());
+		}
+
+		@Override
+		public Model execDescribe(Model model) {
+			return execGraphQuery(DESCRIBE, model);
+		}
+
+		private Model execGraphQuery(char type, Model model) {
+			String key = key(type);
+			byte[] data = lookup(key);
+			if (data != null) {
+				return SparqlResultCodec.decodeModel(data, model);
+			}
+			Model result = type == CONSTRUCT ? super.execConstruct() : super.execDescribe();
+			store.put(key, SparqlResultCodec.encode(result));
+			model.add(result);
+			return model;
+		}
+
+		private String getId() {
+			return QueryExecutionFactoryResultStore.this.getId();
+		}
+	}
+}
@@ -0,0 +1,283 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.query.ResultSetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.binding.BindingMap;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A compact binary encoding of SPARQL query results, i.e. of result sets
+ * (SELECT), boolean results (ASK) and models (CONSTRUCT/DESCRIBE).
+ *
+ * Each string (IRI, blank node label, lexical form, language tag and datatype)
+ * is written only once per encoded result and afterwards referenced by its
+ * position in the dictionary of the result, which makes the encoding
+ * considerably smaller than the XML or JSON serialisation for the typical
+ * results with many repeated IRIs.
+ *
+ * @author Lorenz Buehmann
+ */
+final class SparqlResultCodec {
+
+	private static final int VERSION = 1;
+
+	private static final byte ABSENT = 0;
+	private static final byte URI = 1;
+	private static final byte BLANK = 2;
+	private static final byte PLAIN_LITERAL = 3;
+	private static final byte LANG_LITERAL = 4;
+	private static final byte TYPED_LITERAL = 5;
+
+	private SparqlResultCodec() {}
+
+	/**
+	 * Encodes the remaining rows of the result set, i.e. the result set is consumed.
+	 */
+	static byte[] encode(ResultSet rs) {
+		Encoder out = new Encoder();
+		List<String> vars = rs.getResultVars();
+		out.writeVarInt(vars.size());
+		List<Var> sparqlVars = new ArrayList<>(vars.size());
+		for (String var : vars) {
+			out.writeString(var);
+			sparqlVars.add(Var.alloc(var));
+		}
+		while (rs.hasNext()) {
+			Binding binding = rs.nextBinding();
+			out.writeVarInt(1);
+			for (Var var : sparqlVars) {
+				out.writeNode(binding.get(var));
+			}
+		}
+		out.writeVarInt(0);
+		return out.toByteArray();
+	}
+
+	static ResultSet decodeResultSet(byte[] data) {
+		Decoder in = new Decoder(data);
+		int nrOfVars = in.readVarInt();
+		List<String> vars = new ArrayList<>(nrOfVars);
+		List<Var> sparqlVars = new ArrayList<>(nrOfVars);
+		for (int i = 0; i < nrOfVars; i++) {
+			String var = in.readString();
+			vars.add(var);
+			sparqlVars.add(Var.alloc(var));
+		}
+		List<Binding> bindings = new ArrayList<>();
+		while (in.readVarInt() != 0) {
+			BindingMap binding = BindingFactory.create();
+			for (Var var : sparqlVars) {
+				Node node = in.readNode();
+				if (node != null) {
+					binding.add(var, node);
+				}
+			}
+			bindings.add(binding);
+		}
+		return ResultSetFactory.create(QueryIterPlainWrapper.create(bindings.iterator()), vars);
+	}
+
+	static byte[] encode(boolean result) {
+		Encoder out = new Encoder();
+		out.writeVarInt(result ? 1 : 0);
+		return out.toByteArray();
+	}
+
+	static boolean decodeBoolean(byte[] data) {
+		return new Decoder(data).readVarInt() == 1;
+	}
+
+	static byte[] encode(Model model) {
+		Encoder out = new Encoder();
+		Graph graph = model.getGraph();
+		out.writeVarInt(graph.size());
+		ExtendedIterator<Triple> it = graph.find(Node.ANY, Node.ANY, Node.ANY);
+		try {
+			while (it.hasNext()) {
+				Triple t = it.next();
+				out.writeNode(t.getSubject());
+				out.writeNode(t.getPredicate());
+				out.writeNode(t.getObject());
+			}
+		} finally {
+			it.close();
+		}
+		return out.toByteArray();
+	}
+
+	static Model decodeModel(byte[] data, Model model) {
+		Decoder in = new Decoder(data);
+		Graph graph = model.getGraph();
+		int nrOfTriples = in.readVarInt();
+		for (int i = 0; i < nrOfTriples; i++) {
+			graph.add(Triple.create(in.readNode(), in.readNode(), in.readNode()));
+		}
+		return model;
+	}
+
+	static Model decodeModel(byte[] data) {
+		return decodeModel(data, ModelFactory.createDefaultModel());
+	}
+
+	private static class Encoder {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private final Map<String, Integer> dictionary = new HashMap<>();
+
+		Encoder() {
+			writeVarInt(VERSION);
+		}
+
+		void writeVarInt(int value) {
+			try {
+				while ((value & ~0x7F) != 0) {
+					out.writeByte((value & 0x7F) | 0x80);
+					value >>>= 7;
+				}
+				out.writeByte(value);
+			} catch (IOException e) {
+				// can't happen for an in-memory stream
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		// 0 followed by the UTF-8 bytes for a new string, otherwise the ID + 1 of a known string
+		void writeString(String s) {
+			Integer id = dictionary.get(s);
+			if (id != null) {
+				writeVarInt(id + 1);
+			} else {
+				dictionary.put(s, dictionary.size());
+				byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+				writeVarInt(0);
+				writeVarInt(utf8.length);
+				bytes.write(utf8, 0, utf8.length);
+			}
+		}
+
+		void writeNode(Node node) {
+			if (node == null) {
+				writeVarInt(ABSENT);
+			} else if (node.isURI()) {
+				writeVarInt(URI);
+				writeString(node.getURI());
+			} else if (node.isBlank()) {
+				writeVarInt(BLANK);
+				writeString(node.getBlankNodeLabel());
+			} else if (node.isLiteral()) {
+				String lang = node.getLiteralLanguage();
+				String datatype = node.getLiteralDatatypeURI();
+				if (lang != null && !lang.isEmpty()) {
+					writeVarInt(LANG_LITERAL);
+					writeString(node.getLiteralLexicalForm());
+					writeString(lang);
+				} else if (datatype != null) {
+					writeVarInt(TYPED_LITERAL);
+					writeString(node.getLiteralLexicalForm());
+					writeString(datatype);
+				} else {
+					writeVarInt(PLAIN_LITERAL);
+					writeString(node.getLiteralLexicalForm());
+				}
+			} else {
+				throw new IllegalArgumentException("Unsupported node in query result: " + node);
+			}
+		}
+
+		byte[] toByteArray() {
+			return bytes.toByteArray();
+		}
+	}
+
+	private static class Decoder {
+		private final byte[] data;
+		private int pos = 0;
+		private final List<String> dictionary = new ArrayList<>();
+
+		Decoder(byte[] data) {
+			this.data = data;
+			int version = readVarInt();
+			if (version != VERSION) {
+				throw new IllegalStateException("Unsupported version " + version + " of encoded query result.");
+			}
+		}
+
+		int readVarInt() {
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = data[pos++];
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+
+		String readString() {
+			int id = readVarInt();
+			if (id > 0) {
+				return dictionary.get(id - 1);
+			}
+			int length = readVarInt();
+			String s = new String(data, pos, length, StandardCharsets.UTF_8);
+			pos += length;
+			dictionary.add(s);
+			return s;
+		}
+
+		Node readNode() {
+			int type = readVarInt();
+			switch (type) {
+				case ABSENT:
+					return null;
+				case URI:
+					return NodeFactory.createURI(readString());
+				case BLANK:
+					return NodeFactory.createBlankNode(readString());
+				case PLAIN_LITERAL:
+					return NodeFactory.createLiteral(readString());
+				case LANG_LITERAL:
+					return NodeFactory.createLiteral(readString(), readString());
+				case TYPED_LITERAL:
+					String lexicalForm = readString();
+					return NodeFactory.createLiteral(lexicalForm, TypeMapper.getInstance().getSafeTypeByName(readString()));
+				default:
+					throw new IllegalStateException("Unknown node type " + type + " in encoded query result.");
+			}
+		}
+	}
+}
@@ -0,0 +1,457 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * An embedded, log-structured key-value store for SPARQL query results.
+ *
+ * All entries are appended to a single file, and an in-memory index maps the
+ * hash of each key to the position of its latest entry in the file. The full
+ * key is stored with each entry and compared on lookup, i.e. hash collisions
+ * can't lead to wrong results. When the store is opened, the index is rebuilt
+ * by scanning the file, and an incomplete entry at the end of the file, e.g.
+ * due to a crash, is discarded.
+ *
+ * Lookups read from the file with positional reads and can run concurrently,
+ * entries are appended under an exclusive lock. Entries older than the
+ * time-to-live are treated as missing. If the file would exceed the max. size,
+ * it is compacted: only the most recent entries which are not expired are kept,
+ * such that the file afterwards uses at most 3/4 of the max. size.
+ *
+ * The file is locked while the store is open, i.e. it can't be used by another
+ * process at the same time. Within a JVM, the stores should be obtained by
+ * {@link #open(Path, long, long)}, which returns a single, shared instance per
+ * file; it is closed when all users have closed it.
+ *
+ * Record layout: magic (int), key length (int), value length (int),
+ * timestamp (long), key (UTF-8), value, CRC32 of key and value (int).
+ *
+ * @author Lorenz Buehmann
+ */
+public class SparqlResultStore implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(SparqlResultStore.class);
+
+	private static final int MAGIC = 0x444c5352;
+	private static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+	private static final int CHECKSUM_SIZE = 4;
+
+	private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+	// the shared stores, by absolute file path
+	private static final Map<Path, SparqlResultStore> OPEN_STORES = new HashMap<>();
+
+	private final Path file;
+	private final long timeToLive;
+	private final long maxSize;
+
+	private final Map<HashCode, Entry> index = new ConcurrentHashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private FileChannel channel;
+	// the end of the log
+	private long size;
+
+	// the lock file guards the store file, which is replaced by a compaction;
+	// the lock is held until the channel is closed
+	private final FileChannel lockChannel;
+	// the number of users of a shared store, guarded by OPEN_STORES
+	private int references = 0;
+
+	private static class Entry {
+		final long position;
+		final int keyLength;
+		final int valueLength;
+		final long timestamp;
+
+		Entry(long position, int keyLength, int valueLength, long timestamp) {
+			this.position = position;
+			this.keyLength = keyLength;
+			this.valueLength = valueLength;
+			this.timestamp = timestamp;
+		}
+
+		long recordLength() {
+			return (long) HEADER_SIZE + keyLength + valueLength + CHECKSUM_SIZE;
+		}
+	}
+
+	/**
+	 * Returns the shared store of the file, which is opened if it is not in use
+	 * yet. Each call has to be followed by a call of {@link #close()}. The time
+	 * to live and the max. size are only used if the store is opened.
+	 *
+	 * @param file the file of the store
+	 * @param timeToLive the time in ms after which an entry is considered outdated
+	 * @param maxSize the max. size of the file in bytes
+	 * @return the store
+	 * @throws IOException if the file can't be opened or is locked by another process
+	 */
+	public static SparqlResultStore open(Path file, long timeToLive, long maxSize) throws IOException {
+		Path path = file.toAbsolutePath().normalize();
+		synchronized (OPEN_STORES) {
+			SparqlResultStore store = OPEN_STORES.get(path);
+			if (store == null) {
+				store = new SparqlResultStore(path, timeToLive, maxSize);
+				OPEN_STORES.put(path, store);
+			}
+			store.references++;
+			return store;
+		}
+	}
+
+	/**
+	 * Opens the store, i.e. the file is created if it does not exist, otherwise
+	 * the index is rebuilt from the existing file.
+	 *
+	 * @param file the file of the store
+	 * @param timeToLive the time in ms after which an entry is considered outdated
+	 * @param maxSize the max. size of the file in bytes
+	 * @throws IOException if the file can't be opened or is locked
+	 */
+	public SparqlResultStore(Path file, long timeToLive, long maxSize) throws IOException {
+		this.file = file;
+		this.timeToLive = timeToLive;
+		this.maxSize = maxSize;
+
+		Path dir = file.toAbsolutePath().getParent();
+		if (dir != null) {
+			Files.createDirectories(dir);
+		}
+		lockChannel = FileChannel.open(file.resolveSibling(file.getFileName() + ".lock"),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try {
+			if (tryLock(lockChannel) == null) {
+				throw new IOException("The SPARQL cache file " + file + " is used by another process");
+			}
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			try {
+				rebuildIndex();
+			} catch (IOException e) {
+				channel.close();
+				throw e;
+			}
+		} catch (IOException e) {
+			lockChannel.close();
+			throw e;
+		}
+	}
+
+	private FileLock tryLock(FileChannel channel) throws IOException {
+		try {
+			return channel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			throw new IOException("The SPARQL cache file " + file + " is already open, use SparqlResultStore.open() to share it", e);
+		}
+	}
+
+	private void rebuildIndex() throws IOException {
+		long fileSize = channel.size();
+		long position = 0;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (position + HEADER_SIZE <= fileSize) {
+			header.clear();
+			readFully(header, position);
+			header.flip();
+			int magic = header.getInt();
+			int keyLength = header.getInt();
+			int valueLength = header.getInt();
+			long timestamp = header.getLong();
+
+			Entry entry = new Entry(position, keyLength, valueLength, timestamp);
+			if (magic != MAGIC || keyLength < 0 || valueLength < 0
+					|| position + entry.recordLength() > fileSize) {
+				break;
+			}
+			ByteBuffer record = ByteBuffer.allocate(keyLength + valueLength + CHECKSUM_SIZE);
+			readFully(record, position + HEADER_SIZE);
+			record.flip();
+			if (checksum(record.array(), keyLength + valueLength) != record.getInt(keyLength + valueLength)) {
+				break;
+			}
+			String key = new String(record.array(), 0, keyLength, StandardCharsets.UTF_8);
+			if (!isExpired(entry)) {
+				index.put(hash(key), entry);
+			} else {
+				index.remove(hash(key));
+			}
+			position += entry.recordLength();
+		}
+		if (position < fileSize) {
+			logger.warn("Discarding incomplete or corrupt data at the end of the SPARQL cache file " + file
+					+ " (" + (fileSize - position) + " bytes)");
+			channel.truncate(position);
+		}
+		size = position;
+	}
+
+	/**
+	 * @param key the key
+	 * @return the value, or <code>null</code> if there is no entry for the key
+	 * or if the entry is outdated
+	 */
+	public byte[] get(String key) {
+		HashCode hash = hash(key);
+		Entry entry = index.get(hash);
+		if (entry == null) {
+			return null;
+		}
+		if (isExpired(entry)) {
+			index.remove(hash, entry);
+			return null;
+		}
+
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer record;
+		lock.readLock().lock();
+		try {
+			// the entry might have been moved by a compaction in the meantime
+			entry = index.get(hash);
+			if (entry == null || entry.keyLength != keyBytes.length) {
+				return null;
+			}
+			record = ByteBuffer.allocate(entry.keyLength + entry.valueLength);
+			readFully(record, entry.position + HEADER_SIZE);
+		} catch (IOException e) {
+			logger.error("Failed to read from the SPARQL cache file " + file, e);
+			return null;
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		byte[] data = record.array();
+		if (!Arrays.equals(Arrays.copyOf(data, keyBytes.length), keyBytes)) {
+			// hash collision
+			return null;
+		}
+		return Arrays.copyOfRange(data, keyBytes.length, data.length);
+	}
+
+	/**
+	 * Adds an entry, which replaces an existing entry for the same key.
+	 *
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void put(String key, byte[] value) {
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		long timestamp = System.currentTimeMillis();
+		Entry entry = new Entry(-1, keyBytes.length, value.length, timestamp);
+		if (entry.recordLength() > maxSize / 2) {
+			logger.debug("Not caching the result of size " + value.length + " bytes as it is too large.");
+			return;
+		}
+
+		ByteBuffer record = ByteBuffer.allocate((int) entry.recordLength());
+		record.putInt(MAGIC).putInt(keyBytes.length).putInt(value.length).putLong(timestamp);
+		record.put(keyBytes).put(value);
+		record.putInt(checksum(record.array(), HEADER_SIZE, keyBytes.length + value.length));
+		record.flip();
+
+		lock.writeLock().lock();
+		try {
+			if (size + record.remaining() > maxSize) {
+				compact(record.remaining());
+			}
+			long position = size;
+			while (record.hasRemaining()) {
+				channel.write(record, position + record.position());
+			}
+			size += entry.recordLength();
+			index.put(hash(key), new Entry(position, keyBytes.length, value.length, timestamp));
+		} catch (IOException e) {
+			logger.error("Failed to write to the SPARQL cache file " + file, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// keeps the most recent entries which are not expired, must be called with the write lock
+	private void compact(int requiredSpace) throws IOException {
+		long limit = maxSize * 3 / 4 - requiredSpace;
+
+		List<Map.Entry<HashCode, Entry>> entries = new ArrayList<>(index.entrySet());
+		// the log is ordered by the time of insertion, thus, the most recent entries are at the end
+		entries.sort(Comparator.comparingLong((Map.Entry<HashCode, Entry> e) -> e.getValue().position).reversed());
+
+		List<Map.Entry<HashCode, Entry>> kept = new ArrayList<>();
+		long keptSize = 0;
+		for (Map.Entry<HashCode, Entry> e : entries) {
+			Entry entry = e.getValue();
+			if (isExpired(entry)) {
+				continue;
+			}
+			if (keptSize + entry.recordLength() > limit) {
+				break;
+			}
+			kept.add(e);
+			keptSize += entry.recordLength();
+		}
+		// keep the order of insertion
+		Collections.reverse(kept);
+
+		Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+		Map<HashCode, Entry> compacted = new HashMap<>();
+		long position = 0;
+		try (FileChannel out = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (Map.Entry<HashCode, Entry> e : kept) {
+				Entry entry = e.getValue();
+				ByteBuffer record = ByteBuffer.allocate((int) entry.recordLength());
+				readFully(record, entry.position);
+				record.flip();
+				while (record.hasRemaining()) {
+					out.write(record, position + record.position());
+				}
+				compacted.put(e.getKey(), new Entry(position, entry.keyLength, entry.valueLength, entry.timestamp));
+				position += entry.recordLength();
+			}
+		}
+		channel.close();
+		try {
+			Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// the index still refers to the unchanged file
+			Files.deleteIfExists(tmpFile);
+			throw e;
+		} finally {
+			channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+
+		logger.debug("Compacted the SPARQL cache file " + file + " from " + size + " to " + position + " bytes ("
+				+ compacted.size() + " of " + index.size() + " entries kept)");
+		index.clear();
+		index.putAll(compacted);
+		size = position;
+	}
+
+	/**
+	 * @return the number of entries (including outdated entries not removed yet)
+	 */
+	public int getNrOfEntries() {
+		return index.size();
+	}
+
+	/**
+	 * @return the size of the file in bytes
+	 */
+	public long getSizeInBytes() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			channel.truncate(0);
+			index.clear();
+			size = 0;
+		} catch (IOException e) {
+			logger.error("Failed to clear the SPARQL cache file " + file, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Closes the store, a shared store is only closed when all its users have
+	 * closed it.
+	 */
+	@Override
+	public void close() throws IOException {
+		// the file is unlocked before it can be opened again
+		synchronized (OPEN_STORES) {
+			if (references > 0) {
+				if (--references > 0) {
+					return;
+				}
+				OPEN_STORES.remove(file, this);
+			}
+			lock.writeLock().lock();
+			try {
+				channel.close();
+			} finally {
+				lock.writeLock().unlock();
+				lockChannel.close();
+			}
+		}
+	}
+
+	private boolean isExpired(Entry entry) {
+		return timeToLive > 0 && System.currentTimeMillis() - entry.timestamp > timeToLive;
+	}
+
+	private static HashCode hash(String key) {
+		return HASH_FUNCTION.hashString(key, StandardCharsets.UTF_8);
+	}
+
+	private static int checksum(byte[] data, int length) {
+		return checksum(data, 0, length);
+	}
+
+	private static int checksum(byte[] data, int offset, int length) {
+		CRC32 crc = new CRC32();
+		crc.update(data, offset, length);
+		return (int) crc.getValue();
+	}
+
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		long start = position - buffer.position();
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, start + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of the SPARQL cache file " + file);
+			}
+		}
+	}
+}
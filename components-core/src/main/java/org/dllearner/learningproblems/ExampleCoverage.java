@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.learningproblems;
+
+import java.util.BitSet;
+
+/**
+ * The accuracy of a class expression together with the positive and negative
+ * examples covered by it. The examples are represented as bit sets over the
+ * positions of the examples in the learning problem, i.e. they are only
+ * meaningful for the learning problem which created the object.
+ *
+ * The covered examples are unknown (<code>null</code>) if the class expression
+ * is too weak or if the learning problem could not determine them, e.g. because
+ * an approximate accuracy method is used.
+ *
+ * @author Lorenz Buehmann
+ */
+public class ExampleCoverage {
+
+	private final double accuracy;
+	private final BitSet coveredPositives;
+	private final BitSet coveredNegatives;
+
+	/**
+	 * @param accuracy the accuracy or -1 if too weak
+	 */
+	public ExampleCoverage(double accuracy) {
+		this(accuracy, null, null);
+	}
+
+	public ExampleCoverage(double accuracy, BitSet coveredPositives, BitSet coveredNegatives) {
+		this.accuracy = accuracy;
+		this.coveredPositives = coveredPositives;
+		this.coveredNegatives = coveredNegatives;
+	}
+
+	/**
+	 * @return the accuracy or -1 if the class expression is too weak
+	 */
+	public double getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * @return whether the covered examples are known
+	 */
+	public boolean hasCoveredExamples() {
+		return coveredPositives != null && coveredNegatives != null;
+	}
+
+	/**
+	 * Note, the returned bit set must not be modified.
+	 *
+	 * @return the positions of the covered positive examples or <code>null</code> if unknown
+	 */
+	public BitSet getCoveredPositives() {
+		return coveredPositives;
+	}
+
+	/**
+	 * Note, the returned bit set must not be modified.
+	 *
+	 * @return the positions of the covered negative examples or <code>null</code> if unknown
+	 */
+	public BitSet getCoveredNegatives() {
+		return coveredNegatives;
+	}
+}
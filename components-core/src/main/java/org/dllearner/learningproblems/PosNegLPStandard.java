@@ -18,6 +18,7 @@
  */
 package org.dllearner.learningproblems;
 
+import org.dllearner.accuracymethods.AccMethodApproximate;
 import org.dllearner.core.*;
 import org.dllearner.utilities.CoverageAdapter;
 import org.dllearner.utilities.ReasoningUtils.Coverage;
@@ -25,7 +26,12 @@ import org.dllearner.utilities.owl.OWLClassExpressionUtils;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLIndividual;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
 import java.util.SortedSet;
+import java.util.TreeSet;
 
 /**
  * The aim of this learning problem is to learn a concept definition such that
@@ -42,7 +48,10 @@ import java.util.SortedSet;
  */
 @ComponentAnn(name = "PosNegLPStandard", shortName = "posNegStandard", version = 0.8)
 public class PosNegLPStandard extends PosNegLP implements Cloneable{
-	
+
+	// the examples in a fixed order, the positions are used in the bit sets of ExampleCoverage
+	private volatile List<OWLIndividual> positiveExampleList;
+	private volatile List<OWLIndividual> negativeExampleList;
 
     public PosNegLPStandard() {
 	}
@@ -73,6 +82,10 @@ public class PosNegLPStandard extends PosNegLP implements Cloneable{
 	@Override
 	public void init() throws ComponentInitException {
 		super.init();
+
+		// the examples might have changed
+		positiveExampleList = null;
+		negativeExampleList = null;
 		
 		initialized = true;
 	}
@@ -106,6 +119,102 @@ public class PosNegLPStandard extends PosNegLP implements Cloneable{
 		return reasoningUtil.getAccuracyOrTooWeak2(accuracyMethod, description, positiveExamples, negativeExamples, noise);
 	}
 
+	@Override
+	public double[] getAccuraciesOrTooWeak(List<OWLClassExpression> descriptions, double noise) {
+		return reasoningUtil.getAccuraciesOrTooWeak2(accuracyMethod, descriptions, positiveExamples, negativeExamples, noise);
+	}
+
+	/**
+	 * Computes the accuracy of a class expression together with the examples
+	 * covered by it. If the coverage of a more general class expression is
+	 * given, e.g. the parent of a downward refinement, only the examples covered
+	 * by that class expression are checked, since all others can't be covered
+	 * either. Moreover, the check of the positive examples stops as soon as the
+	 * class expression would be too weak even if all remaining positive examples
+	 * were covered.
+	 *
+	 * If an approximate accuracy method is used, the accuracy is computed as in
+	 * {@link #getAccuracyOrTooWeak(OWLClassExpression, double)} and the covered
+	 * examples are unknown.
+	 *
+	 * @param description the class expression
+	 * @param superClassCoverage the coverage of a super class of the class expression, or
+	 * <code>null</code> if all examples have to be checked
+	 * @param noise the noise
+	 * @return the coverage, with accuracy -1 if the class expression is too weak
+	 */
+	public ExampleCoverage getCoverageOrTooWeak(OWLClassExpression description, ExampleCoverage superClassCoverage, double noise) {
+		if (accuracyMethod instanceof AccMethodApproximate) {
+			return new ExampleCoverage(getAccuracyOrTooWeak(description, noise));
+		}
+		initExampleLists();
+		List<OWLIndividual> posList = positiveExampleList;
+		List<OWLIndividual> negList = negativeExampleList;
+		int nrOfPos = posList.size();
+		int nrOfNeg = negList.size();
+
+		BitSet posCandidates;
+		BitSet negCandidates;
+		if (superClassCoverage != null && superClassCoverage.hasCoveredExamples()) {
+			posCandidates = superClassCoverage.getCoveredPositives();
+			negCandidates = superClassCoverage.getCoveredNegatives();
+		} else {
+			posCandidates = new BitSet(nrOfPos);
+			posCandidates.set(0, nrOfPos);
+			negCandidates = new BitSet(nrOfNeg);
+			negCandidates.set(0, nrOfNeg);
+		}
+
+		// positive examples not covered by the super class are not covered either
+		int fn = nrOfPos - posCandidates.cardinality();
+		BitSet coveredPositives = new BitSet(nrOfPos);
+		for (int i = posCandidates.nextSetBit(0); i >= 0; i = posCandidates.nextSetBit(i + 1)) {
+			if (reasoner.hasType(description, posList.get(i))) {
+				coveredPositives.set(i);
+			} else {
+				fn++;
+				// stop if too weak even in the best case, i.e. all remaining positive
+				// examples are covered and none of the negative examples
+				if (accuracyMethod.getAccOrTooWeak2(nrOfPos - fn, fn, 0, nrOfNeg, noise) == -1) {
+					return new ExampleCoverage(-1);
+				}
+			}
+		}
+
+		Set<OWLIndividual> negCandidateIndividuals = new TreeSet<>();
+		for (int i = negCandidates.nextSetBit(0); i >= 0; i = negCandidates.nextSetBit(i + 1)) {
+			negCandidateIndividuals.add(negList.get(i));
+		}
+		BitSet coveredNegatives = new BitSet(nrOfNeg);
+		if (!negCandidateIndividuals.isEmpty()) {
+			SortedSet<OWLIndividual> covered = reasoner.hasType(description, negCandidateIndividuals);
+			for (int i = negCandidates.nextSetBit(0); i >= 0; i = negCandidates.nextSetBit(i + 1)) {
+				if (covered.contains(negList.get(i))) {
+					coveredNegatives.set(i);
+				}
+			}
+		}
+
+		int tp = coveredPositives.cardinality();
+		int fp = coveredNegatives.cardinality();
+		double accuracy = accuracyMethod.getAccOrTooWeak2(tp, nrOfPos - tp, fp, nrOfNeg - fp, noise);
+		if (accuracy == -1) {
+			return new ExampleCoverage(-1);
+		}
+		return new ExampleCoverage(accuracy, coveredPositives, coveredNegatives);
+	}
+
+	private void initExampleLists() {
+		if (positiveExampleList == null) {
+			synchronized (this) {
+				if (positiveExampleList == null) {
+					negativeExampleList = new ArrayList<>(negativeExamples);
+					positiveExampleList = new ArrayList<>(positiveExamples);
+				}
+			}
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see org.dllearner.core.LearningProblem#evaluate(org.dllearner.core.owl.Description)
 	 */
@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import java.util.*;
+
+/**
+ * Instance store of the {@link ClosedWorldReasoner} which assigns each
+ * individual a dense integer ID and keeps the extensions of classes and their
+ * negations as bit sets. Set operations like intersection, union and complement
+ * then boil down to word-level operations on those bit sets, and individuals
+ * have to be converted back to OWL API objects only at the API boundary.
+ *
+ * The IDs of the individuals of the knowledge base are assigned in their natural
+ * order. Individuals that only occur in the materialization, e.g. generated
+ * fillers of existential restrictions, get IDs after those. Object property
+ * assertions are kept as {@link PropertyAdjacency} over the same IDs.
+ *
+ * @author Lorenz Buehmann
+ */
+class BitSetInstanceStore {
+
+	// ID -> individual
+	private final List<OWLIndividual> individuals;
+	// individual -> ID
+	private final TObjectIntMap<OWLIndividual> ids;
+	// the number of individuals of the knowledge base, all other IDs belong to
+	// auxiliary individuals, e.g. those generated by materialization of existential restrictions
+	private final int nrOfIndividuals;
+
+	// the extension of owl:Thing, i.e. all bits of the knowledge base individuals set
+	private final BitSet all;
+
+	// instances of classes and their negations
+	private final Map<OWLClass, BitSet> classInstancesPos = new HashMap<>();
+	private final Map<OWLClass, BitSet> classInstancesNeg = new HashMap<>();
+
+	// forward and inverse adjacency of object properties
+	private final Map<OWLObjectProperty, PropertyAdjacency> adjacencies = new HashMap<>();
+
+	BitSetInstanceStore(SortedSet<OWLIndividual> individuals) {
+		this.individuals = new ArrayList<>(individuals);
+		this.nrOfIndividuals = individuals.size();
+		this.ids = new TObjectIntHashMap<>(nrOfIndividuals, 0.5f, -1);
+		for (int i = 0; i < nrOfIndividuals; i++) {
+			ids.put(this.individuals.get(i), i);
+		}
+		all = new BitSet(nrOfIndividuals);
+		all.set(0, nrOfIndividuals);
+	}
+
+	/**
+	 * @return the number of IDs assigned in this store
+	 */
+	int size() {
+		return individuals.size();
+	}
+
+	/**
+	 * @param individual the individual
+	 * @return the ID of the individual or -1 if the individual is unknown
+	 */
+	int getId(OWLIndividual individual) {
+		return ids.get(individual);
+	}
+
+	/**
+	 * Returns the ID of the individual. If the individual is not known yet, it
+	 * will be registered as auxiliary individual, i.e. it won't be contained in
+	 * {@link #all()}.
+	 */
+	private int getOrCreateId(OWLIndividual individual) {
+		int id = ids.get(individual);
+		if (id < 0) {
+			id = individuals.size();
+			individuals.add(individual);
+			ids.put(individual, id);
+		}
+		return id;
+	}
+
+	/**
+	 * @param id the ID
+	 * @return the individual with the given ID
+	 */
+	OWLIndividual getIndividual(int id) {
+		return individuals.get(id);
+	}
+
+	/**
+	 * @return a new bit set containing all individuals
+	 */
+	BitSet all() {
+		return (BitSet) all.clone();
+	}
+
+	/**
+	 * @param bits the bit set
+	 * @return a new bit set with exactly those individuals not contained in the given bit set
+	 */
+	BitSet complement(BitSet bits) {
+		BitSet ret = all();
+		ret.andNot(bits);
+		return ret;
+	}
+
+	void setClassInstances(OWLClass cls, Collection<OWLIndividual> pos, Collection<OWLIndividual> neg) {
+		BitSet posBits = register(pos);
+		classInstancesPos.put(cls, posBits);
+		classInstancesNeg.put(cls, neg != null ? register(neg) : complement(posBits));
+	}
+
+	void setPropertyMembers(OWLObjectProperty property, Map<OWLIndividual, ? extends Collection<OWLIndividual>> members) {
+		// register all individuals first, such that the number of IDs is fixed
+		members.forEach((subject, objects) -> {
+			getOrCreateId(subject);
+			objects.forEach(this::getOrCreateId);
+		});
+		adjacencies.put(property, new PropertyAdjacency(members, ids, individuals.size()));
+	}
+
+	/**
+	 * @param property the object property
+	 * @return the adjacency of the property or <code>null</code> if the property is unknown
+	 */
+	PropertyAdjacency getPropertyAdjacency(OWLObjectProperty property) {
+		return adjacencies.get(property);
+	}
+
+	private BitSet register(Collection<OWLIndividual> individuals) {
+		BitSet bits = new BitSet(this.individuals.size());
+		for (OWLIndividual ind : individuals) {
+			bits.set(getOrCreateId(ind));
+		}
+		return bits;
+	}
+
+	/**
+	 * Note, the returned bit set is not a copy and must not be modified.
+	 *
+	 * @param cls the class
+	 * @return the instances of the class or <code>null</code> if the class is unknown
+	 */
+	BitSet getClassInstances(OWLClass cls) {
+		return classInstancesPos.get(cls);
+	}
+
+	/**
+	 * Note, the returned bit set is not a copy and must not be modified.
+	 *
+	 * @param cls the class
+	 * @return the instances of the negation of the class or <code>null</code> if the class is unknown
+	 */
+	BitSet getNegatedClassInstances(OWLClass cls) {
+		return classInstancesNeg.get(cls);
+	}
+
+	/**
+	 * Converts a collection of individuals to a bit set. Individuals that are not
+	 * contained in this store are ignored.
+	 *
+	 * @param individuals the individuals
+	 * @return the bit set
+	 */
+	BitSet toBitSet(Collection<OWLIndividual> individuals) {
+		BitSet bits = new BitSet(this.individuals.size());
+		for (OWLIndividual ind : individuals) {
+			int id = ids.get(ind);
+			if (id >= 0) {
+				bits.set(id);
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * Converts a bit set back to a sorted set of individuals.
+	 *
+	 * @param bits the bit set
+	 * @return the individuals
+	 */
+	SortedSet<OWLIndividual> toSortedSet(BitSet bits) {
+		SortedSet<OWLIndividual> ret = new TreeSet<>();
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			ret.add(individuals.get(i));
+		}
+		return ret;
+	}
+
+	/**
+	 * @param bits the bit set
+	 * @param individuals the individuals
+	 * @return the number of the given individuals contained in the bit set
+	 */
+	int count(BitSet bits, Collection<OWLIndividual> individuals) {
+		int cnt = 0;
+		for (OWLIndividual ind : individuals) {
+			int id = ids.get(ind);
+			if (id >= 0 && bits.get(id)) {
+				cnt++;
+			}
+		}
+		return cnt;
+	}
+}
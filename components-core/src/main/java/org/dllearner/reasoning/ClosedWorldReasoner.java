@@ -21,16 +21,16 @@ import com.google.common.collect.Multimaps;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Sets.SetView;
 import com.google.common.collect.TreeMultimap;
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hasher;
-import com.google.common.hash.Hashing;
 import org.dllearner.core.*;
 import org.dllearner.core.annotations.NoConfigOption;
 import org.dllearner.core.config.ConfigOption;
 import org.dllearner.kb.OWLAPIOntology;
+import org.dllearner.kb.OWLFile;
+import org.dllearner.utilities.HasProgressMonitor;
 import org.dllearner.utilities.Helper;
 import org.dllearner.utilities.MapUtils;
 import org.dllearner.utilities.OWLAPIUtils;
+import org.dllearner.utilities.ProgressMonitor;
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormatter;
 import org.semanticweb.owlapi.apibinding.OWLManager;
@@ -43,8 +43,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
 import java.io.*;
+import java.net.URL;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -70,7 +72,8 @@ import java.util.stream.IntStream;
  *
  */
 @ComponentAnn(name = "closed world reasoner", shortName = "cwr", version = 0.9)
-public class ClosedWorldReasoner extends AbstractReasonerComponent {
+public class ClosedWorldReasoner extends AbstractReasonerComponent
+        implements HasProgressMonitor<ClosedWorldReasoner.MaterializationProgressMonitor> {
 
     private static Logger logger = LoggerFactory.getLogger(ClosedWorldReasoner.class);
 
@@ -143,11 +146,36 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
 
     @ConfigOption(defaultValue = "false")
     private boolean materializeExistentialRestrictions = false;
-    @ConfigOption(defaultValue = "true")
-    private boolean useMaterializationCaching = true;
+    @ConfigOption(description = "Whether to cache the materialization as binary snapshot on disk, such that it can be reused by later runs on the same knowledge base.",
+            defaultValue = "false")
+    private boolean useMaterializationCaching = false;
+    @ConfigOption(description = "The directory in which the materialization snapshots are stored.", defaultValue = "cache")
+    private String materializationCacheDirectory = "cache";
     @ConfigOption(defaultValue = "false")
     private boolean handlePunning = false;
     private boolean precomputeNegations = true;
+    @ConfigOption(description = "The number of threads used for the materialization of the class and property assertions.",
+            defaultValue = "1")
+    private int nrOfMaterializationThreads = 1;
+
+    private volatile boolean materializationCancelled = false;
+
+    /**
+     * Progress monitor which is notified during the materialization.
+     */
+    public interface MaterializationProgressMonitor extends ProgressMonitor {
+        void materializationStarted(int totalEntities);
+        void entityMaterialized(int done, int totalEntities);
+        void materializationFinished();
+    }
+    private Collection<MaterializationProgressMonitor> progressMonitors = new CopyOnWriteArraySet<>();
+    @ConfigOption(description = "Whether to keep the instances of classes as bit sets over dense individual IDs, " +
+            "such that retrieval of intersections, unions and complements can be done by bit operations.",
+            defaultValue = "false")
+    private boolean useBitSetRetrieval = false;
+
+    // the bit set based instance store, only used if bit set retrieval is enabled
+    private BitSetInstanceStore instanceStore;
 
     public ClosedWorldReasoner() {
     }
@@ -222,33 +250,40 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
             baseReasoner.init();
         }
 
-//		loadOrDematerialize();
-        materialize();
+        loadOrDematerialize();
+
+        if (useBitSetRetrieval) {
+            buildInstanceStore();
+        }
         
         initialized = true;
     }
 
-    private void loadOrDematerialize() {
+    private void loadOrDematerialize() throws ComponentInitException {
         if (useMaterializationCaching) {
-            File cacheDir = new File("cache");
-            if(!cacheDir.mkdirs()) {
-                throw new RuntimeException("Failed to create cache directory at "  + cacheDir.getAbsolutePath());
-            }
-            HashFunction hf = Hashing.goodFastHash(128);
-            Hasher hasher = hf.newHasher();
-            hasher.putBoolean(materializeExistentialRestrictions);
-            hasher.putBoolean(handlePunning);
-            for (OWLOntology ont : Collections.singleton(baseReasoner.getOntology())) {
-                hasher.putInt(ont.getLogicalAxioms().hashCode());
-                hasher.putInt(ont.getAxioms().hashCode());
+            File cacheDir = new File(materializationCacheDirectory);
+            if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+                logger.warn("Failed to create cache directory at " + cacheDir.getAbsolutePath() + ", materialization is not cached.");
+                materialize();
+                return;
             }
-            String filename = hasher.hash().toString() + ".obj";
 
-            File cacheFile = new File(cacheDir, filename);
+            List<URL> documents = sources.stream()
+                    .filter(OWLFile.class::isInstance)
+                    .map(ks -> ((OWLFile) ks).getURL())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            String key = MaterializationSnapshot.computeKey(
+                    baseReasoner.getOntology(),
+                    documents,
+                    materializeExistentialRestrictions, handlePunning, defaultNegation, precomputeNegations);
+
+            File cacheFile = new File(cacheDir, key + ".mat");
             if (cacheFile.exists()) {
                 logger.debug("Loading materialization from disk...");
-                try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(cacheFile))) {
-                    Materialization mat = (Materialization) ois.readObject();
+                try {
+                    Materialization mat = MaterializationSnapshot.read(cacheFile);
+                    individuals = mat.individuals;
                     classInstancesPos = mat.classInstancesPos;
                     classInstancesNeg = mat.classInstancesNeg;
                     opPos = mat.opPos;
@@ -258,52 +293,73 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
                     dd = mat.dd;
                     id = mat.id;
                     sd = mat.sd;
-                } catch (ClassNotFoundException | IOException e) {
-                    e.printStackTrace();
-                }
-                logger.debug("done.");
-            } else {
-                materialize();
-                Materialization mat = new Materialization();
-                mat.classInstancesPos = classInstancesPos;
-                mat.classInstancesNeg = classInstancesNeg;
-                mat.opPos = opPos;
-                mat.dpPos = dpPos;
-                mat.bdPos = bdPos;
-                mat.bdNeg = bdNeg;
-                mat.dd = dd;
-                mat.id = id;
-                mat.sd = sd;
-                try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(cacheFile))) {
-                    oos.writeObject(mat);
-                } catch (IOException e) {
-                    e.printStackTrace();
+                    objectProperties = Collections.unmodifiableSet(new TreeSet<>(opPos.keySet()));
+                    logger.debug("done.");
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Failed to load materialization from " + cacheFile + ", materialising again.", e);
+                    if (!cacheFile.delete()) {
+                        logger.warn("Failed to delete " + cacheFile);
+                    }
                 }
             }
+
+            materialize();
+
+            // the snapshot is based on IRIs, thus, it can't be used for anonymous individuals
+            if (individuals.stream().anyMatch(OWLIndividual::isAnonymous)) {
+                logger.debug("Materialization not cached because of anonymous individuals.");
+                return;
+            }
+            Materialization mat = new Materialization();
+            mat.individuals = individuals;
+            mat.classInstancesPos = classInstancesPos;
+            mat.classInstancesNeg = classInstancesNeg;
+            mat.opPos = opPos;
+            mat.dpPos = dpPos;
+            mat.bdPos = bdPos;
+            mat.bdNeg = bdNeg;
+            mat.dd = dd;
+            mat.id = id;
+            mat.sd = sd;
+            // the materialization is complete, thus a failure while writing the snapshot only disables the cache
+            try {
+                MaterializationSnapshot.write(mat, cacheFile);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to write materialization to " + cacheFile, e);
+            }
         } else {
             materialize();
         }
     }
 
-    private void materialize() {
+    private void materialize() throws ComponentInitException {
         logger.info("Materializing TBox...");
         long dematStartTime = System.currentTimeMillis();
 
+        materializationCancelled = false;
+
         objectProperties = baseReasoner.getObjectProperties();
 
         individuals = (TreeSet<OWLIndividual>) baseReasoner.getIndividuals();
 
-        int totalEntities = baseReasoner.getClasses().size() +
-                            baseReasoner.getObjectProperties().size() +
-                            baseReasoner.getDatatypeProperties().size();
-
-        AtomicInteger i = new AtomicInteger();
-
-        logger.info("materialising concepts");
-        baseReasoner.getClasses().stream().filter(cls -> !cls.getIRI().isReservedVocabulary()).forEach(cls -> {
-            Helper.displayProgressPercentage(i.getAndIncrement(), totalEntities);
+        // the tasks write into concurrent maps, the results are copied to the sorted maps afterwards
+        Map<OWLClass, TreeSet<OWLIndividual>> classInstancesPosTmp = new ConcurrentHashMap<>();
+        Map<OWLClass, TreeSet<OWLIndividual>> classInstancesNegTmp = new ConcurrentHashMap<>();
+        Map<OWLObjectProperty, Map<OWLIndividual, SortedSet<OWLIndividual>>> opPosTmp = new ConcurrentHashMap<>();
+        Map<OWLDataProperty, Map<OWLIndividual, SortedSet<OWLLiteral>>> dpPosTmp = new ConcurrentHashMap<>();
+        Map<OWLDataProperty, TreeSet<OWLIndividual>> bdPosTmp = new ConcurrentHashMap<>();
+        Map<OWLDataProperty, TreeSet<OWLIndividual>> bdNegTmp = new ConcurrentHashMap<>();
+        Map<OWLDataProperty, Map<OWLIndividual, SortedSet<Integer>>> idTmp = new ConcurrentHashMap<>();
+        Map<OWLDataProperty, Map<OWLIndividual, SortedSet<Double>>> ddTmp = new ConcurrentHashMap<>();
+        Map<OWLDataProperty, Map<OWLIndividual, SortedSet<String>>> sdTmp = new ConcurrentHashMap<>();
+
+        List<Runnable> tasks = new ArrayList<>();
+
+        // materialize the class assertions
+        baseReasoner.getClasses().stream().filter(cls -> !cls.getIRI().isReservedVocabulary()).forEach(cls -> tasks.add(() -> {
             TreeSet<OWLIndividual> pos = (TreeSet<OWLIndividual>) baseReasoner.getIndividuals(cls);
-            classInstancesPos.put(cls, pos);
+            classInstancesPosTmp.put(cls, pos);
 
             if (isDefaultNegation()) {
                     /*
@@ -313,72 +369,51 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
                      *  for A(x) and return the inverse.
                      */
                 if (precomputeNegations) {
-                    classInstancesNeg.put(cls, new TreeSet<>(Sets.difference(individuals, pos)));
+                    classInstancesNegTmp.put(cls, new TreeSet<>(Sets.difference(individuals, pos)));
                 }
             } else {
                 OWLObjectComplementOf negatedClass = df.getOWLObjectComplementOf(cls);
-                classInstancesNeg.put(cls, (TreeSet<OWLIndividual>) baseReasoner.getIndividuals(negatedClass));
+                classInstancesNegTmp.put(cls, (TreeSet<OWLIndividual>) baseReasoner.getIndividuals(negatedClass));
             }
-        });
-//        for (OWLClass cls : baseReasoner.getClasses()) {
-//            if (!cls.getIRI().isReservedVocabulary()) {
-//                SortedSet<OWLIndividual> pos = baseReasoner.getIndividuals(cls);
-//                classInstancesPos.put(cls, (TreeSet<OWLIndividual>) pos);
-//
-//                if (isDefaultNegation()) {
-//                    /*
-//                     *  we should avoid this operation because it returns a new
-//                     *  set and thus could lead to memory issues
-//                     *  Instead, we could later answer '\neg A(x)' by just check
-//                     *  for A(x) and return the inverse.
-//                     */
-//                    if (precomputeNegations) {
-//                        classInstancesNeg.put(cls, new TreeSet<>(Sets.difference(individuals, pos)));
-//                    }
-//                } else {
-//                    OWLObjectComplementOf negatedClass = df.getOWLObjectComplementOf(cls);
-//                    classInstancesNeg.put(cls, (TreeSet<OWLIndividual>) baseReasoner.getIndividuals(negatedClass));
-//                }
-//            } else {
-//                System.err.println(cls);
-//            }
-//        }
+        }));
 
         // materialize the object property facts
-        logger.info("materialising object properties ...");
-        baseReasoner.getObjectProperties().forEach(p -> {
-            Helper.displayProgressPercentage(i.getAndIncrement(), totalEntities);
-            opPos.put(p, baseReasoner.getPropertyMembers(p));
-        });
+        baseReasoner.getObjectProperties().forEach(p -> tasks.add(() -> opPosTmp.put(p, baseReasoner.getPropertyMembers(p))));
 
         // materialize the data property facts
-        logger.info("materialising datatype properties");
-        baseReasoner.getDatatypeProperties().forEach(p -> {
-            Helper.displayProgressPercentage(i.getAndIncrement(), totalEntities);
-            dpPos.put(p, baseReasoner.getDatatypeMembers(p));
-        });
+        baseReasoner.getDatatypeProperties().forEach(p -> tasks.add(() -> dpPosTmp.put(p, baseReasoner.getDatatypeMembers(p))));
 
         for (OWLDataProperty dp : baseReasoner.getBooleanDatatypeProperties()) {
-            bdPos.put(dp, (TreeSet<OWLIndividual>) baseReasoner.getTrueDatatypeMembers(dp));
-            bdNeg.put(dp, (TreeSet<OWLIndividual>) baseReasoner.getFalseDatatypeMembers(dp));
+            tasks.add(() -> {
+                bdPosTmp.put(dp, (TreeSet<OWLIndividual>) baseReasoner.getTrueDatatypeMembers(dp));
+                bdNegTmp.put(dp, (TreeSet<OWLIndividual>) baseReasoner.getFalseDatatypeMembers(dp));
+            });
         }
 
-//        id = baseReasoner.getIntDatatypeProperties().stream().collect(Collectors.toMap(Function.identity(), baseReasoner::getIntDatatypeMembers));
-//        dd = baseReasoner.getDoubleDatatypeProperties().stream().collect(Collectors.toMap(Function.identity(), baseReasoner::getDoubleDatatypeMembers));
-//        sd = baseReasoner.getStringDatatypeProperties().stream().collect(Collectors.toMap(Function.identity(), baseReasoner::getStringDatatypeMembers));
-
         for (OWLDataProperty dp : baseReasoner.getIntDatatypeProperties()) {
-            id.put(dp, baseReasoner.getIntDatatypeMembers(dp));
+            tasks.add(() -> idTmp.put(dp, baseReasoner.getIntDatatypeMembers(dp)));
         }
 
         for (OWLDataProperty dp : baseReasoner.getDoubleDatatypeProperties()) {
-            dd.put(dp, baseReasoner.getDoubleDatatypeMembers(dp));
+            tasks.add(() -> ddTmp.put(dp, baseReasoner.getDoubleDatatypeMembers(dp)));
         }
 
         for (OWLDataProperty dp : baseReasoner.getStringDatatypeProperties()) {
-            sd.put(dp, baseReasoner.getStringDatatypeMembers(dp));
+            tasks.add(() -> sdTmp.put(dp, baseReasoner.getStringDatatypeMembers(dp)));
         }
-        logger.debug("finished materialising data properties.");
+
+        runMaterializationTasks(tasks);
+
+        classInstancesPos.putAll(classInstancesPosTmp);
+        classInstancesNeg.putAll(classInstancesNegTmp);
+        opPos.putAll(opPosTmp);
+        dpPos.putAll(dpPosTmp);
+        bdPos.putAll(bdPosTmp);
+        bdNeg.putAll(bdNegTmp);
+        id.putAll(idTmp);
+        dd.putAll(ddTmp);
+        sd.putAll(sdTmp);
+        logger.debug("finished materialising class and property assertions.");
 
         if (materializeExistentialRestrictions) {
             ExistentialRestrictionMaterialization materialization = new ExistentialRestrictionMaterialization(baseReasoner.getReasoner().getRootOntology());
@@ -427,6 +462,98 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
         logger.info("...TBox materialised in " + dematDuration + " ms.");
     }
 
+    /**
+     * Runs the materialization tasks either sequentially or, if more than one
+     * thread is configured, on a fixed size worker pool. In the latter case the
+     * base reasoner is wrapped into a thread-safe reasoner first.
+     */
+    private void runMaterializationTasks(List<Runnable> tasks) throws ComponentInitException {
+        int total = tasks.size();
+        AtomicInteger done = new AtomicInteger();
+        fireMaterializationStarted(total);
+
+        if (nrOfMaterializationThreads <= 1) {
+            for (Runnable task : tasks) {
+                if (materializationCancelled) {
+                    break;
+                }
+                task.run();
+                fireEntityMaterialized(done.incrementAndGet(), total);
+            }
+        } else {
+            logger.info("materialising with " + nrOfMaterializationThreads + " threads");
+            baseReasoner.setSynchronized();
+
+            ExecutorService pool = Executors.newFixedThreadPool(nrOfMaterializationThreads);
+            try {
+                List<Future<?>> futures = new ArrayList<>(total);
+                for (Runnable task : tasks) {
+                    futures.add(pool.submit(() -> {
+                        // cooperative cancellation, i.e. tasks not started yet will be skipped
+                        if (!materializationCancelled) {
+                            task.run();
+                            fireEntityMaterialized(done.incrementAndGet(), total);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                materializationCancelled = true;
+            } catch (ExecutionException e) {
+                throw new ComponentInitException("Materialization failed.", e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        if (materializationCancelled) {
+            throw new ComponentInitException("Materialization has been cancelled after " + done.get() + " of " + total + " entities.");
+        }
+        fireMaterializationFinished();
+    }
+
+    /**
+     * Cancels a running materialization. Tasks that are currently processed will
+     * be finished, all remaining tasks are skipped and {@link #init()} fails with
+     * a {@link ComponentInitException}.
+     */
+    public void cancelMaterialization() {
+        materializationCancelled = true;
+    }
+
+    private void fireMaterializationStarted(int totalEntities) {
+        progressMonitors.forEach(mon -> mon.materializationStarted(totalEntities));
+    }
+
+    private void fireEntityMaterialized(int done, int totalEntities) {
+        Helper.displayProgressPercentage(done, totalEntities);
+        progressMonitors.forEach(mon -> mon.entityMaterialized(done, totalEntities));
+    }
+
+    private void fireMaterializationFinished() {
+        progressMonitors.forEach(MaterializationProgressMonitor::materializationFinished);
+    }
+
+    @Override
+    public Collection<MaterializationProgressMonitor> progressMonitors() {
+        return progressMonitors;
+    }
+
+    private void buildInstanceStore() {
+        logger.info("Building bit set instance store...");
+        long startTime = System.currentTimeMillis();
+
+        instanceStore = new BitSetInstanceStore(individuals);
+        classInstancesPos.forEach((cls, pos) ->
+                instanceStore.setClassInstances(cls, pos, isDefaultNegation() ? null : classInstancesNeg.get(cls)));
+        opPos.forEach(instanceStore::setPropertyMembers);
+
+        logger.info("...bit set instance store built in " + (System.currentTimeMillis() - startTime) + " ms.");
+    }
+
     private void fill(SortedSet<OWLIndividual> individuals, OWLClassExpression d) {
         if (!d.isAnonymous()) {
             classInstancesPos.get(d.asOWLClass()).addAll(individuals);
@@ -500,7 +627,19 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
             OWLObjectPropertyExpression property = ((OWLObjectSomeValuesFrom) description).getProperty();
             OWLClassExpression fillerConcept = ((OWLObjectSomeValuesFrom) description).getFiller();
 
-            if (property.isAnonymous()) {// \exists r^{-1}.C
+            if (property.isAnonymous() && instanceStore != null) {// \exists r^{-1}.C
+                PropertyAdjacency adjacency = instanceStore.getPropertyAdjacency(property.getNamedProperty());
+                if (adjacency == null) {
+                    return false;
+                }
+
+                // only the subjects which are related to the individual have to be checked
+                for (int subject : adjacency.neighbors(instanceStore.getId(individual), true)) {
+                    if (hasTypeImpl(fillerConcept, instanceStore.getIndividual(subject))) {
+                        return true;
+                    }
+                }
+            } else if (property.isAnonymous()) {// \exists r^{-1}.C
                 Map<OWLIndividual, SortedSet<OWLIndividual>> mapping = opPos.get(property.getNamedProperty());
 
                 for (Entry<OWLIndividual, SortedSet<OWLIndividual>> entry : mapping.entrySet()) {
@@ -972,9 +1111,141 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
 
     @Override
     public SortedSet<OWLIndividual> getIndividualsImpl(OWLClassExpression concept) throws ReasoningMethodUnsupportedException {
+        if (instanceStore != null) {
+            return instanceStore.toSortedSet(getIndividualsBitSet(concept));
+        }
         return getIndividualsImplFast(concept);
     }
 
+    /**
+     * Returns the number of the given individuals that are instances of the
+     * class expression. If bit set retrieval is enabled, the individuals are
+     * counted directly on the bit set of the class expression, i.e. without
+     * converting it back to a set of individuals.
+     *
+     * @param concept the class expression
+     * @param individuals the individuals
+     * @return the number of individuals that are instances of the class expression
+     */
+    public int getIndividualsCount(OWLClassExpression concept, Collection<OWLIndividual> individuals) {
+        if (instanceStore != null) {
+            try {
+                return instanceStore.count(getIndividualsBitSet(concept), individuals);
+            } catch (ReasoningMethodUnsupportedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        SortedSet<OWLIndividual> instances = getIndividuals(concept);
+        return (int) individuals.stream().filter(instances::contains).count();
+    }
+
+    /**
+     * Computes the instances of the class expression as bit set. Note, the
+     * returned bit set might be shared with the instance store and thus must not
+     * be modified.
+     */
+    private BitSet getIndividualsBitSet(OWLClassExpression description) throws ReasoningMethodUnsupportedException {
+        if (description.isOWLThing()) {
+            return instanceStore.all();
+        } else if (description.isOWLNothing()) {
+            return new BitSet();
+        } else if (!description.isAnonymous()) {
+            BitSet bits = instanceStore.getClassInstances(description.asOWLClass());
+            return bits != null ? bits : new BitSet();
+        } else if (description instanceof OWLObjectComplementOf) {
+            OWLClassExpression operand = ((OWLObjectComplementOf) description).getOperand();
+            if (!operand.isAnonymous()) {
+                BitSet bits = instanceStore.getNegatedClassInstances(operand.asOWLClass());
+                return bits != null ? bits : instanceStore.all();
+            }
+            // implement retrieval as default negation
+            return instanceStore.complement(getIndividualsBitSet(operand));
+        } else if (description instanceof OWLObjectUnionOf) {
+            BitSet ret = new BitSet(instanceStore.size());
+            for (OWLClassExpression operand : ((OWLObjectUnionOf) description).getOperands()) {
+                ret.or(getIndividualsBitSet(operand));
+            }
+            return ret;
+        } else if (description instanceof OWLObjectIntersectionOf) {
+            Iterator<OWLClassExpression> iterator = ((OWLObjectIntersectionOf) description).getOperands().iterator();
+            // copy instances of first element and then subtract all others
+            BitSet ret = (BitSet) getIndividualsBitSet(iterator.next()).clone();
+            while (iterator.hasNext() && !ret.isEmpty()) {
+                ret.and(getIndividualsBitSet(iterator.next()));
+            }
+            return ret;
+        } else if (description instanceof OWLObjectSomeValuesFrom) {
+            OWLObjectPropertyExpression property = ((OWLObjectSomeValuesFrom) description).getProperty();
+            OWLClassExpression filler = ((OWLObjectSomeValuesFrom) description).getFiller();
+
+            PropertyAdjacency adjacency = instanceStore.getPropertyAdjacency(property.getNamedProperty());
+            if (adjacency == null) {
+                return new BitSet();
+            }
+
+            // walk the inverse edges starting from the instances of the filler
+            return adjacency.getSources(getIndividualsBitSet(filler), property.isAnonymous());
+        } else if (description instanceof OWLObjectAllValuesFrom) {
+            OWLObjectPropertyExpression property = ((OWLObjectAllValuesFrom) description).getProperty();
+            OWLClassExpression filler = ((OWLObjectAllValuesFrom) description).getFiller();
+
+            PropertyAdjacency adjacency = instanceStore.getPropertyAdjacency(property.getNamedProperty());
+            if (adjacency == null) {
+                return instanceStore.all();
+            }
+
+            // all individuals except those which have a filler not in C
+            BitSet nonFillers = new BitSet(instanceStore.size());
+            nonFillers.set(0, instanceStore.size());
+            nonFillers.andNot(getIndividualsBitSet(filler));
+
+            BitSet ret = instanceStore.all();
+            ret.andNot(adjacency.getSources(nonFillers, property.isAnonymous()));
+            return ret;
+        } else if (description instanceof OWLObjectCardinalityRestriction
+                && ((OWLObjectCardinalityRestriction) description).getCardinality() > 0) {
+            OWLObjectPropertyExpression property = ((OWLObjectCardinalityRestriction) description).getProperty();
+            OWLClassExpression filler = ((OWLObjectCardinalityRestriction) description).getFiller();
+            int number = ((OWLObjectCardinalityRestriction) description).getCardinality();
+
+            PropertyAdjacency adjacency = instanceStore.getPropertyAdjacency(property.getNamedProperty());
+            int[] counts = adjacency == null
+                    ? new int[0]
+                    : adjacency.countTargets(getIndividualsBitSet(filler), property.isAnonymous());
+
+            if (description instanceof OWLObjectMinCardinality) {
+                BitSet ret = new BitSet(counts.length);
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] >= number) {
+                        ret.set(i);
+                    }
+                }
+                return ret;
+            } else if (description instanceof OWLObjectMaxCardinality) {
+                // initially all individuals are in the return set and we then remove those
+                // with too many fillers
+                BitSet ret = instanceStore.all();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > number) {
+                        ret.clear(i);
+                    }
+                }
+                return ret;
+            } else {
+                BitSet ret = new BitSet(counts.length);
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == number) {
+                        ret.set(i);
+                    }
+                }
+                return ret;
+            }
+        }
+
+        // all other class expressions are handled by the set based retrieval
+        return instanceStore.toBitSet(getIndividualsImplFast(description));
+    }
+
     public SortedSet<OWLIndividual> getIndividualsImplStandard(OWLClassExpression concept) {
         if (!concept.isAnonymous()) {
             return classInstancesPos.get(concept);
@@ -1170,6 +1441,10 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
                     }
                     index++;
                 }
+                // the last filler might have exceeded the limit
+                if (nrOfFillers > number) {
+                    returnSet.remove(entry.getKey());
+                }
             }
 
             return returnSet;
@@ -1450,6 +1725,14 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
         return ReasonerType.CLOSED_WORLD_REASONER;
     }
 
+    @Override
+    protected OWLClassExpression normalizeForRetrievalCache(OWLClassExpression ce) {
+        // with the non-standard semantics of \forall or without default negation, e.g.
+        // \neg \exists r.C and \forall r.\neg C or \neg (A \sqcap B) and \neg A \sqcup \neg B
+        // do not have the same instances
+        return forAllSemantics == ForallSemantics.Standard && isDefaultNegation() ? ce.getNNF() : ce;
+    }
+
     @Override
     public boolean isSuperClassOfImpl(OWLClassExpression superConcept, OWLClassExpression subConcept) {
 		// Negation neg = new Negation(subConcept);
@@ -1659,6 +1942,28 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
         this.forAllSemantics = forAllSemantics;
     }
 
+    public int getNrOfMaterializationThreads() {
+        return nrOfMaterializationThreads;
+    }
+
+    /**
+     * @param nrOfMaterializationThreads the number of threads used for the materialization
+     */
+    public void setNrOfMaterializationThreads(int nrOfMaterializationThreads) {
+        this.nrOfMaterializationThreads = nrOfMaterializationThreads;
+    }
+
+    public boolean isUseBitSetRetrieval() {
+        return useBitSetRetrieval;
+    }
+
+    /**
+     * @param useBitSetRetrieval whether to use the bit set based instance store for retrieval
+     */
+    public void setUseBitSetRetrieval(boolean useBitSetRetrieval) {
+        this.useBitSetRetrieval = useBitSetRetrieval;
+    }
+
     /**
      * @param useMaterializationCaching the useMaterializationCaching to set
      */
@@ -1666,6 +1971,13 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
         this.useMaterializationCaching = useMaterializationCaching;
     }
 
+    /**
+     * @param materializationCacheDirectory the directory in which the materialization snapshots are stored
+     */
+    public void setMaterializationCacheDirectory(String materializationCacheDirectory) {
+        this.materializationCacheDirectory = materializationCacheDirectory;
+    }
+
     /**
      * @param handlePunning the handlePunning to set
      */
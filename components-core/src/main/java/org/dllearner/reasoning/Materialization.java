@@ -31,6 +31,8 @@ import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
 
 class Materialization implements Serializable{
+		// all individuals of the knowledge base
+		public TreeSet<OWLIndividual> individuals = new TreeSet<>();
 		// we use sorted sets (map indices) here, because they have only log(n)
 		// complexity for checking whether an element is contained in them
 		// instances of classes
@@ -0,0 +1,642 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.CountingOutputStream;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A versioned binary snapshot of the {@link Materialization} computed by the
+ * {@link ClosedWorldReasoner}. In contrast to Java serialization of the whole
+ * object graph, the snapshot consists of
+ * <ul>
+ *     <li>an IRI dictionary for individuals and entities,</li>
+ *     <li>the instance sets of the classes as lists of individual IDs,</li>
+ *     <li>the object property assertions as adjacency lists over individual IDs,</li>
+ *     <li>and the data property assertions as typed value columns.</li>
+ * </ul>
+ * The dictionary is written after the body, thus the snapshot is written in a
+ * single pass, and the snapshot ends with the offset of the dictionary and a
+ * CRC32 checksum of its content. It does not depend on the internal classes of
+ * the OWL API.
+ * <p>
+ * The snapshot is read through a memory-mapped file, i.e. besides the decoded
+ * materialization, which the reasoner keeps on the heap as before, only the
+ * offsets of the dictionary entries are allocated. The IRIs are decoded from
+ * the mapped file on demand.
+ *
+ * @author Lorenz Buehmann
+ */
+class MaterializationSnapshot {
+
+	// "DLMS"
+	private static final int MAGIC = 0x444C4D53;
+	/**
+	 * The version of the snapshot format. Has to be incremented whenever the
+	 * format changes.
+	 */
+	static final int VERSION = 3;
+
+	private static final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	/**
+	 * Computes the key of the snapshot. If the ontology has been loaded from local
+	 * files only, instead of hashing all axioms of the ontology, only the ontology
+	 * ID, the number of axioms per axiom type, the size of the signature and the
+	 * size and modification date of the files are taken into account. Otherwise,
+	 * i.e. for in-memory ontologies or remote documents, there is no stable source
+	 * and the sorted axioms are hashed.
+	 *
+	 * @param ontology the ontology
+	 * @param documents the URLs of the documents the ontology has been loaded from
+	 * @param options the materialization options that affect the result
+	 * @return the key
+	 */
+	static String computeKey(OWLOntology ontology, Collection<URL> documents, boolean... options) {
+		Hasher hasher = Hashing.murmur3_128().newHasher();
+		hasher.putInt(VERSION);
+		for (boolean option : options) {
+			hasher.putBoolean(option);
+		}
+		hasher.putString(ontology.getOntologyID().toString(), StandardCharsets.UTF_8);
+		for (AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
+			hasher.putInt(ontology.getAxiomCount(axiomType, Imports.INCLUDED));
+		}
+		hasher.putInt(ontology.getSignature(Imports.INCLUDED).size());
+		boolean localFilesOnly = !documents.isEmpty();
+		for (URL url : documents) {
+			hasher.putString(url.toString(), StandardCharsets.UTF_8);
+			if ("file".equals(url.getProtocol())) {
+				File file = new File(url.getPath());
+				hasher.putLong(file.length());
+				hasher.putLong(file.lastModified());
+			} else {
+				localFilesOnly = false;
+			}
+		}
+		if (!localFilesOnly) {
+			for (OWLAxiom axiom : new TreeSet<>(ontology.getAxioms(Imports.INCLUDED))) {
+				hasher.putString(axiom.toString(), StandardCharsets.UTF_8);
+			}
+		}
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * Writes the materialization to the given file. The file is written to a
+	 * temporary file first and then moved, i.e. readers never see a partially
+	 * written snapshot.
+	 *
+	 * @param mat the materialization
+	 * @param file the file
+	 * @throws IOException if writing fails
+	 */
+	static void write(Materialization mat, File file) throws IOException {
+		Writer writer = new Writer(mat);
+
+		File tmpFile = new File(file.getPath() + ".tmp");
+		try {
+			CRC32 checksum = new CRC32();
+			try (FileOutputStream fos = new FileOutputStream(tmpFile)) {
+				CountingOutputStream counter = new CountingOutputStream(new CheckedOutputStream(fos, checksum));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(counter, 1 << 16));
+				writer.write(out, counter);
+				// the checksum is written directly, i.e. it is not part of the checksum itself
+				new DataOutputStream(fos).writeLong(checksum.getValue());
+			}
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmpFile.toPath());
+		}
+	}
+
+	/**
+	 * Reads the materialization from the given file.
+	 *
+	 * @param file the file
+	 * @return the materialization
+	 * @throws IOException if reading fails, the file is not a snapshot of the current version,
+	 * or the file is truncated or corrupt
+	 */
+	static Materialization read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedInput in = new MappedInput(channel);
+			try {
+				return new Reader(in).read();
+			} catch (RuntimeException e) {
+				// invalid sizes or IDs in a corrupt file
+				throw new IOException("Corrupt materialization snapshot.", e);
+			}
+		}
+	}
+
+	/*
+	 * Writing
+	 */
+
+	private static class Writer {
+		private final Materialization mat;
+
+		private final List<String> dictionary = new ArrayList<>();
+		private final TObjectIntMap<String> ids = new TObjectIntHashMap<>(1000, 0.5f, -1);
+
+		Writer(Materialization mat) {
+			this.mat = mat;
+		}
+
+		private int id(OWLIndividual ind) {
+			return id(ind.asOWLNamedIndividual().getIRI().toString());
+		}
+
+		private int id(OWLEntity entity) {
+			return id(entity.getIRI().toString());
+		}
+
+		private int id(String iri) {
+			int id = ids.get(iri);
+			if (id < 0) {
+				id = dictionary.size();
+				dictionary.add(iri);
+				ids.put(iri, id);
+			}
+			return id;
+		}
+
+		void write(DataOutputStream out, CountingOutputStream counter) throws IOException {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+
+			// the IDs are assigned while writing the body, thus the dictionary follows the body
+			writeBody(out);
+			out.flush();
+
+			long dictionaryOffset = counter.getCount();
+			out.writeInt(dictionary.size());
+			for (String iri : dictionary) {
+				writeString(out, iri);
+			}
+			out.writeLong(dictionaryOffset);
+			out.flush();
+		}
+
+		private void writeBody(DataOutputStream body) throws IOException {
+			writeIndividuals(body, mat.individuals);
+
+			body.writeInt(mat.classInstancesPos.size());
+			for (Map.Entry<OWLClass, TreeSet<OWLIndividual>> entry : mat.classInstancesPos.entrySet()) {
+				body.writeInt(id(entry.getKey()));
+				writeIndividuals(body, entry.getValue());
+				writeIndividuals(body, mat.classInstancesNeg.get(entry.getKey()));
+			}
+
+			body.writeInt(mat.opPos.size());
+			for (Map.Entry<OWLObjectProperty, Map<OWLIndividual, SortedSet<OWLIndividual>>> entry : mat.opPos.entrySet()) {
+				body.writeInt(id(entry.getKey()));
+				body.writeInt(entry.getValue().size());
+				for (Map.Entry<OWLIndividual, SortedSet<OWLIndividual>> e : entry.getValue().entrySet()) {
+					body.writeInt(id(e.getKey()));
+					writeIndividuals(body, e.getValue());
+				}
+			}
+
+			body.writeInt(mat.dpPos.size());
+			for (Map.Entry<OWLDataProperty, Map<OWLIndividual, SortedSet<OWLLiteral>>> entry : mat.dpPos.entrySet()) {
+				body.writeInt(id(entry.getKey()));
+				body.writeInt(entry.getValue().size());
+				for (Map.Entry<OWLIndividual, SortedSet<OWLLiteral>> e : entry.getValue().entrySet()) {
+					body.writeInt(id(e.getKey()));
+					body.writeInt(e.getValue().size());
+					for (OWLLiteral lit : e.getValue()) {
+						writeString(body, lit.getLiteral());
+						body.writeInt(id(lit.getDatatype()));
+						writeString(body, lit.getLang());
+					}
+				}
+			}
+
+			body.writeInt(mat.bdPos.size());
+			for (Map.Entry<OWLDataProperty, TreeSet<OWLIndividual>> entry : mat.bdPos.entrySet()) {
+				body.writeInt(id(entry.getKey()));
+				writeIndividuals(body, entry.getValue());
+				writeIndividuals(body, mat.bdNeg.get(entry.getKey()));
+			}
+
+			body.writeInt(mat.id.size());
+			for (Map.Entry<OWLDataProperty, Map<OWLIndividual, SortedSet<Integer>>> entry : mat.id.entrySet()) {
+				body.writeInt(id(entry.getKey()));
+				body.writeInt(entry.getValue().size());
+				for (Map.Entry<OWLIndividual, SortedSet<Integer>> e : entry.getValue().entrySet()) {
+					body.writeInt(id(e.getKey()));
+					body.writeInt(e.getValue().size());
+					for (Integer value : e.getValue()) {
+						body.writeInt(value);
+					}
+				}
+			}
+
+			body.writeInt(mat.dd.size());
+			for (Map.Entry<OWLDataProperty, Map<OWLIndividual, SortedSet<Double>>> entry : mat.dd.entrySet()) {
+				body.writeInt(id(entry.getKey()));
+				body.writeInt(entry.getValue().size());
+				for (Map.Entry<OWLIndividual, SortedSet<Double>> e : entry.getValue().entrySet()) {
+					body.writeInt(id(e.getKey()));
+					body.writeInt(e.getValue().size());
+					for (Double value : e.getValue()) {
+						body.writeDouble(value);
+					}
+				}
+			}
+
+			body.writeInt(mat.sd.size());
+			for (Map.Entry<OWLDataProperty, Map<OWLIndividual, SortedSet<String>>> entry : mat.sd.entrySet()) {
+				body.writeInt(id(entry.getKey()));
+				body.writeInt(entry.getValue().size());
+				for (Map.Entry<OWLIndividual, SortedSet<String>> e : entry.getValue().entrySet()) {
+					body.writeInt(id(e.getKey()));
+					body.writeInt(e.getValue().size());
+					for (String value : e.getValue()) {
+						writeString(body, value);
+					}
+				}
+			}
+			body.flush();
+		}
+
+		// a missing set is encoded as -1
+		private void writeIndividuals(DataOutputStream out, Collection<OWLIndividual> individuals) throws IOException {
+			if (individuals == null) {
+				out.writeInt(-1);
+				return;
+			}
+			out.writeInt(individuals.size());
+			for (OWLIndividual ind : individuals) {
+				out.writeInt(id(ind));
+			}
+		}
+
+		private void writeString(DataOutputStream out, String s) throws IOException {
+			byte[] b = s.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(b.length);
+			out.write(b);
+		}
+	}
+
+	/*
+	 * Reading
+	 */
+
+	private static class Reader {
+		// magic number and version
+		private static final int HEADER_SIZE = 8;
+		// offset of the dictionary and checksum
+		private static final int TRAILER_SIZE = 16;
+
+		private final MappedInput in;
+
+		private long[] dictionary;
+		private OWLNamedIndividual[] individuals;
+
+		Reader(MappedInput in) {
+			this.in = in;
+		}
+
+		Materialization read() throws IOException {
+			long size = in.size();
+			if (size < HEADER_SIZE + TRAILER_SIZE) {
+				throw new IOException("Truncated materialization snapshot.");
+			}
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a materialization snapshot.");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported materialization snapshot version " + version + ", expected " + VERSION);
+			}
+
+			long contentSize = size - 8;
+			in.seek(contentSize);
+			if (in.readLong() != in.checksum(contentSize)) {
+				throw new IOException("Corrupt materialization snapshot.");
+			}
+			in.seek(contentSize - 8);
+			long dictionaryOffset = in.readLong();
+			if (dictionaryOffset < HEADER_SIZE || dictionaryOffset > contentSize - 8) {
+				throw new IOException("Corrupt materialization snapshot, invalid dictionary offset " + dictionaryOffset);
+			}
+			in.setLimit(contentSize - 8);
+
+			// only the offsets of the dictionary entries are kept
+			in.seek(dictionaryOffset);
+			dictionary = new long[readSize()];
+			for (int i = 0; i < dictionary.length; i++) {
+				dictionary[i] = in.position();
+				in.seek(in.position() + readSize());
+			}
+			// individuals are created lazily
+			individuals = new OWLNamedIndividual[dictionary.length];
+
+			in.seek(HEADER_SIZE);
+			Materialization mat = readBody();
+			if (in.position() != dictionaryOffset) {
+				throw new IOException("Corrupt materialization snapshot.");
+			}
+			return mat;
+		}
+
+		private Materialization readBody() throws IOException {
+			Materialization mat = new Materialization();
+			mat.individuals = readIndividuals();
+
+			int n = in.readInt();
+			for (int i = 0; i < n; i++) {
+				OWLClass cls = df.getOWLClass(iri());
+				mat.classInstancesPos.put(cls, readIndividuals());
+				TreeSet<OWLIndividual> neg = readIndividuals();
+				if (neg != null) {
+					mat.classInstancesNeg.put(cls, neg);
+				}
+			}
+
+			n = in.readInt();
+			for (int i = 0; i < n; i++) {
+				OWLObjectProperty p = df.getOWLObjectProperty(iri());
+				Map<OWLIndividual, SortedSet<OWLIndividual>> map = new TreeMap<>();
+				int nrOfSubjects = in.readInt();
+				for (int j = 0; j < nrOfSubjects; j++) {
+					OWLIndividual subject = individual(in.readInt());
+					map.put(subject, readIndividuals());
+				}
+				mat.opPos.put(p, map);
+			}
+
+			n = in.readInt();
+			for (int i = 0; i < n; i++) {
+				OWLDataProperty p = df.getOWLDataProperty(iri());
+				Map<OWLIndividual, SortedSet<OWLLiteral>> map = new TreeMap<>();
+				int nrOfSubjects = in.readInt();
+				for (int j = 0; j < nrOfSubjects; j++) {
+					OWLIndividual subject = individual(in.readInt());
+					int nrOfValues = in.readInt();
+					SortedSet<OWLLiteral> values = new TreeSet<>();
+					for (int k = 0; k < nrOfValues; k++) {
+						String lexicalForm = readString();
+						OWLDatatype datatype = df.getOWLDatatype(iri());
+						String lang = readString();
+						values.add(lang.isEmpty()
+								   ? df.getOWLLiteral(lexicalForm, datatype)
+								   : df.getOWLLiteral(lexicalForm, lang));
+					}
+					map.put(subject, values);
+				}
+				mat.dpPos.put(p, map);
+			}
+
+			n = in.readInt();
+			for (int i = 0; i < n; i++) {
+				OWLDataProperty p = df.getOWLDataProperty(iri());
+				mat.bdPos.put(p, readIndividuals());
+				mat.bdNeg.put(p, readIndividuals());
+			}
+
+			n = in.readInt();
+			for (int i = 0; i < n; i++) {
+				OWLDataProperty p = df.getOWLDataProperty(iri());
+				Map<OWLIndividual, SortedSet<Integer>> map = new TreeMap<>();
+				int nrOfSubjects = in.readInt();
+				for (int j = 0; j < nrOfSubjects; j++) {
+					OWLIndividual subject = individual(in.readInt());
+					int nrOfValues = in.readInt();
+					SortedSet<Integer> values = new TreeSet<>();
+					for (int k = 0; k < nrOfValues; k++) {
+						values.add(in.readInt());
+					}
+					map.put(subject, values);
+				}
+				mat.id.put(p, map);
+			}
+
+			n = in.readInt();
+			for (int i = 0; i < n; i++) {
+				OWLDataProperty p = df.getOWLDataProperty(iri());
+				Map<OWLIndividual, SortedSet<Double>> map = new TreeMap<>();
+				int nrOfSubjects = in.readInt();
+				for (int j = 0; j < nrOfSubjects; j++) {
+					OWLIndividual subject = individual(in.readInt());
+					int nrOfValues = in.readInt();
+					SortedSet<Double> values = new TreeSet<>();
+					for (int k = 0; k < nrOfValues; k++) {
+						values.add(in.readDouble());
+					}
+					map.put(subject, values);
+				}
+				mat.dd.put(p, map);
+			}
+
+			n = in.readInt();
+			for (int i = 0; i < n; i++) {
+				OWLDataProperty p = df.getOWLDataProperty(iri());
+				Map<OWLIndividual, SortedSet<String>> map = new TreeMap<>();
+				int nrOfSubjects = in.readInt();
+				for (int j = 0; j < nrOfSubjects; j++) {
+					OWLIndividual subject = individual(in.readInt());
+					int nrOfValues = in.readInt();
+					SortedSet<String> values = new TreeSet<>();
+					for (int k = 0; k < nrOfValues; k++) {
+						values.add(readString());
+					}
+					map.put(subject, values);
+				}
+				mat.sd.put(p, map);
+			}
+
+			return mat;
+		}
+
+		private int readSize() throws IOException {
+			int size = in.readInt();
+			if (size < 0 || size > in.size()) {
+				throw new IOException("Corrupt materialization snapshot, invalid size " + size);
+			}
+			return size;
+		}
+
+		private String readString() throws IOException {
+			byte[] b = new byte[readSize()];
+			in.readFully(b);
+			return new String(b, StandardCharsets.UTF_8);
+		}
+
+		// decodes the entry of the dictionary without changing the current position
+		private String entry(int id) throws IOException {
+			long pos = in.position();
+			in.seek(dictionary[id]);
+			String s = readString();
+			in.seek(pos);
+			return s;
+		}
+
+		private IRI iri() throws IOException {
+			return IRI.create(entry(in.readInt()));
+		}
+
+		private OWLIndividual individual(int id) throws IOException {
+			OWLNamedIndividual ind = individuals[id];
+			if (ind == null) {
+				ind = df.getOWLNamedIndividual(IRI.create(entry(id)));
+				individuals[id] = ind;
+			}
+			return ind;
+		}
+
+		private TreeSet<OWLIndividual> readIndividuals() throws IOException {
+			int size = in.readInt();
+			if (size < 0) {
+				return null;
+			}
+			TreeSet<OWLIndividual> ret = new TreeSet<>();
+			for (int i = 0; i < size; i++) {
+				ret.add(individual(in.readInt()));
+			}
+			return ret;
+		}
+	}
+
+	/**
+	 * Big-endian input from a memory-mapped file. Files larger than the max. size
+	 * of a single mapping are mapped in multiple segments.
+	 */
+	private static class MappedInput {
+		private static final int SEGMENT_SIZE = 1 << 30;
+
+		private final ByteBuffer[] segments;
+		private final long size;
+		private long limit;
+		private long pos;
+
+		MappedInput(FileChannel channel) throws IOException {
+			size = channel.size();
+			limit = size;
+			segments = new ByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+			for (int i = 0; i < segments.length; i++) {
+				long start = (long) i * SEGMENT_SIZE;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+			}
+		}
+
+		long size() {
+			return size;
+		}
+
+		long position() {
+			return pos;
+		}
+
+		void seek(long pos) throws IOException {
+			if (pos < 0 || pos > limit) {
+				throw new EOFException();
+			}
+			this.pos = pos;
+		}
+
+		void setLimit(long limit) {
+			this.limit = limit;
+		}
+
+		long checksum(long length) {
+			CRC32 checksum = new CRC32();
+			for (int i = 0; i < segments.length; i++) {
+				long remaining = length - (long) i * SEGMENT_SIZE;
+				if (remaining <= 0) {
+					break;
+				}
+				ByteBuffer segment = segments[i].duplicate();
+				segment.position(0);
+				segment.limit((int) Math.min(segment.capacity(), remaining));
+				checksum.update(segment);
+			}
+			return checksum.getValue();
+		}
+
+		int readInt() throws IOException {
+			return (int) read(4);
+		}
+
+		long readLong() throws IOException {
+			return read(8);
+		}
+
+		double readDouble() throws IOException {
+			return Double.longBitsToDouble(read(8));
+		}
+
+		void readFully(byte[] b) throws IOException {
+			if (pos + b.length > limit) {
+				throw new EOFException();
+			}
+			int done = 0;
+			while (done < b.length) {
+				ByteBuffer segment = segments[(int) (pos / SEGMENT_SIZE)].duplicate();
+				segment.position((int) (pos % SEGMENT_SIZE));
+				int n = Math.min(b.length - done, segment.remaining());
+				segment.get(b, done, n);
+				done += n;
+				pos += n;
+			}
+		}
+
+		private long read(int n) throws IOException {
+			if (pos + n > limit) {
+				throw new EOFException();
+			}
+			ByteBuffer segment = segments[(int) (pos / SEGMENT_SIZE)];
+			int offset = (int) (pos % SEGMENT_SIZE);
+			long value;
+			if (offset + n <= segment.limit()) {
+				value = n == 4 ? segment.getInt(offset) : segment.getLong(offset);
+			} else {
+				// the value spans two segments
+				value = 0;
+				for (int i = 0; i < n; i++) {
+					long p = pos + i;
+					value = (value << 8) | (segments[(int) (p / SEGMENT_SIZE)].get((int) (p % SEGMENT_SIZE)) & 0xFF);
+				}
+			}
+			pos += n;
+			return value;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import gnu.trove.map.TObjectIntMap;
+import org.semanticweb.owlapi.model.OWLIndividual;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The forward and inverse adjacency of an object property over integer
+ * individual IDs in compressed sparse row (CSR) format, i.e. for each direction
+ * there is an offset array indexed by the ID of the subject (resp. object) and
+ * a target array which holds the IDs of the related individuals. The targets of
+ * each individual are sorted by ID.
+ *
+ * This allows for answering existential restrictions by walking the inverse
+ * edges of the filler instances only, and it needs about 4 bytes per edge and
+ * direction.
+ *
+ * @author Lorenz Buehmann
+ */
+class PropertyAdjacency {
+
+	// forward adjacency: subject -> objects
+	private final int[] forwardOffsets;
+	private final int[] forwardTargets;
+
+	// inverse adjacency: object -> subjects
+	private final int[] inverseOffsets;
+	private final int[] inverseTargets;
+
+	// the number of IDs covered by the offset arrays
+	private final int nrOfNodes;
+
+	PropertyAdjacency(Map<OWLIndividual, ? extends Collection<OWLIndividual>> members,
+					  TObjectIntMap<OWLIndividual> ids,
+					  int nrOfNodes) {
+		this.nrOfNodes = nrOfNodes;
+
+		int nrOfEdges = members.values().stream().mapToInt(Collection::size).sum();
+
+		// count the out- and in-degree of each node
+		int[] outDegree = new int[nrOfNodes];
+		int[] inDegree = new int[nrOfNodes];
+		members.forEach((s, objects) -> {
+			int subject = ids.get(s);
+			for (OWLIndividual o : objects) {
+				outDegree[subject]++;
+				inDegree[ids.get(o)]++;
+			}
+		});
+
+		forwardOffsets = toOffsets(outDegree);
+		inverseOffsets = toOffsets(inDegree);
+		forwardTargets = new int[nrOfEdges];
+		inverseTargets = new int[nrOfEdges];
+
+		// fill the target arrays, the degree arrays are reused as insert positions
+		Arrays.fill(outDegree, 0);
+		Arrays.fill(inDegree, 0);
+		members.forEach((s, objects) -> {
+			int subject = ids.get(s);
+			for (OWLIndividual o : objects) {
+				int object = ids.get(o);
+				forwardTargets[forwardOffsets[subject] + outDegree[subject]++] = object;
+				inverseTargets[inverseOffsets[object] + inDegree[object]++] = subject;
+			}
+		});
+
+		for (int i = 0; i < nrOfNodes; i++) {
+			Arrays.sort(forwardTargets, forwardOffsets[i], forwardOffsets[i + 1]);
+			Arrays.sort(inverseTargets, inverseOffsets[i], inverseOffsets[i + 1]);
+		}
+	}
+
+	private static int[] toOffsets(int[] degrees) {
+		int[] offsets = new int[degrees.length + 1];
+		for (int i = 0; i < degrees.length; i++) {
+			offsets[i + 1] = offsets[i] + degrees[i];
+		}
+		return offsets;
+	}
+
+	/**
+	 * @return the number of edges
+	 */
+	int getNrOfEdges() {
+		return forwardTargets.length;
+	}
+
+	/**
+	 * @param id the node ID
+	 * @param inverse whether to use the inverse direction
+	 * @return the number of edges starting at the node in the given direction
+	 */
+	int degree(int id, boolean inverse) {
+		if (id < 0 || id >= nrOfNodes) {
+			return 0;
+		}
+		int[] offsets = inverse ? inverseOffsets : forwardOffsets;
+		return offsets[id + 1] - offsets[id];
+	}
+
+	/**
+	 * @param id the node ID
+	 * @param inverse whether to use the inverse direction
+	 * @return the sorted IDs of all nodes related to the given node in the given direction
+	 */
+	int[] neighbors(int id, boolean inverse) {
+		if (id < 0 || id >= nrOfNodes) {
+			return new int[0];
+		}
+		int[] offsets = inverse ? inverseOffsets : forwardOffsets;
+		int[] targets = inverse ? inverseTargets : forwardTargets;
+		return Arrays.copyOfRange(targets, offsets[id], offsets[id + 1]);
+	}
+
+	/**
+	 * Returns the sources of all edges (in the given direction) whose target is
+	 * contained in the given bit set, i.e. the instances of \exists r.C if the
+	 * bit set contains the instances of C. The cost depends on the number of
+	 * edges pointing to C, and not on the size of the whole property extension.
+	 *
+	 * @param targets the target IDs
+	 * @param inverse whether to use the inverse property, i.e. \exists r^{-1}.C
+	 * @return the source IDs
+	 */
+	BitSet getSources(BitSet targets, boolean inverse) {
+		// walk the edges in the opposite direction starting from the targets
+		int[] offsets = inverse ? forwardOffsets : inverseOffsets;
+		int[] edges = inverse ? forwardTargets : inverseTargets;
+
+		BitSet ret = new BitSet(nrOfNodes);
+		for (int t = targets.nextSetBit(0); t >= 0 && t < nrOfNodes; t = targets.nextSetBit(t + 1)) {
+			for (int i = offsets[t]; i < offsets[t + 1]; i++) {
+				ret.set(edges[i]);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Counts for each source the number of edges (in the given direction) whose
+	 * target is contained in the given bit set.
+	 *
+	 * @param targets the target IDs
+	 * @param inverse whether to use the inverse property
+	 * @return the number of matching targets indexed by source ID
+	 */
+	int[] countTargets(BitSet targets, boolean inverse) {
+		int[] offsets = inverse ? forwardOffsets : inverseOffsets;
+		int[] edges = inverse ? forwardTargets : inverseTargets;
+
+		int[] counts = new int[nrOfNodes];
+		for (int t = targets.nextSetBit(0); t >= 0 && t < nrOfNodes; t = targets.nextSetBit(t + 1)) {
+			for (int i = offsets[t]; i < offsets[t + 1]; i++) {
+				counts[edges[i]]++;
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * @param inverse whether to use the inverse direction
+	 * @return the IDs of all nodes with at least one edge in the given direction
+	 */
+	BitSet getNodesWithEdges(boolean inverse) {
+		int[] offsets = inverse ? inverseOffsets : forwardOffsets;
+		BitSet ret = new BitSet(nrOfNodes);
+		for (int i = 0; i < nrOfNodes; i++) {
+			if (offsets[i + 1] > offsets[i]) {
+				ret.set(i);
+			}
+		}
+		return ret;
+	}
+}
@@ -28,7 +28,6 @@ import org.aksw.jena_sparql_api.delay.core.QueryExecutionFactoryDelay;
 import org.aksw.jena_sparql_api.http.QueryExecutionFactoryHttp;
 import org.aksw.jena_sparql_api.model.QueryExecutionFactoryModel;
 import org.aksw.jena_sparql_api.pagination.core.QueryExecutionFactoryPaginated;
-import org.apache.commons.lang3.NotImplementedException;
 import org.apache.jena.query.*;
 import org.apache.jena.rdf.model.*;
 import org.apache.jena.riot.RDFDataMgr;
@@ -66,6 +65,7 @@ import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -112,6 +112,12 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 	@ConfigOption(description = "Whether to use SPARQL1.1 Value Lists", defaultValue = "false")
 	private boolean useValueLists = false;
 
+	@ConfigOption(description = "The max. number of class expressions whose instances are counted in a single query " +
+			"if the counts for multiple class expressions are requested at once", defaultValue = "50")
+	private int valueListsBatchSize = 50;
+	// the VALUES block of the last sets of individuals passed to getIndividualsCounts()
+	private volatile Map.Entry<List<? extends Set<OWLIndividual>>, String> valuesFragmentCache;
+
 	@ConfigOption(defaultValue = "true", description = "Prefer ASK queries when there is a choice in implementation", required = false)
 	private boolean preferAsk = true;
 
@@ -132,6 +138,11 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 	private OWLDataFactory df = new OWLDataFactoryImpl();
 	private OWLObjectDuplicator duplicator = new OWLObjectDuplicator(df);
 
+	// the converter and the duplicator keep state while processing an expression, thus, in synchronized mode
+	// each thread gets its own instance
+	private ThreadLocal<OWLClassExpressionToSPARQLConverter> threadConverters;
+	private ThreadLocal<OWLObjectDuplicator> threadDuplicators;
+
 	/**
 	 * Default constructor for usage of config files + Spring API.
 	 */
@@ -164,7 +175,7 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 	 */
 	@Override
 	public void init() throws ComponentInitException {
-		classPopularityMap = new HashMap<>();
+		classPopularityMap = threadConverters != null ? new ConcurrentHashMap<>() : new HashMap<>();
 
 		// this is only done if the reasoner is setup via config file
 		if(qef == null) {
@@ -444,6 +455,8 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 				throw new IllegalArgumentException("Popularity computation not supported for entity type " + entity.getEntityType().getName());
 			}
 
+			// the templates are shared by all instances, thus, we have to work on a copy
+			queryTemplate = queryTemplate.copy();
 			queryTemplate.setIri("entity", entity.toStringID());
 			ResultSet rs = executeSelectQuery(queryTemplate.toString());
 			
@@ -461,7 +474,7 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 		if(classPopularityMap != null && classPopularityMap.containsKey(description)){
 			return classPopularityMap.get(description);
 		} else {
-			String query = converter.asCountQuery(description).toString();
+			String query = getConverter().asCountQuery(description).toString();
 			ResultSet rs = executeSelectQuery(query);
 			int cnt = rs.next().getLiteral("cnt").getInt();
 			return cnt;
@@ -1142,7 +1155,7 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 //			SortedSet<OWLIndividual> individuals = getIndividuals(description, Collections.singleton(individual));
 //			return individuals.contains(individual);
 			// FIXME universal and cardinality restrictions do not work with ASK queries
-			String queryBody = converter.convert("?ind", description);
+			String queryBody = getConverter().convert("?ind", description);
 			if (queryBody.isEmpty())
 				return true;
 			queryBody = queryBody.replace("?ind", "<" + individual.toStringID() + ">");
@@ -1166,7 +1179,7 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 
 	protected String buildIndividualsQueryValues(OWLClassExpression description, Collection<OWLIndividual> indValues, boolean isCountQuery) {
 		StringBuilder query;
-		String tp = converter.convert("?ind", description);
+		String tp = getConverter().convert("?ind", description);
 
 		if (isCountQuery) {
 			query = new StringBuilder("SELECT (COUNT(DISTINCT ?ind) as ?cnt) WHERE { \n");
@@ -1185,7 +1198,7 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 
 	public SortedSet<OWLIndividual> getIndividuals(OWLClassExpression description, int limit, Set<OWLIndividual> indValues) {
 		// we need to copy it to get something like A AND B from A AND A AND B
-		description = duplicator.duplicateObject(description);
+		description = getDuplicator().duplicateObject(description);
 		
 		SortedSet<OWLIndividual> individuals = new TreeSet<>();
 		String query;
@@ -1193,7 +1206,7 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 		if (indValues != null) {
 			query = buildIndividualsQueryValues(description, indValues, false);
 		} else {
-			query = converter.asQuery("?ind", description, false).toString();
+			query = getConverter().asQuery("?ind", description, false).toString();
 		}
 		if(limit != 0) {
 			query += " LIMIT " + limit;
@@ -1222,14 +1235,14 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 	}
 
 	public int getIndividualsCount(OWLClassExpression description, int limit, Set<OWLIndividual> indValues) {
-		description = duplicator.duplicateObject(description);
+		description = getDuplicator().duplicateObject(description);
 		
 		String query;
 		
 		if (indValues != null) {
 			query = buildIndividualsQueryValues(description, indValues, true);
 		} else {
-			query = converter.asQuery("?ind", description, true).toString();
+			query = getConverter().asQuery("?ind", description, true).toString();
 			System.err.println(query);
 			throw new RuntimeException();
 		}
@@ -1258,6 +1271,81 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 		return getIndividualsCount(description, 0, indValues);
 	}
 
+	/**
+	 * Counts for each of the given class expressions the number of its instances
+	 * in each of the given sets of individuals. The class expressions are evaluated
+	 * in batches of at most {@link #getValueListsBatchSize()} class expressions per
+	 * query, i.e. a single query is sent per batch instead of one query per class
+	 * expression and set of individuals.
+	 * Each class expression is evaluated in a separate UNION branch, which binds the
+	 * index of the class expression and which starts with the same VALUES block
+	 * containing all individuals tagged by the index of their set. The VALUES block
+	 * is built only once per sets of individuals.
+	 *
+	 * @param descriptions the class expressions
+	 * @param indValues the sets of individuals
+	 * @return the number of instances indexed by the class expression and the set
+	 */
+	public int[][] getIndividualsCounts(List<OWLClassExpression> descriptions, List<? extends Set<OWLIndividual>> indValues) {
+		int[][] counts = new int[descriptions.size()][indValues.size()];
+
+		String valuesFragment = getValuesFragment(indValues);
+
+		for (int from = 0; from < descriptions.size(); from += valueListsBatchSize) {
+			int to = Math.min(from + valueListsBatchSize, descriptions.size());
+
+			StringBuilder query = new StringBuilder("SELECT ?cand ?set (COUNT(DISTINCT ?ind) as ?cnt) WHERE { \n");
+			for (int i = from; i < to; i++) {
+				// we need to copy it to get something like A AND B from A AND A AND B
+				OWLClassExpression description = getDuplicator().duplicateObject(descriptions.get(i));
+				String tp = getConverter().convert("?ind", description);
+				if (i > from) {
+					query.append("UNION \n");
+				}
+				query.append("{ ").append(valuesFragment).append(tp).append("\nBIND(").append(i).append(" AS ?cand) } \n");
+			}
+			query.append("} GROUP BY ?cand ?set");
+			if(logger.isTraceEnabled()){
+				logger.trace(sparql_debug, "get individuals counts query: " + query);
+			}
+
+			// candidates and sets without any instance do not occur in the result
+			ResultSet rs = executeSelectQuery(query.toString());
+			while(rs.hasNext()){
+				QuerySolution qs = rs.next();
+				int cand = qs.getLiteral("cand").getInt();
+				int set = qs.getLiteral("set").getInt();
+				counts[cand][set] = qs.getLiteral("cnt").getInt();
+			}
+		}
+		return counts;
+	}
+
+	private String getValuesFragment(List<? extends Set<OWLIndividual>> indValues) {
+		Map.Entry<List<? extends Set<OWLIndividual>>, String> cached = valuesFragmentCache;
+		if (cached != null && cached.getKey().equals(indValues)) {
+			return cached.getValue();
+		}
+
+		StringBuilder values = new StringBuilder("VALUES (?ind ?set) { \n");
+		for (int i = 0; i < indValues.size(); i++) {
+			for (OWLIndividual x : indValues.get(i)) {
+				values.append("(<").append(x.toStringID()).append("> ").append(i).append(") ");
+			}
+			values.append("\n");
+		}
+		values.append("}. \n");
+		String fragment = values.toString();
+
+		// copy the sets, as the caller might modify them later
+		List<Set<OWLIndividual>> key = new ArrayList<>(indValues.size());
+		for (Set<OWLIndividual> inds : indValues) {
+			key.add(new HashSet<>(inds));
+		}
+		valuesFragmentCache = new AbstractMap.SimpleImmutableEntry<>(key, fragment);
+		return fragment;
+	}
+
 	/**
 	 * @param wantedClass the class to which the individuals must belong to
 	 * @param excludeClass the class to which the individuals must not belong to
@@ -1449,9 +1537,9 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 	}
 
 	protected String buildApplicablePropertiesValuesQuery(OWLClassExpression domain, Collection<? extends OWLObjectProperty> objectProperties) {
-		String domQuery = converter.convert("?dom", domain);
+		String domQuery = getConverter().convert("?dom", domain);
 		String props = objectProperties.stream().map(op -> "<" + op.toStringID() + ">").collect(Collectors.joining(" "));
-//		String prop1 = converter.convert("?p", objectProperties.iterator().next());
+//		String prop1 = getConverter().convert("?p", objectProperties.iterator().next());
 
 		String query = "SELECT DISTINCT ?p WHERE { " +
 				"" + domQuery + " ?dom ?p ?o . \n" +
@@ -1462,7 +1550,7 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 
 	public Set<OWLObjectProperty> getApplicableProperties(OWLClassExpression domain, Set<OWLObjectProperty> objectProperties) {
 		if (isPreferAsk()) {
-			String domQuery = converter.convert("?dom", domain);
+			String domQuery = getConverter().convert("?dom", domain);
 			return objectProperties.stream()
 					.filter(p -> executeAskQuery("ASK { " + domQuery + " ?dom <" + p.toStringID() + "> ?o . }"))
 					.collect(Collectors.toSet());
@@ -2198,7 +2286,7 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 
 	protected String buildMeaningfulClassesQuery(OWLClassExpression index, SortedSet<OWLClassExpression> targetClasses) {
 		String query = "SELECT DISTINCT ?concept WHERE {";
-		query += converter.convert("?ind", index);
+		query += getConverter().convert("?ind", index);
 		query += "?ind a ?concept . ";
 		query += "VALUES ?concept {"
 				+ targetClasses.stream().map(ce -> "<" + ce.asOWLClass().toStringID() + ">").collect(Collectors.joining(" "))
@@ -2377,9 +2465,33 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 	/* (non-Javadoc)
 	 * @see org.dllearner.core.AbstractReasonerComponent#setSynchronized()
 	 */
+	/**
+	 * The query execution factory is thread-safe, thus, in synchronized mode only the caches are replaced by
+	 * concurrent ones and each thread uses its own class expression converter.
+	 */
 	@Override @NoConfigOption
 	public void setSynchronized() {
-		throw new NotImplementedException("Method setSynchronized() not implemented yet!");
+		if (threadConverters != null) {
+			return;
+		}
+		entityPopularityMap = new ConcurrentHashMap<>(entityPopularityMap);
+		classPopularityMap = new ConcurrentHashMap<>(classPopularityMap);
+		Set<PopularityType> popularityTypes = ConcurrentHashMap.newKeySet();
+		popularityTypes.addAll(precomputedPopularityTypes);
+		precomputedPopularityTypes = popularityTypes;
+		threadDuplicators = ThreadLocal.withInitial(() -> new OWLObjectDuplicator(df));
+		threadConverters = ThreadLocal.withInitial(OWLClassExpressionToSPARQLConverter::new);
+	}
+
+	/**
+	 * @return the converter used to build the SPARQL queries for class expressions in the current thread
+	 */
+	protected OWLClassExpressionToSPARQLConverter getConverter() {
+		return threadConverters != null ? threadConverters.get() : converter;
+	}
+
+	private OWLObjectDuplicator getDuplicator() {
+		return threadDuplicators != null ? threadDuplicators.get() : duplicator;
 	}
 
 	public boolean isUseValueLists() {
@@ -2390,6 +2502,14 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 		this.useValueLists = useValueLists;
 	}
 
+	public int getValueListsBatchSize() {
+		return valueListsBatchSize;
+	}
+
+	public void setValueListsBatchSize(int valueListsBatchSize) {
+		this.valueListsBatchSize = valueListsBatchSize;
+	}
+
 	public boolean isPreferAsk() {
 		return preferAsk;
 	}
@@ -246,6 +246,7 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 	 */
 	public RhoDRDown(RhoDRDown op) {
 		setApplyAllFilter(op.applyAllFilter);
+		setApplyExistsFilter(op.applyExistsFilter);
 		setCardinalityLimit(op.cardinalityLimit);
 		setClassHierarchy(op.classHierarchy);
 		setObjectPropertyHierarchy(op.objectPropertyHierarchy);
@@ -266,6 +267,13 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 		setUseStringDatatypes(op.useStringDatatypes);
 		setUseNumericDatatypes(op.useNumericDatatypes);
 		setUseTimeDatatypes(op.useTimeDatatypes);
+		setUseHasSelf(op.useHasSelf);
+		setUseInverse(op.useInverse);
+		setUseSomeOnly(op.useSomeOnly);
+		setDisjointChecks(op.disjointChecks);
+		setMaxNrOfSplits(op.maxNrOfSplits);
+		setNumericValuesSplitter(op.numericValuesSplitter);
+		setLengthMetric(op.lengthMetric);
 		initialized = false;
 	}
 
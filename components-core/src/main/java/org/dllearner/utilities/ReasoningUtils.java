@@ -25,13 +25,17 @@ import org.dllearner.core.Component;
 import org.dllearner.accuracymethods.AccMethodApproximate;
 import org.dllearner.accuracymethods.AccMethodTwoValued;
 import org.dllearner.accuracymethods.AccMethodTwoValuedApproximate;
+import org.dllearner.reasoning.ClosedWorldReasoner;
 import org.dllearner.reasoning.SPARQLReasoner;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLIndividual;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -209,6 +213,17 @@ public class ReasoningUtils implements Component {
 					rv[i].trueCount = trueCount;
 					rv[i].falseCount = sets[i].size()- trueCount;
 				}
+			} else if (reasoner instanceof ClosedWorldReasoner &&
+					((ClosedWorldReasoner)reasoner).isUseBitSetRetrieval()) {
+				for (int i = 0; i < sets.length; ++i) {
+					int trueCount = ((ClosedWorldReasoner) reasoner).getIndividualsCount(concept, sets[i]);
+
+					rv[i] = new CoverageCount();
+					rv[i].total = sets[i].size();
+
+					rv[i].trueCount = trueCount;
+					rv[i].falseCount = sets[i].size() - trueCount;
+				}
 			} else {
 				SortedSet<OWLIndividual> individuals = reasoner.getIndividuals(concept);
 				for (int i = 0; i < sets.length; ++i) {
@@ -239,6 +254,48 @@ public class ReasoningUtils implements Component {
 		return rv;
 	}
 
+	/**
+	 * count the numbers of individuals satisfying each of the given concepts. If
+	 * supported by the reasoner, the counts of all concepts are computed at once,
+	 * e.g. with a single query per batch of concepts for a SPARQL reasoner using
+	 * value lists.
+	 * @param concepts the OWL concepts used for counting
+	 * @param sets list of sets of individuals to count on
+	 * @return a list of arrays of Coverage counts, one list entry for each concept
+	 * and one array entry for each input set
+	 */
+	@SafeVarargs
+	public final List<CoverageCount[]> getCoverageCounts(List<OWLClassExpression> concepts,
+														 Set<OWLIndividual>... sets) {
+		List<CoverageCount[]> rv = new ArrayList<>(concepts.size());
+
+		if (!reasoner.isUseInstanceChecks() && reasoner instanceof SPARQLReasoner &&
+				((SPARQLReasoner) reasoner).isUseValueLists()) {
+			int[][] trueCounts = ((SPARQLReasoner) reasoner).getIndividualsCounts(concepts, Arrays.asList(sets));
+
+			for (int[] conceptTrueCounts : trueCounts) {
+				CoverageCount[] cc = new CoverageCount[sets.length];
+				for (int i = 0; i < sets.length; ++i) {
+					cc[i] = new CoverageCount();
+					cc[i].total = sets[i].size();
+
+					cc[i].trueCount = conceptTrueCounts[i];
+					cc[i].falseCount = sets[i].size() - conceptTrueCounts[i];
+				}
+				rv.add(cc);
+			}
+		} else {
+			for (OWLClassExpression concept : concepts) {
+				CoverageCount[] cc = getCoverageCount(concept, sets);
+				if (cc == null) {
+					return null;
+				}
+				rv.add(cc);
+			}
+		}
+		return rv;
+	}
+
 	/**
 	 * partition an array of sets into true, false and unknown, depending on whether they satisfy concept A or B
 	 * @param trueConcept the OWL concept used for true partition
@@ -331,6 +388,40 @@ public class ReasoningUtils implements Component {
 	}
 
 
+	/**
+	 * Computes the accuracy of each of the given concepts, see
+	 * {@link #getAccuracyOrTooWeak2(AccMethodTwoValued, OWLClassExpression, Collection, Collection, double)}.
+	 * The coverage of all concepts is computed at once, see
+	 * {@link #getCoverageCounts(List, Set[])}.
+	 * @param accuracyMethod method to use
+	 * @param descriptions the concepts
+	 * @param positiveExamples the positive examples
+	 * @param negativeExamples the negative examples
+	 * @param noise noise level
+	 * @return the accuracy (or -1 if too weak) of each concept, or <code>null</code>
+	 * if the computation of the coverage has been interrupted
+	 */
+	public double[] getAccuraciesOrTooWeak2(AccMethodTwoValued accuracyMethod, List<OWLClassExpression> descriptions,
+											Collection<OWLIndividual> positiveExamples,
+											Collection<OWLIndividual> negativeExamples, double noise) {
+		double[] accuracies = new double[descriptions.size()];
+		if (accuracyMethod instanceof AccMethodApproximate) {
+			for (int i = 0; i < descriptions.size(); i++) {
+				accuracies[i] = getAccuracyOrTooWeak2(accuracyMethod, descriptions.get(i), positiveExamples, negativeExamples, noise);
+			}
+		} else {
+			List<CoverageCount[]> ccs = getCoverageCounts(descriptions, makeSet(positiveExamples), makeSet(negativeExamples));
+			if (ccs == null) {
+				return null;
+			}
+			for (int i = 0; i < descriptions.size(); i++) {
+				accuracies[i] = getAccuracyOrTooWeakExact2(accuracyMethod, ccs.get(i), noise);
+			}
+		}
+		return accuracies;
+	}
+
+
 	/**
 	 * wrapper to call accuracy method with coverage count
 	 * @param accuracyMethod method to use
@@ -18,6 +18,8 @@
  */
 package org.dllearner.utilities.owl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.util.MaximumModalDepthFinder;
@@ -35,18 +37,30 @@ public class OWLClassExpressionUtils {
 	
 	private static OWLDataFactory dataFactory = new OWLDataFactoryImpl();
 	private static OWLObjectDuplicator duplicator = new OWLObjectDuplicator(dataFactory);
-	private static final OWLClassExpressionLengthCalculator LENGTH_CALCULATOR= new OWLClassExpressionLengthCalculator();
-	private static final MaximumModalDepthFinder DEPTH_FINDER = new MaximumModalDepthFinder();
+	// the depth finder is not guaranteed to be stateless, thus each thread gets its own instance
+	private static final ThreadLocal<MaximumModalDepthFinder> DEPTH_FINDER = ThreadLocal.withInitial(MaximumModalDepthFinder::new);
+	// stateless
 	private static final OWLClassExpressionChildrenCollector CHILDREN_COLLECTOR = new OWLClassExpressionChildrenCollector();
+
+	// length (w.r.t. the default metric) and depth of class expressions; the keys are weak
+	// references compared by identity, i.e. the entries are dropped once the expression is
+	// not used anymore and lookups do not need to compute the (deep) hash code of the expression
+	private static final Cache<OWLClassExpression, Integer> LENGTH_CACHE = CacheBuilder.newBuilder().weakKeys().build();
+	private static final Cache<OWLClassExpression, Integer> DEPTH_CACHE = CacheBuilder.newBuilder().weakKeys().build();
 	
 	/**
-	 * Returns the length of a given class expression. 
+	 * Returns the length of a given class expression. The length is computed
+	 * only once per class expression object.
 	 * @param ce the class expression
 	 * @return the length of the class expression
 	 */
 	public static int getLength(OWLClassExpression ce){
-		OWLClassExpressionLengthCalculator calculator = new OWLClassExpressionLengthCalculator();
-		return calculator.getLength(ce);
+		Integer length = LENGTH_CACHE.getIfPresent(ce);
+		if (length == null) {
+			length = new OWLClassExpressionLengthCalculator().getLength(ce);
+			LENGTH_CACHE.put(ce, length);
+		}
+		return length;
 	}
 
 	public static int getLength(OWLClassExpression ce, OWLClassExpressionLengthMetric metric) {
@@ -55,12 +69,18 @@ public class OWLClassExpressionUtils {
 	}
 
 	/**
-	 * Returns the depth of a class expression. 
+	 * Returns the depth of a class expression. The depth is computed only once
+	 * per class expression object.
 	 * @param ce the class expression
 	 * @return the depth of the class expression
 	 */
-	public static synchronized int getDepth(OWLClassExpression ce){
-		return ce.accept(DEPTH_FINDER);
+	public static int getDepth(OWLClassExpression ce){
+		Integer depth = DEPTH_CACHE.getIfPresent(ce);
+		if (depth == null) {
+			depth = ce.accept(DEPTH_FINDER.get());
+			DEPTH_CACHE.put(ce, depth);
+		}
+		return depth;
 	}
 	
 	/**
@@ -68,7 +88,7 @@ public class OWLClassExpressionUtils {
 	 * @param ce the class expression
 	 * @return the arity of the class expression
 	 */
-	public static synchronized int getArity(OWLClassExpression ce){
+	public static int getArity(OWLClassExpression ce){
 		return getChildren(ce).size();
 	}
 	
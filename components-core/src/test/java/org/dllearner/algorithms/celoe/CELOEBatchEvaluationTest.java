@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.celoe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.apache.jena.riot.RDFDataMgr;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.learningproblems.PosNegLPStandard;
+import org.dllearner.reasoning.ClosedWorldReasoner;
+import org.dllearner.reasoning.SPARQLReasoner;
+import org.dllearner.refinementoperators.OperatorInverter;
+import org.dllearner.refinementoperators.RhoDRDown;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+
+/**
+ * Tests that the batched and the concurrent evaluation of the refinements in
+ * CELOE lead to the same search tree as the sequential evaluation.
+ *
+ * @author Lorenz Buehmann
+ */
+public class CELOEBatchEvaluationTest {
+
+	private static ClosedWorldReasoner reasoner;
+	private static PosNegLPStandard lp;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		reasoner = FatherFixtures.createReasoner();
+		lp = FatherFixtures.createLearningProblem(reasoner, FatherFixtures.FATHERS, FatherFixtures.NON_FATHERS);
+	}
+
+	private CELOE run(int batchSize, int nrOfThreads, boolean stopOnFirstDefinition) throws Exception {
+		return run(lp, reasoner, batchSize, nrOfThreads, stopOnFirstDefinition);
+	}
+
+	private CELOE run(PosNegLPStandard lp, AbstractReasonerComponent reasoner,
+					  int batchSize, int nrOfThreads, boolean stopOnFirstDefinition) throws Exception {
+		CELOE la = new CELOE(lp, reasoner);
+		la.setMaxClassExpressionTests(300);
+		la.setStopOnFirstDefinition(stopOnFirstDefinition);
+		la.setEvaluationBatchSize(batchSize);
+		la.setNrOfEvaluationThreads(nrOfThreads);
+		la.init();
+		la.start();
+		return la;
+	}
+
+	private static Set<OWLClassExpression> getNodeDescriptions(CELOE la) {
+		return la.getSearchTree().getNodeSet().stream()
+				.map(OENode::getDescription)
+				.collect(Collectors.toCollection(TreeSet::new));
+	}
+
+	private static List<OWLClassExpression> getBestDescriptions(CELOE la) {
+		return la.getCurrentlyBestEvaluatedDescriptions().stream()
+				.map(ed -> ed.getDescription())
+				.collect(Collectors.toList());
+	}
+
+	private void assertSameSearch(CELOE expected, CELOE actual) {
+		assertEquals(expected.getClassExpressionTests(), actual.getClassExpressionTests());
+		assertEquals(expected.getSearchTreeSize(), actual.getSearchTreeSize());
+		assertEquals(getNodeDescriptions(expected), getNodeDescriptions(actual));
+		assertEquals(getBestDescriptions(expected), getBestDescriptions(actual));
+	}
+
+	@Test
+	public void testBatchEvaluation() throws Exception {
+		CELOE sequential = run(1, 1, false);
+		assertSameSearch(sequential, run(10, 1, false));
+		assertSameSearch(sequential, run(1, 4, false));
+	}
+
+	@Test
+	public void testBatchEvaluationStopOnFirstDefinition() throws Exception {
+		CELOE sequential = run(1, 1, true);
+		assertSameSearch(sequential, run(10, 1, true));
+		assertSameSearch(sequential, run(1, 4, true));
+	}
+
+	/**
+	 * The SPARQL reasoner has to support the synchronized mode used by the concurrent evaluation.
+	 */
+	@Test
+	public void testConcurrentEvaluationSPARQLReasoner() throws Exception {
+		SPARQLReasoner sparqlReasoner = new SPARQLReasoner(RDFDataMgr.loadModel(FatherFixtures.FATHER));
+		sparqlReasoner.init();
+		PosNegLPStandard sparqlLp = FatherFixtures.createLearningProblem(sparqlReasoner,
+				FatherFixtures.FATHERS, FatherFixtures.NON_FATHERS);
+
+		CELOE sequential = run(sparqlLp, sparqlReasoner, 1, 1, true);
+		assertSameSearch(sequential, run(sparqlLp, sparqlReasoner, 1, 4, true));
+	}
+
+	@Test
+	public void testIncrementalCoverageRequiresDownwardOperator() throws Exception {
+		CELOE la = new CELOE(lp, reasoner);
+		la.setUseIncrementalCoverage(true);
+		la.init();
+		assertTrue(la.isUseIncrementalCoverage());
+
+		RhoDRDown op = new RhoDRDown();
+		op.setReasoner(reasoner);
+		op.init();
+		la = new CELOE(lp, reasoner);
+		la.setOperator(new OperatorInverter(op));
+		la.setUseIncrementalCoverage(true);
+		la.init();
+		assertFalse(la.isUseIncrementalCoverage());
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.celoe;
+
+import java.io.File;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.dllearner.core.AbstractKnowledgeSource;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.ComponentInitException;
+import org.dllearner.kb.OWLAPIOntology;
+import org.dllearner.learningproblems.PosNegLPStandard;
+import org.dllearner.reasoning.ClosedWorldReasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+/**
+ * The father example shared by the unit tests of the CELOE based algorithms.
+ *
+ * @author Lorenz Buehmann
+ */
+public final class FatherFixtures {
+
+	public static final String FATHER = "../examples/father.owl";
+	public static final String NS = "http://example.com/father#";
+
+	/**
+	 * The examples of the father concept, i.e. male and hasChild some Thing.
+	 */
+	public static final String[] FATHERS = {"stefan", "markus", "martin"};
+	public static final String[] NON_FATHERS = {"heinz", "anna", "michelle"};
+
+	private FatherFixtures() {}
+
+	/**
+	 * @return an initialized closed world reasoner on the father ontology
+	 */
+	public static ClosedWorldReasoner createReasoner() throws OWLOntologyCreationException, ComponentInitException {
+		OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new File(FATHER));
+		AbstractKnowledgeSource ks = new OWLAPIOntology(ontology);
+		ks.init();
+
+		ClosedWorldReasoner reasoner = new ClosedWorldReasoner(ks);
+		reasoner.init();
+		return reasoner;
+	}
+
+	/**
+	 * @param reasoner the reasoner
+	 * @param positives the local names of the positive examples
+	 * @param negatives the local names of the negative examples
+	 * @return an initialized learning problem
+	 */
+	public static PosNegLPStandard createLearningProblem(AbstractReasonerComponent reasoner,
+														 String[] positives, String[] negatives) throws ComponentInitException {
+		PosNegLPStandard lp = new PosNegLPStandard(reasoner, getIndividuals(positives), getIndividuals(negatives));
+		lp.init();
+		return lp;
+	}
+
+	private static SortedSet<OWLIndividual> getIndividuals(String[] names) {
+		OWLDataFactory df = OWLManager.getOWLDataFactory();
+		SortedSet<OWLIndividual> individuals = new TreeSet<>();
+		for (String name : names) {
+			individuals.add(df.getOWLNamedIndividual(IRI.create(NS + name)));
+		}
+		return individuals;
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.celoe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.dllearner.learningproblems.PosNegLPStandard;
+import org.dllearner.reasoning.ClosedWorldReasoner;
+import org.dllearner.refinementoperators.RhoDRDown;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLQuantifiedObjectRestriction;
+
+/**
+ * Tests that PCELOE finds the definition of the father example, with and
+ * without work stealing.
+ *
+ * @author Lorenz Buehmann
+ */
+public class PCELOETest {
+
+	private static ClosedWorldReasoner reasoner;
+	private static PosNegLPStandard lp;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		reasoner = FatherFixtures.createReasoner();
+		lp = FatherFixtures.createLearningProblem(reasoner, FatherFixtures.FATHERS, FatherFixtures.NON_FATHERS);
+	}
+
+	private PCELOE createAlgorithm(boolean useWorkStealing) throws Exception {
+		PCELOE la = new PCELOE(lp, reasoner);
+		la.setNrOfThreads(4);
+		la.setUseWorkStealing(useWorkStealing);
+		la.setMaxExecutionTimeInSeconds(60);
+		return la;
+	}
+
+	private void testFindsDefinition(boolean useWorkStealing) throws Exception {
+		PCELOE la = createAlgorithm(useWorkStealing);
+		la.setStopOnFirstDefinition(true);
+		la.init();
+		la.start();
+
+		assertFalse(la.isRunning());
+		assertEquals(1.0, la.getCurrentlyBestAccuracy(), 0.0);
+		// male and hasChild some Thing
+		assertEquals(1.0, lp.getAccuracyOrTooWeak(la.getCurrentlyBestDescription(), 0), 0.0);
+	}
+
+	@Test
+	public void testFindsDefinition() throws Exception {
+		testFindsDefinition(false);
+	}
+
+	@Test
+	public void testFindsDefinitionWithWorkStealing() throws Exception {
+		testFindsDefinition(true);
+	}
+
+	@Test
+	public void testMaxClassExpressionTestsWithWorkStealing() throws Exception {
+		PCELOE la = createAlgorithm(true);
+		la.setMaxClassExpressionTests(50);
+		la.init();
+		long start = System.currentTimeMillis();
+		la.start();
+
+		// the criterion is checked before each evaluation, thus running evaluations can exceed the limit
+		assertTrue(la.getClassExpressionTests() >= 50);
+		assertTrue(System.currentTimeMillis() - start < 60_000);
+	}
+
+	/**
+	 * The workers refine with copies of the operator, which have to keep its configuration.
+	 */
+	@Test
+	public void testOperatorOptionsWithWorkStealing() throws Exception {
+		// the persons having a parent can only be defined compactly by an inverse property
+		PosNegLPStandard childLp = FatherFixtures.createLearningProblem(reasoner,
+				new String[]{"markus", "anna", "heinz"}, new String[]{"stefan", "martin", "michelle"});
+
+		RhoDRDown op = new RhoDRDown();
+		op.setReasoner(reasoner);
+		op.setUseInverse(true);
+		op.init();
+
+		PCELOE la = new PCELOE(childLp, reasoner);
+		la.setOperator(op);
+		la.setNrOfThreads(4);
+		la.setUseWorkStealing(true);
+		la.setStopOnFirstDefinition(true);
+		la.setMaxClassExpressionTests(2000);
+		la.setMaxExecutionTimeInSeconds(60);
+		la.init();
+		la.start();
+
+		// (inverse hasChild) some Thing
+		OWLClassExpression definition = la.getCurrentlyBestDescription();
+		assertEquals(1.0, la.getCurrentlyBestAccuracy(), 0.0);
+		assertTrue(definition.toString(), definition.getNestedClassExpressions().stream()
+				.filter(ce -> ce instanceof OWLQuantifiedObjectRestriction)
+				.anyMatch(ce -> ((OWLQuantifiedObjectRestriction) ce).getProperty().isAnonymous()));
+	}
+}
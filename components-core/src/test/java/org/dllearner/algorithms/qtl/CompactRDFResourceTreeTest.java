@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.qtl;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.dllearner.algorithms.qtl.datastructures.impl.CompactRDFResourceTree;
+import org.dllearner.algorithms.qtl.datastructures.impl.CompactTreeFactory;
+import org.dllearner.algorithms.qtl.datastructures.impl.RDFResourceTree;
+import org.dllearner.algorithms.qtl.operations.lgg.LGGGeneratorSimple;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Lorenz Buehmann
+ */
+public class CompactRDFResourceTreeTest {
+
+	private static final String NS = "http://example.com/test#";
+
+	private List<RDFResourceTree> trees;
+	private CompactTreeFactory factory;
+
+	@Before
+	public void setUp() throws Exception {
+		trees = QueryTreeFixtures.getFatherTrees(2);
+		factory = new CompactTreeFactory();
+	}
+
+	@Test
+	public void testConversion() {
+		for (RDFResourceTree tree : trees) {
+			CompactRDFResourceTree compactTree = factory.fromRDFResourceTree(tree);
+
+			// identical trees are the same object
+			assertSame(compactTree, factory.fromRDFResourceTree(tree));
+
+			RDFResourceTree convertedTree = compactTree.toRDFResourceTree();
+			assertTrue(QueryTreeUtils.sameTrees(tree, convertedTree));
+			assertEquals(QueryTreeUtils.toOWLClassExpression(tree), QueryTreeUtils.toOWLClassExpression(compactTree));
+		}
+	}
+
+	@Test
+	public void testSubsumption() {
+		assertSameSubsumption(trees);
+	}
+
+	/**
+	 * The LGGs of the trees have variable roots and nested variable nodes.
+	 */
+	@Test
+	public void testSubsumptionVariableRoots() {
+		assertSameSubsumption(withLGGs(trees));
+	}
+
+	@Test
+	public void testSubsumptionLiterals() {
+		String data = "@prefix : <" + NS + "> . @prefix xsd: <http://www.w3.org/2001/XMLSchema#> ."
+				+ ":a :r :b ; :age 30 ; :name \"a\" ."
+				+ ":b :s :c ; :age 40 ; :name \"b\"@en ."
+				+ ":c :name \"c\"@en ; :date \"2016-01-01\"^^xsd:date ."
+				+ ":d :r :e ; :age \"30\"^^xsd:int ; :name \"a\" ."
+				+ ":e :s :c ; :t :f ; :age 40 ."
+				+ ":f :age 30 ; :date \"2016-01-02\"^^xsd:date .";
+		Model model = ModelFactory.createDefaultModel();
+		RDFDataMgr.read(model, new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), Lang.TURTLE);
+
+		List<RDFResourceTree> literalTrees = withLGGs(QueryTreeFixtures.getTrees(model, 3));
+
+		// ?x :age [xsd:integer]
+		RDFResourceTree integerAge = new RDFResourceTree();
+		integerAge.addChild(new RDFResourceTree(XSDDatatype.XSDinteger), uri("age"));
+		// ?x :age [] without datatype
+		RDFResourceTree anyAge = new RDFResourceTree();
+		anyAge.addChild(RDFResourceTree.newLiteralNode(), uri("age"));
+		// ?x :r (?y :age [])
+		RDFResourceTree nestedAnyAge = new RDFResourceTree();
+		nestedAnyAge.addChild(new RDFResourceTree(anyAge), uri("r"));
+		// ?x :age 30
+		RDFResourceTree age30 = new RDFResourceTree();
+		age30.addChild(new RDFResourceTree(NodeFactory.createLiteral("30", XSDDatatype.XSDinteger)), uri("age"));
+		// ?x :r (?y :s (?z :date [xsd:date]))
+		RDFResourceTree date = new RDFResourceTree();
+		date.addChild(new RDFResourceTree(XSDDatatype.XSDdate), uri("date"));
+		RDFResourceTree s = new RDFResourceTree();
+		s.addChild(date, uri("s"));
+		RDFResourceTree nestedDate = new RDFResourceTree();
+		nestedDate.addChild(s, uri("r"));
+
+		literalTrees.add(integerAge);
+		literalTrees.add(anyAge);
+		literalTrees.add(nestedAnyAge);
+		literalTrees.add(age30);
+		literalTrees.add(nestedDate);
+		literalTrees.add(new RDFResourceTree());
+
+		assertSameSubsumption(literalTrees);
+
+		RDFResourceTree a = QueryTreeFixtures.getTrees(model, 3).stream()
+				.filter(t -> t.getData().equals(uri("a")))
+				.findFirst().get();
+		assertSubsumption(true, a, anyAge);
+		assertSubsumption(true, a, age30);
+		assertSubsumption(true, a, nestedAnyAge);
+		assertSubsumption(true, age30, anyAge);
+		assertSubsumption(true, nestedAnyAge, new RDFResourceTree());
+		// the datatypes of literal nodes have to match
+		assertSubsumption(false, a, integerAge);
+		assertSubsumption(false, integerAge, anyAge);
+		assertSubsumption(false, anyAge, integerAge);
+		// a literal value is more specific than a literal node
+		assertSubsumption(false, anyAge, age30);
+		// a variable root is not subsumed by a resource
+		assertSubsumption(false, integerAge, a);
+		assertSubsumption(false, nestedAnyAge, a);
+	}
+
+	private void assertSubsumption(boolean expected, RDFResourceTree tree1, RDFResourceTree tree2) {
+		assertEquals(expected, QueryTreeUtils.isSubsumedBy(tree1, tree2));
+		assertEquals(expected, QueryTreeUtils.isSubsumedBy(factory.fromRDFResourceTree(tree1),
+														   factory.fromRDFResourceTree(tree2)));
+	}
+
+	private void assertSameSubsumption(List<RDFResourceTree> queryTrees) {
+		for (RDFResourceTree tree1 : queryTrees) {
+			CompactRDFResourceTree compactTree1 = factory.fromRDFResourceTree(tree1);
+			for (RDFResourceTree tree2 : queryTrees) {
+				assertEquals(QueryTreeUtils.isSubsumedBy(tree1, tree2),
+							 QueryTreeUtils.isSubsumedBy(compactTree1, factory.fromRDFResourceTree(tree2)));
+			}
+		}
+	}
+
+	/*
+	 * Returns the trees together with the LGGs of all pairs of them.
+	 */
+	private static List<RDFResourceTree> withLGGs(List<RDFResourceTree> queryTrees) {
+		LGGGeneratorSimple lggGenerator = new LGGGeneratorSimple();
+		List<RDFResourceTree> result = new ArrayList<>(queryTrees);
+		for (int i = 0; i < queryTrees.size(); i++) {
+			for (int j = i + 1; j < queryTrees.size(); j++) {
+				result.add(lggGenerator.getLGG(queryTrees.get(i), queryTrees.get(j)));
+			}
+		}
+		return result;
+	}
+
+	private static Node uri(String localName) {
+		return NodeFactory.createURI(NS + localName);
+	}
+
+	@Test
+	public void testLGG() {
+		LGGGeneratorSimple lggGenerator = new LGGGeneratorSimple();
+		for (int i = 0; i < trees.size(); i++) {
+			for (int j = i + 1; j < trees.size(); j++) {
+				RDFResourceTree lgg = lggGenerator.getLGG(trees.get(i), trees.get(j));
+				CompactRDFResourceTree compactLGG = lggGenerator.getLGG(
+						factory.fromRDFResourceTree(trees.get(i)),
+						factory.fromRDFResourceTree(trees.get(j)));
+
+				assertTrue(QueryTreeUtils.sameTrees(lgg, compactLGG.toRDFResourceTree()));
+			}
+		}
+	}
+}
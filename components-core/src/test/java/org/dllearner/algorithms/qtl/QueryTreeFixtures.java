@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.qtl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.dllearner.algorithms.qtl.datastructures.impl.RDFResourceTree;
+import org.dllearner.algorithms.qtl.impl.QueryTreeFactory;
+import org.dllearner.algorithms.qtl.impl.QueryTreeFactoryBase;
+
+/**
+ * Some query trees to simplify unit tests.
+ *
+ * @author Lorenz Buehmann
+ */
+public final class QueryTreeFixtures {
+
+	public static final String FATHER_OE = "../examples/family/father_oe.owl";
+
+	private QueryTreeFixtures() {}
+
+	/**
+	 * @return the RDF model of the father ontology
+	 */
+	public static Model getFatherModel() {
+		return RDFDataMgr.loadModel(FATHER_OE, Lang.RDFXML);
+	}
+
+	/**
+	 * @param maxDepth the max. depth of the trees
+	 * @return the query trees of all URI subjects of the father ontology
+	 */
+	public static List<RDFResourceTree> getFatherTrees(int maxDepth) {
+		return getTrees(getFatherModel(), maxDepth);
+	}
+
+	/**
+	 * @param model the model
+	 * @param maxDepth the max. depth of the trees
+	 * @return the query trees of all URI subjects of the model
+	 */
+	public static List<RDFResourceTree> getTrees(Model model, int maxDepth) {
+		QueryTreeFactory treeFactory = new QueryTreeFactoryBase();
+		List<RDFResourceTree> trees = new ArrayList<>();
+		for (Resource r : model.listSubjects().toList()) {
+			if (r.isURIResource()) {
+				trees.add(treeFactory.getQueryTree(r, model, maxDepth));
+			}
+		}
+		return trees;
+	}
+}
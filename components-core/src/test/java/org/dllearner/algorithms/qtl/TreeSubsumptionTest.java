@@ -18,16 +18,23 @@
  */
 package org.dllearner.algorithms.qtl;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.FileInputStream;
+import java.util.List;
 
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.riot.Lang;
 import org.dllearner.algorithms.qtl.datastructures.impl.QueryTreeImpl;
 import org.dllearner.algorithms.qtl.datastructures.impl.QueryTreeImpl.NodeType;
+import org.dllearner.algorithms.qtl.datastructures.impl.RDFResourceTree;
+import org.dllearner.algorithms.qtl.datastructures.impl.TreeSignature;
 import org.dllearner.algorithms.qtl.impl.QueryTreeFactory;
 import org.dllearner.algorithms.qtl.impl.QueryTreeFactoryBase;
+import org.dllearner.algorithms.qtl.operations.lgg.LGGGeneratorSimple;
 import org.junit.Test;
 
 import org.apache.jena.ontology.Individual;
@@ -119,4 +126,56 @@ public class TreeSubsumptionTest{
 		assertFalse(QueryTreeUtils.isSubsumedBy(tree2, tree1));
 	}
 
+	@Test
+	public void signatureTest() throws Exception {
+		List<RDFResourceTree> trees = QueryTreeFixtures.getFatherTrees(2);
+		// the LGGs contain variable nodes
+		LGGGeneratorSimple lggGenerator = new LGGGeneratorSimple();
+		int nrOfTrees = trees.size();
+		for (int i = 0; i < nrOfTrees; i++) {
+			for (int j = i + 1; j < nrOfTrees; j++) {
+				trees.add(lggGenerator.getLGG(trees.get(i), trees.get(j)));
+			}
+		}
+
+		// the signatures must never reject a subsumption or an equivalence
+		int rejected = 0;
+		for (RDFResourceTree tree1 : trees) {
+			TreeSignature signature1 = TreeSignature.of(tree1);
+			for (RDFResourceTree tree2 : trees) {
+				TreeSignature signature2 = TreeSignature.of(tree2);
+				boolean subsumed = QueryTreeUtils.isSubsumedBy(tree1, tree2);
+				if (subsumed) {
+					assertTrue(signature1.mayBeSubsumedBy(signature2));
+				} else if (!signature1.mayBeSubsumedBy(signature2)) {
+					rejected++;
+				}
+				if (subsumed && QueryTreeUtils.isSubsumedBy(tree2, tree1)) {
+					assertTrue(signature1.mayBeEquivalentTo(signature2));
+					assertEquals(signature1.getEquivalenceHash(), signature2.getEquivalenceHash());
+				}
+			}
+		}
+		assertTrue(rejected > 0);
+	}
+
+	@Test
+	public void signatureRedundantChildrenTest() throws Exception {
+		Node edge = NodeFactory.createURI("http://example.com/p");
+		RDFResourceTree tree1 = new RDFResourceTree();
+		tree1.addChild(new RDFResourceTree(), edge);
+
+		// the second child is redundant
+		RDFResourceTree tree2 = new RDFResourceTree();
+		tree2.addChild(new RDFResourceTree(), edge);
+		tree2.addChild(new RDFResourceTree(), edge);
+
+		assertTrue(QueryTreeUtils.isSubsumedBy(tree1, tree2));
+		assertTrue(QueryTreeUtils.isSubsumedBy(tree2, tree1));
+		TreeSignature signature1 = TreeSignature.of(tree1);
+		TreeSignature signature2 = TreeSignature.of(tree2);
+		assertTrue(signature1.mayBeEquivalentTo(signature2));
+		assertEquals(signature1.getEquivalenceHash(), signature2.getEquivalenceHash());
+	}
+
 }
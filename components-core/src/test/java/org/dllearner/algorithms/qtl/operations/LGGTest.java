@@ -31,6 +31,7 @@ import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.riot.WebContent;
 import org.apache.jena.sparql.engine.http.QueryEngineHTTP;
+import org.dllearner.algorithms.qtl.QueryTreeFixtures;
 import org.dllearner.algorithms.qtl.QueryTreeUtils;
 import org.dllearner.algorithms.qtl.datastructures.impl.RDFResourceTree;
 import org.dllearner.algorithms.qtl.experiments.datasets.DBpediaEvaluationDataset;
@@ -56,6 +57,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -274,4 +276,43 @@ public class LGGTest {
 		System.out.println(lgg.getStringRepresentation(true));
 	}
 
+	@Test
+	public void testMemoizedParallelLGG() {
+		LGGGeneratorSimple sequentialLGGGen = new LGGGeneratorSimple();
+		sequentialLGGGen.setUseMemoization(false);
+
+		LGGGeneratorSimple parallelLGGGen = new LGGGeneratorSimple();
+		parallelLGGGen.setNrOfThreads(4);
+
+		assertSameLGGs(sequentialLGGGen, parallelLGGGen, QueryTreeFixtures.getFatherTrees(3));
+	}
+
+	@Test
+	public void testMemoizedParallelLGGRDFS() throws ComponentInitException {
+		AbstractReasonerComponent fatherReasoner = new SPARQLReasoner(QueryTreeFixtures.getFatherModel());
+		fatherReasoner.init();
+
+		LGGGeneratorRDFS sequentialLGGGen = new LGGGeneratorRDFS(fatherReasoner);
+		sequentialLGGGen.setUseMemoization(false);
+
+		// the reasoner is called concurrently
+		LGGGeneratorRDFS parallelLGGGen = new LGGGeneratorRDFS(fatherReasoner);
+		parallelLGGGen.setNrOfThreads(4);
+		parallelLGGGen.setForkDepth(3);
+
+		assertSameLGGs(sequentialLGGGen, parallelLGGGen, QueryTreeFixtures.getFatherTrees(3));
+	}
+
+	private static void assertSameLGGs(LGGGenerator expectedLGGGen, LGGGenerator actualLGGGen, List<RDFResourceTree> trees) {
+		for (int i = 0; i < trees.size(); i++) {
+			for (int j = i + 1; j < trees.size(); j++) {
+				RDFResourceTree lgg = expectedLGGGen.getLGG(trees.get(i), trees.get(j));
+				RDFResourceTree lgg2 = actualLGGGen.getLGG(trees.get(i), trees.get(j));
+
+				assertEquals(QueryTreeUtils.getNrOfNodes(lgg), QueryTreeUtils.getNrOfNodes(lgg2));
+				assertTrue(QueryTreeUtils.sameTrees(lgg, lgg2));
+			}
+		}
+	}
+
 }
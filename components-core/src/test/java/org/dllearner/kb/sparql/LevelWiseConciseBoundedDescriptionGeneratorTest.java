@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import org.aksw.jena_sparql_api.model.QueryExecutionFactoryModel;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.vocabulary.OWL2;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Lorenz Buehmann
+ */
+public class LevelWiseConciseBoundedDescriptionGeneratorTest {
+
+	@Test
+	public void testSameCBDs() {
+		Model model = RDFDataMgr.loadModel("../examples/family/father_oe.owl", Lang.RDFXML);
+		List<Resource> individuals = model.listSubjectsWithProperty(RDF.type, OWL2.NamedIndividual).toList();
+
+		ConciseBoundedDescriptionGenerator cbdGen = new ConciseBoundedDescriptionGeneratorImpl(
+				new QueryExecutionFactoryModel(model));
+		LevelWiseConciseBoundedDescriptionGenerator levelWiseCBDGen = new LevelWiseConciseBoundedDescriptionGenerator(
+				new QueryExecutionFactoryModel(model));
+		levelWiseCBDGen.setBatchSize(2);
+
+		for (int depth = 1; depth <= 3; depth++) {
+			for (boolean withTypesForLeafs : new boolean[]{false, true}) {
+				for (Resource ind : individuals) {
+					Model cbd = cbdGen.getConciseBoundedDescription(ind.getURI(), depth, withTypesForLeafs);
+					Model cbd2 = levelWiseCBDGen.getConciseBoundedDescription(ind.getURI(), depth, withTypesForLeafs);
+					assertTrue(cbd.isIsomorphicWith(cbd2));
+				}
+			}
+		}
+
+		// the CBDs of multiple resources
+		Set<String> resources = individuals.stream().map(Resource::getURI).collect(Collectors.toSet());
+		levelWiseCBDGen.clear();
+		Model cbds = levelWiseCBDGen.getConciseBoundedDescription(resources, 2);
+		assertTrue(cbdGen.getConciseBoundedDescription(resources, 2).isIsomorphicWith(cbds));
+
+		// all triples have been retrieved before
+		int nrOfTriples = levelWiseCBDGen.getNrOfTriples();
+		levelWiseCBDGen.getConciseBoundedDescription(resources, 2);
+		assertEquals(nrOfTriples, levelWiseCBDGen.getNrOfTriples());
+	}
+
+	@Test
+	public void testConcurrentBoundedCBDs() throws Exception {
+		Model model = RDFDataMgr.loadModel("../examples/family/father_oe.owl", Lang.RDFXML);
+		List<Resource> individuals = model.listSubjectsWithProperty(RDF.type, OWL2.NamedIndividual).toList();
+
+		ConciseBoundedDescriptionGenerator cbdGen = new ConciseBoundedDescriptionGeneratorImpl(
+				new QueryExecutionFactoryModel(model));
+		LevelWiseConciseBoundedDescriptionGenerator levelWiseCBDGen = new LevelWiseConciseBoundedDescriptionGenerator(
+				new QueryExecutionFactoryModel(model));
+		levelWiseCBDGen.setBatchSize(2);
+		// the shared graph is cleared all the time
+		levelWiseCBDGen.setMaxNrOfTriples(10);
+
+		ExecutorService es = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				for (Resource ind : individuals) {
+					futures.add(es.submit(() -> cbdGen.getConciseBoundedDescription(ind.getURI(), 3, true)
+							.isIsomorphicWith(levelWiseCBDGen.getConciseBoundedDescription(ind.getURI(), 3, true))));
+				}
+			}
+			for (Future<Boolean> future : futures) {
+				assertTrue(future.get());
+			}
+		} finally {
+			es.shutdownNow();
+		}
+
+		// the graph is cleared before the next computation, thus, it contains only the new CBD
+		Model cbd = levelWiseCBDGen.getConciseBoundedDescription(individuals.get(0).getURI(), 1, false);
+		assertEquals(cbd.size(), levelWiseCBDGen.getNrOfTriples());
+	}
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.aksw.jena_sparql_api.core.QueryExecutionFactoryDecorator;
+import org.aksw.jena_sparql_api.model.QueryExecutionFactoryModel;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Lorenz Buehmann
+ */
+public class PartitionedSampleLoaderTest {
+
+	/**
+	 * Counts the CONSTRUCT queries and optionally rejects queries using the MD5 function.
+	 */
+	private static class TestQueryExecutionFactory extends QueryExecutionFactoryDecorator {
+
+		private final boolean md5Supported;
+		private final AtomicInteger constructQueries = new AtomicInteger();
+
+		TestQueryExecutionFactory(QueryExecutionFactory decoratee, boolean md5Supported) {
+			super(decoratee);
+			this.md5Supported = md5Supported;
+		}
+
+		@Override
+		public QueryExecution createQueryExecution(Query query) {
+			check(query.toString());
+			if (query.isConstructType()) {
+				constructQueries.incrementAndGet();
+			}
+			return super.createQueryExecution(query);
+		}
+
+		@Override
+		public QueryExecution createQueryExecution(String queryString) {
+			return createQueryExecution(QueryFactory.create(queryString));
+		}
+
+		private void check(String queryString) {
+			if (!md5Supported && queryString.contains("MD5")) {
+				throw new IllegalArgumentException("Unknown function MD5");
+			}
+		}
+	}
+
+	@Test
+	public void testLoad() {
+		Model model = RDFDataMgr.loadModel("../examples/family/father_oe.owl", Lang.RDFXML);
+		Query query = QueryFactory.create("CONSTRUCT {?s ?p ?o} WHERE {?s ?p ?o}");
+
+		try (PartitionedSampleLoader loader = new PartitionedSampleLoader(new QueryExecutionFactoryModel(model))) {
+			loader.setPageSize(5);
+
+			// partitioned, and each partition paged
+			Model sample = loader.load(query, 0);
+			assertTrue(model.isIsomorphicWith(sample));
+
+			// the same query returns the same sample
+			assertSame(sample, loader.load(query, 0));
+
+			// not partitioned
+			loader.clear();
+			loader.setPartitionPrefixLength(0);
+			assertTrue(model.isIsomorphicWith(loader.load(query, 0)));
+		}
+	}
+
+	@Test
+	public void testCacheLimitAndClose() {
+		Model model = RDFDataMgr.loadModel("../examples/family/father_oe.owl", Lang.RDFXML);
+		Query query = QueryFactory.create("CONSTRUCT {?s ?p ?o} WHERE {?s ?p ?o}");
+
+		// the sample exceeds the max. cache size
+		try (PartitionedSampleLoader loader = new PartitionedSampleLoader(new QueryExecutionFactoryModel(model), model.size() - 1)) {
+			Model sample = loader.load(query, 0);
+			assertTrue(model.isIsomorphicWith(sample));
+			assertNotSame(sample, loader.load(query, 0));
+
+			// the loader can be used again after it was closed
+			loader.close();
+			assertTrue(model.isIsomorphicWith(loader.load(query, 0)));
+		}
+	}
+
+	@Test
+	public void testLastPage() {
+		Model model = RDFDataMgr.loadModel("../examples/family/father_oe.owl", Lang.RDFXML);
+		Query query = QueryFactory.create("CONSTRUCT {?s ?p ?o} WHERE {?s ?p ?o}");
+
+		TestQueryExecutionFactory qef = new TestQueryExecutionFactory(new QueryExecutionFactoryModel(model), true);
+		try (PartitionedSampleLoader loader = new PartitionedSampleLoader(qef, 0)) {
+			loader.setPartitionPrefixLength(0);
+
+			// a page which is not full is the last one
+			loader.setPageSize(model.size() + 1);
+			assertTrue(model.isIsomorphicWith(loader.load(query, 0)));
+			assertEquals(1, qef.constructQueries.get());
+
+			// a full page is followed by an empty one
+			qef.constructQueries.set(0);
+			loader.setPageSize(model.size());
+			assertTrue(model.isIsomorphicWith(loader.load(query, 0)));
+			assertEquals(2, qef.constructQueries.get());
+		}
+	}
+
+	@Test
+	public void testWithoutMD5() {
+		Model model = RDFDataMgr.loadModel("../examples/family/father_oe.owl", Lang.RDFXML);
+		Query query = QueryFactory.create("CONSTRUCT {?s ?p ?o} WHERE {?s ?p ?o}");
+
+		TestQueryExecutionFactory qef = new TestQueryExecutionFactory(new QueryExecutionFactoryModel(model), false);
+		try (PartitionedSampleLoader loader = new PartitionedSampleLoader(qef, 0)) {
+			loader.setPageSize(model.size() + 1);
+
+			// the query is not partitioned
+			assertTrue(model.isIsomorphicWith(loader.load(query, 0)));
+			assertEquals(1, qef.constructQueries.get());
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.aksw.jena_sparql_api.model.QueryExecutionFactoryModel;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSetFormatter;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.Test;
+
+/**
+ * @author Lorenz Buehmann
+ */
+public class QueryExecutionFactoryConcurrencyLimitTest {
+
+	@Test
+	public void testMaxResultRows() {
+		Model model = RDFDataMgr.loadModel("../examples/family/father_oe.owl", Lang.RDFXML);
+		QueryExecutionFactoryConcurrencyLimit qef = new QueryExecutionFactoryConcurrencyLimit(
+				new QueryExecutionFactoryModel(model), 1, 5);
+
+		try (QueryExecution qe = qef.createQueryExecution("SELECT * WHERE {?s ?p ?o} LIMIT 5")) {
+			assertEquals(5, ResultSetFormatter.consume(qe.execSelect()));
+		}
+		assertEquals(1, qef.getAvailablePermits());
+
+		try (QueryExecution qe = qef.createQueryExecution("SELECT * WHERE {?s ?p ?o}")) {
+			qe.execSelect();
+			fail("result with more rows than allowed was copied");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		// the permit is released although the query failed
+		assertEquals(1, qef.getAvailablePermits());
+	}
+}
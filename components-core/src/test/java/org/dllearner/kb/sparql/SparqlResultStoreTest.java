@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.aksw.jena_sparql_api.model.QueryExecutionFactoryModel;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSetFactory;
+import org.apache.jena.query.ResultSetRewindable;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.resultset.ResultSetCompare;
+import org.junit.Test;
+
+/**
+ * Tests for the SPARQL result store and the query execution factory using it.
+ *
+ * @author Lorenz Buehmann
+ */
+public class SparqlResultStoreTest {
+
+	private static final String SELECT_QUERY = "SELECT * WHERE {?s ?p ?o} ORDER BY ?s ?p ?o";
+	private static final String ASK_QUERY = "ASK {?s a <http://example.com/father#male>}";
+	private static final String CONSTRUCT_QUERY = "CONSTRUCT {?s ?p ?o} WHERE {?s ?p ?o}";
+
+	@Test
+	public void testCachedResults() throws IOException {
+		Model model = RDFDataMgr.loadModel("../examples/family/father_oe.owl", Lang.RDFXML);
+		QueryExecutionFactory qef = new QueryExecutionFactoryModel(model);
+		Path file = Files.createTempDirectory("sparql-cache").resolve("results");
+
+		try (SparqlResultStore store = new SparqlResultStore(file, TimeUnit.DAYS.toMillis(1), 1 << 20)) {
+			QueryExecutionFactoryResultStore cachingQef = new QueryExecutionFactoryResultStore(qef, store);
+			// the first run fills the cache, the second one reads from the cache
+			for (int i = 0; i < 2; i++) {
+				checkResults(qef, cachingQef);
+			}
+			assertEquals(3, cachingQef.getCacheHits());
+			assertEquals(3, cachingQef.getCacheMisses());
+		}
+
+		// the entries are still available after reopening the store
+		try (SparqlResultStore store = new SparqlResultStore(file, TimeUnit.DAYS.toMillis(1), 1 << 20)) {
+			assertEquals(3, store.getNrOfEntries());
+			QueryExecutionFactoryResultStore cachingQef = new QueryExecutionFactoryResultStore(qef, store);
+			checkResults(qef, cachingQef);
+			assertEquals(3, cachingQef.getCacheHits());
+		}
+	}
+
+	private void checkResults(QueryExecutionFactory qef, QueryExecutionFactory cachingQef) {
+		try (QueryExecution qe = qef.createQueryExecution(SELECT_QUERY);
+			 QueryExecution cachingQe = cachingQef.createQueryExecution(SELECT_QUERY)) {
+			ResultSetRewindable expected = ResultSetFactory.copyResults(qe.execSelect());
+			ResultSetRewindable actual = ResultSetFactory.copyResults(cachingQe.execSelect());
+			assertTrue(expected.size() > 0);
+			assertTrue(ResultSetCompare.equalsByTermAndOrder(expected, actual));
+		}
+		try (QueryExecution qe = qef.createQueryExecution(ASK_QUERY);
+			 QueryExecution cachingQe = cachingQef.createQueryExecution(ASK_QUERY)) {
+			assertEquals(qe.execAsk(), cachingQe.execAsk());
+		}
+		try (QueryExecution qe = qef.createQueryExecution(CONSTRUCT_QUERY);
+			 QueryExecution cachingQe = cachingQef.createQueryExecution(CONSTRUCT_QUERY)) {
+			assertTrue(qe.execConstruct().isIsomorphicWith(cachingQe.execConstruct()));
+		}
+	}
+
+	@Test
+	public void testCompaction() throws IOException {
+		Path file = Files.createTempDirectory("sparql-cache").resolve("results");
+		int maxSize = 10000;
+		byte[] value = new byte[100];
+
+		try (SparqlResultStore store = new SparqlResultStore(file, 0, maxSize)) {
+			for (int i = 0; i < 1000; i++) {
+				value[0] = (byte) i;
+				store.put("key" + i, value);
+				assertTrue(store.getSizeInBytes() <= maxSize);
+			}
+			// the most recent entries are kept
+			assertEquals((byte) 999, store.get("key999")[0]);
+			assertNull(store.get("key0"));
+		}
+	}
+
+	@Test
+	public void testSharedStore() throws IOException {
+		Path file = Files.createTempDirectory("sparql-cache").resolve("results");
+
+		SparqlResultStore store = SparqlResultStore.open(file, 0, 1 << 20);
+		try (SparqlResultStore sharedStore = SparqlResultStore.open(file.getParent().resolve("./results"), 0, 1 << 20)) {
+			assertSame(store, sharedStore);
+			sharedStore.put("key", new byte[]{1});
+		}
+		// still open for the first user
+		assertEquals(1, store.get("key")[0]);
+		store.close();
+
+		// the file is not locked anymore
+		try (SparqlResultStore reopenedStore = SparqlResultStore.open(file, 0, 1 << 20)) {
+			assertEquals(1, reopenedStore.get("key")[0]);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testLocked() throws IOException {
+		Path file = Files.createTempDirectory("sparql-cache").resolve("results");
+		try (SparqlResultStore store = SparqlResultStore.open(file, 0, 1 << 20)) {
+			new SparqlResultStore(file, 0, 1 << 20).close();
+		}
+	}
+
+	@Test
+	public void testConcurrentWriters() throws Exception {
+		Path file = Files.createTempDirectory("sparql-cache").resolve("results");
+		int nrOfThreads = 4;
+		int nrOfEntries = 500;
+		// small enough to be compacted while writing
+		int maxSize = 100000;
+
+		ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < nrOfThreads; t++) {
+				String prefix = "thread" + t + "-";
+				futures.add(executor.submit(() -> {
+					// each writer uses the store like a separate knowledge source
+					try (SparqlResultStore store = SparqlResultStore.open(file, 0, maxSize)) {
+						for (int i = 0; i < nrOfEntries; i++) {
+							byte[] value = (prefix + i).getBytes();
+							store.put(prefix + i, value);
+							byte[] cached = store.get(prefix + i);
+							// the entry might already have been removed by a compaction
+							if (cached != null) {
+								assertEquals(prefix + i, new String(cached));
+							}
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// the file is consistent, i.e. each indexed entry can be read after reopening it
+		try (SparqlResultStore store = SparqlResultStore.open(file, 0, maxSize)) {
+			assertTrue(store.getSizeInBytes() <= maxSize);
+			int nrOfEntriesFound = 0;
+			for (int t = 0; t < nrOfThreads; t++) {
+				for (int i = 0; i < nrOfEntries; i++) {
+					String key = "thread" + t + "-" + i;
+					byte[] cached = store.get(key);
+					if (cached != null) {
+						assertEquals(key, new String(cached));
+						nrOfEntriesFound++;
+					}
+				}
+			}
+			assertTrue(nrOfEntriesFound > 0);
+			assertEquals(store.getNrOfEntries(), nrOfEntriesFound);
+		}
+	}
+}
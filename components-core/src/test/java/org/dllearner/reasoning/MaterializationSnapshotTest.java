@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.TreeSet;
+
+import org.dllearner.kb.OWLAPIOntology;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * Tests the binary snapshot of the materialization of the {@link ClosedWorldReasoner}.
+ *
+ * @author Lorenz Buehmann
+ */
+public class MaterializationSnapshotTest {
+
+	private static final String NS = "http://dl-learner.org/test/";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final OWLDataFactory df = OWLManager.getOWLDataFactory();
+
+	private Materialization createMaterialization() {
+		Materialization mat = new Materialization();
+		OWLIndividual a = df.getOWLNamedIndividual(IRI.create(NS + "a"));
+		OWLIndividual b = df.getOWLNamedIndividual(IRI.create(NS + "b"));
+		mat.individuals.add(a);
+		mat.individuals.add(b);
+		OWLClass cls = df.getOWLClass(IRI.create(NS + "A"));
+		mat.classInstancesPos.put(cls, new TreeSet<>(Collections.singleton(a)));
+		mat.classInstancesNeg.put(cls, new TreeSet<>(Collections.singleton(b)));
+		mat.opPos.put(df.getOWLObjectProperty(IRI.create(NS + "p")),
+				Collections.singletonMap(a, new TreeSet<>(Collections.singleton(b))));
+		return mat;
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		Materialization mat = createMaterialization();
+		File file = folder.newFile("test.mat");
+		MaterializationSnapshot.write(mat, file);
+
+		Materialization result = MaterializationSnapshot.read(file);
+		assertEquals(mat.individuals, result.individuals);
+		assertEquals(mat.classInstancesPos, result.classInstancesPos);
+		assertEquals(mat.classInstancesNeg, result.classInstancesNeg);
+		assertEquals(mat.opPos, result.opPos);
+	}
+
+	@Test
+	public void testTruncatedSnapshot() throws Exception {
+		File file = folder.newFile("truncated.mat");
+		MaterializationSnapshot.write(createMaterialization(), file);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() / 2);
+		}
+		assertRejected(file);
+	}
+
+	@Test
+	public void testCorruptSnapshot() throws Exception {
+		File file = folder.newFile("corrupt.mat");
+		MaterializationSnapshot.write(createMaterialization(), file);
+		// overwrite the number of individuals at the beginning of the body
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(8);
+			raf.writeInt(Integer.MAX_VALUE);
+		}
+		assertRejected(file);
+	}
+
+	@Test
+	public void testCorruptDictionaryOffset() throws Exception {
+		File file = folder.newFile("corrupt.mat");
+		MaterializationSnapshot.write(createMaterialization(), file);
+		// overwrite the offset of the dictionary in front of the checksum
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(raf.length() - 16);
+			raf.writeLong(Long.MAX_VALUE);
+		}
+		assertRejected(file);
+	}
+
+	/**
+	 * A failure of the cache must not prevent the initialization of the reasoner.
+	 */
+	@Test
+	public void testUnwritableCache() throws Exception {
+		// a file instead of a directory
+		File cacheDir = folder.newFile("cache");
+
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		OWLOntology ont = man.createOntology(IRI.create(NS + "ontology"));
+		man.addAxiom(ont, df.getOWLClassAssertionAxiom(
+				df.getOWLClass(IRI.create(NS + "A")), df.getOWLNamedIndividual(IRI.create(NS + "a"))));
+
+		OWLAPIOntology ks = new OWLAPIOntology(ont);
+		ks.init();
+		ClosedWorldReasoner reasoner = new ClosedWorldReasoner(ks);
+		reasoner.setUseMaterializationCaching(true);
+		reasoner.setMaterializationCacheDirectory(new File(cacheDir, "sub").getPath());
+		reasoner.init();
+
+		assertEquals(1, reasoner.getIndividuals().size());
+	}
+
+	@Test
+	public void testKeyOfInMemoryOntologies() throws Exception {
+		// same ontology ID, axiom counts and signature, but different axioms
+		OWLOntologyManager man1 = OWLManager.createOWLOntologyManager();
+		OWLOntology ont1 = man1.createOntology(IRI.create(NS + "ontology"));
+		man1.addAxiom(ont1, df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "A")), df.getOWLClass(IRI.create(NS + "B"))));
+		OWLOntologyManager man2 = OWLManager.createOWLOntologyManager();
+		OWLOntology ont2 = man2.createOntology(IRI.create(NS + "ontology"));
+		man2.addAxiom(ont2, df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "B")), df.getOWLClass(IRI.create(NS + "A"))));
+
+		assertNotEquals(
+				MaterializationSnapshot.computeKey(ont1, Collections.emptyList()),
+				MaterializationSnapshot.computeKey(ont2, Collections.emptyList()));
+	}
+
+	private void assertRejected(File file) {
+		try {
+			MaterializationSnapshot.read(file);
+			fail("Invalid snapshot has been read.");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+}
@@ -27,11 +27,14 @@ import org.dllearner.core.AbstractKnowledgeSource;
 import org.dllearner.core.AbstractReasonerComponent;
 import org.dllearner.core.ComponentInitException;
 import org.dllearner.kb.OWLAPIOntology;
+import org.dllearner.learningproblems.ExampleCoverage;
+import org.dllearner.learningproblems.PosNegLPStandard;
 import org.dllearner.learningproblems.PosOnlyLP;
 import org.dllearner.reasoning.ClosedWorldReasoner;
 import org.junit.Test;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLIndividual;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -96,4 +99,50 @@ public class LearningProblemTest {
 		assertEquals(lp.getAccuracyOrTooWeak(nc[2], 1.0), 0d, 0.000000001d); // P=0, R=0 
 	}
 
+	@Test
+	public void posNegLPIncrementalCoverageTest() throws ComponentInitException, OWLOntologyCreationException {
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		OWLDataFactory df = man.getOWLDataFactory();
+		OWLOntology kb = man.createOntology();
+		PrefixManager pm = new DefaultPrefixManager();
+		pm.setDefaultPrefix("http://dl-learner.org/junit/");
+		OWLClass a0 = df.getOWLClass("A0", pm);
+		OWLClass a1 = df.getOWLClass("A1", pm);
+		OWLIndividual[] ind = new OWLIndividual[10];
+		for(int i=0; i<10; i++) {
+			ind[i] = df.getOWLNamedIndividual("i" + i, pm);
+			man.addAxiom(kb, df.getOWLClassAssertionAxiom(df.getOWLThing(), ind[i]));
+		}
+		for(int i : new int[]{0, 1, 2, 5, 6}) {
+			man.addAxiom(kb, df.getOWLClassAssertionAxiom(a0, ind[i]));
+		}
+		for(int i : new int[]{0, 1, 5, 7}) {
+			man.addAxiom(kb, df.getOWLClassAssertionAxiom(a1, ind[i]));
+		}
+
+		AbstractReasonerComponent reasoner = new ClosedWorldReasoner(new OWLAPIOntology(kb));
+		reasoner.init();
+
+		PosNegLPStandard lp = new PosNegLPStandard(reasoner);
+		lp.setPositiveExamples(Sets.newHashSet(ind[0], ind[1], ind[2], ind[3], ind[4]));
+		lp.setNegativeExamples(Sets.newHashSet(ind[5], ind[6], ind[7], ind[8], ind[9]));
+		lp.init();
+
+		ExampleCoverage parent = lp.getCoverageOrTooWeak(a0, null, 1.0);
+		assertEquals(lp.getAccuracyOrTooWeak(a0, 1.0), parent.getAccuracy(), 0.000000001d);
+		assertEquals(3, parent.getCoveredPositives().cardinality());
+		assertEquals(2, parent.getCoveredNegatives().cardinality());
+
+		// the refinement is only checked against the examples covered by the parent
+		OWLClassExpression child = df.getOWLObjectIntersectionOf(a0, a1);
+		ExampleCoverage coverage = lp.getCoverageOrTooWeak(child, parent, 1.0);
+		assertEquals(lp.getAccuracyOrTooWeak(child, 1.0), coverage.getAccuracy(), 0.000000001d);
+		assertEquals(2, coverage.getCoveredPositives().cardinality());
+		assertEquals(1, coverage.getCoveredNegatives().cardinality());
+
+		// too weak without noise
+		assertEquals(-1, lp.getCoverageOrTooWeak(child, parent, 0.0).getAccuracy(), 0.000000001d);
+		assertEquals(-1, lp.getAccuracyOrTooWeak(child, 0.0), 0.000000001d);
+	}
+
 }
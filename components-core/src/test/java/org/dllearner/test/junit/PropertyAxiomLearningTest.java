@@ -42,7 +42,9 @@ import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
@@ -251,6 +253,80 @@ public class PropertyAxiomLearningTest {
 		System.out.println(l.getCurrentlyBestEvaluatedAxioms(nrOfAxioms));
 	}
 	
+	@Test
+	public void testSharedScanStatistics() throws Exception {
+		List<AxiomType<? extends OWLAxiom>> axiomTypes = new ArrayList<>();
+		axiomTypes.add(AxiomType.FUNCTIONAL_OBJECT_PROPERTY);
+		axiomTypes.add(AxiomType.INVERSE_FUNCTIONAL_OBJECT_PROPERTY);
+		axiomTypes.add(AxiomType.SYMMETRIC_OBJECT_PROPERTY);
+		axiomTypes.add(AxiomType.ASYMMETRIC_OBJECT_PROPERTY);
+		axiomTypes.add(AxiomType.REFLEXIVE_OBJECT_PROPERTY);
+		axiomTypes.add(AxiomType.IRREFLEXIVE_OBJECT_PROPERTY);
+		axiomTypes.add(AxiomType.TRANSITIVE_OBJECT_PROPERTY);
+		axiomTypes.add(AxiomType.OBJECT_PROPERTY_DOMAIN);
+		axiomTypes.add(AxiomType.OBJECT_PROPERTY_RANGE);
+
+		for (OWLObjectProperty op : new OWLObjectProperty[]{op1, op2}) {
+			PropertyStatistics statistics = new PropertyStatistics(
+					op, ((LocalModelBasedSparqlEndpointKS) ks).getModel(), ks.getQueryExecutionFactory());
+
+			for (AxiomType<? extends OWLAxiom> axiomType : axiomTypes) {
+				List<EvaluatedAxiom> expected = runAlgorithm(axiomType, op, null);
+				List<EvaluatedAxiom> actual = runAlgorithm(axiomType, op, statistics);
+
+				assertEquals(axiomType.getName(), expected.size(), actual.size());
+				for (int i = 0; i < expected.size(); i++) {
+					assertEquals(axiomType.getName(), expected.get(i).getAxiom(), actual.get(i).getAxiom());
+					assertEquals(axiomType.getName(), expected.get(i).getScore().getAccuracy(), actual.get(i).getScore().getAccuracy(), 0d);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSharedScanFallback() throws Exception {
+		Set<AxiomType<? extends OWLAxiom>> axiomTypes = new HashSet<>();
+		axiomTypes.add(AxiomType.FUNCTIONAL_OBJECT_PROPERTY);
+		axiomTypes.add(AxiomType.SYMMETRIC_OBJECT_PROPERTY);
+		axiomTypes.add(AxiomType.OBJECT_PROPERTY_DOMAIN);
+
+		MultiPropertyAxiomLearner withScan = new MultiPropertyAxiomLearner(ks);
+		withScan.setEntityToDescribe(op1);
+		withScan.setAxiomTypes(axiomTypes);
+		withScan.start();
+
+		// the property has more triples than allowed for the shared scan
+		MultiPropertyAxiomLearner withoutScan = new MultiPropertyAxiomLearner(ks);
+		withoutScan.setEntityToDescribe(op1);
+		withoutScan.setAxiomTypes(axiomTypes);
+		withoutScan.setMaxSharedScanTriples(0);
+		withoutScan.start();
+
+		for (AxiomType<? extends OWLAxiom> axiomType : axiomTypes) {
+			List<EvaluatedAxiom<OWLAxiom>> expected = withoutScan.getCurrentlyBestEvaluatedAxioms(axiomType);
+			List<EvaluatedAxiom<OWLAxiom>> actual = withScan.getCurrentlyBestEvaluatedAxioms(axiomType);
+
+			assertEquals(axiomType.getName(), expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(axiomType.getName(), expected.get(i).getAxiom(), actual.get(i).getAxiom());
+				assertEquals(axiomType.getName(), expected.get(i).getScore().getAccuracy(), actual.get(i).getScore().getAccuracy(), 0d);
+			}
+		}
+	}
+
+	private List<EvaluatedAxiom> runAlgorithm(AxiomType<? extends OWLAxiom> axiomType, OWLObjectProperty op,
+											  PropertyStatistics statistics) throws Exception {
+		Constructor<? extends PropertyAxiomLearner> constructor = AxiomAlgorithms.getAlgorithmClass(axiomType)
+				.asSubclass(PropertyAxiomLearner.class).getConstructor(SparqlEndpointKS.class);
+		PropertyAxiomLearner l = constructor.newInstance(ks);
+		l.setEntityToDescribe(op);
+		l.setUseSampling(false);
+		l.setStatistics(statistics);
+		l.init();
+		l.start();
+		return l.getCurrentlyBestEvaluatedAxioms();
+	}
+	
 	/*
 	 * data property axioms
 	 */
@@ -18,15 +18,23 @@
  */
 package org.dllearner.test.junit;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.collect.Sets;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
 import org.dllearner.core.ComponentInitException;
+import org.dllearner.core.ReasoningStatistics;
 import org.dllearner.kb.OWLFile;
 import org.dllearner.reasoning.ClosedWorldReasoner;
+import org.dllearner.reasoning.SPARQLReasoner;
 import org.junit.Test;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLIndividual;
 import org.semanticweb.owlapi.model.OWLObjectIntersectionOf;
@@ -35,6 +43,16 @@ import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
 
 import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 /**
  * 
  * @author Jens Lehmann
@@ -68,4 +86,256 @@ public class ReasonerTest {
 			
 	}
 	
+	@Test
+	public void bitSetRetrievalTest() throws ComponentInitException {
+		OWLFile file = new OWLFile("../examples/family/father_oe.owl");
+		file.init();
+		ClosedWorldReasoner reasoner = new ClosedWorldReasoner();
+		reasoner.setSources(file);
+		reasoner.init();
+
+		ClosedWorldReasoner bitSetReasoner = new ClosedWorldReasoner();
+		bitSetReasoner.setSources(file);
+		bitSetReasoner.setUseBitSetRetrieval(true);
+		bitSetReasoner.init();
+
+		OWLDataFactory df = new OWLDataFactoryImpl();
+		List<OWLClassExpression> expressions = new ArrayList<>();
+		expressions.add(df.getOWLThing());
+		expressions.add(df.getOWLNothing());
+		for (OWLClass cls : reasoner.getClasses()) {
+			expressions.add(cls);
+			expressions.add(df.getOWLObjectComplementOf(cls));
+			for (OWLClass cls2 : reasoner.getClasses()) {
+				expressions.add(df.getOWLObjectIntersectionOf(cls, cls2));
+				expressions.add(df.getOWLObjectUnionOf(cls, df.getOWLObjectComplementOf(cls2)));
+			}
+			for (OWLObjectProperty op : reasoner.getObjectProperties()) {
+				expressions.add(df.getOWLObjectSomeValuesFrom(op, cls));
+				expressions.add(df.getOWLObjectSomeValuesFrom(op.getInverseProperty(), cls));
+				expressions.add(df.getOWLObjectAllValuesFrom(op, cls));
+				expressions.add(df.getOWLObjectMinCardinality(2, op, cls));
+				expressions.add(df.getOWLObjectMaxCardinality(1, op, cls));
+				expressions.add(df.getOWLObjectIntersectionOf(cls, df.getOWLObjectSomeValuesFrom(op, df.getOWLThing())));
+			}
+		}
+
+		for (OWLClassExpression ce : expressions) {
+			assertEquals(ce.toString(), reasoner.getIndividuals(ce), bitSetReasoner.getIndividuals(ce));
+			assertEquals(ce.toString(),
+					reasoner.getIndividuals(ce).size(),
+					bitSetReasoner.getIndividualsCount(ce, reasoner.getIndividuals()));
+		}
+	}
+
+	@Test
+	public void retrievalCacheTest() throws ComponentInitException {
+		OWLFile file = new OWLFile("../examples/family/father_oe.owl");
+		file.init();
+		ClosedWorldReasoner reasoner = new ClosedWorldReasoner();
+		reasoner.setSources(file);
+		reasoner.init();
+
+		ClosedWorldReasoner cachingReasoner = new ClosedWorldReasoner();
+		cachingReasoner.setSources(file);
+		cachingReasoner.setUseRetrievalCache(true);
+		cachingReasoner.init();
+
+		// the operands are retrieved first, such that the conjunctions and
+		// disjunctions are computed from the cached operands
+		OWLDataFactory df = new OWLDataFactoryImpl();
+		List<OWLClassExpression> expressions = new ArrayList<>();
+		for (OWLClass cls : reasoner.getClasses()) {
+			expressions.add(cls);
+			for (OWLObjectProperty op : reasoner.getObjectProperties()) {
+				expressions.add(df.getOWLObjectSomeValuesFrom(op, cls));
+			}
+		}
+		for (OWLClass cls : reasoner.getClasses()) {
+			for (OWLClass cls2 : reasoner.getClasses()) {
+				expressions.add(df.getOWLObjectUnionOf(cls, cls2));
+				for (OWLObjectProperty op : reasoner.getObjectProperties()) {
+					expressions.add(df.getOWLObjectIntersectionOf(cls, df.getOWLObjectSomeValuesFrom(op, cls2)));
+				}
+			}
+		}
+
+		for (int i = 0; i < 2; i++) {
+			for (OWLClassExpression ce : expressions) {
+				assertEquals(ce.toString(), reasoner.getIndividuals(ce), cachingReasoner.getIndividuals(ce));
+			}
+		}
+		assertTrue(cachingReasoner.getRetrievalCacheStatistics().getCacheHitRatio() >= 0.5);
+
+		// modifying a result must not affect the cache
+		OWLClass cls = reasoner.getClasses().iterator().next();
+		cachingReasoner.getIndividuals(cls).clear();
+		assertEquals(reasoner.getIndividuals(cls), cachingReasoner.getIndividuals(cls));
+	}
+
+	@Test
+	public void batchedSPARQLCountTest() throws ComponentInitException {
+		Model model = RDFDataMgr.loadModel("../examples/family/father_oe.owl", Lang.RDFXML);
+		SPARQLReasoner reasoner = new SPARQLReasoner(model);
+		reasoner.setUseValueLists(true);
+		// force multiple queries
+		reasoner.setValueListsBatchSize(3);
+		reasoner.init();
+
+		OWLDataFactory df = new OWLDataFactoryImpl();
+		String ns = "http://example.com/father#";
+		OWLClass male = df.getOWLClass(IRI.create(ns + "male"));
+		OWLClass female = df.getOWLClass(IRI.create(ns + "female"));
+		OWLObjectProperty hasChild = df.getOWLObjectProperty(IRI.create(ns + "hasChild"));
+		List<OWLClassExpression> expressions = Arrays.asList(
+				df.getOWLThing(),
+				male,
+				female,
+				df.getOWLObjectSomeValuesFrom(hasChild, df.getOWLThing()),
+				df.getOWLObjectIntersectionOf(male, df.getOWLObjectSomeValuesFrom(hasChild, df.getOWLThing())),
+				df.getOWLObjectIntersectionOf(female, df.getOWLObjectSomeValuesFrom(hasChild, male)),
+				df.getOWLObjectUnionOf(male, female));
+
+		Set<OWLIndividual> pos = Sets.newHashSet(
+				df.getOWLNamedIndividual(IRI.create(ns + "stefan")),
+				df.getOWLNamedIndividual(IRI.create(ns + "markus")),
+				df.getOWLNamedIndividual(IRI.create(ns + "martin")));
+		Set<OWLIndividual> neg = Sets.newHashSet(
+				df.getOWLNamedIndividual(IRI.create(ns + "heinz")),
+				df.getOWLNamedIndividual(IRI.create(ns + "anna")),
+				df.getOWLNamedIndividual(IRI.create(ns + "michelle")));
+
+		// the counts of the batched queries must be the same as for single queries
+		for (int run = 0; run < 2; run++) {
+			int[][] counts = reasoner.getIndividualsCounts(expressions, Arrays.asList(pos, neg));
+			for (int i = 0; i < expressions.size(); i++) {
+				assertEquals(expressions.get(i).toString(), reasoner.getIndividualsCount(expressions.get(i), pos), counts[i][0]);
+				assertEquals(expressions.get(i).toString(), reasoner.getIndividualsCount(expressions.get(i), neg), counts[i][1]);
+			}
+		}
+	}
+
+	@Test
+	public void retrievalCacheWithoutDefaultNegationTest() throws ComponentInitException {
+		OWLFile file = new OWLFile("../examples/family/father_oe.owl");
+		file.init();
+		ClosedWorldReasoner reasoner = new ClosedWorldReasoner();
+		reasoner.setSources(file);
+		reasoner.setDefaultNegation(false);
+		reasoner.setForAllSemantics(ClosedWorldReasoner.ForallSemantics.Standard);
+		reasoner.init();
+
+		ClosedWorldReasoner cachingReasoner = new ClosedWorldReasoner();
+		cachingReasoner.setSources(file);
+		cachingReasoner.setDefaultNegation(false);
+		cachingReasoner.setForAllSemantics(ClosedWorldReasoner.ForallSemantics.Standard);
+		cachingReasoner.setUseRetrievalCache(true);
+		cachingReasoner.init();
+
+		// each expression is directly followed by its negation normal form, which
+		// must not be answered from the cache entry of the expression
+		OWLDataFactory df = new OWLDataFactoryImpl();
+		List<OWLClassExpression> expressions = new ArrayList<>();
+		for (OWLClass cls : reasoner.getClasses()) {
+			for (OWLObjectProperty op : reasoner.getObjectProperties()) {
+				expressions.add(df.getOWLObjectComplementOf(df.getOWLObjectSomeValuesFrom(op, cls)));
+				expressions.add(df.getOWLObjectAllValuesFrom(op, df.getOWLObjectComplementOf(cls)));
+			}
+			for (OWLClass cls2 : reasoner.getClasses()) {
+				expressions.add(df.getOWLObjectComplementOf(df.getOWLObjectIntersectionOf(cls, cls2)));
+				expressions.add(df.getOWLObjectUnionOf(df.getOWLObjectComplementOf(cls), df.getOWLObjectComplementOf(cls2)));
+			}
+		}
+
+		for (OWLClassExpression ce : expressions) {
+			assertEquals(ce.toString(), reasoner.getIndividuals(ce), cachingReasoner.getIndividuals(ce));
+		}
+	}
+
+	@Test
+	public void parallelMaterializationTest() throws ComponentInitException {
+		OWLFile file = new OWLFile("../examples/family/father_oe.owl");
+		file.init();
+		ClosedWorldReasoner reasoner = new ClosedWorldReasoner();
+		reasoner.setSources(file);
+		reasoner.init();
+
+		ClosedWorldReasoner parallelReasoner = new ClosedWorldReasoner();
+		parallelReasoner.setSources(file);
+		parallelReasoner.setNrOfMaterializationThreads(4);
+		parallelReasoner.init();
+
+		for (OWLClass cls : reasoner.getClasses()) {
+			assertEquals(reasoner.getIndividuals(cls), parallelReasoner.getIndividuals(cls));
+		}
+		for (OWLObjectProperty op : reasoner.getObjectProperties()) {
+			assertEquals(reasoner.getPropertyMembers(op), parallelReasoner.getPropertyMembers(op));
+		}
+	}
+
+	@Test
+	public void materializationSnapshotTest() throws Exception {
+		OWLFile file = new OWLFile("../examples/family/father_oe.owl");
+		file.init();
+		File cacheDir = Files.createTempDirectory("dllearner-cache").toFile();
+
+		ClosedWorldReasoner reasoner = new ClosedWorldReasoner();
+		reasoner.setSources(file);
+		reasoner.setUseMaterializationCaching(true);
+		reasoner.setMaterializationCacheDirectory(cacheDir.getPath());
+		reasoner.init();
+		assertEquals(1, cacheDir.listFiles().length);
+
+		// the second reasoner loads the snapshot
+		ClosedWorldReasoner cachedReasoner = new ClosedWorldReasoner();
+		cachedReasoner.setSources(file);
+		cachedReasoner.setUseMaterializationCaching(true);
+		cachedReasoner.setMaterializationCacheDirectory(cacheDir.getPath());
+		cachedReasoner.init();
+
+		assertEquals(reasoner.getIndividuals(), cachedReasoner.getIndividuals());
+		for (OWLClass cls : reasoner.getClasses()) {
+			assertEquals(reasoner.getIndividuals(cls), cachedReasoner.getIndividuals(cls));
+		}
+		for (OWLObjectProperty op : reasoner.getObjectProperties()) {
+			assertEquals(reasoner.getPropertyMembers(op), cachedReasoner.getPropertyMembers(op));
+		}
+	}
+
+	@Test
+	public void reasoningStatisticsTest() throws Exception {
+		OWLFile file = new OWLFile("../examples/family/father_oe.owl");
+		file.init();
+		ClosedWorldReasoner reasoner = new ClosedWorldReasoner();
+		reasoner.setSources(file);
+		reasoner.init();
+		reasoner.resetStatistics();
+
+		OWLClass cls = reasoner.getClasses().iterator().next();
+
+		// concurrent calls must not get lost
+		int nrOfThreads = 4;
+		int nrOfCalls = 100;
+		ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+		for (int i = 0; i < nrOfThreads; i++) {
+			executor.submit(() -> {
+				for (int j = 0; j < nrOfCalls; j++) {
+					reasoner.getIndividuals(cls);
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+
+		ReasoningStatistics.OperationStatistics stats = reasoner.getStatistics().get(ReasoningStatistics.Operation.RETRIEVAL);
+		assertEquals(nrOfThreads * nrOfCalls, reasoner.getNrOfRetrievals());
+		assertEquals(nrOfThreads * nrOfCalls, Arrays.stream(stats.getHistogram()).sum());
+		assertEquals((long) (nrOfThreads * nrOfCalls), reasoner.getStatistics().export().get("retrieval.calls"));
+
+		// nothing is recorded if disabled
+		reasoner.setCollectStatistics(false);
+		reasoner.getIndividuals(cls);
+		assertEquals(nrOfThreads * nrOfCalls, reasoner.getNrOfRetrievals());
+	}
+
 }
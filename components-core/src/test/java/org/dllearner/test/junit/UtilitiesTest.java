@@ -18,16 +18,30 @@
  */
 package org.dllearner.test.junit;
 
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.dllearner.core.AbstractReasonerComponent;
 import org.dllearner.test.junit.TestOntologies.TestOntology;
 import org.dllearner.utilities.learn.UsedEntitiesDetection;
+import org.dllearner.utilities.owl.OWLClassExpressionUtils;
 import org.junit.Test;
 import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.util.MaximumModalDepthFinder;
 
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 import uk.ac.manchester.cs.owl.owlapi.OWLNamedIndividualImpl;
 
 /**
@@ -47,5 +61,32 @@ public class UtilitiesTest {
 		UsedEntitiesDetection detection = new UsedEntitiesDetection(reasoner, individuals, maxDepth);
 		System.out.println(detection);
 	}
+
+	@Test
+	public void classExpressionLengthAndDepth() throws Exception {
+		OWLDataFactory df = new OWLDataFactoryImpl();
+		OWLClass a = df.getOWLClass(IRI.create("http://localhost/foo#A"));
+		OWLClass b = df.getOWLClass(IRI.create("http://localhost/foo#B"));
+		OWLObjectProperty r = df.getOWLObjectProperty(IRI.create("http://localhost/foo#r"));
+		// A and (r some (r some B))
+		OWLClassExpression ce = df.getOWLObjectIntersectionOf(a,
+				df.getOWLObjectSomeValuesFrom(r, df.getOWLObjectSomeValuesFrom(r, b)));
+
+		int[] expected = {7, ce.accept(new MaximumModalDepthFinder()), 2};
+
+		// the values are computed once and must be the same for concurrent callers
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<int[]>> futures = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			futures.add(executor.submit(() -> new int[]{
+					OWLClassExpressionUtils.getLength(ce),
+					OWLClassExpressionUtils.getDepth(ce),
+					OWLClassExpressionUtils.getArity(ce)}));
+		}
+		for (Future<int[]> future : futures) {
+			assertArrayEquals(expected, future.get());
+		}
+		executor.shutdown();
+	}
 	
 }
@@ -1,26 +1,35 @@
 package org.dllearner.algorithms.isle.index;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.apache.log4j.Logger;
 import org.dllearner.algorithms.isle.metrics.RelevanceMetric;
 import org.dllearner.algorithms.isle.metrics.RelevanceUtils;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntology;
 
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hashing;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
 /**
  * Interface for an index which is able to resolve a given entity's URI to the set of documents containing
@@ -34,59 +43,133 @@ public abstract class RelevanceMapGenerator {
     private static final Logger logger = Logger.getLogger(RelevanceMapGenerator.class);
     public static String cacheDirectory = "cache/relevance";
     
-    public static synchronized Map<OWLEntity, Double> generateRelevanceMap(OWLClass cls, OWLOntology ontology, RelevanceMetric relevanceMetric, boolean cached){
-    	logger.info("Relevance Metric: " + relevanceMetric.getClass().getSimpleName());
-    	Map<OWLEntity, Double> relevanceMap = null;
+    // header of the cache files, the version has to be increased if the format changes
+    private static final int MAGIC_NUMBER = 0x524D4150;
+    private static final int VERSION = 1;
+    
+    private static final OWLDataFactory df = new OWLDataFactoryImpl();
+    
+    public static Map<OWLEntity, Double> generateRelevanceMap(OWLClass cls, OWLOntology ontology, RelevanceMetric relevanceMetric, boolean cached){
+    	List<RelevanceMetric> relevanceMetrics = new ArrayList<>();
+    	relevanceMetrics.add(relevanceMetric);
+    	return generateRelevanceMaps(cls, ontology, relevanceMetrics, cached).get(relevanceMetric);
+    }
+    
+    /**
+     * Returns the relevance maps of the class for all given metrics. Maps which are not cached are computed
+     * in a single pass, i.e. the document frequencies are shared among the metrics.
+     * @param cls
+     * @param ontology
+     * @param relevanceMetrics
+     * @param cached whether to load the maps from and to write them to the cache directory
+     * @return
+     */
+    public static Map<RelevanceMetric, Map<OWLEntity, Double>> generateRelevanceMaps(OWLClass cls, OWLOntology ontology, List<RelevanceMetric> relevanceMetrics, boolean cached){
+    	Map<RelevanceMetric, Map<OWLEntity, Double>> metric2Map = new LinkedHashMap<>();
     	File folder = new File(cacheDirectory);
     	folder.mkdirs();
-    	File file = null;
-		try {
-			file = new File(folder, URLEncoder.encode(cls.toStringID() + "-" + relevanceMetric.getClass().getSimpleName(), "UTF-8") + ".rel");
-		} catch (UnsupportedEncodingException e2) {
-			e2.printStackTrace();
-		}
-    	if(cached && file.exists()){
-    		try {
-    			logger.info("Loading relevance map from disk...");
-				ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file));
-				relevanceMap = (Map<OWLEntity, Double>) ois.readObject();
-				ois.close();
-				logger.info("...done.");
-			} catch (Exception e) {
-				e.printStackTrace();
-			} 
-    	} else {
-    		logger.info("Building relevance map...");
-    		relevanceMap = RelevanceUtils.getRelevantEntities(cls, ontology, relevanceMetric);
-    		try {
-    			ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file));
-    			oos.writeObject(relevanceMap);
-    			oos.close();
-    		} catch (IOException e1) {
-    			e1.printStackTrace();
+    	
+    	List<RelevanceMetric> missingMetrics = new ArrayList<>();
+    	for (RelevanceMetric relevanceMetric : relevanceMetrics) {
+    		logger.info("Relevance Metric: " + relevanceMetric.getClass().getSimpleName());
+    		File file = getCacheFile(folder, cls, relevanceMetric);
+    		if(cached && file.exists()){
+    			try {
+    				logger.info("Loading relevance map from disk...");
+    				metric2Map.put(relevanceMetric, read(file));
+    				logger.info("...done.");
+    				continue;
+    			} catch (IOException e) {
+    				logger.warn("Failed to load relevance map from " + file + ", computing it again.", e);
+    			}
+    		}
+    		missingMetrics.add(relevanceMetric);
+    	}
+    	
+    	if(!missingMetrics.isEmpty()){
+    		logger.info("Building relevance maps...");
+    		long start = System.currentTimeMillis();
+    		Map<RelevanceMetric, Map<OWLEntity, Double>> computed = RelevanceUtils.getRelevantEntities(cls, ontology, missingMetrics);
+    		long end = System.currentTimeMillis();
+    		logger.info("Operation took " + (end - start) + "ms");
+    		for (RelevanceMetric relevanceMetric : missingMetrics) {
+    			Map<OWLEntity, Double> relevanceMap = computed.get(relevanceMetric);
+    			metric2Map.put(relevanceMetric, relevanceMap);
+    			if(cached){
+    				try {
+    					write(relevanceMap, getCacheFile(folder, cls, relevanceMetric));
+    				} catch (IOException e) {
+    					logger.error("Failed to write relevance map to disk.", e);
+    				}
+    			}
     		}
     		logger.info("...done.");
     	}
-    	return relevanceMap;
-    }
-    
-    public static Map<RelevanceMetric, Map<OWLEntity, Double>> generateRelevanceMaps(OWLClass cls, OWLOntology ontology, List<RelevanceMetric> relevanceMetrics, boolean cached){
-    	Map<RelevanceMetric, Map<OWLEntity, Double>> metric2Map = new LinkedHashMap<>();
+    	
+    	// keep the order of the given metrics
+    	Map<RelevanceMetric, Map<OWLEntity, Double>> result = new LinkedHashMap<>();
     	for (RelevanceMetric relevanceMetric : relevanceMetrics) {
-    		try {
-    			long start = System.currentTimeMillis();
-    			metric2Map.put(relevanceMetric, generateRelevanceMap(cls, ontology, relevanceMetric, cached));
-    			long end = System.currentTimeMillis();
-    			logger.info("Operation took " + (end - start) + "ms");
-				
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
-    	return metric2Map;
+    		result.put(relevanceMetric, metric2Map.get(relevanceMetric));
+    	}
+    	return result;
     }
     
     public static Map<OWLEntity, Double> generateRelevanceMap(OWLClass cls, OWLOntology ontology, RelevanceMetric relevanceMetric){
     	return generateRelevanceMap(cls, ontology, relevanceMetric, false);
     }
+    
+    private static File getCacheFile(File folder, OWLClass cls, RelevanceMetric relevanceMetric) {
+    	try {
+    		return new File(folder, URLEncoder.encode(cls.toStringID() + "-" + relevanceMetric.getClass().getSimpleName(), "UTF-8") + ".relmap");
+    	} catch (UnsupportedEncodingException e) {
+    		throw new RuntimeException(e);
+    	}
+    }
+    
+    /*
+     * Writes the map to a temporary file which is then moved to the target file, thus concurrent readers
+     * never see a partially written map.
+     */
+    static void write(Map<OWLEntity, Double> relevanceMap, File file) throws IOException {
+    	Path tmp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+    	try {
+    		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+    			out.writeInt(MAGIC_NUMBER);
+    			out.writeInt(VERSION);
+    			out.writeInt(relevanceMap.size());
+    			for (Entry<OWLEntity, Double> entry : relevanceMap.entrySet()) {
+    				out.writeUTF(entry.getKey().getEntityType().getName());
+    				out.writeUTF(entry.getKey().toStringID());
+    				out.writeDouble(entry.getValue());
+    			}
+    		}
+    		Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    	} finally {
+    		Files.deleteIfExists(tmp);
+    	}
+    }
+    
+    static Map<OWLEntity, Double> read(File file) throws IOException {
+    	Map<String, EntityType<?>> entityTypes = new HashMap<>();
+    	for (EntityType<?> entityType : EntityType.values()) {
+    		entityTypes.put(entityType.getName(), entityType);
+    	}
+    	try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+    		if(in.readInt() != MAGIC_NUMBER || in.readInt() != VERSION){
+    			throw new IOException("Unsupported relevance map format in " + file);
+    		}
+    		int size = in.readInt();
+    		Map<OWLEntity, Double> relevanceMap = new HashMap<>(size * 4 / 3 + 1);
+    		for (int i = 0; i < size; i++) {
+    			EntityType<?> entityType = entityTypes.get(in.readUTF());
+    			IRI iri = IRI.create(in.readUTF());
+    			double value = in.readDouble();
+    			if(entityType == null){
+    				throw new IOException("Unknown entity type in " + file);
+    			}
+    			relevanceMap.put(df.getOWLEntity(entityType, iri), value);
+    		}
+    		return relevanceMap;
+    	}
+    }
 }
@@ -73,11 +73,12 @@ public class SemanticIndex extends HashMap<OWLEntity, Set<AnnotatedDocument>> im
 	@Override
 	public long getNumberOfDocumentsFor(OWLEntity... entities) {
 		
-		Set<AnnotatedDocument> documents = getDocuments(entities[0]);
+		// work on a copy, otherwise the documents of the first entity would be modified
+		Set<AnnotatedDocument> documents = new HashSet<>(getDocuments(entities[0]));
 		for (int i = 1; i < entities.length; i++) {
 			documents.retainAll(getDocuments(entities[i]));
 		}
-		return 0;
+		return documents.size();
 	}
 
 }
@@ -5,24 +5,37 @@ package org.dllearner.algorithms.isle.index.syntactic;
 
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
+import org.apache.log4j.Logger;
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
-import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BitSetIterator;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RoaringDocIdSet;
 import org.dllearner.algorithms.isle.TextDocumentGenerator;
 import org.dllearner.algorithms.isle.index.AnnotatedDocument;
 import org.dllearner.algorithms.isle.index.AnnotatedTextDocument;
@@ -34,27 +47,62 @@ import org.dllearner.algorithms.isle.textretrieval.RDFSLabelEntityTextRetriever;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntology;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
+ * A syntactic index based on Lucene. All tokens of the relevant text of an entity are
+ * combined into a single boolean query, and the IDs of the matching documents are
+ * collected without scoring and without loading any stored field. The document IDs are
+ * cached per entity, thus the number of documents containing multiple entities is
+ * computed as the intersection of the cached sets without any further query. The memory
+ * used by the cache is bounded, the least recently used sets are evicted first.
+ * 
  * @author Lorenz Buehmann
  *
  */
 public class LuceneSyntacticIndex implements Index {
 	
+	private static final Logger logger = Logger.getLogger(LuceneSyntacticIndex.class);
+	
+	/**
+	 * The default max. memory in bytes used by the cached document IDs.
+	 */
+	public static final long DEFAULT_MAX_CACHE_SIZE = 256L * 1024 * 1024;
+	
 	private IndexSearcher searcher;
-	private QueryParser parser;
+	private Analyzer analyzer;
 	private IndexReader indexReader;
 	private String searchField;
 	
+	// the IDs of the documents containing an entity, valid as long as the index reader is not changed
+	private final Cache<OWLEntity, RoaringDocIdSet> entity2DocIds;
+	
 	AnnotationEntityTextRetriever textRetriever;
 
-	public LuceneSyntacticIndex(OWLOntology ontology, IndexReader indexReader, String searchField) {
+	/**
+	 * @param ontology the ontology containing the relevant text of the entities
+	 * @param indexReader the reader of the Lucene index
+	 * @param searchField the field of the documents which is searched
+	 * @param maxCacheSize the max. memory in bytes used by the cached document IDs,
+	 *                     0 disables the cache
+	 */
+	public LuceneSyntacticIndex(OWLOntology ontology, IndexReader indexReader, String searchField, long maxCacheSize) {
 		this.indexReader = indexReader;
 		this.searchField = searchField;
 		searcher = new IndexSearcher(indexReader);
-		StandardAnalyzer analyzer = new StandardAnalyzer();
-		parser = new QueryParser(searchField, analyzer);
+		analyzer = new StandardAnalyzer();
 		
 		textRetriever = new RDFSLabelEntityTextRetriever(ontology);
+		
+		entity2DocIds = CacheBuilder.newBuilder()
+				.maximumWeight(maxCacheSize)
+				.weigher((OWLEntity entity, RoaringDocIdSet docIds) -> (int) Math.min(Integer.MAX_VALUE, Math.max(1, docIds.ramBytesUsed())))
+				.build();
+	}
+	
+	public LuceneSyntacticIndex(OWLOntology ontology, IndexReader indexReader, String searchField) {
+		this(ontology, indexReader, searchField, DEFAULT_MAX_CACHE_SIZE);
 	}
 	
 	public LuceneSyntacticIndex(OWLOntology ontology, Directory directory, String searchField) throws Exception {
@@ -72,27 +120,111 @@ public class LuceneSyntacticIndex implements Index {
 	public Set<AnnotatedDocument> getDocuments(OWLEntity entity) {
 		Set<AnnotatedDocument> documents = new HashSet<>();
 		
-		Map<List<Token>, Double> relevantText = textRetriever.getRelevantText(entity);
+		try {
+			DocIdSetIterator it = iterator(getDocumentIds(entity));
+			Set<String> fields = Collections.singleton(searchField);
+			for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+				Document document = searcher.doc(doc, fields);
+				documents.add(new AnnotatedTextDocument(
+						TextDocumentGenerator.getInstance().generateDocument(document.get(searchField)),
+						Collections.EMPTY_SET));
+			}
+		} catch (IOException e) {
+			logger.error("Failed to get the documents of " + entity, e);
+			throw new RuntimeException("Failed to get the documents of " + entity, e);
+		}
 		
-		for (Entry<List<Token>, Double> entry : relevantText.entrySet()) {
-			List<Token> tokens = entry.getKey();
+		return documents;
+	}
+	
+	/**
+	 * Returns the IDs of the documents which contain at least one token of the relevant text
+	 * of the entity. The result is cached as long as the cache size is not exceeded.
+	 * 
+	 * @param entity the entity
+	 * @return the IDs of the documents containing the entity
+	 * @throws IOException if the index could not be searched
+	 */
+	private RoaringDocIdSet getDocumentIds(OWLEntity entity) throws IOException {
+		try {
+			return entity2DocIds.get(entity, () -> search(entity));
+		} catch (ExecutionException e) {
+			// the search throws only I/O exceptions
+			throw (IOException) e.getCause();
+		}
+	}
+	
+	private RoaringDocIdSet search(OWLEntity entity) throws IOException {
+		// the query parser is not thread-safe, but cheap to create
+		QueryParser parser = new QueryParser(searchField, analyzer);
+		
+		Set<Query> queries = new HashSet<>();
+		for (List<Token> tokens : textRetriever.getRelevantText(entity).keySet()) {
 			for (Token token : tokens) {
 				try {
-					Query query = parser.parse(token.getRawForm());
-					ScoreDoc[] result = searcher.search(query, indexReader.numDocs()).scoreDocs;
-					for (ScoreDoc aResult : result) {
-						Document doc = searcher.doc(aResult.doc);
-						documents.add(new AnnotatedTextDocument(
-								TextDocumentGenerator.getInstance().generateDocument(doc.get(searchField)),
-								Collections.EMPTY_SET));
-					}
-				} catch (ParseException | IOException e) {
-					e.printStackTrace();
+					queries.add(parser.parse(token.getRawForm()));
+				} catch (ParseException e) {
+					logger.warn("Could not parse token " + token.getRawForm() + " of " + entity, e);
 				}
 			}
 		}
 		
-		return documents;
+		// a boolean query can have only a limited number of clauses, thus very long texts are split
+		List<Query> queryList = new ArrayList<>(queries);
+		int maxClauseCount = BooleanQuery.getMaxClauseCount();
+		DocIdCollector collector = new DocIdCollector(indexReader.maxDoc());
+		for (int i = 0; i < queryList.size(); i += maxClauseCount) {
+			BooleanQuery.Builder query = new BooleanQuery.Builder();
+			for (Query q : queryList.subList(i, Math.min(i + maxClauseCount, queryList.size()))) {
+				query.add(q, Occur.SHOULD);
+			}
+			searcher.search(query.build(), collector);
+		}
+		
+		// the bit set is only used during collection, the cached sets are compressed
+		RoaringDocIdSet.Builder builder = new RoaringDocIdSet.Builder(indexReader.maxDoc());
+		builder.add(new BitSetIterator(collector.docIds, collector.docIds.cardinality()));
+		return builder.build();
+	}
+	
+	/**
+	 * Collects the IDs of the matching documents without scoring them.
+	 */
+	private static class DocIdCollector extends SimpleCollector {
+		
+		private final FixedBitSet docIds;
+		private int docBase;
+		
+		DocIdCollector(int maxDoc) {
+			docIds = new FixedBitSet(maxDoc);
+		}
+		
+		@Override
+		protected void doSetNextReader(LeafReaderContext context) throws IOException {
+			docBase = context.docBase;
+		}
+		
+		@Override
+		public void collect(int doc) throws IOException {
+			docIds.set(docBase + doc);
+		}
+		
+		@Override
+		public ScoreMode scoreMode() {
+			return ScoreMode.COMPLETE_NO_SCORES;
+		}
+	}
+	
+	private static DocIdSetIterator iterator(DocIdSet docIds) throws IOException {
+		DocIdSetIterator it = docIds.iterator();
+		return it == null ? DocIdSetIterator.empty() : it;
+	}
+	
+	/**
+	 * Clears the cached document IDs of the entities, e.g. to free memory.
+	 */
+	public void clearCache() {
+		entity2DocIds.invalidateAll();
 	}
 
 	/* (non-Javadoc)
@@ -122,7 +254,11 @@ public class LuceneSyntacticIndex implements Index {
 	 */
 	@Override
 	public long getNumberOfDocumentsFor(OWLEntity entity) {
-		return 0;
+		try {
+			return getDocumentIds(entity).cardinality();
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to count the documents of " + entity, e);
+		}
 	}
 
 	/* (non-Javadoc)
@@ -130,7 +266,53 @@ public class LuceneSyntacticIndex implements Index {
 	 */
 	@Override
 	public long getNumberOfDocumentsFor(OWLEntity... entities) {
-		return 0;
+		try {
+			DocIdSetIterator[] iterators = new DocIdSetIterator[entities.length];
+			for (int i = 0; i < entities.length; i++) {
+				iterators[i] = iterator(getDocumentIds(entities[i]));
+			}
+			return intersectionCount(iterators);
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to count the documents of " + Arrays.toString(entities), e);
+		}
+	}
+	
+	/*
+	 * Counts the documents contained in all given sets by advancing the iterators in turns,
+	 * starting with the iterator of the smallest set.
+	 */
+	private static long intersectionCount(DocIdSetIterator... iterators) throws IOException {
+		if (iterators.length == 0) {
+			return 0;
+		}
+		Arrays.sort(iterators, Comparator.comparingLong(DocIdSetIterator::cost));
+		
+		long cnt = 0;
+		DocIdSetIterator lead = iterators[0];
+		int doc = lead.nextDoc();
+		while (doc != DocIdSetIterator.NO_MORE_DOCS) {
+			int target = doc;
+			for (int i = 1; i < iterators.length; i++) {
+				DocIdSetIterator other = iterators[i];
+				if (other.docID() < target) {
+					other.advance(target);
+				}
+				if (other.docID() > target) {
+					target = other.docID();
+					break;
+				}
+			}
+			if (target == DocIdSetIterator.NO_MORE_DOCS) {
+				break;
+			}
+			if (target == doc) {
+				cnt++;
+				doc = lead.nextDoc();
+			} else {
+				doc = lead.advance(target);
+			}
+		}
+		return cnt;
 	}
 
 }
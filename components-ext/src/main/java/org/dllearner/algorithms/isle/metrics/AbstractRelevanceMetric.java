@@ -62,6 +62,59 @@ public abstract class AbstractRelevanceMetric implements RelevanceMetric {
 	public String getName() {
 		return name;
 	}
+	
+	/**
+	 * Computes the relevance of two entities based on the number of documents
+	 * which contain them, i.e. the metric does not depend on the entities themselves.
+	 * 
+	 * @param fA the number of documents containing entity A
+	 * @param fB the number of documents containing entity B
+	 * @param fAB the number of documents containing both entities
+	 * @param N the total number of documents
+	 * @return the relevance
+	 */
+	public abstract double getRelevance(double fA, double fB, double fAB, double N);
+	
+	/**
+	 * Same as {@link #getRelevance(double, double, double, double)}, but normalized to [0,1].
+	 * 
+	 * @param fA the number of documents containing entity A
+	 * @param fB the number of documents containing entity B
+	 * @param fAB the number of documents containing both entities
+	 * @param N the total number of documents
+	 * @return the normalized relevance, or NaN if the metric does not support normalization
+	 */
+	public double getNormalizedRelevance(double fA, double fB, double fAB, double N) {
+		return Double.NaN;
+	}
+	
+	@Override
+	public double getRelevance(OWLEntity entityA, OWLEntity entityB) {
+		double fA = index.getNumberOfDocumentsFor(entityA);
+		double fB = index.getNumberOfDocumentsFor(entityB);
+		double fAB = getNumberOfDocumentsFor(entityA, entityB, fA, fB);
+		return getRelevance(fA, fB, fAB, index.getTotalNumberOfDocuments());
+	}
+	
+	@Override
+	public double getNormalizedRelevance(OWLEntity entityA, OWLEntity entityB) {
+		double fA = index.getNumberOfDocumentsFor(entityA);
+		double fB = index.getNumberOfDocumentsFor(entityB);
+		double fAB = getNumberOfDocumentsFor(entityA, entityB, fA, fB);
+		return getNormalizedRelevance(fA, fB, fAB, index.getTotalNumberOfDocuments());
+	}
+	
+	private double getNumberOfDocumentsFor(OWLEntity entityA, OWLEntity entityB, double fA, double fB) {
+		// there is no common document if one of the entities does not occur at all
+		return (fA == 0 || fB == 0) ? 0 : index.getNumberOfDocumentsFor(entityA, entityB);
+	}
+	
+	/**
+	 * @return the index used to count the documents
+	 */
+	public Index getIndex() {
+		return index;
+	}
 
 	@Override
 	public double getRelevance(OWLEntity entity, OWLClassExpression desc){
@@ -4,7 +4,6 @@
 package org.dllearner.algorithms.isle.metrics;
 
 import org.dllearner.algorithms.isle.index.Index;
-import org.semanticweb.owlapi.model.OWLEntity;
 
 /**
  * Chi Squared
@@ -22,16 +21,10 @@ public class ChiSquareRelevanceMetric extends AbstractRelevanceMetric {
 	}
 
 	@Override
-	public synchronized double getRelevance(OWLEntity entityA, OWLEntity entityB){
-		double fA = index.getNumberOfDocumentsFor(entityA);
-		double fB = index.getNumberOfDocumentsFor(entityB);
-		double N = index.getTotalNumberOfDocuments();
-		
+	public double getRelevance(double fA, double fB, double fAB, double N) {
 		if (N==0 || fA==0 || fB==0)
 			return 0;
 		
-		double fAB = index.getNumberOfDocumentsFor(entityA, entityB);
-		
 		double e_fAB = fA*fB/N; // Expected frequency of A and B assuming independence
 		
 		double chi2 = 0;
@@ -47,10 +40,5 @@ public class ChiSquareRelevanceMetric extends AbstractRelevanceMetric {
 		
 		return chi2;
 	}
-	
-	@Override
-	public synchronized double getNormalizedRelevance(OWLEntity entityA, OWLEntity entityB){
-		return Double.NaN;
-	}
 
 }
@@ -1,7 +1,6 @@
 package org.dllearner.algorithms.isle.metrics;
 
 import org.dllearner.algorithms.isle.index.Index;
-import org.semanticweb.owlapi.model.OWLEntity;
 
 /**
  * @author Andre Melo
@@ -14,24 +13,18 @@ public class DiceRelevanceMetric extends AbstractRelevanceMetric{
 	}
 
 	@Override
-	public double getRelevance(OWLEntity entityA, OWLEntity entityB) {
-		double nrOfDocumentsA = index.getNumberOfDocumentsFor(entityA);
-		double nrOfDocumentsB = index.getNumberOfDocumentsFor(entityB);
-		
-		if (nrOfDocumentsA==0 || nrOfDocumentsB==0)
+	public double getRelevance(double fA, double fB, double fAB, double N) {
+		if (fA==0 || fB==0)
 			return 0;
 		
-		double nrOfDocumentsAandB = index.getNumberOfDocumentsFor(entityA, entityB);
-		
-		double dice = 2 * nrOfDocumentsAandB / (nrOfDocumentsA + nrOfDocumentsB);
+		double dice = 2 * fAB / (fA + fB);
 		
 		return dice;
 	}
 
 	@Override
-	public double getNormalizedRelevance(OWLEntity entity1, OWLEntity entity2) {
-		return getRelevance(entity1, entity2);
+	public double getNormalizedRelevance(double fA, double fB, double fAB, double N) {
+		return getRelevance(fA, fB, fAB, N);
 	}
 
-
 }
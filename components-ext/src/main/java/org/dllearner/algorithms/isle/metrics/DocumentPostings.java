@@ -0,0 +1,107 @@
+/**
+ * 
+ */
+package org.dllearner.algorithms.isle.metrics;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.dllearner.algorithms.isle.index.AnnotatedDocument;
+import org.dllearner.algorithms.isle.index.Index;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+/**
+ * The documents of an index containing a given set of entities. Each document
+ * gets a dense ID, and the documents of an entity are kept as a bit set over those
+ * IDs, thus the number of documents containing two entities can be computed
+ * without any further request to the index.
+ * 
+ * Note, that the postings are a snapshot of the index at construction time.
+ * Once built, the object can be used by multiple threads.
+ * 
+ * @author Lorenz Buehmann
+ *
+ */
+public class DocumentPostings {
+	
+	private final Map<OWLEntity, BitSet> postings = new HashMap<>();
+	private final long totalNumberOfDocuments;
+	
+	public DocumentPostings(Index index, Collection<? extends OWLEntity> entities) {
+		Map<AnnotatedDocument, Integer> documentIds = new HashMap<>();
+		for (OWLEntity entity : entities) {
+			BitSet bits = new BitSet();
+			for (AnnotatedDocument document : index.getDocuments(entity)) {
+				Integer id = documentIds.get(document);
+				if (id == null) {
+					id = documentIds.size();
+					documentIds.put(document, id);
+				}
+				bits.set(id);
+			}
+			postings.put(entity, bits);
+		}
+		totalNumberOfDocuments = index.getTotalNumberOfDocuments();
+	}
+	
+	/**
+	 * @param entity the entity
+	 * @return the number of documents containing the entity
+	 */
+	public long getNumberOfDocumentsFor(OWLEntity entity) {
+		BitSet bits = postings.get(entity);
+		return bits == null ? 0 : bits.cardinality();
+	}
+	
+	/**
+	 * @param entityA the first entity
+	 * @param entityB the second entity
+	 * @return the number of documents containing both entities
+	 */
+	public long getNumberOfDocumentsFor(OWLEntity entityA, OWLEntity entityB) {
+		BitSet a = postings.get(entityA);
+		BitSet b = postings.get(entityB);
+		if (a == null || b == null || !a.intersects(b)) {
+			return 0;
+		}
+		// iterate over the smaller set to avoid copying one of them
+		if (a.cardinality() > b.cardinality()) {
+			BitSet tmp = a;
+			a = b;
+			b = tmp;
+		}
+		long cnt = 0;
+		for (int i = a.nextSetBit(0); i >= 0; i = a.nextSetBit(i + 1)) {
+			if (b.get(i)) {
+				cnt++;
+			}
+		}
+		return cnt;
+	}
+	
+	/**
+	 * @param entities the entities
+	 * @return whether the postings contain all given entities
+	 */
+	public boolean containsAll(Collection<? extends OWLEntity> entities) {
+		return postings.keySet().containsAll(entities);
+	}
+	
+	/**
+	 * @return the entities of the postings
+	 */
+	public Set<OWLEntity> getEntities() {
+		return Collections.unmodifiableSet(postings.keySet());
+	}
+	
+	/**
+	 * @return the total number of documents of the index
+	 */
+	public long getTotalNumberOfDocuments() {
+		return totalNumberOfDocuments;
+	}
+}
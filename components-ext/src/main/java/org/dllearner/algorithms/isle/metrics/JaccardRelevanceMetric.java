@@ -1,7 +1,6 @@
 package org.dllearner.algorithms.isle.metrics;
 
 import org.dllearner.algorithms.isle.index.Index;
-import org.semanticweb.owlapi.model.OWLEntity;
 
 /**
  * @author Andre Melo
@@ -14,25 +13,20 @@ public class JaccardRelevanceMetric extends AbstractRelevanceMetric{
 	}
 
 	@Override
-	public double getRelevance(OWLEntity entityA, OWLEntity entityB) {
-		long nrOfDocumentsA = index.getNumberOfDocumentsFor(entityA);
-		long nrOfDocumentsB = index.getNumberOfDocumentsFor(entityB);
-		
-		if (nrOfDocumentsA==0 || nrOfDocumentsB==0)
+	public double getRelevance(double fA, double fB, double fAB, double N) {
+		if (fA==0 || fB==0)
 			return 0;
 		
-		double nrOfDocumentsAandB = index.getNumberOfDocumentsFor(entityA, entityB);
-		double nrOfDocumentsAorB = nrOfDocumentsA + nrOfDocumentsB - nrOfDocumentsAandB;
+		double fAorB = fA + fB - fAB;
 		
-		double jaccard = nrOfDocumentsAandB / nrOfDocumentsAorB;
+		double jaccard = fAB / fAorB;
 		
 		return jaccard;
 	}
 
 	@Override
-	public double getNormalizedRelevance(OWLEntity entity1, OWLEntity entity2) {
-		return getRelevance(entity1, entity2);
+	public double getNormalizedRelevance(double fA, double fB, double fAB, double N) {
+		return getRelevance(fA, fB, fAB, N);
 	}
 
-
 }
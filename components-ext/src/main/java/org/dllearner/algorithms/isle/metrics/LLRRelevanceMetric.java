@@ -4,7 +4,6 @@
 package org.dllearner.algorithms.isle.metrics;
 
 import org.dllearner.algorithms.isle.index.Index;
-import org.semanticweb.owlapi.model.OWLEntity;
 
 /**
  * Log Likelihood Ratio
@@ -24,21 +23,14 @@ public class LLRRelevanceMetric extends AbstractRelevanceMetric {
 	}
 
 	@Override
-	public synchronized double getRelevance(OWLEntity entityA, OWLEntity entityB){
-		double fA = index.getNumberOfDocumentsFor(entityA);
-		double fB = index.getNumberOfDocumentsFor(entityB);
-		double N = index.getTotalNumberOfDocuments();
-		double fAB = index.getNumberOfDocumentsFor(entityA, entityB);
-		
+	public double getRelevance(double fA, double fB, double fAB, double N) {
 		if (N==0 || fA==0 || fB==0)
 			return 0;
 		
-		
-		
 		double pA = fA/N;
 		double pB = fB/N;
 		double pAB = fAB/N;
-
+		
 		double llr = 0;
 		
 		// X=A 		and 	Y=B
@@ -52,10 +44,5 @@ public class LLRRelevanceMetric extends AbstractRelevanceMetric {
 		
 		return llr;
 	}
-	
-	@Override
-	public synchronized double getNormalizedRelevance(OWLEntity entityA, OWLEntity entityB){
-		return Double.NaN;
-	}
 
 }
@@ -4,7 +4,6 @@
 package org.dllearner.algorithms.isle.metrics;
 
 import org.dllearner.algorithms.isle.index.Index;
-import org.semanticweb.owlapi.model.OWLEntity;
 
 /**
  * @author Lorenz Buehmann
@@ -17,37 +16,25 @@ public class PMIRelevanceMetric extends AbstractRelevanceMetric {
 	}
 
 	@Override
-	public double getRelevance(OWLEntity entityA, OWLEntity entityB){
-		long nrOfDocumentsA = index.getNumberOfDocumentsFor(entityA);
-		long nrOfDocumentsB = index.getNumberOfDocumentsFor(entityB);
-		long nrOfDocumentsAB = index.getNumberOfDocumentsFor(entityA, entityB);
-		
-		long nrOfDocuments = index.getTotalNumberOfDocuments();
-		
-		double pA = nrOfDocuments == 0 ? 0 : ((double) nrOfDocumentsA / (double) nrOfDocuments);
-		double pB = nrOfDocuments == 0 ? 0 : ((double) nrOfDocumentsB / (double) nrOfDocuments);
-		double pAB = nrOfDocuments == 0 ? 0 : ((double) nrOfDocumentsAB / (double) nrOfDocuments);
+	public double getRelevance(double fA, double fB, double fAB, double N) {
+		double pA = N == 0 ? 0 : (fA / N);
+		double pB = N == 0 ? 0 : (fB / N);
+		double pAB = N == 0 ? 0 : (fAB / N);
 		
 		if(pAB == 0 || (pA * pB) == 0){
 			return 0;
 		}
 		
-		double pmi = Math.log(pAB / pA * pB);
+		double pmi = Math.log(pAB / (pA * pB));
 		
 		return pmi;
 	}
 	
 	@Override
-	public double getNormalizedRelevance(OWLEntity entityA, OWLEntity entityB){
-		long nrOfDocumentsA = index.getNumberOfDocumentsFor(entityA);
-		long nrOfDocumentsB = index.getNumberOfDocumentsFor(entityB);
-		long nrOfDocumentsAB = index.getNumberOfDocumentsFor(entityA, entityB);
-		
-		long nrOfDocuments = index.getTotalNumberOfDocuments();
-		
-		double pA = nrOfDocuments == 0 ? 0 : ((double) nrOfDocumentsA / (double) nrOfDocuments);
-		double pB = nrOfDocuments == 0 ? 0 : ((double) nrOfDocumentsB / (double) nrOfDocuments);
-		double pAB = nrOfDocuments == 0 ? 0 : ((double) nrOfDocumentsAB / (double) nrOfDocuments);
+	public double getNormalizedRelevance(double fA, double fB, double fAB, double N) {
+		double pA = N == 0 ? 0 : (fA / N);
+		double pB = N == 0 ? 0 : (fB / N);
+		double pAB = N == 0 ? 0 : (fAB / N);
 		
 		if(pAB == 0 || pA * pB == 0){
 			return 0;
@@ -3,19 +3,33 @@
  */
 package org.dllearner.algorithms.isle.metrics;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import org.apache.log4j.Logger;
+import org.dllearner.algorithms.isle.index.Index;
+import org.dllearner.algorithms.isle.index.semantic.SemanticIndex;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntology;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * @author Lorenz Buehmann
  *
@@ -26,6 +40,9 @@ public class RelevanceUtils {
 	static int maxNrOfThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
 	static boolean normalize = true;
 	
+	// the document postings of each semantic index, the keys are compared by identity
+	private static final Cache<Index, DocumentPostings> postingsCache = CacheBuilder.newBuilder().weakKeys().build();
+	
 	/**
 	 * Returns a map containing the relevance score based on the given metric between the entity and each other entity.
 	 * @param entity
@@ -33,8 +50,155 @@ public class RelevanceUtils {
 	 * @param metric
 	 * @return
 	 */
-	public static synchronized Map<OWLEntity, Double> getRelevantEntities(final OWLEntity entity, Set<OWLEntity> otherEntities, final RelevanceMetric metric){
+	public static Map<OWLEntity, Double> getRelevantEntities(final OWLEntity entity, Set<OWLEntity> otherEntities, final RelevanceMetric metric){
+		return getRelevantEntities(entity, otherEntities, Collections.singletonList(metric)).get(metric);
+	}
+	
+	/**
+	 * Returns for each of the given metrics a map containing the relevance score between the entity and each other entity.
+	 * The document frequencies are computed only once for all metrics of type {@link AbstractRelevanceMetric} which
+	 * share the same index, and all those metrics are derived from them.
+	 * @param entity
+	 * @param otherEntities
+	 * @param metrics
+	 * @return
+	 */
+	public static Map<RelevanceMetric, Map<OWLEntity, Double>> getRelevantEntities(OWLEntity entity, Set<OWLEntity> otherEntities, List<RelevanceMetric> metrics){
 		logger.info("Get relevant entities for " + entity);
+		List<OWLEntity> entities = new ArrayList<>(otherEntities);
+		
+		// group the metrics by the index they are based on
+		Map<Index, List<AbstractRelevanceMetric>> index2Metrics = new IdentityHashMap<>();
+		for (RelevanceMetric metric : metrics) {
+			if (metric instanceof AbstractRelevanceMetric) {
+				AbstractRelevanceMetric m = (AbstractRelevanceMetric) metric;
+				index2Metrics.computeIfAbsent(m.getIndex(), k -> new ArrayList<>()).add(m);
+			}
+		}
+		
+		Map<RelevanceMetric, Map<OWLEntity, Double>> metric2Map = new LinkedHashMap<>();
+		for (Map.Entry<Index, List<AbstractRelevanceMetric>> entry : index2Metrics.entrySet()) {
+			Frequencies frequencies = computeFrequencies(entry.getKey(), entity, entities);
+			for (AbstractRelevanceMetric metric : entry.getValue()) {
+				metric2Map.put(metric, frequencies.getRelevance(metric));
+			}
+		}
+		for (RelevanceMetric metric : metrics) {
+			if (!(metric instanceof AbstractRelevanceMetric)) {
+				metric2Map.put(metric, computeRelevance(metric, entity, entities));
+			}
+		}
+		
+		//normalize the values
+		Map<RelevanceMetric, Map<OWLEntity, Double>> result = new LinkedHashMap<>();
+		for (RelevanceMetric metric : metrics) {
+			Map<OWLEntity, Double> relevantEntities = metric2Map.get(metric);
+			result.put(metric, normalize ? AbstractRelevanceMetric.normalizeMinMax(relevantEntities) : relevantEntities);
+		}
+		return result;
+	}
+	
+	public static Map<OWLEntity, Double> getRelevantEntities(OWLEntity entity, OWLOntology ontology, RelevanceMetric metric){
+		return getRelevantEntities(entity, getOtherEntities(entity, ontology), metric);
+	}
+	
+	public static Map<RelevanceMetric, Map<OWLEntity, Double>> getRelevantEntities(OWLEntity entity, OWLOntology ontology, List<RelevanceMetric> metrics){
+		return getRelevantEntities(entity, getOtherEntities(entity, ontology), metrics);
+	}
+	
+	/**
+	 * Drops the cached document postings, which have to be rebuilt once an index has been modified.
+	 */
+	public static void clearCache() {
+		postingsCache.invalidateAll();
+	}
+	
+	/*
+	 * Returns the cached document postings of the index if they contain all entities, otherwise they are
+	 * rebuilt for the given and the already cached entities.
+	 */
+	static DocumentPostings getPostings(final Index index, final Collection<OWLEntity> entities) {
+		return postingsCache.asMap().compute(index, (k, postings) -> {
+			if (postings != null && postings.containsAll(entities)
+					&& postings.getTotalNumberOfDocuments() == index.getTotalNumberOfDocuments()) {
+				return postings;
+			}
+			Set<OWLEntity> allEntities = new HashSet<>(entities);
+			if (postings != null) {
+				allEntities.addAll(postings.getEntities());
+			}
+			return new DocumentPostings(index, allEntities);
+		});
+	}
+	
+	private static Set<OWLEntity> getOtherEntities(OWLEntity entity, OWLOntology ontology) {
+		Set<OWLEntity> owlEntities = new TreeSet<>();
+		owlEntities.addAll(ontology.getClassesInSignature());
+		owlEntities.addAll(ontology.getDataPropertiesInSignature());
+		owlEntities.addAll(ontology.getObjectPropertiesInSignature());
+		
+		owlEntities.remove(entity);
+		
+		return owlEntities;
+	}
+	
+	/*
+	 * Computes fA, fB and fAB for the entity and each other entity. For a semantic index the documents are
+	 * materialized, thus all counts are derived from the document postings of the entities, which are built
+	 * once per index and reused by the subsequent calls; otherwise the
+	 * index is asked once per entity and pair.
+	 */
+	private static Frequencies computeFrequencies(final Index index, final OWLEntity entity, final List<OWLEntity> otherEntities) {
+		final int n = otherEntities.size();
+		final long[] fB = new long[n];
+		final long[] fAB = new long[n];
+		final boolean[] failed = new boolean[n];
+		
+		final long fA;
+		final long total;
+		final DocumentPostings postings;
+		if (index instanceof SemanticIndex) {
+			List<OWLEntity> entities = new ArrayList<>(otherEntities);
+			entities.add(entity);
+			postings = getPostings(index, entities);
+			fA = postings.getNumberOfDocumentsFor(entity);
+			total = postings.getTotalNumberOfDocuments();
+		} else {
+			postings = null;
+			fA = index.getNumberOfDocumentsFor(entity);
+			total = index.getTotalNumberOfDocuments();
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(maxNrOfThreads);
+		try {
+			pool.submit(() -> IntStream.range(0, n).parallel().forEach(i -> {
+				OWLEntity otherEntity = otherEntities.get(i);
+				try {
+					if (postings != null) {
+						fB[i] = postings.getNumberOfDocumentsFor(otherEntity);
+						fAB[i] = (fA == 0 || fB[i] == 0) ? 0 : postings.getNumberOfDocumentsFor(entity, otherEntity);
+					} else {
+						fB[i] = index.getNumberOfDocumentsFor(otherEntity);
+						fAB[i] = (fA == 0 || fB[i] == 0) ? 0 : index.getNumberOfDocumentsFor(entity, otherEntity);
+					}
+				} catch (Exception e) {
+					logger.error("Failed to compute the frequencies of " + otherEntity, e);
+					failed[i] = true;
+				}
+			})).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Computation of the frequencies was interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Computation of the frequencies failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		
+		return new Frequencies(otherEntities, fA, fB, fAB, total, failed);
+	}
+	
+	private static Map<OWLEntity, Double> computeRelevance(final RelevanceMetric metric, final OWLEntity entity, List<OWLEntity> otherEntities) {
 		final Map<OWLEntity, Double> relevantEntities = Collections.synchronizedMap(new HashMap<>());
 		
 		ExecutorService executor = Executors.newFixedThreadPool(maxNrOfThreads);
@@ -44,9 +208,7 @@ public class RelevanceUtils {
 				@Override
 				public void run() {
 					try {
-//						double relevance = metric.getNormalizedRelevance(entity, otherEntity);
 						double relevance = metric.getRelevance(entity, otherEntity);
-//						logger.info(otherEntity + ":" + relevance);
 						relevantEntities.put(otherEntity, relevance);
 					} catch (Exception e) {
 						e.printStackTrace();
@@ -60,23 +222,39 @@ public class RelevanceUtils {
 		} catch (InterruptedException e) {
 			e.printStackTrace();
 		}
-		//normalize the values
-        if(normalize){
-        	return AbstractRelevanceMetric.normalizeMinMax(relevantEntities);
-        }
 		return relevantEntities;
 	}
 	
-	public static Map<OWLEntity, Double> getRelevantEntities(OWLEntity entity, OWLOntology ontology, RelevanceMetric metric){
-		Set<OWLEntity> owlEntities = new TreeSet<>();
-		owlEntities.addAll(ontology.getClassesInSignature());
-		owlEntities.addAll(ontology.getDataPropertiesInSignature());
-		owlEntities.addAll(ontology.getObjectPropertiesInSignature());
+	/**
+	 * The document frequencies of an entity A and a list of other entities B.
+	 */
+	private static class Frequencies {
 		
-//		Set<OWLEntity> otherEntities = OWLAPIConverter.getEntities(new HashSet<OWLEntity>(new ArrayList<OWLEntity>(owlEntities).subList(0, 20)));
-		owlEntities.remove(entity);
+		private final List<OWLEntity> entities;
+		private final long fA;
+		private final long[] fB;
+		private final long[] fAB;
+		private final long total;
+		private final boolean[] failed;
 		
-		return getRelevantEntities(entity, owlEntities, metric);
+		Frequencies(List<OWLEntity> entities, long fA, long[] fB, long[] fAB, long total, boolean[] failed) {
+			this.entities = entities;
+			this.fA = fA;
+			this.fB = fB;
+			this.fAB = fAB;
+			this.total = total;
+			this.failed = failed;
+		}
+		
+		Map<OWLEntity, Double> getRelevance(AbstractRelevanceMetric metric) {
+			Map<OWLEntity, Double> relevantEntities = new HashMap<>();
+			for (int i = 0; i < entities.size(); i++) {
+				if (!failed[i]) {
+					relevantEntities.put(entities.get(i), metric.getRelevance(fA, fB[i], fAB[i], total));
+				}
+			}
+			return relevantEntities;
+		}
 	}
 
 }
@@ -4,7 +4,6 @@
 package org.dllearner.algorithms.isle.metrics;
 
 import org.dllearner.algorithms.isle.index.Index;
-import org.semanticweb.owlapi.model.OWLEntity;
 
 /**
  * @author Andre Melo
@@ -17,16 +16,10 @@ public class SCIRelevanceMetric extends AbstractRelevanceMetric {
 	}
 
 	@Override
-	public synchronized double getRelevance(OWLEntity entityA, OWLEntity entityB){
-		double fA = index.getNumberOfDocumentsFor(entityA);
-		double fB = index.getNumberOfDocumentsFor(entityB);
-		double fAB = index.getNumberOfDocumentsFor(entityA, entityB);
-		double N = index.getTotalNumberOfDocuments();
-		
+	public double getRelevance(double fA, double fB, double fAB, double N) {
 		if (fA==0 || fB==0 || fAB==0)
 			return 0;
 		
-		
 		double pA = fA / N;
 		double pB = fB / N;
 		double pAB = fAB / N;
@@ -35,11 +28,5 @@ public class SCIRelevanceMetric extends AbstractRelevanceMetric {
 		
 		return sci;
 	}
-	
-	@Override
-	public synchronized double getNormalizedRelevance(OWLEntity entityA, OWLEntity entityB){
-		//TODO
-		return Double.NaN;
-	}
 
 }
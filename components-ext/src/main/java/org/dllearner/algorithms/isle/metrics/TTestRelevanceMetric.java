@@ -4,7 +4,6 @@
 package org.dllearner.algorithms.isle.metrics;
 
 import org.dllearner.algorithms.isle.index.Index;
-import org.semanticweb.owlapi.model.OWLEntity;
 
 /**
  * @author Andre Melo
@@ -17,26 +16,14 @@ public class TTestRelevanceMetric extends AbstractRelevanceMetric {
 	}
 
 	@Override
-	public synchronized double getRelevance(OWLEntity entityA, OWLEntity entityB){
-		double nrOfDocumentsA = index.getNumberOfDocumentsFor(entityA);
-		double nrOfDocumentsB = index.getNumberOfDocumentsFor(entityB);
-		double nrOfDocumentsAB = index.getNumberOfDocumentsFor(entityA, entityB);
-		
-		double nrOfDocuments = index.getTotalNumberOfDocuments();
-		
-		if (nrOfDocumentsA==0 || nrOfDocumentsB==0 || nrOfDocumentsAB==0)
+	public double getRelevance(double fA, double fB, double fAB, double N) {
+		if (fA==0 || fB==0 || fAB==0)
 			return 0;
 		
-		double ttest = 	(nrOfDocumentsAB - (nrOfDocumentsA*nrOfDocumentsB)/nrOfDocuments) /
-						Math.sqrt(nrOfDocumentsAB*(1-nrOfDocumentsAB/nrOfDocuments));
+		double ttest = 	(fAB - (fA*fB)/N) /
+						Math.sqrt(fAB*(1-fAB/N));
 		
 		return ttest;
 	}
-	
-	@Override
-	public synchronized double getNormalizedRelevance(OWLEntity entityA, OWLEntity entityB){
-		//TODO
-		return Double.NaN;
-	}
 
 }
@@ -35,7 +35,7 @@ public class SPARQLReasonerQuad extends SPARQLReasoner {
 	@Override
 	protected String buildIndividualsQueryValues(OWLClassExpression description, Collection<OWLIndividual> indValues, boolean isCountQuery) {
 		String query;
-		String tp = converter.convert("?ind", description);
+		String tp = getConverter().convert("?ind", description);
 
 		// for ontoquad
 
@@ -64,7 +64,7 @@ public class SPARQLReasonerQuad extends SPARQLReasoner {
 	@Override
 	protected String buildMeaningfulClassesQuery(OWLClassExpression index, SortedSet<OWLClassExpression> targetClasses) {
 		String query = "SELECT DISTINCT ?concept WHERE {";
-		query += converter.convert("?ind", index);
+		query += getConverter().convert("?ind", index);
 		query += "?ind a ?concept . ";
 		query += "}";
 		query += "VALUES ?concept {"
@@ -82,7 +82,7 @@ public class SPARQLReasonerQuad extends SPARQLReasoner {
 
 	@Override
 	protected String buildApplicablePropertiesValuesQuery(OWLClassExpression domain, Collection<? extends OWLObjectProperty> objectProperties) {
-		String domQuery = converter.convert("?dom", domain);
+		String domQuery = getConverter().convert("?dom", domain);
 		String props = objectProperties.stream().map(op -> "<" + op.toStringID() + ">").collect(Collectors.joining(" "));
 //		String prop1 = converter.convert("?p", objectProperties.iterator().next());
 
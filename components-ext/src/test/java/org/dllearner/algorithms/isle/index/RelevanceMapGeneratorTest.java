@@ -0,0 +1,111 @@
+/**
+ *
+ */
+package org.dllearner.algorithms.isle.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * @author Lorenz Buehmann
+ *
+ */
+public class RelevanceMapGeneratorTest {
+
+	private static final String NS = "http://example.com/father#";
+	private static final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testWriteRead() throws Exception {
+		Map<OWLEntity, Double> relevanceMap = new HashMap<>();
+		relevanceMap.put(df.getOWLClass(IRI.create(NS + "male")), 0.5);
+		relevanceMap.put(df.getOWLClass(IRI.create(NS + "person")), 0d);
+		relevanceMap.put(df.getOWLObjectProperty(IRI.create(NS + "hasChild")), 1d);
+		relevanceMap.put(df.getOWLDataProperty(IRI.create(NS + "age")), -0.25);
+		relevanceMap.put(df.getOWLNamedIndividual(IRI.create(NS + "stefan")), Double.NaN);
+		// entities with the same IRI but a different type have to be kept apart
+		relevanceMap.put(df.getOWLDataProperty(IRI.create(NS + "male")), 0.75);
+
+		File file = new File(folder.getRoot(), "test.relmap");
+		RelevanceMapGenerator.write(relevanceMap, file);
+
+		assertEquals(relevanceMap, RelevanceMapGenerator.read(file));
+		// the temporary file has been moved
+		assertEquals(1, folder.getRoot().list().length);
+	}
+
+	@Test
+	public void testWriteReadEmpty() throws Exception {
+		File file = new File(folder.getRoot(), "empty.relmap");
+		RelevanceMapGenerator.write(new HashMap<>(), file);
+
+		assertTrue(RelevanceMapGenerator.read(file).isEmpty());
+	}
+
+	@Test
+	public void testOverwrite() throws Exception {
+		File file = new File(folder.getRoot(), "test.relmap");
+		Map<OWLEntity, Double> relevanceMap = new HashMap<>();
+		relevanceMap.put(df.getOWLClass(IRI.create(NS + "male")), 0.5);
+		RelevanceMapGenerator.write(relevanceMap, file);
+
+		relevanceMap.put(df.getOWLClass(IRI.create(NS + "male")), 0.25);
+		RelevanceMapGenerator.write(relevanceMap, file);
+
+		assertEquals(relevanceMap, RelevanceMapGenerator.read(file));
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadCorruptHeader() throws Exception {
+		File file = folder.newFile("corrupt.relmap");
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+			out.writeInt(0xCAFEBABE);
+			out.writeInt(1);
+			out.writeInt(0);
+		}
+		RelevanceMapGenerator.read(file);
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadUnsupportedVersion() throws Exception {
+		File file = new File(folder.getRoot(), "test.relmap");
+		RelevanceMapGenerator.write(new HashMap<>(), file);
+
+		// overwrite the version following the magic number
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(4);
+			raf.writeInt(Integer.MAX_VALUE);
+		}
+		RelevanceMapGenerator.read(file);
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadTruncated() throws Exception {
+		File file = folder.newFile("truncated.relmap");
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+			out.writeInt(0x524D4150);
+		}
+		RelevanceMapGenerator.read(file);
+	}
+
+}
@@ -0,0 +1,203 @@
+/**
+ *
+ */
+package org.dllearner.algorithms.isle.index.syntactic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.dllearner.algorithms.isle.index.Token;
+import org.dllearner.algorithms.isle.textretrieval.AnnotationEntityTextRetriever;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * @author Lorenz Buehmann
+ *
+ */
+public class LuceneSyntacticIndexTest {
+
+	private static final String NS = "http://example.com/father#";
+	private static final String SEARCH_FIELD = "text";
+	private static final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	private static final String[] DOCUMENTS = {
+			"father male person",	// 0
+			"mother female person",	// 1
+			"father son",			// 2
+			"daughter female",		// 3
+			"male son brother",		// 4
+			"uncle"					// 5
+	};
+
+	private Directory directory;
+	private IndexReader indexReader;
+	private OWLOntology ontology;
+	private LabelTextRetriever textRetriever;
+
+	private final OWLEntity father = entity("father");
+	private final OWLEntity person = entity("person");
+	private final OWLEntity male = entity("male");
+	private final OWLEntity son = entity("son");
+	private final OWLEntity female = entity("female");
+	private final OWLEntity malePerson = entity("malePerson");
+	private final OWLEntity grandfather = entity("grandfather");
+	private final OWLEntity longLabel = entity("longLabel");
+
+	/**
+	 * Returns the label of the entities as relevant text, i.e. without any linguistic processing.
+	 */
+	private static class LabelTextRetriever extends AnnotationEntityTextRetriever {
+
+		private final Map<OWLEntity, String> labels = new HashMap<>();
+
+		LabelTextRetriever(OWLOntology ontology) {
+			super(ontology);
+		}
+
+		@Override
+		public Map<List<Token>, Double> getRelevantText(OWLEntity entity) {
+			String label = labels.get(entity);
+			if (label == null) {
+				return Collections.emptyMap();
+			}
+			List<Token> tokens = new ArrayList<>();
+			for (String word : label.split(" ")) {
+				tokens.add(new Token(word));
+			}
+			return Collections.singletonMap(tokens, 1d);
+		}
+	}
+
+	private static OWLEntity entity(String name) {
+		return df.getOWLClass(IRI.create(NS + name));
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		directory = new ByteBuffersDirectory();
+		try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+			for (String content : DOCUMENTS) {
+				Document document = new Document();
+				document.add(new TextField(SEARCH_FIELD, content, Field.Store.YES));
+				writer.addDocument(document);
+			}
+		}
+		indexReader = DirectoryReader.open(directory);
+
+		ontology = OWLManager.createOWLOntologyManager().createOntology();
+		textRetriever = new LabelTextRetriever(ontology);
+		textRetriever.labels.put(father, "father");
+		textRetriever.labels.put(person, "person");
+		textRetriever.labels.put(male, "male");
+		textRetriever.labels.put(son, "son");
+		textRetriever.labels.put(female, "female");
+		textRetriever.labels.put(malePerson, "male person");
+		textRetriever.labels.put(grandfather, "grandfather");
+
+		// more tokens than clauses allowed in a single boolean query, only two of them occur
+		StringBuilder label = new StringBuilder("uncle daughter");
+		for (int i = 0; i < BooleanQuery.getMaxClauseCount() + 100; i++) {
+			label.append(" w").append(i);
+		}
+		textRetriever.labels.put(longLabel, label.toString());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		indexReader.close();
+		directory.close();
+	}
+
+	private LuceneSyntacticIndex createIndex(long maxCacheSize) {
+		LuceneSyntacticIndex index = new LuceneSyntacticIndex(ontology, indexReader, SEARCH_FIELD, maxCacheSize);
+		index.textRetriever = textRetriever;
+		return index;
+	}
+
+	@Test
+	public void testSingleEntity() {
+		LuceneSyntacticIndex index = createIndex(LuceneSyntacticIndex.DEFAULT_MAX_CACHE_SIZE);
+
+		assertEquals(DOCUMENTS.length, index.getTotalNumberOfDocuments());
+		assertEquals(2, index.getNumberOfDocumentsFor(father));
+		assertEquals(2, index.getNumberOfDocumentsFor(person));
+		assertEquals(2, index.getNumberOfDocumentsFor(male));
+		// documents containing any token of the label
+		assertEquals(3, index.getNumberOfDocumentsFor(malePerson));
+		assertEquals(0, index.getNumberOfDocumentsFor(grandfather));
+	}
+
+	@Test
+	public void testIntersection() {
+		LuceneSyntacticIndex index = createIndex(LuceneSyntacticIndex.DEFAULT_MAX_CACHE_SIZE);
+
+		// pairs
+		assertEquals(1, index.getNumberOfDocumentsFor(father, person));
+		assertEquals(1, index.getNumberOfDocumentsFor(person, father));
+		assertEquals(1, index.getNumberOfDocumentsFor(male, son));
+		assertEquals(2, index.getNumberOfDocumentsFor(male, malePerson));
+		assertEquals(2, index.getNumberOfDocumentsFor(father, father));
+		assertEquals(0, index.getNumberOfDocumentsFor(father, female));
+		assertEquals(0, index.getNumberOfDocumentsFor(father, grandfather));
+		assertEquals(0, index.getNumberOfDocumentsFor(grandfather, father));
+
+		// triples
+		assertEquals(1, index.getNumberOfDocumentsFor(father, male, person));
+		assertEquals(1, index.getNumberOfDocumentsFor(person, malePerson, female));
+		assertEquals(0, index.getNumberOfDocumentsFor(father, son, male));
+		assertEquals(0, index.getNumberOfDocumentsFor(father, male, grandfather));
+	}
+
+	@Test
+	public void testMaxClauseCount() {
+		LuceneSyntacticIndex index = createIndex(LuceneSyntacticIndex.DEFAULT_MAX_CACHE_SIZE);
+
+		assertEquals(2, index.getNumberOfDocumentsFor(longLabel));
+		assertEquals(1, index.getNumberOfDocumentsFor(longLabel, female));
+		assertEquals(0, index.getNumberOfDocumentsFor(longLabel, father));
+	}
+
+	@Test
+	public void testWithoutCache() {
+		LuceneSyntacticIndex cachedIndex = createIndex(LuceneSyntacticIndex.DEFAULT_MAX_CACHE_SIZE);
+		LuceneSyntacticIndex uncachedIndex = createIndex(0);
+
+		OWLEntity[] entities = {father, person, male, son, female, malePerson, grandfather, longLabel};
+		for (OWLEntity entityA : entities) {
+			assertEquals(cachedIndex.getNumberOfDocumentsFor(entityA), uncachedIndex.getNumberOfDocumentsFor(entityA));
+			for (OWLEntity entityB : entities) {
+				assertEquals(cachedIndex.getNumberOfDocumentsFor(entityA, entityB),
+						uncachedIndex.getNumberOfDocumentsFor(entityA, entityB));
+			}
+		}
+
+		cachedIndex.clearCache();
+		assertEquals(1, cachedIndex.getNumberOfDocumentsFor(father, male, person));
+	}
+
+}
@@ -0,0 +1,237 @@
+/**
+ *
+ */
+package org.dllearner.algorithms.isle.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.dllearner.algorithms.isle.index.AnnotatedDocument;
+import org.dllearner.algorithms.isle.index.AnnotatedTextDocument;
+import org.dllearner.algorithms.isle.index.TextDocument;
+import org.dllearner.algorithms.isle.index.semantic.SemanticIndex;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * @author Lorenz Buehmann
+ *
+ */
+public class RelevanceMetricTest {
+
+	private static final double DELTA = 1e-9;
+	private static final String NS = "http://example.com/father#";
+	private static final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	// fA = 4, fB = 5, fAB = 3, N = 10
+	private static final double fA = 4;
+	private static final double fB = 5;
+	private static final double fAB = 3;
+	private static final double N = 10;
+
+	private SemanticIndex index;
+	private OWLEntity a;
+	private OWLEntity b;
+
+	@Before
+	public void setUp() {
+		a = df.getOWLClass(IRI.create(NS + "male"));
+		b = df.getOWLObjectProperty(IRI.create(NS + "hasChild"));
+
+		// documents 0-3 contain A, documents 1-5 contain B
+		List<AnnotatedDocument> documents = createDocuments((int) N);
+		index = new SemanticIndex();
+		index.put(a, new HashSet<>(documents.subList(0, 4)));
+		index.put(b, new HashSet<>(documents.subList(1, 6)));
+		index.setTotalNrOfDocuments((int) N);
+	}
+
+	private static List<AnnotatedDocument> createDocuments(int n) {
+		List<AnnotatedDocument> documents = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			documents.add(new AnnotatedTextDocument(new TextDocument(), Collections.emptySet()));
+		}
+		return documents;
+	}
+
+	@Test
+	public void testDice() {
+		DiceRelevanceMetric metric = new DiceRelevanceMetric(index);
+		assertEquals(6d / 9d, metric.getRelevance(fA, fB, fAB, N), DELTA);
+		assertEquals(6d / 9d, metric.getNormalizedRelevance(fA, fB, fAB, N), DELTA);
+		assertEquals(0, metric.getRelevance(fA, fB, 0, N), DELTA);
+	}
+
+	@Test
+	public void testJaccard() {
+		JaccardRelevanceMetric metric = new JaccardRelevanceMetric(index);
+		assertEquals(3d / 6d, metric.getRelevance(fA, fB, fAB, N), DELTA);
+		assertEquals(3d / 6d, metric.getNormalizedRelevance(fA, fB, fAB, N), DELTA);
+		assertEquals(0, metric.getRelevance(fA, fB, 0, N), DELTA);
+	}
+
+	@Test
+	public void testPMI() {
+		PMIRelevanceMetric metric = new PMIRelevanceMetric(index);
+		assertEquals(Math.log(0.3 / (0.4 * 0.5)), metric.getRelevance(fA, fB, fAB, N), DELTA);
+		assertEquals((Math.log(0.3 / (0.4 * 0.5)) / -Math.log(0.3) + 1) / 2,
+				metric.getNormalizedRelevance(fA, fB, fAB, N), DELTA);
+		// independent entities
+		assertEquals(0, metric.getRelevance(fA, fB, 2, N), DELTA);
+		assertEquals(0, metric.getRelevance(fA, fB, 0, N), DELTA);
+		assertEquals(0, metric.getRelevance(fA, fB, fAB, 0), DELTA);
+	}
+
+	@Test
+	public void testSignificantPMI() {
+		double delta = 0.5;
+		SignificantPMIRelevanceMetric metric = new SignificantPMIRelevanceMetric(index, delta);
+		double expected = Math.log(3 / (2 + 2 * Math.sqrt(Math.log(delta) / -2)));
+		assertEquals(expected, metric.getRelevance(fA, fB, fAB, N), DELTA);
+		assertEquals(0, metric.getRelevance(fA, fB, 0, N), DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSignificantPMIInvalidDelta() {
+		new SignificantPMIRelevanceMetric(index, 2);
+	}
+
+	@Test
+	public void testChiSquare() {
+		// observed [[3, 1], [2, 4]], expected [[2, 2], [3, 3]]
+		ChiSquareRelevanceMetric metric = new ChiSquareRelevanceMetric(index);
+		assertEquals(1d / 2 + 1d / 2 + 1d / 3 + 1d / 3, metric.getRelevance(fA, fB, fAB, N), DELTA);
+		assertEquals(0, metric.getRelevance(0, fB, 0, N), DELTA);
+	}
+
+	@Test
+	public void testTTest() {
+		TTestRelevanceMetric metric = new TTestRelevanceMetric(index);
+		assertEquals((3 - 2) / Math.sqrt(3 * 0.7), metric.getRelevance(fA, fB, fAB, N), DELTA);
+		assertEquals(0, metric.getRelevance(fA, fB, 0, N), DELTA);
+	}
+
+	@Test
+	public void testSCI() {
+		SCIRelevanceMetric metric = new SCIRelevanceMetric(index);
+		assertEquals(0.3 / (0.4 * Math.sqrt(0.5)), metric.getRelevance(fA, fB, fAB, N), DELTA);
+		assertEquals(0, metric.getRelevance(fA, fB, 0, N), DELTA);
+	}
+
+	@Test
+	public void testLLR() {
+		LLRRelevanceMetric metric = new LLRRelevanceMetric(index);
+		double expected = 0.3 * Math.log(0.3 / (0.4 * 0.5))
+						+ 0.1 * Math.log(0.1 / (0.4 * 0.5))
+						+ 0.2 * Math.log(0.2 / (0.6 * 0.5))
+						+ 0.4 * Math.log(0.4 / (0.6 * 0.5));
+		assertEquals(expected, metric.getRelevance(fA, fB, fAB, N), DELTA);
+		assertEquals(0, metric.getRelevance(fA, fB, fAB, 0), DELTA);
+	}
+
+	/**
+	 * The entity based methods have to use the counts of the index.
+	 */
+	@Test
+	public void testRelevanceFromIndex() {
+		List<AbstractRelevanceMetric> metrics = new ArrayList<>();
+		metrics.add(new DiceRelevanceMetric(index));
+		metrics.add(new JaccardRelevanceMetric(index));
+		metrics.add(new PMIRelevanceMetric(index));
+		metrics.add(new SignificantPMIRelevanceMetric(index, 0.5));
+		metrics.add(new ChiSquareRelevanceMetric(index));
+		metrics.add(new TTestRelevanceMetric(index));
+		metrics.add(new SCIRelevanceMetric(index));
+		metrics.add(new LLRRelevanceMetric(index));
+
+		OWLEntity unknown = df.getOWLClass(IRI.create(NS + "unknown"));
+		for (AbstractRelevanceMetric metric : metrics) {
+			assertEquals(metric.getName(), metric.getRelevance(fA, fB, fAB, N), metric.getRelevance(a, b), DELTA);
+			assertEquals(metric.getName(), metric.getRelevance(fA, 0, 0, N), metric.getRelevance(a, unknown), DELTA);
+		}
+	}
+
+	/**
+	 * The pair counts of the postings have to match the counts of the semantic index.
+	 */
+	@Test
+	public void testDocumentPostings() {
+		int nrOfDocuments = 200;
+		int nrOfEntities = 20;
+		List<AnnotatedDocument> documents = createDocuments(nrOfDocuments);
+
+		Random rnd = new Random(123);
+		SemanticIndex semanticIndex = new SemanticIndex();
+		List<OWLEntity> entities = new ArrayList<>();
+		for (int i = 0; i < nrOfEntities; i++) {
+			OWLEntity entity = df.getOWLClass(IRI.create(NS + "A" + i));
+			entities.add(entity);
+			// the density varies from empty to all documents
+			double p = (double) i / (nrOfEntities - 1);
+			Set<AnnotatedDocument> entityDocuments = new HashSet<>();
+			for (AnnotatedDocument document : documents) {
+				if (rnd.nextDouble() < p) {
+					entityDocuments.add(document);
+				}
+			}
+			semanticIndex.put(entity, entityDocuments);
+		}
+		semanticIndex.setTotalNrOfDocuments(nrOfDocuments);
+		// an entity which is not contained in the index
+		entities.add(df.getOWLClass(IRI.create(NS + "unknown")));
+
+		DocumentPostings postings = new DocumentPostings(semanticIndex, entities);
+		assertEquals(nrOfDocuments, postings.getTotalNumberOfDocuments());
+		for (OWLEntity entityA : entities) {
+			assertEquals(semanticIndex.getNumberOfDocumentsFor(entityA), postings.getNumberOfDocumentsFor(entityA));
+			for (OWLEntity entityB : entities) {
+				assertEquals(entityA + " " + entityB,
+						semanticIndex.getNumberOfDocumentsFor(entityA, entityB),
+						postings.getNumberOfDocumentsFor(entityA, entityB));
+			}
+		}
+
+		// counting pairs must not modify the index
+		for (int i = 0; i < nrOfEntities; i++) {
+			assertEquals(semanticIndex.get(entities.get(i)).size(), postings.getNumberOfDocumentsFor(entities.get(i)));
+		}
+	}
+
+	/**
+	 * The postings of an index are reused as long as they contain the requested entities.
+	 */
+	@Test
+	public void testPostingsCache() {
+		OWLEntity unknown = df.getOWLClass(IRI.create(NS + "unknown"));
+		RelevanceUtils.clearCache();
+
+		DocumentPostings postings = RelevanceUtils.getPostings(index, Arrays.asList(a, b));
+		assertSame(postings, RelevanceUtils.getPostings(index, Arrays.asList(a, b)));
+		assertSame(postings, RelevanceUtils.getPostings(index, Collections.singletonList(a)));
+
+		// the postings are extended by the new entity
+		DocumentPostings extended = RelevanceUtils.getPostings(index, Collections.singletonList(unknown));
+		assertNotSame(postings, extended);
+		assertTrue(extended.containsAll(Arrays.asList(a, b, unknown)));
+		assertEquals(fAB, extended.getNumberOfDocumentsFor(a, b), DELTA);
+
+		RelevanceUtils.clearCache();
+		assertNotSame(extended, RelevanceUtils.getPostings(index, Arrays.asList(a, b)));
+	}
+
+}
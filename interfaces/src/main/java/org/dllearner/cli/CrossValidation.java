@@ -20,6 +20,7 @@
 package org.dllearner.cli;
 
 import com.google.common.collect.Sets;
+import org.dllearner.algorithms.celoe.CELOE;
 import org.dllearner.core.*;
 import org.dllearner.learningproblems.Heuristics;
 import org.dllearner.learningproblems.PosNegLP;
@@ -34,16 +35,25 @@ import org.semanticweb.owlapi.model.OWLIndividual;
 import org.semanticweb.owlapi.util.SimpleShortFormProvider;
 
 import java.io.File;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.text.DecimalFormat;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 /**
  * Performs cross validation for the given problem. Supports
- * k-fold cross-validation and leave-one-out cross-validation.
+ * (repeated) k-fold cross-validation and leave-one-out cross-validation.
+ *
+ * The folds are validated concurrently if the learning algorithm and the
+ * learning problem can be copied, i.e. if they provide a copy constructor or a
+ * public <code>clone()</code> method. Each fold then works on its own learner
+ * and learning problem, whereas the reasoner is shared by all folds in
+ * synchronized mode, see {@link #prepareSharedReasoner(AbstractReasonerComponent)}.
+ * Apart from the reasoner, the folds do not share any state, the statistics
+ * are aggregated from the results of the folds in the order of the folds once
+ * they are done.
  * 
  * @author Jens Lehmann
  *
@@ -57,9 +67,19 @@ public class CrossValidation {
 	protected Stat accuracyTraining = new Stat();
 	protected Stat fMeasure = new Stat();
 	protected Stat fMeasureTraining = new Stat();
+	protected Stat foldWallTime = new Stat();
 	public static boolean writeToFile = false;
 	public static File outputFile;
+	/**
+	 * Whether to validate the folds concurrently with as many threads as there
+	 * are processors, unless {@link #nrOfThreads} is set to more than 1.
+	 */
 	public static boolean multiThreaded = false;
+	/**
+	 * The max. number of folds validated concurrently. A value of 1 means that
+	 * the folds are validated one after another.
+	 */
+	public static int nrOfThreads = 1;
 	
 	protected Stat trainingCompletenessStat = new Stat();
 	protected Stat trainingCorrectnessStat = new Stat();
@@ -76,166 +96,275 @@ public class CrossValidation {
 	}
 	
 	public CrossValidation(AbstractCELA la, AbstractClassExpressionLearningProblem lp, final AbstractReasonerComponent rs, int folds, boolean leaveOneOut) {
+		this(la, lp, rs, folds, leaveOneOut, 1);
+	}
+
+	/**
+	 * @param la the learning algorithm
+	 * @param lp the learning problem
+	 * @param rs the reasoner, which has to be initialized already
+	 * @param folds the number of folds, ignored for leave-one-out
+	 * @param leaveOneOut whether to perform leave-one-out cross-validation
+	 * @param nrOfRepetitions the number of repetitions of the k-fold cross-validation,
+	 *                        each with a different partitioning of the examples
+	 */
+	public CrossValidation(AbstractCELA la, AbstractClassExpressionLearningProblem lp, final AbstractReasonerComponent rs,
+						   int folds, boolean leaveOneOut, int nrOfRepetitions) {
 		//console rendering of class expressions
 		ManchesterOWLSyntaxOWLObjectRendererImplExt renderer = new ManchesterOWLSyntaxOWLObjectRendererImplExt();
 		StringRenderer.setRenderer(renderer);
 		StringRenderer.setShortFormProvider(new SimpleShortFormProvider());
-				
-		// the training and test sets used later on
-		List<Set<OWLIndividual>> trainingSetsPos = new LinkedList<>();
-		List<Set<OWLIndividual>> trainingSetsNeg = new LinkedList<>();
-		List<Set<OWLIndividual>> testSetsPos = new LinkedList<>();
-		List<Set<OWLIndividual>> testSetsNeg = new LinkedList<>();
 		
-			// get examples and shuffle them too
+		// get examples
 		Set<OWLIndividual> posExamples;
 		Set<OWLIndividual> negExamples;
-			if(lp instanceof PosNegLP){
-				posExamples = ((PosNegLP)lp).getPositiveExamples();
-				negExamples = ((PosNegLP)lp).getNegativeExamples();
-			} else if(lp instanceof PosOnlyLP){
-				posExamples = ((PosNegLP)lp).getPositiveExamples();
-				negExamples = new HashSet<>();
-			} else {
-				throw new IllegalArgumentException("Only PosNeg and PosOnly learning problems are supported");
+		if(lp instanceof PosNegLP){
+			posExamples = ((PosNegLP)lp).getPositiveExamples();
+			negExamples = ((PosNegLP)lp).getNegativeExamples();
+		} else if(lp instanceof PosOnlyLP){
+			posExamples = ((PosOnlyLP)lp).getPositiveExamples();
+			negExamples = new HashSet<>();
+		} else {
+			throw new IllegalArgumentException("Only PosNeg and PosOnly learning problems are supported");
+		}
+		
+		// sanity check whether nr. of folds makes sense for this benchmark
+		if(!leaveOneOut && (posExamples.size()<folds && negExamples.size()<folds)) {
+			throw new IllegalArgumentException("The number of folds is higher than the number of "
+					+ "positive/negative examples. This can result in empty test sets.");
+		}
+		
+		// the training and test sets used later on
+		List<Fold> foldList = new ArrayList<>();
+		if(leaveOneOut) {
+			// each example is the test set of exactly one fold, thus, repetitions
+			// would lead to the same folds
+			nrOfRepetitions = 1;
+			for(OWLIndividual ind : posExamples) {
+				foldList.add(new Fold(foldList.size(), 0,
+						getTrainingSet(posExamples, Collections.singleton(ind)), negExamples,
+						Collections.singleton(ind), Collections.<OWLIndividual>emptySet()));
 			}
-			List<OWLIndividual> posExamplesList = new LinkedList<>(posExamples);
-			List<OWLIndividual> negExamplesList = new LinkedList<>(negExamples);
-			Collections.shuffle(posExamplesList, new Random(1));
-			Collections.shuffle(negExamplesList, new Random(2));
-			
-			// sanity check whether nr. of folds makes sense for this benchmark
-			if(!leaveOneOut && (posExamples.size()<folds && negExamples.size()<folds)) {
-				System.out.println("The number of folds is higher than the number of "
-						+ "positive/negative examples. This can result in empty test sets. Exiting.");
-				System.exit(0);
+			for(OWLIndividual ind : negExamples) {
+				foldList.add(new Fold(foldList.size(), 0,
+						posExamples, getTrainingSet(negExamples, Collections.singleton(ind)),
+						Collections.<OWLIndividual>emptySet(), Collections.singleton(ind)));
 			}
+		} else {
+			// calculating where to split the sets, ; note that we split
+			// positive and negative examples separately such that the
+			// distribution of positive and negative examples remains similar
+			// (note that there are better but more complex ways to implement this,
+			// which guarantee that the sum of the elements of a fold for pos
+			// and neg differs by at most 1 - it can differ by 2 in our implementation,
+			// e.g. with 3 folds, 4 pos. examples, 4 neg. examples)
+			int[] splitsPos = calculateSplits(posExamples.size(),folds);
+			int[] splitsNeg = calculateSplits(negExamples.size(),folds);
 			
-			if(leaveOneOut) {
-				// note that leave-one-out is not identical to k-fold with
-				// k = nr. of examples in the current implementation, because
-				// with n folds and n examples there is no guarantee that a fold
-				// is never empty (this is an implementation issue)
-				int nrOfExamples = posExamples.size() + negExamples.size();
-				for(int i = 0; i < nrOfExamples; i++) {
-					// ...
-				}
-				System.out.println("Leave-one-out not supported yet.");
-				System.exit(1);
-			} else {
-				// calculating where to split the sets, ; note that we split
-				// positive and negative examples separately such that the
-				// distribution of positive and negative examples remains similar
-				// (note that there are better but more complex ways to implement this,
-				// which guarantee that the sum of the elements of a fold for pos
-				// and neg differs by at most 1 - it can differ by 2 in our implementation,
-				// e.g. with 3 folds, 4 pos. examples, 4 neg. examples)
-				int[] splitsPos = calculateSplits(posExamples.size(),folds);
-				int[] splitsNeg = calculateSplits(negExamples.size(),folds);
-				
-//				System.out.println(splitsPos[0]);
-//				System.out.println(splitsNeg[0]);
+			for(int rep = 0; rep < nrOfRepetitions; rep++) {
+				// shuffle the examples, each repetition with different seeds
+				List<OWLIndividual> posExamplesList = new ArrayList<>(posExamples);
+				List<OWLIndividual> negExamplesList = new ArrayList<>(negExamples);
+				Collections.shuffle(posExamplesList, new Random(2 * rep + 1));
+				Collections.shuffle(negExamplesList, new Random(2 * rep + 2));
 				
 				// calculating training and test sets
 				for(int i=0; i<folds; i++) {
 					Set<OWLIndividual> testPos = getTestingSet(posExamplesList, splitsPos, i);
 					Set<OWLIndividual> testNeg = getTestingSet(negExamplesList, splitsNeg, i);
-					testSetsPos.add(i, testPos);
-					testSetsNeg.add(i, testNeg);
-					trainingSetsPos.add(i, getTrainingSet(posExamples, testPos));
-					trainingSetsNeg.add(i, getTrainingSet(negExamples, testNeg));
+					foldList.add(new Fold(i, rep,
+							getTrainingSet(posExamples, testPos), getTrainingSet(negExamples, testNeg),
+							testPos, testNeg));
 				}
-				
 			}
-
+		}
+		
 		// run the algorithm
-			if( multiThreaded && lp instanceof Cloneable && la instanceof Cloneable){
-				ExecutorService es = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()-1);
-				for(int currFold=0; currFold<folds; currFold++) {
-					try {
-						final AbstractClassExpressionLearningProblem lpClone = (AbstractClassExpressionLearningProblem) lp.getClass().getMethod("clone").invoke(lp);
-						final Set<OWLIndividual> trainPos = trainingSetsPos.get(currFold);
-						final Set<OWLIndividual> trainNeg = trainingSetsNeg.get(currFold);
-						final Set<OWLIndividual> testPos = testSetsPos.get(currFold);
-						final Set<OWLIndividual> testNeg = testSetsNeg.get(currFold);
-						if(lp instanceof PosNegLP){
-							((PosNegLP)lpClone).setPositiveExamples(trainPos);
-							((PosNegLP)lpClone).setNegativeExamples(trainNeg);
-						} else if(lp instanceof PosOnlyLP){
-							((PosOnlyLP)lpClone).setPositiveExamples(new TreeSet<>(trainPos));
-						}
-						final AbstractCELA laClone = (AbstractCELA) la.getClass().getMethod("clone").invoke(la);
-						final int i = currFold;
-						es.submit(new Runnable() {
-
-							@Override
-							public void run() {
-								try {
-									validate(laClone, lpClone, rs, i, trainPos, trainNeg, testPos, testNeg);
-								} catch (Exception e) {
-									e.printStackTrace();
-								}
-							}
-						});
-					} catch (IllegalAccessException | SecurityException | NoSuchMethodException | InvocationTargetException | IllegalArgumentException e) {
-						e.printStackTrace();
-					}
-				}
-				es.shutdown();
-				try {
-					es.awaitTermination(1, TimeUnit.DAYS);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-			} else {
-				for(int currFold=0; currFold<folds; currFold++) {
-					final Set<OWLIndividual> trainPos = trainingSetsPos.get(currFold);
-					final Set<OWLIndividual> trainNeg = trainingSetsNeg.get(currFold);
-					final Set<OWLIndividual> testPos = testSetsPos.get(currFold);
-					final Set<OWLIndividual> testNeg = testSetsNeg.get(currFold);
-					
-					if(lp instanceof PosNegLP){
-						((PosNegLP)lp).setPositiveExamples(trainPos);
-						((PosNegLP)lp).setNegativeExamples(trainNeg);
-					} else if(lp instanceof PosOnlyLP){
-						((PosOnlyLP)lp).setPositiveExamples(new TreeSet<>(trainPos));
-					}
-					
-					validate(la, lp, rs, currFold, trainPos, trainNeg, testPos, testNeg);
-				}
+		long startTime = System.nanoTime();
+		List<FoldResult> results = validate(la, lp, rs, prepareSharedReasoner(rs), foldList);
+		long wallTime = System.nanoTime() - startTime;
+		
+		// aggregate the results of all folds
+		int tp = 0, fp = 0, fn = 0;
+		double sumOfFoldWallTimes = 0;
+		for (FoldResult result : results) {
+			runtime.addNumber(result.runtime);
+			foldWallTime.addNumber(result.wallTime);
+			sumOfFoldWallTimes += result.wallTime;
+			length.addNumber(result.length);
+			accuracyTraining.addNumber(result.trainingAccuracy);
+			accuracy.addNumber(result.accuracy);
+			fMeasureTraining.addNumber(result.trainingFMeasure);
+			// the F-measure is undefined for test sets without positive examples,
+			// e.g. in leave-one-out
+			if(!Double.isNaN(result.fMeasure)) {
+				fMeasure.addNumber(result.fMeasure);
 			}
+			tp += result.correctPosClassified;
+			fn += result.fold.testPos.size() - result.correctPosClassified;
+			fp += result.fold.testNeg.size() - result.correctNegClassified;
+			outputWriter(result.output);
+		}
+		double pooledPrecision = tp + fp == 0 ? 0 : tp / (double) (tp + fp);
+		double pooledRecall = tp + fn == 0 ? 0 : tp / (double) (tp + fn);
+		double wallTimeInSeconds = wallTime / 1e9;
 		
 		outputWriter("");
-		outputWriter("Finished " + folds + "-folds cross-validation.");
+		if(leaveOneOut) {
+			outputWriter("Finished leave-one-out cross-validation.");
+		} else if(nrOfRepetitions > 1) {
+			outputWriter("Finished " + nrOfRepetitions + " times repeated " + folds + "-folds cross-validation.");
+		} else {
+			outputWriter("Finished " + folds + "-folds cross-validation.");
+		}
 		outputWriter("runtime: " + statOutput(df, runtime, "s"));
+		outputWriter("wall time per fold: " + statOutput(df, foldWallTime, "s"));
+		outputWriter("overall wall time: " + df.format(wallTimeInSeconds) + "s ("
+				+ df.format(results.size() / wallTimeInSeconds) + " folds/s, speedup "
+				+ df.format(sumOfFoldWallTimes / wallTimeInSeconds) + ")");
 		outputWriter("length: " + statOutput(df, length, ""));
 		outputWriter("F-Measure on training set: " + statOutput(df, fMeasureTraining, "%"));
 		outputWriter("F-Measure: " + statOutput(df, fMeasure, "%"));
+		outputWriter("F-Measure (pooled over all folds): "
+				+ df.format(100 * Heuristics.getFScore(pooledRecall, pooledPrecision)) + "%");
 		outputWriter("predictive accuracy on training set: " + statOutput(df, accuracyTraining, "%"));
 		outputWriter("predictive accuracy: " + statOutput(df, accuracy, "%"));
 			
 	}
 	
-	private void validate(AbstractCELA la, AbstractClassExpressionLearningProblem lp, AbstractReasonerComponent rs,
-			int currFold, Set<OWLIndividual> trainPos, Set<OWLIndividual> trainNeg, Set<OWLIndividual> testPos, Set<OWLIndividual> testNeg){
+	/**
+	 * Prepares the reasoner such that it can be shared by all folds, i.e. it is
+	 * switched to synchronized mode. The reasoner has been initialized already,
+	 * i.e. the knowledge base is loaded and, for the closed world reasoner, the
+	 * materialization is computed only once and not modified by the folds. The
+	 * closed world and the SPARQL reasoner use concurrent caches, the remaining
+	 * calls which are delegated to the underlying OWL reasoner are synchronized.
+	 *
+	 * @param rs the reasoner
+	 * @return whether the reasoner can be shared by concurrently validated folds
+	 */
+	protected boolean prepareSharedReasoner(AbstractReasonerComponent rs) {
+		if(getNrOfThreads() <= 1) {
+			return false;
+		}
+		try {
+			rs.setSynchronized();
+			return true;
+		} catch (UnsupportedOperationException e) {
+			outputWriter("The reasoner " + rs.getClass().getSimpleName()
+					+ " does not support synchronized mode, the folds are validated one after another.");
+			return false;
+		}
+	}
+	
+	private List<FoldResult> validate(AbstractCELA la, AbstractClassExpressionLearningProblem lp,
+									  AbstractReasonerComponent rs, boolean sharedReasoner, List<Fold> folds) {
+		List<FoldResult> results = new ArrayList<>(folds.size());
+		int nrOfThreads = getNrOfThreads();
+		
+		// check whether we can use a separate learner and learning problem per fold
+		boolean concurrent = sharedReasoner && nrOfThreads > 1 && folds.size() > 1
+				&& copy(la) != null && copy(lp) != null;
+		
+		if(!concurrent) {
+			for (Fold fold : folds) {
+				try {
+					results.add(validate(la, lp, rs, fold));
+				} catch (ComponentInitException e) {
+					throw new RuntimeException("Validation of fold " + fold.index + " failed.", e);
+				}
+			}
+			return results;
+		}
+		
+		ExecutorService es = Executors.newFixedThreadPool(Math.min(nrOfThreads, folds.size()));
+		try {
+			List<Future<FoldResult>> futures = new ArrayList<>(folds.size());
+			for (Fold fold : folds) {
+				futures.add(es.submit(() -> validate(copy(la), copy(lp), rs, fold)));
+			}
+			// join the folds in their order, the first failure cancels all remaining folds
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					throw new RuntimeException("Validation of fold " + folds.get(i).index + " failed.", e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Cross-validation has been interrupted.", e);
+		} finally {
+			es.shutdownNow();
+		}
+		return results;
+	}
+	
+	private static int getNrOfThreads() {
+		if(multiThreaded && nrOfThreads <= 1) {
+			return Runtime.getRuntime().availableProcessors();
+		}
+		return nrOfThreads;
+	}
+	
+	/**
+	 * Returns a copy of the given component by means of its copy constructor or
+	 * its public <code>clone()</code> method.
+	 *
+	 * @param component the component
+	 * @return the copy, or <code>null</code> if the component can not be copied
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T copy(T component) {
+		try {
+			Constructor<?> constructor = component.getClass().getConstructor(component.getClass());
+			return (T) constructor.newInstance(component);
+		} catch (NoSuchMethodException e) {
+			// no copy constructor, try clone() below
+		} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+			return null;
+		}
+		if(component instanceof Cloneable) {
+			try {
+				Method clone = component.getClass().getMethod("clone");
+				return (T) clone.invoke(component);
+			} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+				return null;
+			}
+		}
+		return null;
+	}
+	
+	private FoldResult validate(AbstractCELA la, AbstractClassExpressionLearningProblem lp, AbstractReasonerComponent rs,
+			Fold fold) throws ComponentInitException {
+		long foldStartTime = System.nanoTime();
+		// the folds might be validated concurrently, but DecimalFormat is not thread-safe
+		DecimalFormat format = new DecimalFormat();
+		
+		Set<OWLIndividual> trainPos = fold.trainPos;
+		Set<OWLIndividual> trainNeg = fold.trainNeg;
+		Set<OWLIndividual> testPos = fold.testPos;
+		Set<OWLIndividual> testNeg = fold.testNeg;
+		
+		if(lp instanceof PosNegLP){
+			((PosNegLP)lp).setPositiveExamples(trainPos);
+			((PosNegLP)lp).setNegativeExamples(trainNeg);
+		} else if(lp instanceof PosOnlyLP){
+			((PosOnlyLP)lp).setPositiveExamples(new TreeSet<>(trainPos));
+		}
+		
 		Set<String> pos = Helper.getStringSet(trainPos);
 		Set<String> neg = Helper.getStringSet(trainNeg);
 		String output = "";
 		output += "+" + new TreeSet<>(pos) + "\n";
 		output += "-" + new TreeSet<>(neg) + "\n";
-		try {
-			lp.init();
-			la.setLearningProblem(lp);
-			la.init();
-		} catch (ComponentInitException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
+		lp.init();
+		la.setLearningProblem(lp);
+		la.init();
 		
 		long algorithmStartTime = System.nanoTime();
 		la.start();
 		long algorithmDuration = System.nanoTime() - algorithmStartTime;
-		runtime.addNumber(algorithmDuration/(double)1000000000);
 		
 		OWLClassExpression concept = la.getCurrentlyBestDescription();
 		
@@ -243,47 +372,101 @@ public class CrossValidation {
 		Set<OWLIndividual> tmp2 = Sets.difference(testPos, tmp);
 		Set<OWLIndividual> tmp3 = rs.hasType(concept, testNeg);
 		
+		FoldResult result = new FoldResult(fold);
+		result.runtime = algorithmDuration/(double)1000000000;
+		
 		// calculate training accuracies
 		int trainingCorrectPosClassified = getCorrectPosClassified(rs, concept, trainPos);
 		int trainingCorrectNegClassified = getCorrectNegClassified(rs, concept, trainNeg);
 		int trainingCorrectExamples = trainingCorrectPosClassified + trainingCorrectNegClassified;
-		double trainingAccuracy = 100*((double)trainingCorrectExamples/(trainPos.size()+
+		result.trainingAccuracy = 100*((double)trainingCorrectExamples/(trainPos.size()+
 				trainNeg.size()));
-		accuracyTraining.addNumber(trainingAccuracy);
 		// calculate test accuracies
 		int correctPosClassified = getCorrectPosClassified(rs, concept, testPos);
 		int correctNegClassified = getCorrectNegClassified(rs, concept, testNeg);
 		int correctExamples = correctPosClassified + correctNegClassified;
-		double currAccuracy = 100*((double)correctExamples/(testPos.size()+
+		result.correctPosClassified = correctPosClassified;
+		result.correctNegClassified = correctNegClassified;
+		result.accuracy = 100*((double)correctExamples/(testPos.size()+
 				testNeg.size()));
-		accuracy.addNumber(currAccuracy);
 		// calculate training F-Score
-		int negAsPosTraining = rs.hasType(concept, trainNeg).size();
+		int negAsPosTraining = trainNeg.size() - trainingCorrectNegClassified;
 		double precisionTraining = trainingCorrectPosClassified + negAsPosTraining == 0 ? 0 : trainingCorrectPosClassified / (double) (trainingCorrectPosClassified + negAsPosTraining);
 		double recallTraining = trainingCorrectPosClassified / (double) trainPos.size();
-		fMeasureTraining.addNumber(100*Heuristics.getFScore(recallTraining, precisionTraining));
+		result.trainingFMeasure = 100*Heuristics.getFScore(recallTraining, precisionTraining);
 		// calculate test F-Score
-		int negAsPos = rs.hasType(concept, testNeg).size();
+		int negAsPos = tmp3.size();
 		double precision = correctPosClassified + negAsPos == 0 ? 0 : correctPosClassified / (double) (correctPosClassified + negAsPos);
 		double recall = correctPosClassified / (double) testPos.size();
-//		System.out.println(precision);System.out.println(recall);
-		fMeasure.addNumber(100*Heuristics.getFScore(recall, precision));
-		
-		length.addNumber(OWLClassExpressionUtils.getLength(concept));
+		result.fMeasure = testPos.isEmpty() ? Double.NaN : 100*Heuristics.getFScore(recall, precision);
 		
+		result.length = OWLClassExpressionUtils.getLength(concept);
+		result.wallTime = (System.nanoTime() - foldStartTime)/(double)1000000000;
 		
 		output += "test set errors pos: " + tmp2 + "\n";
 		output += "test set errors neg: " + tmp3 + "\n";
-		output += "fold " + currFold + ":" + "\n";
+		output += "fold " + fold.index + (fold.repetition > 0 ? " (repetition " + fold.repetition + ")" : "") + ":" + "\n";
 		output += "  training: " + pos.size() + " positive and " + neg.size() + " negative examples";
 		output += "  testing: " + correctPosClassified + "/" + testPos.size() + " correct positives, "
 				+ correctNegClassified + "/" + testNeg.size() + " correct negatives" + "\n";
 		output += "  concept: " + concept.toString().replace("\n", " ") + "\n";
-		output += "  accuracy: " + df.format(currAccuracy) + "% (" + df.format(trainingAccuracy) + "% on training set)" + "\n";
-		output += "  length: " + df.format(OWLClassExpressionUtils.getLength(concept)) + "\n";
-		output += "  runtime: " + df.format(algorithmDuration/(double)1000000000) + "s" + "\n";
+		output += "  accuracy: " + format.format(result.accuracy) + "% (" + format.format(result.trainingAccuracy) + "% on training set)" + "\n";
+		output += "  length: " + format.format(result.length) + "\n";
+		output += "  runtime: " + format.format(result.runtime) + "s" + "\n";
+		output += "  wall time: " + format.format(result.wallTime) + "s";
+		if(la instanceof CELOE && result.runtime > 0) {
+			output += " (" + format.format(((CELOE) la).getClassExpressionTests() / result.runtime) + " class expression tests/s)";
+		}
+		output += "\n";
+		result.output = output;
 		
-		outputWriter(output);
+		return result;
+	}
+	
+	/**
+	 * The training and test examples of a single fold.
+	 */
+	private static class Fold {
+		final int index;
+		final int repetition;
+		final Set<OWLIndividual> trainPos;
+		final Set<OWLIndividual> trainNeg;
+		final Set<OWLIndividual> testPos;
+		final Set<OWLIndividual> testNeg;
+		
+		Fold(int index, int repetition,
+			 Set<OWLIndividual> trainPos, Set<OWLIndividual> trainNeg,
+			 Set<OWLIndividual> testPos, Set<OWLIndividual> testNeg) {
+			this.index = index;
+			this.repetition = repetition;
+			// the examples are shared by concurrent folds, thus, we use copies instead of views
+			this.trainPos = Collections.unmodifiableSet(new TreeSet<>(trainPos));
+			this.trainNeg = Collections.unmodifiableSet(new TreeSet<>(trainNeg));
+			this.testPos = Collections.unmodifiableSet(new TreeSet<>(testPos));
+			this.testNeg = Collections.unmodifiableSet(new TreeSet<>(testNeg));
+		}
+	}
+	
+	/**
+	 * The result of the validation of a single fold, times are in seconds and
+	 * accuracies in percent.
+	 */
+	private static class FoldResult {
+		final Fold fold;
+		double runtime;
+		double wallTime;
+		double trainingAccuracy;
+		double accuracy;
+		double trainingFMeasure;
+		double fMeasure;
+		int correctPosClassified;
+		int correctNegClassified;
+		int length;
+		String output;
+		
+		FoldResult(Fold fold) {
+			this.fold = fold;
+		}
 	}
 	
 	protected int getCorrectPosClassified(AbstractReasonerComponent rs, OWLClassExpression concept, Set<OWLIndividual> testSetPos) {
@@ -347,6 +530,14 @@ public class CrossValidation {
 	public Stat getRuntime() {
 		return runtime;
 	}
+
+	/**
+	 * @return the wall time of the folds in seconds, including the initialization
+	 * of the learning algorithm and the evaluation on the test set
+	 */
+	public Stat getFoldWallTime() {
+		return foldWallTime;
+	}
 	
 	protected void outputWriter(String output) {
 		if(writeToFile) {
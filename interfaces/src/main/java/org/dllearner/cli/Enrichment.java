@@ -170,6 +170,12 @@ public class Enrichment {
 
 	AxiomLearningProgressMonitor progressMonitor = new ConsoleAxiomLearningProgressMonitor();
 
+	// if set, the properties are processed in parallel by the scheduler
+	private EnrichmentScheduler scheduler;
+
+	// the loader shared by all algorithms, i.e. samples are loaded only once per run
+	private PartitionedSampleLoader sampleLoader;
+
 	private OWLDataFactory dataFactory = new OWLDataFactoryImpl();
 
 	public Enrichment(SparqlEndpoint se, OWLEntity resource, double threshold, int nrOfAxiomsToLearn,
@@ -249,10 +255,21 @@ public class Enrichment {
 			System.out.println("done in " + (System.currentTimeMillis() - startTime) + " ms");
 		}
 
+		sampleLoader = new PartitionedSampleLoader(ks.getQueryExecutionFactory());
+		try {
+			processEntities();
+		} finally {
+			sampleLoader.close();
+			sampleLoader = null;
+		}
+	}
+
+	private void processEntities() {
 		if(resource == null) {
 
 			// loop over all entities and call appropriate algorithms
 			Set<OWLProperty> processedProperties = new HashSet<>();
+			Set<OWLProperty> scheduledProperties = new HashSet<>();
 			if(processClasses){
 				Set<OWLClass> classes = reasoner.getOWLClasses();
 				filterByNamespaces(classes);
@@ -263,7 +280,11 @@ public class Enrichment {
 			if(processObjectProperties){
 				Set<OWLObjectProperty> objectProperties = reasoner.getOWLObjectProperties();
 				filterByNamespaces(objectProperties);
-				processProperties(objectProperties, AxiomAlgorithms.getAxiomTypes(EntityType.OBJECT_PROPERTY));
+				if(scheduler != null) {
+					scheduledProperties.addAll(objectProperties);
+				} else {
+					processProperties(objectProperties, AxiomAlgorithms.getAxiomTypes(EntityType.OBJECT_PROPERTY));
+				}
 				processedProperties.addAll(objectProperties);
 			}
 
@@ -271,10 +292,18 @@ public class Enrichment {
 			if(processDataProperties){
 				Set<OWLDataProperty> dataProperties = reasoner.getOWLDataProperties();
 				filterByNamespaces(dataProperties);
-				processProperties(dataProperties, AxiomAlgorithms.getAxiomTypes(EntityType.DATA_PROPERTY));
+				if(scheduler != null) {
+					scheduledProperties.addAll(dataProperties);
+				} else {
+					processProperties(dataProperties, AxiomAlgorithms.getAxiomTypes(EntityType.DATA_PROPERTY));
+				}
 				processedProperties.addAll(dataProperties);
 			}
 
+			if(!scheduledProperties.isEmpty()) {
+				processScheduled(scheduledProperties);
+			}
+
 		} else {
 			System.out.println(resource + " appears to be a" + (resource.isOWLObjectProperty() ? "n " : " ")
 					+ resource.getEntityType().getPrintName().toLowerCase()
@@ -303,6 +332,7 @@ public class Enrichment {
 
 	private void processProperties(Set<? extends OWLProperty> properties, Set<AxiomType<? extends OWLAxiom>> axiomTypes){
 		MultiPropertyAxiomLearner la = new MultiPropertyAxiomLearner(ks);
+		la.setSampleLoader(sampleLoader);
 //		la.setUseSampling(true);
 		la.setProgressMonitor(progressMonitor);
 		la.setAxiomTypes(axiomTypes);
@@ -332,6 +362,31 @@ public class Enrichment {
 		}
 	}
 
+	private void processScheduled(Set<? extends OWLEntity> entities) {
+		scheduler.setThreshold(threshold);
+		scheduler.setNrOfAxiomsToLearn(nrOfAxiomsToLearn);
+		scheduler.setMaxExecutionTimeInSeconds(maxExecutionTimeInSeconds);
+		scheduler.setOmitExistingAxioms(omitExistingAxioms);
+		try {
+			Map<EnrichmentScheduler.Task, List<EvaluatedAxiom<OWLAxiom>>> results = scheduler.run(ks, reasoner, entities);
+			for (Entry<EnrichmentScheduler.Task, List<EvaluatedAxiom<OWLAxiom>>> entry : results.entrySet()) {
+				EnrichmentScheduler.Task task = entry.getKey();
+				List<EvaluatedAxiom<OWLAxiom>> evaluatedAxioms = entry.getValue();
+				learnedEvaluatedAxioms.addAll(evaluatedAxioms);
+				for(EvaluatedAxiom<OWLAxiom> evAx : evaluatedAxioms){
+					learnedOWLAxioms.add(evAx.getAxiom());
+				}
+				algorithmRuns.add(new AlgorithmRun(
+						AxiomAlgorithms.getAlgorithmClass(task.getAxiomType()),
+						evaluatedAxioms,
+						scheduler.getParameters(task)));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.warn("Enrichment has been interrupted.");
+		}
+	}
+
 	private <T extends OWLEntity> void filterByNamespaces(Collection<T> entities){
 		if(allowedNamespaces != null && !allowedNamespaces.isEmpty()){
 			for (Iterator<T> iterator = entities.iterator(); iterator.hasNext();) {
@@ -555,6 +610,7 @@ public class Enrichment {
 		ConfigHelper.configure(learner, "maxExecutionTimeInSeconds",
 				maxExecutionTimeInSeconds);
 		((AbstractAxiomLearningAlgorithm)learner).setReturnOnlyNewAxioms(omitExistingAxioms);
+		((AbstractAxiomLearningAlgorithm)learner).setSampleLoader(sampleLoader);
 		learner.init();
 		if(reasoner != null){
 			((AbstractAxiomLearningAlgorithm)learner).setReasoner(reasoner);
@@ -923,6 +979,14 @@ public class Enrichment {
 		this.processPropertiesTypeInferred = processPropertiesTypeInferred;
 	}
 
+	/**
+	 * @param scheduler the scheduler used to process all properties in parallel, or
+	 *                  <code>null</code> to process them one after another
+	 */
+	public void setScheduler(EnrichmentScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
 	public static void main(String[] args) throws IOException, ComponentInitException, IllegalArgumentException, SecurityException, InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException, LearningProblemUnsupportedException {
 		OptionParser parser = new OptionParser();
 		parser.acceptsAll(asList("h", "?", "help"), "Show help.");
@@ -958,6 +1022,14 @@ public class Enrichment {
 		"Specifies the chunk size for the query result as the approach is incrementally.").withRequiredArg().ofType(Integer.class).defaultsTo(1000);
 		parser.acceptsAll(asList("maxExecutionTimeInSeconds"),
 		"Specifies the max execution time for each algorithm run and each entity.").withRequiredArg().ofType(Integer.class).defaultsTo(10);
+		parser.acceptsAll(asList("threads"),
+				"Specifies the number of algorithm runs executed in parallel. If greater than 1, the runs for all properties are scheduled by their estimated cost.").withRequiredArg().ofType(Integer.class).defaultsTo(1);
+		parser.acceptsAll(asList("timeBudgetInSeconds"),
+				"Specifies the max execution time of all algorithm runs, which is distributed by the estimated cost of each run. A value below 1 means no limit.").withRequiredArg().ofType(Long.class).defaultsTo(-1L);
+		parser.acceptsAll(asList("maxConcurrentQueries"),
+				"Specifies the max number of SPARQL queries executed concurrently by the parallel runs. A value below 1 means no limit.").withRequiredArg().ofType(Integer.class).defaultsTo(-1);
+		parser.acceptsAll(asList("checkpointDir"),
+				"Specifies a directory where the results of finished runs are stored, such that an interrupted enrichment can be resumed.").withRequiredArg().ofType(File.class);
 		parser.acceptsAll(asList("omitExistingAxioms"),
 				"Specifies whether return only axioms which not already exist in the knowlegde base.").withOptionalArg().ofType(Boolean.class).defaultsTo(false);
 		OptionSpec<String> allowedNamespacesOption = parser.accepts( "ns" ).withRequiredArg().ofType( String.class )
@@ -1130,6 +1202,17 @@ public class Enrichment {
 			e.setProcessObjectProperties(processObjectProperties);
 			e.setProcessDataProperties(processDataProperties);
 			e.setProcessClasses(processClasses);
+
+			int nrOfThreads = (Integer) options.valueOf("threads");
+			long timeBudgetInSeconds = (Long) options.valueOf("timeBudgetInSeconds");
+			if(nrOfThreads > 1 || timeBudgetInSeconds > 0 || options.has("checkpointDir")) {
+				EnrichmentScheduler scheduler = new EnrichmentScheduler();
+				scheduler.setNrOfThreads(nrOfThreads);
+				scheduler.setTimeBudget(timeBudgetInSeconds, TimeUnit.SECONDS);
+				scheduler.setMaxConcurrentQueries((Integer) options.valueOf("maxConcurrentQueries"));
+				scheduler.setCheckpointDirectory((File) options.valueOf("checkpointDir"));
+				e.setScheduler(scheduler);
+			}
 			e.start();
 
 			// print output in correct format
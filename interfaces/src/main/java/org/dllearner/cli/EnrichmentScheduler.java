@@ -0,0 +1,550 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.cli;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.log4j.Logger;
+import org.dllearner.algorithms.properties.AxiomAlgorithms;
+import org.dllearner.configuration.spring.editors.ConfigHelper;
+import org.dllearner.core.AbstractAxiomLearningAlgorithm;
+import org.dllearner.core.ComponentInitException;
+import org.dllearner.core.EvaluatedAxiom;
+import org.dllearner.core.SilentAxiomLearningProgressMonitor;
+import org.dllearner.kb.SparqlEndpointKS;
+import org.dllearner.kb.sparql.QueryExecutionFactoryConcurrencyLimit;
+import org.dllearner.reasoning.SPARQLReasoner;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schedules the axiom learning tasks of an enrichment run, i.e. one task per entity
+ * and axiom type, on a thread pool under a global time budget.
+ *
+ * <ul>
+ * <li>The cost of each task is estimated from the popularity of the entity, which
+ * is precomputed by the SPARQL reasoner in a few batched queries, weighted by the
+ * axiom type, e.g. transitivity needs a self-join of the property extension.</li>
+ * <li>The tasks are executed in descending order of their cost, i.e. each idle
+ * thread takes the most expensive remaining task (longest processing time first),
+ * which keeps the load of the threads balanced.</li>
+ * <li>If a time budget is set, each task gets a share of the remaining capacity of
+ * the pool proportional to its estimated cost, bounded by the min. and max.
+ * execution time. Tasks which would start after the budget is exhausted are
+ * skipped.</li>
+ * <li>The number of SPARQL queries executed concurrently on the endpoint can be
+ * limited, independent of the number of threads.</li>
+ * <li>If a checkpoint directory is set, the result of each finished task is
+ * written to a file in that directory, and tasks whose result exists are not
+ * executed again, i.e. an interrupted or skipped run can be resumed. The file
+ * of a task is identified by the endpoint, the entity, the axiom type and the
+ * parameters of the run, thus, a run with other parameters doesn't reuse the
+ * results. The config options of the algorithm are stored with the result.</li>
+ * </ul>
+ *
+ * @author Lorenz Buehmann
+ */
+public class EnrichmentScheduler {
+
+	private static final Logger logger = Logger.getLogger(EnrichmentScheduler.class);
+
+	// coarse relative cost of the axiom types per instance of the entity
+	private static final Map<AxiomType<? extends OWLAxiom>, Integer> AXIOM_TYPE_WEIGHTS = new HashMap<>();
+	private static final int DEFAULT_WEIGHT = 2;
+
+	static {
+		// a single count query over the extension
+		for (AxiomType<? extends OWLAxiom> axiomType : Arrays.<AxiomType<? extends OWLAxiom>>asList(
+				AxiomType.FUNCTIONAL_OBJECT_PROPERTY, AxiomType.INVERSE_FUNCTIONAL_OBJECT_PROPERTY,
+				AxiomType.SYMMETRIC_OBJECT_PROPERTY, AxiomType.ASYMMETRIC_OBJECT_PROPERTY,
+				AxiomType.REFLEXIVE_OBJECT_PROPERTY, AxiomType.IRREFLEXIVE_OBJECT_PROPERTY,
+				AxiomType.FUNCTIONAL_DATA_PROPERTY, AxiomType.DATA_PROPERTY_RANGE)) {
+			AXIOM_TYPE_WEIGHTS.put(axiomType, 1);
+		}
+		// overlap with all other properties resp. classes
+		for (AxiomType<? extends OWLAxiom> axiomType : Arrays.<AxiomType<? extends OWLAxiom>>asList(
+				AxiomType.SUB_OBJECT_PROPERTY, AxiomType.EQUIVALENT_OBJECT_PROPERTIES,
+				AxiomType.DISJOINT_OBJECT_PROPERTIES, AxiomType.INVERSE_OBJECT_PROPERTIES,
+				AxiomType.SUB_DATA_PROPERTY, AxiomType.EQUIVALENT_DATA_PROPERTIES,
+				AxiomType.DISJOINT_DATA_PROPERTIES, AxiomType.SUBCLASS_OF, AxiomType.DISJOINT_CLASSES)) {
+			AXIOM_TYPE_WEIGHTS.put(axiomType, 3);
+		}
+		// self-join of the extension
+		AXIOM_TYPE_WEIGHTS.put(AxiomType.TRANSITIVE_OBJECT_PROPERTY, 4);
+	}
+
+	/**
+	 * A single task of the enrichment, i.e. learning axioms of a given type about
+	 * a given entity.
+	 */
+	public static class Task {
+
+		private final OWLEntity entity;
+		private final AxiomType<? extends OWLAxiom> axiomType;
+		private final long cost;
+
+		Task(OWLEntity entity, AxiomType<? extends OWLAxiom> axiomType, long cost) {
+			this.entity = entity;
+			this.axiomType = axiomType;
+			this.cost = cost;
+		}
+
+		public OWLEntity getEntity() {
+			return entity;
+		}
+
+		public AxiomType<? extends OWLAxiom> getAxiomType() {
+			return axiomType;
+		}
+
+		/**
+		 * @return the estimated cost, only meaningful relative to other tasks
+		 */
+		public long getCost() {
+			return cost;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Task)) return false;
+			Task task = (Task) o;
+			return entity.equals(task.entity) && axiomType.equals(task.axiomType);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(entity, axiomType);
+		}
+
+		@Override
+		public String toString() {
+			return axiomType.getName() + "(" + entity.toStringID() + ")[cost=" + cost + "]";
+		}
+	}
+
+	private int nrOfThreads = 4;
+	private int maxConcurrentQueries = -1;
+
+	private long timeBudgetMillis = -1;
+	private int minExecutionTimeInSeconds = 5;
+	private int maxExecutionTimeInSeconds = 10;
+
+	private double threshold = 0.7;
+	private int nrOfAxiomsToLearn = 10;
+	private boolean omitExistingAxioms = false;
+
+	private File checkpointDirectory;
+
+	private final Map<Task, List<EvaluatedAxiom<OWLAxiom>>> results = new ConcurrentHashMap<>();
+	private final Map<Task, Map<Field, Object>> parameters = new ConcurrentHashMap<>();
+	private final Set<Task> failed = ConcurrentHashMap.newKeySet();
+	private final Set<Task> skipped = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Creates the tasks for the given entities and all axiom types supported for
+	 * their entity type, ordered by descending estimated cost.
+	 *
+	 * @param reasoner the initialized reasoner used to get the popularity of the entities
+	 * @param entities the entities
+	 * @return the ordered tasks
+	 */
+	public List<Task> createTasks(SPARQLReasoner reasoner, Collection<? extends OWLEntity> entities) {
+		// get the popularity of all classes and properties in a few batched queries
+		try {
+			reasoner.precomputePopularity();
+		} catch (Exception e) {
+			logger.warn("Failed to precompute the popularity of the entities, falling back to single queries.", e);
+		}
+
+		List<Task> tasks = new ArrayList<>();
+		for (OWLEntity entity : entities) {
+			Set<AxiomType<? extends OWLAxiom>> axiomTypes = AxiomAlgorithms.getAxiomTypes(entity.getEntityType());
+			if (axiomTypes == null) {
+				continue;
+			}
+			int popularity;
+			try {
+				popularity = reasoner.getPopularity(entity);
+			} catch (Exception e) {
+				logger.warn("Failed to get popularity of " + entity.toStringID(), e);
+				popularity = 1;
+			}
+			// nothing to learn from empty entities
+			if (popularity == 0) {
+				continue;
+			}
+			for (AxiomType<? extends OWLAxiom> axiomType : axiomTypes) {
+				if (AxiomAlgorithms.getAlgorithmClass(axiomType) != null) {
+					tasks.add(new Task(entity, axiomType, (long) popularity * AXIOM_TYPE_WEIGHTS.getOrDefault(axiomType, DEFAULT_WEIGHT)));
+				}
+			}
+		}
+		tasks.sort(Comparator.comparingLong(Task::getCost).reversed());
+		return tasks;
+	}
+
+	/**
+	 * Runs all tasks for the given entities with a new reasoner on the knowledge source.
+	 *
+	 * @param ks the knowledge source, which must have been initialized
+	 * @param entities the entities
+	 * @return the learned axioms per task, including the results loaded from the checkpoint
+	 * directory
+	 * @throws InterruptedException if interrupted while waiting
+	 * @see #run(SparqlEndpointKS, SPARQLReasoner, Collection)
+	 */
+	public Map<Task, List<EvaluatedAxiom<OWLAxiom>>> run(SparqlEndpointKS ks, Collection<? extends OWLEntity> entities)
+			throws InterruptedException {
+		SPARQLReasoner reasoner = new SPARQLReasoner(ks.getQueryExecutionFactory());
+		try {
+			reasoner.init();
+		} catch (ComponentInitException e) {
+			throw new RuntimeException("Failed to initialize the reasoner.", e);
+		}
+		return run(ks, reasoner, entities);
+	}
+
+	/**
+	 * Runs all tasks for the given entities and waits until they are finished or
+	 * skipped.
+	 *
+	 * @param ks the knowledge source, which must have been initialized
+	 * @param reasoner the initialized reasoner, which is used to estimate the costs and
+	 *                 shared by all learning algorithms, thus, it is switched to synchronized
+	 *                 mode. Its queries are not subject to the limit of concurrent queries.
+	 * @param entities the entities
+	 * @return the learned axioms per task, including the results loaded from the checkpoint
+	 * directory
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public Map<Task, List<EvaluatedAxiom<OWLAxiom>>> run(SparqlEndpointKS ks, SPARQLReasoner reasoner,
+														 Collection<? extends OWLEntity> entities)
+			throws InterruptedException {
+		long startTime = System.currentTimeMillis();
+
+		reasoner.setSynchronized();
+
+		results.clear();
+		parameters.clear();
+		failed.clear();
+		skipped.clear();
+
+		// limit the number of concurrent queries for all learning algorithms, the
+		// original query execution factory of the knowledge source is restored afterwards
+		QueryExecutionFactory qef = ks.getQueryExecutionFactory();
+		if (maxConcurrentQueries > 0) {
+			ks.setQueryExecutionFactory(new QueryExecutionFactoryConcurrencyLimit(qef, maxConcurrentQueries));
+		}
+		try {
+			return run(ks, reasoner, entities, startTime);
+		} finally {
+			ks.setQueryExecutionFactory(qef);
+		}
+	}
+
+	private Map<Task, List<EvaluatedAxiom<OWLAxiom>>> run(final SparqlEndpointKS ks, final SPARQLReasoner reasoner,
+														  Collection<? extends OWLEntity> entities, long startTime)
+			throws InterruptedException {
+		final long deadline = timeBudgetMillis > 0 ? startTime + timeBudgetMillis : Long.MAX_VALUE;
+
+		List<Task> tasks = createTasks(reasoner, entities);
+
+		// resume from the checkpoint
+		List<Task> todo = new ArrayList<>();
+		for (Task task : tasks) {
+			List<EvaluatedAxiom<OWLAxiom>> result = loadCheckpoint(ks, task);
+			if (result != null) {
+				results.put(task, result);
+			} else {
+				todo.add(task);
+			}
+		}
+		logger.info(tasks.size() + " tasks, " + (tasks.size() - todo.size()) + " of them already finished in a previous run.");
+
+		final AtomicLong remainingCost = new AtomicLong(todo.stream().mapToLong(Task::getCost).sum());
+
+		// the queue of the pool keeps the order of the tasks, i.e. idle threads
+		// always take the most expensive remaining task
+		ExecutorService pool = Executors.newFixedThreadPool(nrOfThreads,
+				new ThreadFactoryBuilder().setNameFormat("enrichment-%d").build());
+		List<Future<?>> futures = new ArrayList<>();
+		for (final Task task : todo) {
+			futures.add(pool.submit(() -> {
+				long remaining = remainingCost.getAndAdd(-task.getCost());
+				long now = System.currentTimeMillis();
+				if (now >= deadline) {
+					skipped.add(task);
+					return;
+				}
+				int executionTime = getExecutionTimeInSeconds(task, remaining, deadline - now);
+				execute(ks, reasoner, task, executionTime);
+			}));
+		}
+		pool.shutdown();
+
+		try {
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					logger.error("Task execution failed.", e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			pool.shutdownNow();
+			throw e;
+		}
+
+		logger.info("Finished " + results.size() + " tasks in " + (System.currentTimeMillis() - startTime) + "ms, "
+				+ failed.size() + " failed, " + skipped.size() + " skipped due to the time budget.");
+
+		return results;
+	}
+
+	/*
+	 * The share of the remaining capacity of the pool, proportional to the estimated cost of the task.
+	 */
+	private int getExecutionTimeInSeconds(Task task, long remainingCost, long remainingTimeMillis) {
+		if (timeBudgetMillis <= 0) {
+			return maxExecutionTimeInSeconds;
+		}
+		double share = (double) task.getCost() / Math.max(1, remainingCost);
+		long seconds = (long) (share * remainingTimeMillis * nrOfThreads / 1000);
+		// a task must not run beyond the deadline
+		long max = Math.min(maxExecutionTimeInSeconds, Math.max(1, remainingTimeMillis / 1000));
+		return (int) Math.max(Math.min(minExecutionTimeInSeconds, max), Math.min(seconds, max));
+	}
+
+	private void execute(SparqlEndpointKS ks, SPARQLReasoner reasoner, Task task, int executionTimeInSeconds) {
+		logger.info("Running " + task + " for max. " + executionTimeInSeconds + "s");
+		try {
+			AbstractAxiomLearningAlgorithm learner = AxiomAlgorithms.getAlgorithmClass(task.getAxiomType())
+					.getConstructor(SparqlEndpointKS.class).newInstance(ks);
+			learner.setEntityToDescribe(task.getEntity());
+			learner.setUseSampling(false);
+			learner.setReturnOnlyNewAxioms(omitExistingAxioms);
+			learner.setMaxExecutionTimeInSeconds(executionTimeInSeconds);
+			learner.setProgressMonitor(new SilentAxiomLearningProgressMonitor());
+			learner.setReasoner(reasoner);
+			learner.init();
+			learner.start();
+
+			List<EvaluatedAxiom<OWLAxiom>> axioms = learner.getCurrentlyBestEvaluatedAxioms(nrOfAxiomsToLearn, threshold);
+			Map<Field, Object> optionValues = ConfigHelper.getConfigOptionValues(learner);
+			results.put(task, axioms);
+			parameters.put(task, optionValues);
+			saveCheckpoint(ks, task, axioms, optionValues);
+		} catch (Exception e) {
+			failed.add(task);
+			logger.error("Failed to run " + task, e);
+		}
+	}
+
+	/*
+	 * The key of the checkpoint of a task, which covers everything the result depends on.
+	 */
+	String getCheckpointKey(SparqlEndpointKS ks, Task task) {
+		String key = String.join(" ",
+				ks.isRemote() ? String.valueOf(ks.getUrl()) : "local",
+				String.valueOf(ks.getDefaultGraphURIs()),
+				task.getEntity().toStringID(),
+				task.getAxiomType().getName(),
+				"threshold=" + threshold,
+				"nrOfAxiomsToLearn=" + nrOfAxiomsToLearn,
+				"omitExistingAxioms=" + omitExistingAxioms,
+				"timeBudget=" + timeBudgetMillis,
+				"minExecutionTime=" + minExecutionTimeInSeconds,
+				"maxExecutionTime=" + maxExecutionTimeInSeconds);
+		return DigestUtils.md5Hex(key);
+	}
+
+	private File getCheckpointFile(String key) {
+		return new File(checkpointDirectory, key + ".ser");
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<EvaluatedAxiom<OWLAxiom>> loadCheckpoint(SparqlEndpointKS ks, Task task) {
+		if (checkpointDirectory == null) {
+			return null;
+		}
+		File file = getCheckpointFile(getCheckpointKey(ks, task));
+		if (!file.exists()) {
+			return null;
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			List<EvaluatedAxiom<OWLAxiom>> axioms = (List<EvaluatedAxiom<OWLAxiom>>) in.readObject();
+			parameters.put(task, fromCheckpoint((Map<String, String>) in.readObject()));
+			return axioms;
+		} catch (Exception e) {
+			logger.warn("Failed to read checkpoint of " + task + ", running it again.", e);
+			return null;
+		}
+	}
+
+	private void saveCheckpoint(SparqlEndpointKS ks, Task task, List<EvaluatedAxiom<OWLAxiom>> axioms,
+								Map<Field, Object> optionValues) {
+		if (checkpointDirectory == null) {
+			return;
+		}
+		String key = getCheckpointKey(ks, task);
+		File file = getCheckpointFile(key);
+		try {
+			// write to a temporary file first, thus, an interrupted write doesn't leave a corrupt checkpoint
+			File tmp = File.createTempFile(key, ".tmp", checkpointDirectory);
+			try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+				out.writeObject(new ArrayList<>(axioms));
+				out.writeObject(toCheckpoint(optionValues));
+			}
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			logger.error("Failed to write checkpoint of " + task, e);
+		}
+	}
+
+	/*
+	 * The config options aren't serializable in general, thus, only the field and the string
+	 * value, which is all the enrichment output uses, are stored.
+	 */
+	private static HashMap<String, String> toCheckpoint(Map<Field, Object> optionValues) {
+		HashMap<String, String> values = new HashMap<>();
+		for (Map.Entry<Field, Object> entry : optionValues.entrySet()) {
+			Field field = entry.getKey();
+			values.put(field.getDeclaringClass().getName() + "#" + field.getName(), String.valueOf(entry.getValue()));
+		}
+		return values;
+	}
+
+	private static Map<Field, Object> fromCheckpoint(Map<String, String> values) {
+		Map<Field, Object> optionValues = new HashMap<>();
+		for (Map.Entry<String, String> entry : values.entrySet()) {
+			String[] key = entry.getKey().split("#", 2);
+			try {
+				optionValues.put(Class.forName(key[0]).getDeclaredField(key[1]), entry.getValue());
+			} catch (ClassNotFoundException | NoSuchFieldException e) {
+				logger.warn("Config option " + entry.getKey() + " of the checkpoint doesn't exist anymore.");
+			}
+		}
+		return optionValues;
+	}
+
+	/**
+	 * @param task the task
+	 * @return the config options of the algorithm, or an empty map if the task hasn't
+	 * been executed. For results loaded from the checkpoint, the values are the string
+	 * representations of the options.
+	 */
+	public Map<Field, Object> getParameters(Task task) {
+		return parameters.getOrDefault(task, Collections.emptyMap());
+	}
+
+	/**
+	 * @return the tasks which failed in this run
+	 */
+	public Set<Task> getFailedTasks() {
+		return failed;
+	}
+
+	/**
+	 * @return the tasks which have been skipped because the time budget was exhausted
+	 */
+	public Set<Task> getSkippedTasks() {
+		return skipped;
+	}
+
+	/**
+	 * @param nrOfThreads the number of tasks executed in parallel
+	 */
+	public void setNrOfThreads(int nrOfThreads) {
+		this.nrOfThreads = nrOfThreads;
+	}
+
+	/**
+	 * @param maxConcurrentQueries the max. number of SPARQL queries executed concurrently
+	 *                             by all tasks, a value below 1 means no limit
+	 */
+	public void setMaxConcurrentQueries(int maxConcurrentQueries) {
+		this.maxConcurrentQueries = maxConcurrentQueries;
+	}
+
+	/**
+	 * @param timeBudget the time budget of the whole run, a value below 1 means no limit,
+	 *                   i.e. each task runs for the max. execution time
+	 * @param timeUnit the time unit
+	 */
+	public void setTimeBudget(long timeBudget, TimeUnit timeUnit) {
+		this.timeBudgetMillis = timeUnit.toMillis(timeBudget);
+	}
+
+	/**
+	 * @param minExecutionTimeInSeconds the min. execution time of a single task if a time budget is set
+	 */
+	public void setMinExecutionTimeInSeconds(int minExecutionTimeInSeconds) {
+		this.minExecutionTimeInSeconds = minExecutionTimeInSeconds;
+	}
+
+	/**
+	 * @param maxExecutionTimeInSeconds the max. execution time of a single task
+	 */
+	public void setMaxExecutionTimeInSeconds(int maxExecutionTimeInSeconds) {
+		this.maxExecutionTimeInSeconds = maxExecutionTimeInSeconds;
+	}
+
+	/**
+	 * @param threshold the min. accuracy of the returned axioms
+	 */
+	public void setThreshold(double threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * @param nrOfAxiomsToLearn the max. number of returned axioms per task
+	 */
+	public void setNrOfAxiomsToLearn(int nrOfAxiomsToLearn) {
+		this.nrOfAxiomsToLearn = nrOfAxiomsToLearn;
+	}
+
+	/**
+	 * @param omitExistingAxioms whether to return only axioms which do not exist in the knowledge base
+	 */
+	public void setOmitExistingAxioms(boolean omitExistingAxioms) {
+		this.omitExistingAxioms = omitExistingAxioms;
+	}
+
+	/**
+	 * @param checkpointDirectory the directory in which the results of finished tasks are stored,
+	 *                            or <code>null</code> to disable checkpointing
+	 */
+	public void setCheckpointDirectory(File checkpointDirectory) {
+		this.checkpointDirectory = checkpointDirectory;
+		if (checkpointDirectory != null) {
+			checkpointDirectory.mkdirs();
+		}
+	}
+}
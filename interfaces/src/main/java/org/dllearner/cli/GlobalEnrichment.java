@@ -67,6 +67,11 @@ public class GlobalEnrichment {
 	private static int maxExecutionTimeInSeconds = 10;
 	private static boolean useInference = true;
 	private static boolean omitExistingAxioms = false;
+
+	// parameters of the scheduler, which processes the properties of each endpoint in parallel
+	private static int nrOfThreadsPerEndpoint = 4;
+	private static long timeBudgetPerEndpointInSeconds = 3600;
+	private static int maxConcurrentQueriesPerEndpoint = 4;
 	
 	// directory for generated schemata
 	private static String baseDir = "log/lod-enriched/";
@@ -182,6 +187,16 @@ public class GlobalEnrichment {
 							false, queryChunkSize, maxExecutionTimeInSeconds, omitExistingAxioms);
 					
 					e.maxEntitiesPerType = 3; // hack for faster testing of endpoints
+					e.setProcessObjectProperties(true);
+					e.setProcessDataProperties(true);
+
+					// the checkpoints allow to resume an interrupted run per endpoint
+					EnrichmentScheduler scheduler = new EnrichmentScheduler();
+					scheduler.setNrOfThreads(nrOfThreadsPerEndpoint);
+					scheduler.setTimeBudget(timeBudgetPerEndpointInSeconds, TimeUnit.SECONDS);
+					scheduler.setMaxConcurrentQueries(maxConcurrentQueriesPerEndpoint);
+					scheduler.setCheckpointDirectory(new File(baseDir + File.separator + "checkpoints" + File.separator + name));
+					e.setScheduler(scheduler);
 					
 //					if(blacklist.contains(name)) {
 //						continue;
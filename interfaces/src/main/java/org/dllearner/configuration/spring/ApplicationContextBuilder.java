@@ -28,4 +28,16 @@ public interface ApplicationContextBuilder {
      */
     ApplicationContext buildApplicationContext(IConfiguration configuration, List<Resource> springConfigurationLocations) throws IOException;
 
+    /**
+     * Create an application context whose beans can refer to the beans of the given parent context, e.g. to reuse
+     * knowledge sources and reasoners which have been initialized already.
+     *
+     * @param configuration                The DL-Learner Configuration object.
+     * @param springConfigurationLocations An ordered list of Spring Configuration Files - beans in later files can override beans in earlier files.
+     * @param parent                       The parent context, or null if there is none.
+     * @return An Application Context
+     * @throws IOException If there's a problem reading any of the files.
+     */
+    ApplicationContext buildApplicationContext(IConfiguration configuration, List<Resource> springConfigurationLocations, ApplicationContext parent) throws IOException;
+
 }
@@ -30,6 +30,11 @@ public class DefaultApplicationContextBuilder implements ApplicationContextBuild
 
     @Override
     public ApplicationContext buildApplicationContext(IConfiguration configuration, List<Resource> springConfigurationLocations) throws IOException{
+        return buildApplicationContext(configuration, springConfigurationLocations, null);
+    }
+
+    @Override
+    public ApplicationContext buildApplicationContext(IConfiguration configuration, List<Resource> springConfigurationLocations, ApplicationContext parent) throws IOException{
         ConfigurableApplicationContext context = null;
         // Post Processors
         BeanDefinitionRegistryPostProcessor beanDefinitionRegistryPostProcessor = new ConfigurationBasedBeanDefinitionRegistryPostProcessor(configuration);
@@ -50,7 +55,7 @@ public class DefaultApplicationContextBuilder implements ApplicationContextBuild
 			}
            ctr++;
         }
-        context = new ClassPathXmlApplicationContext(springConfigurationFiles, false);
+        context = new ClassPathXmlApplicationContext(springConfigurationFiles, false, parent);
 
         // These post processors run before object instantiation
         context.addBeanFactoryPostProcessor(beanDefinitionRegistryPostProcessor);
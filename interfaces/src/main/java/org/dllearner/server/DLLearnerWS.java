@@ -45,6 +45,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * DL-Learner web service interface. The web service makes use of the component
@@ -62,7 +64,8 @@ public class DLLearnerWS {
 
 	private static Logger logger = Logger.getLogger(DLLearnerWS.class);
 
-	private Map<Integer, ClientState> clients = new TreeMap<>();
+	private ConcurrentMap<Integer, ClientState> clients = new ConcurrentHashMap<>();
+	private LearningJobManager jobManager = new LearningJobManager();
 	private Random rand=new Random();
 	private static AnnComponentManager cm = AnnComponentManager.getInstance();
 
@@ -172,8 +175,7 @@ public class DLLearnerWS {
 		int id;
 		do {
 			id = Math.abs(rand.nextInt());
-		} while(clients.containsKey(id));
-		clients.put(id, new ClientState());
+		} while(clients.putIfAbsent(id, new ClientState()) != null);
 		logger.info("New client " + id + " at DL-Learner web service.");
 		return id;
 	}
@@ -511,17 +513,70 @@ public class DLLearnerWS {
 	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
 	 */
 	@WebMethod
-	public void learnThreaded(int id) throws ClientNotKnownException {
-		final ClientState state = getState(id);
-		Thread learningThread = new Thread() {
-			@Override
-			public void run() {
-//				state.setAlgorithmRunning(true);
-				state.getLearningAlgorithm().start();
-//				state.setAlgorithmRunning(false);
-			}
-		};
-		learningThread.start();
+	public void learnThreaded(int id) throws ClientNotKnownException, JobRejectedException {
+		learnAsync(id);
+	}
+
+	/**
+	 * Submits a job which runs the learning algorithm and returns immediately.
+	 * The progress of the job can be followed by {@link #getJobStatus(int)}
+	 * or as a stream of server-sent events at <code>/jobs/&lt;jobID&gt;</code>.
+	 *
+	 * @param id Session ID.
+	 * @return The job ID.
+	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
+	 * @throws JobRejectedException Thrown if the server is busy or the algorithm is already running.
+	 */
+	@WebMethod
+	public int learnAsync(int id) throws ClientNotKnownException, JobRejectedException {
+		ClientState state = getState(id);
+		return jobManager.submit(state.getLearningAlgorithm());
+	}
+
+	/**
+	 * Returns the state of a job, the best description found so far, the number
+	 * of tested class expressions and the size of the search tree.
+	 *
+	 * @param jobID The job ID.
+	 * @return A JSON string encoding the state of the job.
+	 * @throws JobNotKnownException Thrown if the job is not known (anymore).
+	 */
+	@WebMethod
+	public String getJobStatus(int jobID) throws JobNotKnownException {
+		return jobManager.getStatus(jobID);
+	}
+
+	/**
+	 * Returns the best descriptions of a finished job. The results are kept
+	 * for a limited number of finished jobs only.
+	 *
+	 * @param jobID The job ID.
+	 * @return A JSON string encoding learned descriptions, or null if the job is not done yet.
+	 * @throws JobNotKnownException Thrown if the job is not known (anymore).
+	 */
+	@WebMethod
+	public String getJobResult(int jobID) throws JobNotKnownException {
+		return jobManager.getResult(jobID);
+	}
+
+	/**
+	 * Cancels a job. A running algorithm is stopped smoothly.
+	 *
+	 * @param jobID The job ID.
+	 * @return False if the job was done already.
+	 * @throws JobNotKnownException Thrown if the job is not known (anymore).
+	 */
+	@WebMethod
+	public boolean cancelJob(int jobID) throws JobNotKnownException {
+		return jobManager.cancel(jobID);
+	}
+
+	/**
+	 * @return The manager of the learning jobs, e.g. to publish their events.
+	 */
+	@WebMethod(exclude = true)
+	public LearningJobManager getJobManager() {
+		return jobManager;
 	}
 
 	/**
@@ -106,6 +106,8 @@ public class DLLearnerWSStart {
 		// Endpoint endpoint = Endpoint.create(new CustomDataClass());
 		HttpContext context = server.createContext("/services");
 		endpoint.publish(context);
+		// progress of learning jobs as server-sent events
+		server.createContext("/jobs", new JobEventHandler(ws.getJobManager()));
 		// Endpoint endpoint = Endpoint.publish(url, new DLLearnerWS());
 
 		System.out.println("OK.");
@@ -130,6 +132,7 @@ public class DLLearnerWSStart {
 	
 			System.out.print("Stopping web service ... ");
 			endpoint.stop();
+			ws.getJobManager().shutdown();
 	
 			server.stop(1);
 			threads.shutdown();
@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the events of a learning job as server-sent events, i.e. a request
+ * for <code>/jobs/&lt;jobID&gt;</code> is answered with a
+ * <code>text/event-stream</code> which contains an event whenever the progress
+ * of the job changes, and which is closed after the event for the final state
+ * of the job.
+ *
+ * Note, each open stream occupies a thread of the HTTP server, thus, the number
+ * of open streams is limited such that the other requests can still be served.
+ * Further requests for streams are answered with <code>503</code>.
+ *
+ * @author Lorenz Buehmann
+ */
+public class JobEventHandler implements HttpHandler {
+
+	private static final Logger logger = Logger.getLogger(JobEventHandler.class);
+
+	// comment lines keep the connection alive while there is no progress
+	private static final long KEEP_ALIVE_SECONDS = 15;
+
+	// the HTTP server of the web service uses 10 threads
+	private static final int DEFAULT_MAX_STREAMS = 4;
+
+	private final LearningJobManager jobManager;
+	private final Semaphore streams;
+
+	/**
+	 * @param jobManager the job manager
+	 * @param maxStreams the max. number of event streams open at the same time
+	 */
+	public JobEventHandler(LearningJobManager jobManager, int maxStreams) {
+		this.jobManager = jobManager;
+		this.streams = new Semaphore(maxStreams);
+	}
+
+	public JobEventHandler(LearningJobManager jobManager) {
+		this(jobManager, DEFAULT_MAX_STREAMS);
+	}
+
+	@Override
+	public void handle(HttpExchange exchange) throws IOException {
+		if (!streams.tryAcquire()) {
+			exchange.getResponseHeaders().set("Retry-After", String.valueOf(KEEP_ALIVE_SECONDS));
+			sendError(exchange, 503, "The max. number of open event streams is reached.");
+			return;
+		}
+		try {
+			stream(exchange);
+		} finally {
+			streams.release();
+		}
+	}
+
+	private void stream(HttpExchange exchange) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+		int jobID;
+		try {
+			jobID = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+		} catch (NumberFormatException e) {
+			sendError(exchange, 400, "Invalid job ID in " + path);
+			return;
+		}
+
+		BlockingQueue<String[]> events = new LinkedBlockingQueue<>();
+		LearningJobManager.JobListener listener = (type, json) -> events.add(new String[]{type, json});
+		try {
+			jobManager.subscribe(jobID, listener);
+		} catch (JobNotKnownException e) {
+			sendError(exchange, 404, e.getMessage());
+			return;
+		}
+
+		exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+		exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+		exchange.sendResponseHeaders(200, 0);
+		try (OutputStream out = exchange.getResponseBody()) {
+			while (true) {
+				String[] event = events.poll(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+				if (event == null) {
+					write(out, ": keep-alive\n\n");
+					continue;
+				}
+				write(out, "event: " + event[0] + "\ndata: " + event[1] + "\n\n");
+				if (!"progress".equals(event[0]) && !"running".equals(event[0])) {
+					// final state
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			logger.debug("Event stream of job " + jobID + " closed by client.");
+		} finally {
+			jobManager.unsubscribe(jobID, listener);
+			exchange.close();
+		}
+	}
+
+	private static void write(OutputStream out, String s) throws IOException {
+		out.write(s.getBytes(StandardCharsets.UTF_8));
+		out.flush();
+	}
+
+	private static void sendError(HttpExchange exchange, int code, String message) throws IOException {
+		byte[] body = message.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(code, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
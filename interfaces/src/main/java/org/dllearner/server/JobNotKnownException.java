@@ -0,0 +1,11 @@
+package org.dllearner.server;
+
+public class JobNotKnownException extends Exception {
+	
+    static final long serialVersionUID=100;
+    
+    public JobNotKnownException (long id) {
+        super ("Job with id " + id + " is not known.");
+    }
+    
+}
@@ -0,0 +1,14 @@
+package org.dllearner.server;
+
+/**
+ * Thrown if a learning job can not be accepted, e.g. because the job queue is full.
+ */
+public class JobRejectedException extends Exception {
+	
+    static final long serialVersionUID=100;
+    
+    public JobRejectedException (String reason) {
+        super ("Learning job rejected: " + reason);
+    }
+    
+}
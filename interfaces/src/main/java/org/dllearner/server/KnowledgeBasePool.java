@@ -0,0 +1,453 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.server;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.dllearner.configuration.IConfiguration;
+import org.dllearner.configuration.IConfigurationProperty;
+import org.dllearner.configuration.spring.ApplicationContextBuilder;
+import org.dllearner.configuration.spring.DefaultApplicationContextBuilder;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.KnowledgeSource;
+import org.dllearner.core.ReasonerComponent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * A pool of initialized knowledge bases, i.e. the knowledge sources and
+ * reasoners of a configuration, such that they can be reused by subsequent
+ * learning requests. For each request only the remaining components, e.g. the
+ * learning problem and the learning algorithm, have to be created. They live in
+ * a child application context whose parent is the context of the knowledge base.
+ *
+ * The knowledge bases are identified by the full definitions of their beans,
+ * i.e. their names, types and all option values including e.g. the URLs and
+ * graphs of SPARQL endpoints, the base directory and, for local files, the
+ * size and modification date of the files. Concurrent requests share the same
+ * knowledge base, thus, the reasoners are switched to synchronized mode, which
+ * is supported by all reasoners including the SPARQL reasoner.
+ *
+ * Knowledge bases which are not used by any request are evicted in least
+ * recently used order once the pool contains more than the given number of
+ * knowledge bases, or once they have been idle for too long. The memory of the
+ * knowledge bases is not bounded, because it can not be estimated reliably while
+ * other requests allocate memory concurrently, i.e. the max. number of knowledge
+ * bases has to be chosen according to the heap size and the largest knowledge
+ * base. Evicted knowledge bases are closed, including knowledge sources which
+ * hold resources like the result store of a SPARQL endpoint.
+ *
+ * @author Lorenz Buehmann
+ */
+public class KnowledgeBasePool {
+
+	private static final Logger logger = LoggerFactory.getLogger(KnowledgeBasePool.class);
+
+	private final ConcurrentMap<String, Future<PooledKnowledgeBase>> pool = new ConcurrentHashMap<>();
+
+	private final ApplicationContextBuilder builder = new DefaultApplicationContextBuilder();
+
+	private int maxSize = 10;
+	private long maxIdleTimeMillis = TimeUnit.MINUTES.toMillis(60);
+
+	/**
+	 * Returns a lease on the initialized knowledge base of the given
+	 * configuration. The knowledge base is loaded if it is not contained in the
+	 * pool, concurrent requests for the same knowledge base wait for a single load.
+	 * The lease has to be closed once the request is done.
+	 *
+	 * @param configuration the configuration
+	 * @return the lease
+	 * @throws Exception if the knowledge base could not be initialized
+	 */
+	public Lease acquire(IConfiguration configuration) throws Exception {
+		evictIdle();
+
+		Set<String> kbBeans = getKnowledgeBaseBeans(configuration);
+		if (kbBeans.isEmpty()) {
+			// nothing to share, everything is created per request
+			return new Lease(null, configuration);
+		}
+		IConfiguration kbConfiguration = new SubsetConfiguration(configuration, kbBeans);
+		IConfiguration requestConfiguration = new SubsetConfiguration(configuration,
+				configuration.getBeanNames().stream()
+						.filter(beanName -> !kbBeans.contains(beanName))
+						.collect(Collectors.toSet()));
+
+		String key = computeKey(kbConfiguration);
+		while (true) {
+			FutureTask<PooledKnowledgeBase> task = new FutureTask<>(() -> load(key, kbConfiguration));
+			Future<PooledKnowledgeBase> future = pool.putIfAbsent(key, task);
+			if (future == null) {
+				future = task;
+				task.run();
+			}
+			PooledKnowledgeBase kb;
+			try {
+				kb = future.get();
+			} catch (ExecutionException e) {
+				// do not keep failed loads, the next request tries again
+				pool.remove(key, future);
+				Throwable cause = e.getCause();
+				throw cause instanceof Exception ? (Exception) cause : e;
+			}
+			// the knowledge base might have been evicted in between
+			if (kb.acquire()) {
+				return new Lease(kb, requestConfiguration);
+			}
+			pool.remove(key, future);
+		}
+	}
+
+	private PooledKnowledgeBase load(String key, IConfiguration kbConfiguration) throws IOException {
+		logger.info("Loading knowledge base {} ...", key);
+		long startTime = System.currentTimeMillis();
+
+		ConfigurableApplicationContext context = (ConfigurableApplicationContext) builder.buildApplicationContext(
+				kbConfiguration, new ArrayList<>(), null);
+
+		// the reasoners are shared by concurrent requests
+		context.getBeansOfType(AbstractReasonerComponent.class).values().forEach(AbstractReasonerComponent::setSynchronized);
+
+		logger.info("...loaded knowledge base {} in {}ms", key, System.currentTimeMillis() - startTime);
+
+		PooledKnowledgeBase kb = new PooledKnowledgeBase(key, context);
+		evictIfNeeded();
+		return kb;
+	}
+
+	/**
+	 * Evicts idle knowledge bases in least recently used order until the pool,
+	 * including the knowledge base which has just been loaded, contains at most
+	 * the max. number of knowledge bases. Knowledge bases in use are never
+	 * evicted, thus the pool can temporarily exceed the limit.
+	 */
+	private void evictIfNeeded() {
+		List<PooledKnowledgeBase> kbs = getLoaded();
+		int size = kbs.size() + 1;
+		kbs.sort(Comparator.comparingLong(kb -> kb.lastAccess));
+		for (PooledKnowledgeBase kb : kbs) {
+			if (size <= maxSize) {
+				break;
+			}
+			if (evict(kb)) {
+				size--;
+			}
+		}
+	}
+
+	private void evictIdle() {
+		long now = System.currentTimeMillis();
+		for (PooledKnowledgeBase kb : getLoaded()) {
+			if (now - kb.lastAccess > maxIdleTimeMillis) {
+				evict(kb);
+			}
+		}
+	}
+
+	private boolean evict(PooledKnowledgeBase kb) {
+		if (kb.closeIfIdle()) {
+			Future<PooledKnowledgeBase> future = pool.get(kb.key);
+			if (future != null && future.isDone() && getIfLoaded(future) == kb) {
+				pool.remove(kb.key, future);
+			}
+			logger.info("Evicted knowledge base {}", kb.key);
+			return true;
+		}
+		return false;
+	}
+
+	private List<PooledKnowledgeBase> getLoaded() {
+		List<PooledKnowledgeBase> kbs = new ArrayList<>();
+		for (Future<PooledKnowledgeBase> future : pool.values()) {
+			PooledKnowledgeBase kb = getIfLoaded(future);
+			if (kb != null) {
+				kbs.add(kb);
+			}
+		}
+		return kbs;
+	}
+
+	private static PooledKnowledgeBase getIfLoaded(Future<PooledKnowledgeBase> future) {
+		if (future.isDone()) {
+			try {
+				return future.get();
+			} catch (InterruptedException | ExecutionException e) {
+				// failed loads are removed by the requesting thread
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the knowledge sources and reasoners of the configuration and all
+	 * beans they refer to. If they refer to any other bean, e.g. a learning
+	 * problem, nothing can be shared and an empty set is returned.
+	 */
+	private static Set<String> getKnowledgeBaseBeans(IConfiguration configuration) {
+		Set<String> kbBeans = new HashSet<>();
+		Deque<String> queue = new ArrayDeque<>();
+		for (String beanName : configuration.getBeanNames()) {
+			if (isKnowledgeBaseComponent(configuration.getClass(beanName))) {
+				queue.add(beanName);
+			}
+		}
+		while (!queue.isEmpty()) {
+			String beanName = queue.poll();
+			if (!kbBeans.add(beanName)) {
+				continue;
+			}
+			if (!isKnowledgeBaseComponent(configuration.getClass(beanName))) {
+				logger.debug("Knowledge base refers to bean {}, thus, it can not be shared.", beanName);
+				return Collections.emptySet();
+			}
+			queue.addAll(getReferencedBeans(configuration, beanName));
+		}
+		return kbBeans;
+	}
+
+	private static boolean isKnowledgeBaseComponent(Class<?> cls) {
+		return KnowledgeSource.class.isAssignableFrom(cls) || ReasonerComponent.class.isAssignableFrom(cls);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Set<String> getReferencedBeans(IConfiguration configuration, String beanName) {
+		Set<String> beans = new HashSet<>();
+		for (IConfigurationProperty property : configuration.getConfigurationProperties(beanName)) {
+			if (property.isBeanReference()) {
+				beans.add((String) property.getValue());
+			} else if (property.isBeanReferenceCollection()) {
+				beans.addAll((Collection<String>) property.getValue());
+			}
+		}
+		return beans;
+	}
+
+	/**
+	 * Computes the key of a knowledge base based on its bean definitions and,
+	 * for local files, their size and modification date.
+	 */
+	static String computeKey(IConfiguration kbConfiguration) {
+		Hasher hasher = Hashing.murmur3_128().newHasher();
+		hasher.putString(String.valueOf(kbConfiguration.getBaseDir()), StandardCharsets.UTF_8);
+		for (String beanName : new TreeSet<>(kbConfiguration.getBeanNames())) {
+			hasher.putString(beanName, StandardCharsets.UTF_8);
+			hasher.putString(kbConfiguration.getClass(beanName).getName(), StandardCharsets.UTF_8);
+
+			List<IConfigurationProperty> properties = new ArrayList<>(kbConfiguration.getConfigurationProperties(beanName));
+			properties.sort(Comparator.comparing(IConfigurationProperty::getName));
+			for (IConfigurationProperty property : properties) {
+				hasher.putString(property.getName(), StandardCharsets.UTF_8);
+				hasher.putString(toCanonicalString(property.getValue()), StandardCharsets.UTF_8);
+
+				String value = String.valueOf(property.getValue());
+				File file = new File(value);
+				if (!file.isAbsolute() && kbConfiguration.getBaseDir() != null) {
+					file = new File(kbConfiguration.getBaseDir(), value);
+				}
+				if (file.isFile()) {
+					hasher.putLong(file.length());
+					hasher.putLong(file.lastModified());
+				}
+			}
+		}
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * Returns a string representation of an option value which does not depend on
+	 * the iteration order of sets and maps.
+	 */
+	private static String toCanonicalString(Object value) {
+		if (value instanceof Map) {
+			Map<String, String> entries = new TreeMap<>();
+			((Map<?, ?>) value).forEach((k, v) -> entries.put(toCanonicalString(k), toCanonicalString(v)));
+			return entries.toString();
+		} else if (value instanceof List) {
+			return ((List<?>) value).stream()
+					.map(KnowledgeBasePool::toCanonicalString)
+					.collect(Collectors.toList()).toString();
+		} else if (value instanceof Collection) {
+			return ((Collection<?>) value).stream()
+					.map(KnowledgeBasePool::toCanonicalString)
+					.sorted()
+					.collect(Collectors.toList()).toString();
+		} else if (value == null) {
+			return "null";
+		}
+		return value.getClass().getName() + ":" + value;
+	}
+
+	/**
+	 * @return the number of knowledge bases in the pool, including the ones being loaded
+	 */
+	public int size() {
+		return pool.size();
+	}
+
+	/**
+	 * Closes all knowledge bases which are not in use.
+	 */
+	public void clear() {
+		getLoaded().forEach(this::evict);
+	}
+
+	/**
+	 * @param maxSize the max. number of pooled knowledge bases which are not in use, which
+	 *                also bounds their memory as there is no memory based eviction
+	 */
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @param maxIdleTime the max. time a knowledge base is kept without being used
+	 * @param timeUnit the time unit
+	 */
+	public void setMaxIdleTime(long maxIdleTime, TimeUnit timeUnit) {
+		this.maxIdleTimeMillis = timeUnit.toMillis(maxIdleTime);
+	}
+
+	/**
+	 * A knowledge base in the pool together with its usage.
+	 */
+	private static class PooledKnowledgeBase {
+		final String key;
+		final ConfigurableApplicationContext context;
+
+		volatile long lastAccess = System.currentTimeMillis();
+		int nrOfLeases = 0;
+		boolean closed = false;
+
+		PooledKnowledgeBase(String key, ConfigurableApplicationContext context) {
+			this.key = key;
+			this.context = context;
+		}
+
+		synchronized boolean acquire() {
+			if (closed) {
+				return false;
+			}
+			nrOfLeases++;
+			lastAccess = System.currentTimeMillis();
+			return true;
+		}
+
+		synchronized void release() {
+			nrOfLeases--;
+			lastAccess = System.currentTimeMillis();
+		}
+
+		synchronized boolean closeIfIdle() {
+			if (closed || nrOfLeases > 0) {
+				return false;
+			}
+			closed = true;
+			// e.g. the result store of a SPARQL endpoint, which is locked while it is open
+			for (KnowledgeSource ks : context.getBeansOfType(KnowledgeSource.class).values()) {
+				if (ks instanceof AutoCloseable) {
+					try {
+						((AutoCloseable) ks).close();
+					} catch (Exception e) {
+						logger.warn("Failed to close knowledge source of knowledge base " + key, e);
+					}
+				}
+			}
+			context.close();
+			return true;
+		}
+	}
+
+	/**
+	 * The usage of a pooled knowledge base by a single request.
+	 */
+	public static class Lease implements AutoCloseable {
+		private final PooledKnowledgeBase kb;
+		private final IConfiguration requestConfiguration;
+
+		private Lease(PooledKnowledgeBase kb, IConfiguration requestConfiguration) {
+			this.kb = kb;
+			this.requestConfiguration = requestConfiguration;
+		}
+
+		/**
+		 * @return the application context holding the initialized knowledge
+		 * sources and reasoners, or <code>null</code> if there is nothing to share
+		 */
+		public ApplicationContext getContext() {
+			return kb != null ? kb.context : null;
+		}
+
+		/**
+		 * @return the configuration of the beans which have to be created per request
+		 */
+		public IConfiguration getRequestConfiguration() {
+			return requestConfiguration;
+		}
+
+		@Override
+		public void close() {
+			if (kb != null) {
+				kb.release();
+			}
+		}
+	}
+
+	/**
+	 * A view on a subset of the beans of a configuration.
+	 */
+	private static class SubsetConfiguration implements IConfiguration {
+		private final IConfiguration configuration;
+		private final Set<String> beanNames;
+
+		SubsetConfiguration(IConfiguration configuration, Set<String> beanNames) {
+			this.configuration = configuration;
+			this.beanNames = beanNames;
+		}
+
+		@Override
+		public Collection<String> getBeanNames() {
+			return beanNames;
+		}
+
+		@Override
+		public Class getClass(String beanName) {
+			return configuration.getClass(beanName);
+		}
+
+		@Override
+		public String getBaseDir() {
+			return configuration.getBaseDir();
+		}
+
+		@Override
+		public Collection<IConfigurationProperty> getConfigurationProperties(String beanName) {
+			return configuration.getConfigurationProperties(beanName);
+		}
+	}
+}
@@ -0,0 +1,410 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.server;
+
+import org.apache.log4j.Logger;
+import org.dllearner.algorithms.celoe.CELOE;
+import org.dllearner.core.AbstractCELA;
+import org.dllearner.core.EvaluatedDescription;
+import org.dllearner.utilities.owl.OWLAPIRenderers;
+import org.json.simple.JSONObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the learning algorithms of the web service clients as jobs on a bounded
+ * pool of threads. A job is rejected if all threads are busy and the queue of
+ * waiting jobs is full, or if the learning algorithm is already used by another
+ * unfinished job.
+ *
+ * The progress of the running jobs, i.e. the best description found so far,
+ * the number of tested class expressions and the size of the search tree, is
+ * sampled periodically and pushed to the subscribers of a job whenever it has
+ * changed. Cancelled jobs are stopped again by the sampler until they have
+ * terminated. The results of finished jobs are retained up to a max. number of
+ * jobs, the oldest ones are dropped first.
+ *
+ * @author Lorenz Buehmann
+ */
+public class LearningJobManager {
+
+	private static final Logger logger = Logger.getLogger(LearningJobManager.class);
+
+	/**
+	 * The state of a learning job.
+	 */
+	public enum State {
+		QUEUED, RUNNING, FINISHED, CANCELLED, FAILED;
+
+		public boolean isDone() {
+			return this == FINISHED || this == CANCELLED || this == FAILED;
+		}
+	}
+
+	/**
+	 * Receives the events of a learning job.
+	 */
+	public interface JobListener {
+		/**
+		 * @param type the type of the event, i.e. <code>progress</code> or the
+		 *             name of the final state in lower case
+		 * @param json the state of the job encoded as JSON
+		 */
+		void onEvent(String type, String json);
+	}
+
+	private final ThreadPoolExecutor executor;
+	private final ScheduledExecutorService progressSampler;
+
+	private final ConcurrentMap<Integer, LearningJob> jobs = new ConcurrentHashMap<>();
+	private final ConcurrentLinkedQueue<Integer> finishedJobs = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger jobIDs = new AtomicInteger();
+
+	private final int queueCapacity;
+	private final int maxRetainedJobs;
+	private final int maxNrOfResults;
+
+	/**
+	 * @param nrOfThreads the max. number of jobs running at the same time
+	 * @param queueCapacity the max. number of jobs waiting for a thread
+	 * @param maxRetainedJobs the max. number of finished jobs whose results are kept
+	 * @param progressIntervalMillis the interval in which the progress of running jobs is sampled
+	 */
+	public LearningJobManager(int nrOfThreads, int queueCapacity, int maxRetainedJobs, long progressIntervalMillis) {
+		this.queueCapacity = queueCapacity;
+		this.maxRetainedJobs = maxRetainedJobs;
+		this.maxNrOfResults = 10;
+		AtomicInteger threadCnt = new AtomicInteger();
+		executor = new ThreadPoolExecutor(nrOfThreads, nrOfThreads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				r -> new Thread(r, "dl-learner-job-" + threadCnt.incrementAndGet()),
+				new ThreadPoolExecutor.AbortPolicy());
+		progressSampler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "dl-learner-job-progress");
+			thread.setDaemon(true);
+			return thread;
+		});
+		progressSampler.scheduleWithFixedDelay(this::sampleProgress,
+				progressIntervalMillis, progressIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public LearningJobManager() {
+		this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 16, 100, 500);
+	}
+
+	/**
+	 * Submits a job which runs the given learning algorithm.
+	 *
+	 * @param la the learning algorithm, which has to be initialized already
+	 * @return the ID of the job
+	 * @throws JobRejectedException if the job is not accepted
+	 */
+	public synchronized int submit(AbstractCELA la) throws JobRejectedException {
+		for (LearningJob job : jobs.values()) {
+			if (job.algorithm == la && !job.state.isDone()) {
+				throw new JobRejectedException("the learning algorithm is already used by job " + job.id);
+			}
+		}
+		LearningJob job = new LearningJob(jobIDs.incrementAndGet(), la);
+		jobs.put(job.id, job);
+		try {
+			job.future = executor.submit(job::run);
+		} catch (RejectedExecutionException e) {
+			jobs.remove(job.id);
+			throw new JobRejectedException("the max. number of " + executor.getMaximumPoolSize()
+					+ " running and " + queueCapacity + " waiting jobs is reached");
+		}
+		logger.info("Submitted learning job " + job.id + ".");
+		return job.id;
+	}
+
+	/**
+	 * Cancels the given job. A queued job is not started at all, a running job
+	 * is stopped gracefully, i.e. its best results so far are retained.
+	 *
+	 * @param jobID the job ID
+	 * @return <code>false</code> if the job was done already
+	 * @throws JobNotKnownException if the job is not known (anymore)
+	 */
+	public boolean cancel(int jobID) throws JobNotKnownException {
+		return getJob(jobID).cancel();
+	}
+
+	/**
+	 * @param jobID the job ID
+	 * @return the current state of the job encoded as JSON
+	 * @throws JobNotKnownException if the job is not known (anymore)
+	 */
+	public String getStatus(int jobID) throws JobNotKnownException {
+		return getJob(jobID).toJSON(false);
+	}
+
+	/**
+	 * @param jobID the job ID
+	 * @return the best descriptions of the finished job encoded as JSON, or
+	 * <code>null</code> if the job is not done yet
+	 * @throws JobNotKnownException if the job is not known (anymore)
+	 */
+	public String getResult(int jobID) throws JobNotKnownException {
+		return getJob(jobID).result;
+	}
+
+	/**
+	 * Registers a listener for the events of the given job. The listener gets
+	 * the current state of the job immediately. Events are sent until the job
+	 * is done, the last event is the one for the final state.
+	 *
+	 * @param jobID the job ID
+	 * @param listener the listener
+	 * @throws JobNotKnownException if the job is not known (anymore)
+	 */
+	public void subscribe(int jobID, JobListener listener) throws JobNotKnownException {
+		getJob(jobID).subscribe(listener);
+	}
+
+	/**
+	 * @param jobID the job ID
+	 * @param listener the listener to remove
+	 */
+	public void unsubscribe(int jobID, JobListener listener) {
+		LearningJob job = jobs.get(jobID);
+		if (job != null) {
+			job.listeners.remove(listener);
+		}
+	}
+
+	/**
+	 * Cancels all jobs and stops the threads.
+	 */
+	public void shutdown() {
+		jobs.values().forEach(LearningJob::cancel);
+		executor.shutdownNow();
+		progressSampler.shutdownNow();
+	}
+
+	private LearningJob getJob(int jobID) throws JobNotKnownException {
+		LearningJob job = jobs.get(jobID);
+		if (job == null) {
+			throw new JobNotKnownException(jobID);
+		}
+		return job;
+	}
+
+	private void sampleProgress() {
+		for (LearningJob job : jobs.values()) {
+			if (job.state == State.RUNNING) {
+				AbstractCELA la = job.algorithm;
+				if (job.cancelRequested && la != null) {
+					// a cancel right before the start of the algorithm gets lost
+					// because the algorithm resets its stop flag, thus, we repeat it
+					la.stop();
+				}
+				try {
+					job.publishProgress();
+				} catch (RuntimeException e) {
+					// the algorithm might modify its data structures concurrently,
+					// we try again with the next sample
+					logger.debug("Could not sample progress of job " + job.id, e);
+				}
+			}
+		}
+	}
+
+	private void retain(LearningJob job) {
+		finishedJobs.add(job.id);
+		while (finishedJobs.size() > maxRetainedJobs) {
+			Integer oldest = finishedJobs.poll();
+			if (oldest != null) {
+				jobs.remove(oldest);
+			}
+		}
+	}
+
+	private class LearningJob {
+		final int id;
+		volatile AbstractCELA algorithm;
+		volatile State state = State.QUEUED;
+		volatile boolean cancelRequested = false;
+		volatile Future<?> future;
+		volatile String result;
+		volatile String error;
+		final CopyOnWriteArrayList<JobListener> listeners = new CopyOnWriteArrayList<>();
+
+		// the last published progress
+		volatile String bestDescription;
+		volatile double bestAccuracy;
+		volatile int expressionTests;
+		volatile int searchTreeSize;
+
+		LearningJob(int id, AbstractCELA algorithm) {
+			this.id = id;
+			this.algorithm = algorithm;
+		}
+
+		void run() {
+			if (cancelRequested) {
+				finish(State.CANCELLED);
+				return;
+			}
+			state = State.RUNNING;
+			publish("running");
+			State finalState;
+			try {
+				algorithm.start();
+				finalState = cancelRequested ? State.CANCELLED : State.FINISHED;
+			} catch (Throwable t) {
+				logger.error("Learning job " + id + " failed.", t);
+				error = String.valueOf(t.getMessage());
+				finalState = State.FAILED;
+			}
+			finish(finalState);
+		}
+
+		private void finish(State finalState) {
+			try {
+				updateProgress();
+				result = resultToJSON();
+			} catch (RuntimeException e) {
+				logger.error("Could not get the result of job " + id, e);
+			}
+			// the client may reuse its algorithm, thus, we only keep the results
+			algorithm = null;
+			state = finalState;
+			publish(finalState.name().toLowerCase());
+			listeners.clear();
+			retain(this);
+			logger.info("Learning job " + id + " " + finalState.name().toLowerCase() + ".");
+		}
+
+		boolean cancel() {
+			if (state.isDone()) {
+				return false;
+			}
+			cancelRequested = true;
+			AbstractCELA la = algorithm;
+			if (state == State.QUEUED && future != null && future.cancel(false)) {
+				// the job will never run
+				finish(State.CANCELLED);
+			} else if (la != null) {
+				la.stop();
+			}
+			return true;
+		}
+
+		void subscribe(JobListener listener) {
+			listeners.add(listener);
+			listener.onEvent(state.isDone() ? state.name().toLowerCase() : "progress", toJSON(state.isDone()));
+			// the job might have been finished in between
+			if (state.isDone()) {
+				listeners.remove(listener);
+			}
+		}
+
+		/**
+		 * @return whether the progress has changed since the last update
+		 */
+		private boolean updateProgress() {
+			AbstractCELA la = algorithm;
+			if (la == null) {
+				return false;
+			}
+			boolean changed = false;
+			EvaluatedDescription<?> best = la.getCurrentlyBestEvaluatedDescription();
+			if (best != null) {
+				String description = OWLAPIRenderers.toManchesterOWLSyntax(best.getDescription());
+				if (!description.equals(bestDescription)) {
+					bestDescription = description;
+					bestAccuracy = best.getAccuracy();
+					changed = true;
+				}
+			}
+			if (la instanceof CELOE) {
+				CELOE celoe = (CELOE) la;
+				int tests = celoe.getClassExpressionTests();
+				int size = celoe.getSearchTreeSize();
+				if (tests != expressionTests || size != searchTreeSize) {
+					expressionTests = tests;
+					searchTreeSize = size;
+					changed = true;
+				}
+			}
+			return changed;
+		}
+
+		void publishProgress() {
+			if (updateProgress()) {
+				publish("progress");
+			}
+		}
+
+		private void publish(String type) {
+			if (listeners.isEmpty()) {
+				return;
+			}
+			String json = toJSON(state.isDone());
+			for (JobListener listener : listeners) {
+				try {
+					listener.onEvent(type, json);
+				} catch (RuntimeException e) {
+					logger.warn("Removing listener of job " + id + " because it failed.", e);
+					listeners.remove(listener);
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		String toJSON(boolean withResult) {
+			JSONObject json = new JSONObject();
+			json.put("job", id);
+			json.put("state", state.name().toLowerCase());
+			json.put("bestDescription", bestDescription);
+			json.put("accuracy", bestAccuracy);
+			json.put("expressionTests", expressionTests);
+			json.put("searchTreeSize", searchTreeSize);
+			if (error != null) {
+				json.put("error", error);
+			}
+			if (withResult && result != null) {
+				json.put("result", result);
+			}
+			return json.toJSONString();
+		}
+
+		private String resultToJSON() {
+			AbstractCELA la = algorithm;
+			if (la == null) {
+				return null;
+			}
+			List<? extends EvaluatedDescription<?>> descriptions = la.getCurrentlyBestEvaluatedDescriptions(maxNrOfResults);
+			String json = "{";
+			int count = 1;
+			for (EvaluatedDescription<?> description : descriptions) {
+				if (count > 1) json += ",\"solution" + count + "\" : " + description.asJSON();
+				else json += "\"solution" + count + "\" : " + description.asJSON();
+				count++;
+			}
+			json += "}";
+			return json;
+		}
+	}
+}
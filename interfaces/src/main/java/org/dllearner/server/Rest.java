@@ -11,6 +11,10 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -22,8 +26,10 @@ import org.dllearner.configuration.IConfiguration;
 import org.dllearner.configuration.spring.ApplicationContextBuilder;
 import org.dllearner.configuration.spring.DefaultApplicationContextBuilder;
 import org.dllearner.confparser.ConfParserConfiguration;
+import org.dllearner.core.AbstractCELA;
 import org.dllearner.core.ClassExpressionLearningAlgorithm;
 import org.dllearner.core.LearningAlgorithm;
+import org.dllearner.core.StoppableLearningAlgorithm;
 import org.dllearner.learningproblems.EvaluatedDescriptionPosNeg;
 import org.dllearner.utilities.owl.OWLAPIRenderers;
 import org.dllearner.utilities.owl.OWLClassExpressionToSPARQLConverter;
@@ -31,12 +37,47 @@ import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 
 public class Rest extends HttpServlet {
     private static Logger log = LoggerFactory.getLogger(Rest.class);
 
+    // keeps the initialized knowledge sources and reasoners between requests
+    private final KnowledgeBasePool kbPool = new KnowledgeBasePool();
+    private boolean useKnowledgeBasePool = true;
+
+    // stops the learning algorithms whose time budget is exceeded
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dl-learner-rest-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Reads the optional init parameters <code>useKnowledgeBasePool</code>,
+     * <code>kbPoolMaxSize</code> and <code>kbPoolMaxIdleTimeInMinutes</code>.
+     */
+    @Override
+    public void init() throws ServletException {
+        if (getInitParameter("useKnowledgeBasePool") != null) {
+            useKnowledgeBasePool = Boolean.parseBoolean(getInitParameter("useKnowledgeBasePool"));
+        }
+        if (getInitParameter("kbPoolMaxSize") != null) {
+            kbPool.setMaxSize(Integer.parseInt(getInitParameter("kbPoolMaxSize")));
+        }
+        if (getInitParameter("kbPoolMaxIdleTimeInMinutes") != null) {
+            kbPool.setMaxIdleTime(Long.parseLong(getInitParameter("kbPoolMaxIdleTimeInMinutes")), TimeUnit.MINUTES);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+        kbPool.clear();
+    }
+
     @Override
     protected void doGet(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) throws ServletException, IOException {
         handle(httpServletRequest, httpServletResponse);
@@ -61,6 +102,7 @@ public class Rest extends HttpServlet {
         try {
             String conf = null;
             int limit = 5;
+            long timeBudgetInSeconds = -1;
             if (!isSet("conf", httpServletRequest)) {
 //                throw new IllegalArgumentException("Missing parameter: conf is required. ");
                 httpServletRequest.getRequestDispatcher("/WEB-INF/sparqr.html").forward(httpServletRequest, httpServletResponse);
@@ -70,6 +112,9 @@ public class Rest extends HttpServlet {
                 if (isSet("limit", httpServletRequest)) {
                     limit = Integer.parseInt(httpServletRequest.getParameter("limit"));
                 }
+                if (isSet("timeBudget", httpServletRequest)) {
+                    timeBudgetInSeconds = Long.parseLong(httpServletRequest.getParameter("timeBudget"));
+                }
             }
 
             if (isSet("debug", httpServletRequest) && httpServletRequest.getParameter("debug").equalsIgnoreCase("true")) {
@@ -91,7 +136,7 @@ public class Rest extends HttpServlet {
                 learningResult.put("falseNegatives", "uri1, uri2");
             } else {
 
-                EvaluatedDescriptionPosNeg ed = learn(conf);
+                EvaluatedDescriptionPosNeg ed = learn(conf, timeBudgetInSeconds);
 
                 OWLClassExpressionToSPARQLConverter sparqlConv = new OWLClassExpressionToSPARQLConverter();
                                learningResult.put("success", "1");
@@ -138,15 +183,64 @@ public class Rest extends HttpServlet {
      * @return
      */
     public EvaluatedDescriptionPosNeg learn(String conf) throws Exception {
+        return learn(conf, -1);
+    }
+
+    /**
+     * This function takes the config string as in a conf file and the returns an EvaluatedDescription.
+     * The knowledge sources and reasoners are taken from the pool if they have been initialized by a
+     * previous request with the same settings, thus, only the other components are created per request.
+     *
+     * @param conf the content of a conf file
+     * @param timeBudgetInSeconds the max. execution time of the learning algorithm, or a value below 1 for
+     *                            the time given in the conf file
+     * @return the best class expression
+     */
+    public EvaluatedDescriptionPosNeg learn(String conf, long timeBudgetInSeconds) throws Exception {
         Resource confFile = new InputStreamResource(new ByteArrayInputStream(conf.getBytes()));
 
         IConfiguration configuration = new ConfParserConfiguration(confFile);
 
         ApplicationContextBuilder builder = new DefaultApplicationContextBuilder();
-        ApplicationContext context = builder.buildApplicationContext(configuration, new ArrayList<>());
 
-        LearningAlgorithm algorithm = context.getBean(LearningAlgorithm.class);
-        algorithm.start();
+        if (!useKnowledgeBasePool) {
+            ApplicationContext context = builder.buildApplicationContext(configuration, new ArrayList<>());
+            return run(context.getBean(LearningAlgorithm.class), timeBudgetInSeconds);
+        }
+
+        try (KnowledgeBasePool.Lease lease = kbPool.acquire(configuration)) {
+            ConfigurableApplicationContext context = (ConfigurableApplicationContext) builder.buildApplicationContext(
+                    lease.getRequestConfiguration(), new ArrayList<>(), lease.getContext());
+            try {
+                return run(context.getBean(LearningAlgorithm.class), timeBudgetInSeconds);
+            } finally {
+                // only closes the components of this request, the pooled ones are kept
+                context.close();
+            }
+        }
+    }
+
+    private EvaluatedDescriptionPosNeg run(LearningAlgorithm algorithm, long timeBudgetInSeconds) throws Exception {
+        ScheduledFuture<?> timeout = null;
+        if (timeBudgetInSeconds > 0) {
+            if (algorithm instanceof AbstractCELA) {
+                AbstractCELA cela = (AbstractCELA) algorithm;
+                if (cela.getMaxExecutionTimeInSeconds() <= 0 || cela.getMaxExecutionTimeInSeconds() > timeBudgetInSeconds) {
+                    cela.setMaxExecutionTimeInSeconds(timeBudgetInSeconds);
+                }
+            }
+            // algorithms which do not check the time themselves are stopped from outside
+            if (algorithm instanceof StoppableLearningAlgorithm) {
+                timeout = timer.schedule(((StoppableLearningAlgorithm) algorithm)::stop, timeBudgetInSeconds, TimeUnit.SECONDS);
+            }
+        }
+        try {
+            algorithm.start();
+        } finally {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+        }
         if (algorithm instanceof ClassExpressionLearningAlgorithm) {
             return (EvaluatedDescriptionPosNeg) ((ClassExpressionLearningAlgorithm) algorithm).getCurrentlyBestEvaluatedDescriptions(1).iterator().next();
         }
@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.dllearner.algorithms.celoe.CELOE;
+import org.dllearner.core.AbstractCELA;
+import org.dllearner.core.AbstractClassExpressionLearningProblem;
+import org.dllearner.core.AbstractKnowledgeSource;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.kb.OWLAPIOntology;
+import org.dllearner.learningproblems.PosNegLPStandard;
+import org.dllearner.reasoning.ClosedWorldReasoner;
+import org.dllearner.refinementoperators.RhoDRDown;
+import org.dllearner.utilities.statistics.Stat;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Tests that the concurrent validation of the folds leads to the same results
+ * as the sequential validation.
+ *
+ * @author Lorenz Buehmann
+ */
+public class CrossValidationTest {
+
+	private static final String NS = "http://example.com/father#";
+
+	private static ClosedWorldReasoner reasoner;
+	private static Set<OWLIndividual> posExamples;
+	private static Set<OWLIndividual> negExamples;
+
+	/**
+	 * Records the results of the single folds instead of printing them.
+	 */
+	private static class RecordingCrossValidation extends CrossValidation {
+
+		// filled during the construction, thus, it can't be an instance field
+		static final List<String> foldResults = new ArrayList<>();
+
+		RecordingCrossValidation(AbstractCELA la, AbstractClassExpressionLearningProblem lp,
+								 AbstractReasonerComponent rs, int folds, boolean leaveOneOut) {
+			super(la, lp, rs, folds, leaveOneOut);
+		}
+
+		@Override
+		protected void outputWriter(String output) {
+			// everything except the runtimes
+			for (String line : output.split("\n")) {
+				if (line.startsWith("  testing:") || line.startsWith("  concept:") || line.startsWith("  accuracy:")
+						|| line.startsWith("+") || line.startsWith("-")) {
+					foldResults.add(line);
+				}
+			}
+		}
+	}
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new File("../examples/father.owl"));
+		AbstractKnowledgeSource ks = new OWLAPIOntology(ontology);
+		ks.init();
+
+		reasoner = new ClosedWorldReasoner(ks);
+		reasoner.init();
+
+		OWLDataFactory df = OWLManager.getOWLDataFactory();
+		posExamples = new TreeSet<>();
+		for (String name : new String[]{"stefan", "markus", "martin"}) {
+			posExamples.add(df.getOWLNamedIndividual(IRI.create(NS + name)));
+		}
+		negExamples = new TreeSet<>();
+		for (String name : new String[]{"heinz", "anna", "michelle"}) {
+			negExamples.add(df.getOWLNamedIndividual(IRI.create(NS + name)));
+		}
+	}
+
+	@After
+	public void tearDown() {
+		CrossValidation.nrOfThreads = 1;
+		CrossValidation.multiThreaded = false;
+	}
+
+	private List<String> run(int nrOfThreads, boolean leaveOneOut, boolean useExistsConstructor, List<Stat> stats)
+			throws Exception {
+		PosNegLPStandard lp = new PosNegLPStandard(reasoner);
+		lp.setPositiveExamples(posExamples);
+		lp.setNegativeExamples(negExamples);
+		lp.init();
+
+		// the search must not depend on the runtime
+		CELOE la = new CELOE(lp, reasoner);
+		la.setMaxExecutionTimeInSeconds(0);
+		la.setMaxClassExpressionTests(300);
+		if (!useExistsConstructor) {
+			RhoDRDown op = new RhoDRDown();
+			op.setReasoner(reasoner);
+			op.setUseExistsConstructor(false);
+			la.setOperator(op);
+		}
+		la.init();
+
+		CrossValidation.nrOfThreads = nrOfThreads;
+		RecordingCrossValidation.foldResults.clear();
+		CrossValidation cv = new RecordingCrossValidation(la, lp, reasoner, 3, leaveOneOut);
+		stats.add(cv.getAccuracy());
+		stats.add(cv.getLength());
+		stats.add(cv.getfMeasure());
+		stats.add(cv.getfMeasureTraining());
+		return new ArrayList<>(RecordingCrossValidation.foldResults);
+	}
+
+	private List<String> assertSameResults(boolean leaveOneOut, boolean useExistsConstructor) throws Exception {
+		List<Stat> sequentialStats = new ArrayList<>();
+		List<String> sequential = run(1, leaveOneOut, useExistsConstructor, sequentialStats);
+		List<Stat> concurrentStats = new ArrayList<>();
+		List<String> concurrent = run(4, leaveOneOut, useExistsConstructor, concurrentStats);
+
+		assertFalse(sequential.isEmpty());
+		assertEquals(sequential, concurrent);
+		for (int i = 0; i < sequentialStats.size(); i++) {
+			Stat expected = sequentialStats.get(i);
+			Stat actual = concurrentStats.get(i);
+			assertEquals(expected.getCount(), actual.getCount());
+			assertEquals(expected.getMean(), actual.getMean(), 0d);
+			assertEquals(expected.getMin(), actual.getMin(), 0d);
+			assertEquals(expected.getMax(), actual.getMax(), 0d);
+		}
+		return concurrent;
+	}
+
+	@Test
+	public void testKFold() throws Exception {
+		assertSameResults(false, true);
+	}
+
+	@Test
+	public void testLeaveOneOut() throws Exception {
+		assertSameResults(true, true);
+	}
+
+	/**
+	 * The learning algorithm of each fold is a copy, which must keep the options of the operator.
+	 */
+	@Test
+	public void testOperatorOptions() throws Exception {
+		List<String> concurrent = assertSameResults(false, false);
+		for (String line : concurrent) {
+			if (line.startsWith("  concept:")) {
+				assertTrue(line, !line.contains("some") && !line.contains("SomeValuesFrom"));
+			}
+		}
+	}
+}
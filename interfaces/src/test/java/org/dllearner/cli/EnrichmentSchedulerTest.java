@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.dllearner.core.EvaluatedAxiom;
+import org.dllearner.kb.LocalModelBasedSparqlEndpointKS;
+import org.dllearner.kb.SparqlEndpointKS;
+import org.dllearner.reasoning.SPARQLReasoner;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import com.google.common.collect.Sets;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Tests the scheduling and checkpointing of the {@link EnrichmentScheduler}.
+ *
+ * @author Lorenz Buehmann
+ */
+public class EnrichmentSchedulerTest {
+
+	private static final String NS = "http://example.com/father#";
+
+	private static SparqlEndpointKS ks;
+	private static OWLObjectProperty hasChild;
+	// not used in the knowledge base
+	private static OWLObjectProperty hasSibling;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		Model model = RDFDataMgr.loadModel("../examples/family/father_oe.owl", Lang.RDFXML);
+		ks = new LocalModelBasedSparqlEndpointKS(model);
+		ks.init();
+
+		OWLDataFactory df = new OWLDataFactoryImpl();
+		hasChild = df.getOWLObjectProperty(IRI.create(NS + "hasChild"));
+		hasSibling = df.getOWLObjectProperty(IRI.create(NS + "hasSibling"));
+	}
+
+	private static EnrichmentScheduler createScheduler(File checkpointDirectory) {
+		EnrichmentScheduler scheduler = new EnrichmentScheduler();
+		scheduler.setNrOfThreads(2);
+		scheduler.setMaxExecutionTimeInSeconds(5);
+		scheduler.setThreshold(0.0);
+		scheduler.setCheckpointDirectory(checkpointDirectory);
+		return scheduler;
+	}
+
+	private static int nrOfCheckpoints(File checkpointDirectory) {
+		return checkpointDirectory.listFiles((dir, name) -> name.endsWith(".ser")).length;
+	}
+
+	@Test
+	public void testCreateTasks() throws Exception {
+		SPARQLReasoner reasoner = new SPARQLReasoner(ks.getQueryExecutionFactory());
+		reasoner.init();
+
+		List<EnrichmentScheduler.Task> tasks = new EnrichmentScheduler().createTasks(
+				reasoner, Sets.newHashSet(hasChild, hasSibling));
+		assertFalse(tasks.isEmpty());
+
+		for (int i = 0; i < tasks.size(); i++) {
+			// nothing to learn about empty entities
+			assertEquals(hasChild, tasks.get(i).getEntity());
+			// the most expensive tasks first
+			if (i > 0) {
+				assertTrue(tasks.get(i - 1).getCost() >= tasks.get(i).getCost());
+			}
+		}
+	}
+
+	@Test
+	public void testRun() throws Exception {
+		EnrichmentScheduler scheduler = createScheduler(null);
+		Map<EnrichmentScheduler.Task, List<EvaluatedAxiom<OWLAxiom>>> results = scheduler.run(ks, Sets.newHashSet(hasChild));
+
+		assertFalse(results.isEmpty());
+		assertTrue(scheduler.getFailedTasks().isEmpty());
+		assertTrue(scheduler.getSkippedTasks().isEmpty());
+		for (EnrichmentScheduler.Task task : results.keySet()) {
+			assertFalse(scheduler.getParameters(task).isEmpty());
+		}
+	}
+
+	@Test
+	public void testRunWithReasoner() throws Exception {
+		SPARQLReasoner reasoner = new SPARQLReasoner(ks.getQueryExecutionFactory());
+		reasoner.init();
+
+		// the reasoner is shared by all tasks
+		EnrichmentScheduler scheduler = createScheduler(null);
+		scheduler.setNrOfThreads(4);
+		Map<EnrichmentScheduler.Task, List<EvaluatedAxiom<OWLAxiom>>> results =
+				scheduler.run(ks, reasoner, Sets.newHashSet(hasChild));
+
+		assertFalse(results.isEmpty());
+		assertTrue(scheduler.getFailedTasks().isEmpty());
+		assertEquals(createScheduler(null).run(ks, Sets.newHashSet(hasChild)).keySet(), results.keySet());
+	}
+
+	@Test
+	public void testTimeBudgetExhausted() throws Exception {
+		EnrichmentScheduler scheduler = createScheduler(null);
+		scheduler.setTimeBudget(1, TimeUnit.MILLISECONDS);
+		Map<EnrichmentScheduler.Task, List<EvaluatedAxiom<OWLAxiom>>> results = scheduler.run(ks, Sets.newHashSet(hasChild));
+
+		// the budget is exhausted before the first task starts
+		assertTrue(results.isEmpty());
+		assertFalse(scheduler.getSkippedTasks().isEmpty());
+	}
+
+	@Test
+	public void testCheckpoint() throws Exception {
+		File checkpointDirectory = folder.newFolder();
+		Collection<? extends OWLEntity> entities = Sets.newHashSet(hasChild);
+
+		EnrichmentScheduler scheduler = createScheduler(checkpointDirectory);
+		Map<EnrichmentScheduler.Task, List<EvaluatedAxiom<OWLAxiom>>> results = scheduler.run(ks, entities);
+		assertFalse(results.isEmpty());
+		assertEquals(results.size(), nrOfCheckpoints(checkpointDirectory));
+
+		// the same run is resumed from the checkpoint, i.e. no task is executed
+		EnrichmentScheduler resumed = createScheduler(checkpointDirectory);
+		Map<EnrichmentScheduler.Task, List<EvaluatedAxiom<OWLAxiom>>> resumedResults = resumed.run(ks, entities);
+		assertEquals(results.keySet(), resumedResults.keySet());
+		for (EnrichmentScheduler.Task task : results.keySet()) {
+			// the config options are restored with their string value
+			Map<Field, Object> parameters = scheduler.getParameters(task);
+			Map<Field, Object> resumedParameters = resumed.getParameters(task);
+			assertEquals(parameters.keySet(), resumedParameters.keySet());
+			for (Field field : parameters.keySet()) {
+				assertEquals(String.valueOf(parameters.get(field)), resumedParameters.get(field));
+			}
+			assertEquals(results.get(task).size(), resumedResults.get(task).size());
+			for (int i = 0; i < results.get(task).size(); i++) {
+				assertEquals(results.get(task).get(i).getAxiom(), resumedResults.get(task).get(i).getAxiom());
+			}
+		}
+
+		// a run with another threshold doesn't reuse the results
+		EnrichmentScheduler other = createScheduler(checkpointDirectory);
+		other.setThreshold(0.5);
+		Map<EnrichmentScheduler.Task, List<EvaluatedAxiom<OWLAxiom>>> otherResults = other.run(ks, entities);
+		for (EnrichmentScheduler.Task task : otherResults.keySet()) {
+			assertFalse(other.getParameters(task).isEmpty());
+		}
+		assertEquals(results.size() + otherResults.size(), nrOfCheckpoints(checkpointDirectory));
+	}
+}
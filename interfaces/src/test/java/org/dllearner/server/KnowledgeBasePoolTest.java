@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import org.dllearner.configuration.IConfiguration;
+import org.dllearner.confparser.ConfParserConfiguration;
+import org.dllearner.reasoning.SPARQLReasoner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Tests the reuse and eviction of knowledge bases in the {@link KnowledgeBasePool}.
+ *
+ * @author Lorenz Buehmann
+ */
+public class KnowledgeBasePoolTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private KnowledgeBasePool pool;
+
+	@Before
+	public void setUp() throws Exception {
+		pool = new KnowledgeBasePool();
+		File ontology = new File("../examples/father.owl");
+		Files.copy(ontology.toPath(), new File(folder.getRoot(), "father1.owl").toPath(), StandardCopyOption.REPLACE_EXISTING);
+		Files.copy(ontology.toPath(), new File(folder.getRoot(), "father2.owl").toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private IConfiguration createConfiguration(String name, String content) throws Exception {
+		File confFile = new File(folder.getRoot(), name + ".conf");
+		Files.write(confFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return new ConfParserConfiguration(new FileSystemResource(confFile));
+	}
+
+	private IConfiguration createConfiguration(String ontologyFileName) throws Exception {
+		return createConfiguration(ontologyFileName,
+				"ks.type = \"OWL File\"\n" +
+				"ks.fileName = \"" + ontologyFileName + "\"\n" +
+				"reasoner.type = \"closed world reasoner\"\n" +
+				"reasoner.sources = { ks }\n");
+	}
+
+	private static boolean isActive(ApplicationContext context) {
+		return ((ConfigurableApplicationContext) context).isActive();
+	}
+
+	@Test
+	public void testReuse() throws Exception {
+		IConfiguration configuration = createConfiguration("father1.owl");
+
+		Object reasoner;
+		try (KnowledgeBasePool.Lease lease = pool.acquire(configuration)) {
+			reasoner = lease.getContext().getBean("reasoner");
+		}
+		try (KnowledgeBasePool.Lease lease = pool.acquire(createConfiguration("father1.owl"))) {
+			assertSame(reasoner, lease.getContext().getBean("reasoner"));
+		}
+		assertEquals(1, pool.size());
+	}
+
+	@Test
+	public void testSPARQLReasoner() throws Exception {
+		IConfiguration configuration = createConfiguration("father1-sparql",
+				"ks.type = \"OWL File\"\n" +
+				"ks.fileName = \"father1.owl\"\n" +
+				"reasoner.type = \"SPARQL Reasoner\"\n" +
+				"reasoner.sources = { ks }\n");
+
+		// the reasoner is switched to synchronized mode when the knowledge base is loaded
+		SPARQLReasoner reasoner;
+		try (KnowledgeBasePool.Lease lease = pool.acquire(configuration)) {
+			reasoner = (SPARQLReasoner) lease.getContext().getBean("reasoner");
+			assertFalse(reasoner.getOWLClasses().isEmpty());
+		}
+		try (KnowledgeBasePool.Lease lease = pool.acquire(configuration)) {
+			assertSame(reasoner, lease.getContext().getBean("reasoner"));
+		}
+	}
+
+	@Test
+	public void testEvictionOfLeastRecentlyUsed() throws Exception {
+		pool.setMaxSize(1);
+
+		ApplicationContext context1;
+		try (KnowledgeBasePool.Lease lease = pool.acquire(createConfiguration("father1.owl"))) {
+			context1 = lease.getContext();
+		}
+		ApplicationContext context2;
+		try (KnowledgeBasePool.Lease lease = pool.acquire(createConfiguration("father2.owl"))) {
+			context2 = lease.getContext();
+		}
+
+		assertNotSame(context1, context2);
+		assertFalse(isActive(context1));
+		assertTrue(isActive(context2));
+		assertEquals(1, pool.size());
+	}
+
+	@Test
+	public void testNoEvictionWhileInUse() throws Exception {
+		pool.setMaxSize(1);
+
+		try (KnowledgeBasePool.Lease lease1 = pool.acquire(createConfiguration("father1.owl"))) {
+			try (KnowledgeBasePool.Lease lease2 = pool.acquire(createConfiguration("father2.owl"))) {
+				assertTrue(isActive(lease1.getContext()));
+				assertTrue(isActive(lease2.getContext()));
+				assertEquals(2, pool.size());
+			}
+		}
+	}
+
+	@Test
+	public void testEvictionOfIdle() throws Exception {
+		pool.setMaxIdleTime(1, TimeUnit.MILLISECONDS);
+
+		ApplicationContext context1;
+		try (KnowledgeBasePool.Lease lease = pool.acquire(createConfiguration("father1.owl"))) {
+			context1 = lease.getContext();
+		}
+		Thread.sleep(50);
+		try (KnowledgeBasePool.Lease lease = pool.acquire(createConfiguration("father1.owl"))) {
+			assertNotSame(context1, lease.getContext());
+		}
+		assertFalse(isActive(context1));
+	}
+
+	@Test
+	public void testKeyOfRemoteEndpoints() throws Exception {
+		String key1 = KnowledgeBasePool.computeKey(createConfiguration("endpoint1",
+				"ks.type = \"sparql\"\n" +
+				"ks.url = \"http://endpoint1.org/sparql\"\n" +
+				"ks.defaultGraphURIs = { \"http://graph1.org\", \"http://graph2.org\" }\n"));
+		String key2 = KnowledgeBasePool.computeKey(createConfiguration("endpoint2",
+				"ks.type = \"sparql\"\n" +
+				"ks.url = \"http://endpoint2.org/sparql\"\n" +
+				"ks.defaultGraphURIs = { \"http://graph1.org\", \"http://graph2.org\" }\n"));
+		String key3 = KnowledgeBasePool.computeKey(createConfiguration("endpoint3",
+				"ks.type = \"sparql\"\n" +
+				"ks.url = \"http://endpoint1.org/sparql\"\n" +
+				"ks.defaultGraphURIs = { \"http://graph2.org\", \"http://graph1.org\" }\n"));
+		String key4 = KnowledgeBasePool.computeKey(createConfiguration("endpoint4",
+				"ks.type = \"sparql\"\n" +
+				"ks.url = \"http://endpoint1.org/sparql\"\n" +
+				"ks.defaultGraphURIs = { \"http://graph1.org\" }\n"));
+
+		assertNotEquals(key1, key2);
+		// the order of the values of a set does not matter
+		assertEquals(key1, key3);
+		assertNotEquals(key1, key4);
+	}
+}
@@ -0,0 +1,256 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.server;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.dllearner.core.AbstractCELA;
+import org.dllearner.core.EvaluatedDescription;
+import org.dllearner.core.Score;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the submission, rejection, cancellation and retention of jobs in the
+ * {@link LearningJobManager}.
+ *
+ * @author Lorenz Buehmann
+ */
+public class LearningJobManagerTest {
+
+	private static final long TIMEOUT_MILLIS = 10000;
+
+	/**
+	 * A learning algorithm which runs until it is released or stopped.
+	 */
+	private static class BlockingAlgorithm extends AbstractCELA {
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch released = new CountDownLatch(1);
+
+		BlockingAlgorithm(boolean blocking) {
+			if (!blocking) {
+				released.countDown();
+			}
+		}
+
+		@Override
+		public void init() {
+			initialized = true;
+		}
+
+		@Override
+		public void start() {
+			isRunning = true;
+			started.countDown();
+			try {
+				released.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			isRunning = false;
+		}
+
+		@Override
+		public void stop() {
+			super.stop();
+			released.countDown();
+		}
+
+		@Override
+		public EvaluatedDescription<? extends Score> getCurrentlyBestEvaluatedDescription() {
+			return bestEvaluatedDescriptions.getSet().isEmpty() ? null : super.getCurrentlyBestEvaluatedDescription();
+		}
+	}
+
+	/**
+	 * A learning algorithm which resets its stop flag at the beginning of the
+	 * search like {@link org.dllearner.algorithms.celoe.CELOE}, i.e. a stop
+	 * before the search is lost, and then runs until it is stopped.
+	 */
+	private static class ResettingAlgorithm extends BlockingAlgorithm {
+
+		ResettingAlgorithm() {
+			super(true);
+		}
+
+		@Override
+		public void start() {
+			started.countDown();
+			try {
+				released.await();
+				stop = false;
+				isRunning = true;
+				while (!stop) {
+					Thread.sleep(5);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			isRunning = false;
+		}
+	}
+
+	private LearningJobManager jobManager;
+
+	@After
+	public void tearDown() {
+		if (jobManager != null) {
+			jobManager.shutdown();
+		}
+	}
+
+	private static boolean hasState(String json, LearningJobManager.State state) {
+		return json.contains("\"state\":\"" + state.name().toLowerCase() + "\"");
+	}
+
+	private void awaitState(int jobID, LearningJobManager.State state) throws Exception {
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (!hasState(jobManager.getStatus(jobID), state)) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("job " + jobID + " did not reach state " + state + ": " + jobManager.getStatus(jobID));
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private boolean isKnown(int jobID) {
+		try {
+			jobManager.getStatus(jobID);
+			return true;
+		} catch (JobNotKnownException e) {
+			return false;
+		}
+	}
+
+	@Test
+	public void testSubmit() throws Exception {
+		jobManager = new LearningJobManager(1, 1, 10, 50);
+
+		BlockingAlgorithm la = new BlockingAlgorithm(true);
+		int jobID = jobManager.submit(la);
+		assertTrue(la.started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+		awaitState(jobID, LearningJobManager.State.RUNNING);
+		assertTrue(jobManager.getResult(jobID) == null);
+
+		la.released.countDown();
+		awaitState(jobID, LearningJobManager.State.FINISHED);
+		assertTrue(jobManager.getResult(jobID) != null);
+	}
+
+	@Test
+	public void testReject() throws Exception {
+		jobManager = new LearningJobManager(1, 1, 10, 50);
+
+		BlockingAlgorithm running = new BlockingAlgorithm(true);
+		jobManager.submit(running);
+		assertTrue(running.started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+		// the same algorithm must not be used by two jobs
+		try {
+			jobManager.submit(running);
+			fail("job with algorithm in use was accepted");
+		} catch (JobRejectedException e) {
+			// expected
+		}
+
+		BlockingAlgorithm queued = new BlockingAlgorithm(true);
+		int queuedID = jobManager.submit(queued);
+		awaitState(queuedID, LearningJobManager.State.QUEUED);
+
+		// all threads are busy and the queue is full
+		try {
+			jobManager.submit(new BlockingAlgorithm(true));
+			fail("job was accepted although the queue is full");
+		} catch (JobRejectedException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("1 running and 1 waiting jobs"));
+		}
+
+		// a rejected job is not known
+		assertFalse(isKnown(queuedID + 1));
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		jobManager = new LearningJobManager(1, 1, 10, 50);
+
+		BlockingAlgorithm running = new BlockingAlgorithm(true);
+		int runningID = jobManager.submit(running);
+		assertTrue(running.started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+		BlockingAlgorithm queued = new BlockingAlgorithm(true);
+		int queuedID = jobManager.submit(queued);
+
+		// a queued job is never started
+		assertTrue(jobManager.cancel(queuedID));
+		awaitState(queuedID, LearningJobManager.State.CANCELLED);
+
+		// a running job is stopped
+		assertTrue(jobManager.cancel(runningID));
+		awaitState(runningID, LearningJobManager.State.CANCELLED);
+		assertTrue(queued.started.getCount() == 1);
+
+		// a done job can't be cancelled again
+		assertFalse(jobManager.cancel(runningID));
+
+		try {
+			jobManager.cancel(runningID + 100);
+			fail("unknown job was cancelled");
+		} catch (JobNotKnownException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testCancelBeforeStart() throws Exception {
+		jobManager = new LearningJobManager(1, 1, 10, 50);
+
+		// the stop of the cancel is reset by the algorithm, the job has to be stopped again
+		ResettingAlgorithm la = new ResettingAlgorithm();
+		int jobID = jobManager.submit(la);
+		assertTrue(la.started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+		assertTrue(jobManager.cancel(jobID));
+		awaitState(jobID, LearningJobManager.State.CANCELLED);
+	}
+
+	@Test
+	public void testRetention() throws Exception {
+		jobManager = new LearningJobManager(1, 10, 2, 50);
+
+		int first = jobManager.submit(new BlockingAlgorithm(false));
+		awaitState(first, LearningJobManager.State.FINISHED);
+		int second = jobManager.submit(new BlockingAlgorithm(false));
+		awaitState(second, LearningJobManager.State.FINISHED);
+		assertTrue(isKnown(first));
+
+		// the oldest finished job is dropped
+		int third = jobManager.submit(new BlockingAlgorithm(false));
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (isKnown(first) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertFalse(isKnown(first));
+		assertTrue(isKnown(second));
+		awaitState(third, LearningJobManager.State.FINISHED);
+	}
+}